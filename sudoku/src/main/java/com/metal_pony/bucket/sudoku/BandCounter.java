@@ -0,0 +1,692 @@
+package com.metal_pony.bucket.sudoku;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts solutions exactly by splitting the grid into its three bands, for puzzles with far too many
+ * solutions to search, up to the empty grid.
+ *
+ * Bands only constrain one another through their columns, and only through which three digits each
+ * column holds in each band: the band's column profile. The solution count is the sum, over every way
+ * to split each column's digits between the bands, of the product of each band's number of fillings
+ * with that profile. A band with clues is enumerated once and its fillings tallied by profile.
+ * A band without clues is never enumerated. Its number of fillings for a profile depends only on the
+ * column each digit falls in within each stack, up to relabeling digits, reordering stacks and
+ * reordering columns within stacks. So does the number of ways to fill two such bands under a third.
+ * Both are memoized by that shape, of which there are only 22620, and far fewer up to symmetry.
+ *
+ * Cost is dominated by enumerating the bands with clues and by pairing their profiles. A full band over
+ * two empty ones, or the empty grid, takes seconds. Puzzles with a few clues in every band are usually
+ * faster to count by search. The grid is transposed first when its stacks make for cheaper bands.
+ */
+public class BandCounter {
+    static final int BAND_SIZE = 27;
+
+    /**
+     * Profiles are packed into longs: a 2-bit field for each stack and digit, holding the column
+     * within the stack (0-2) where the digit sits, at bit 2 * (stack * 9 + digit - 1).
+     * This is the low bit of every field.
+     */
+    static final long FIELD_LOW_BITS = 0x0015_5555_5555_5555L;
+    /** Every profile field set to 3. Subtracting two disjoint profiles from it gives the third.*/
+    static final long FIELD_THREES = FIELD_LOW_BITS * 3L;
+
+    /** Estimated number of fillings of a band with no clues (9! * 56 * 6^6).*/
+    static final double BAND_FILLINGS = 9.48109639680e11;
+
+    /** For each of the 1296 reorderings of stacks and their columns, where each digit shape goes.*/
+    private static final int[][] SHAPE_TRANSFORMS = new int[6 * 6 * 6 * 6][27];
+    static {
+        int[][] perms = GridCanonicalizer.PERMS3;
+        int[][] transforms = SHAPE_TRANSFORMS;
+        int n = 0;
+        for (int[] stackPerm : perms) {
+            for (int[] p0 : perms) {
+                for (int[] p1 : perms) {
+                    for (int[] p2 : perms) {
+                        int[][] colPerms = {p0, p1, p2};
+                        for (int shape = 0; shape < 27; shape++) {
+                            int[] cols = {shape / 9, (shape / 3) % 3, shape % 3};
+                            int[] moved = new int[3];
+                            for (int s = 0; s < 3; s++) {
+                                moved[stackPerm[s]] = colPerms[s][cols[s]];
+                            }
+                            transforms[n][shape] = moved[0] * 9 + moved[1] * 3 + moved[2];
+                        }
+                        n++;
+                    }
+                }
+            }
+        }
+    }
+
+    // Memoized by shape key, with a second map by canonical shape so that each class is computed once.
+    private static final Map<Long,Long> FILLINGS = new ConcurrentHashMap<>();
+    private static final Map<Long,Long> CANONICAL_FILLINGS = new ConcurrentHashMap<>();
+    private static final Map<Long,BigInteger> COMPLETIONS = new ConcurrentHashMap<>();
+    private static final Map<Long,BigInteger> CANONICAL_COMPLETIONS = new ConcurrentHashMap<>();
+
+    /** Puzzle digits, transposed if that decomposes better.*/
+    private final int[] board;
+
+    /**
+     * Creates a counter for the given puzzle. The puzzle is copied.
+     */
+    public BandCounter(Sudoku puzzle) {
+        int[] digits = puzzle.getBoard();
+        int[] transposed = transpose(digits);
+        this.board = (decompositionCost(transposed) < decompositionCost(digits)) ? transposed : digits;
+    }
+
+    /**
+     * Counts the solutions.
+     * @param numThreads Number of threads to enumerate and pair bands with.
+     * @return The exact number of solutions; 0 if the clues conflict.
+     * @throws IllegalArgumentException If numThreads is not positive.
+     */
+    public BigInteger count(int numThreads) {
+        if (numThreads < 1) throw new IllegalArgumentException("numThreads must be positive");
+        if (hasConflict(board)) return BigInteger.ZERO;
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            numThreads, numThreads,
+            1L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>()
+        );
+        try {
+            List<ProfileTally> clued = new ArrayList<>();
+            for (int band = 0; band < 3; band++) {
+                if (numClues(board, band) > 0) {
+                    ProfileTally tally = tallyBand(band, pool, numThreads);
+                    if (tally.size() == 0) return BigInteger.ZERO;
+                    clued.add(tally);
+                }
+            }
+            clued.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+            if (clued.isEmpty()) return countEmpty(pool, numThreads);
+            return countClued(clued, pool, numThreads);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Sums over every top band profile, grouped by shape: how many profiles, times fillings, times completions.*/
+    private BigInteger countEmpty(ThreadPoolExecutor pool, int numThreads) {
+        List<long[]> shapes = new ArrayList<>();
+        enumerateShapes(0, new int[27], new int[9], 0L, shapes);
+        List<Callable<BigInteger>> tasks = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            final int offset = t;
+            tasks.add(() -> {
+                BigInteger sum = BigInteger.ZERO;
+                for (int i = offset; i < shapes.size(); i += numThreads) {
+                    long shapeKey = shapes.get(i)[0];
+                    long numProfiles = shapes.get(i)[1];
+                    long profile = profileForShape(shapeKey);
+                    sum = sum.add(
+                        BigInteger.valueOf(numProfiles * fillings(profile)).multiply(completions(profile))
+                    );
+                }
+                return sum;
+            });
+        }
+        return sumAll(pool, tasks);
+    }
+
+    /** Sums over the profiles of the band with the fewest, pairing them with the other bands'.*/
+    private BigInteger countClued(List<ProfileTally> clued, ThreadPoolExecutor pool, int numThreads) {
+        ProfileTally outer = clued.get(0);
+        Map<Long,long[]> second = (clued.size() > 1) ? groupByFirstStacks(clued.get(1)) : null;
+        ProfileTally third = (clued.size() > 2) ? clued.get(2) : null;
+
+        List<Callable<BigInteger>> tasks = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            final int offset = t;
+            tasks.add(() -> {
+                BigInteger sum = BigInteger.ZERO;
+                for (int i = offset; i < outer.keys.length; i += numThreads) {
+                    if (outer.counts[i] == 0L) continue;
+                    long profile = outer.keys[i];
+                    BigInteger rest = (second == null) ? completions(profile) : pair(profile, second, third);
+                    sum = sum.add(BigInteger.valueOf(outer.counts[i]).multiply(rest));
+                }
+                return sum;
+            });
+        }
+        return sumAll(pool, tasks);
+    }
+
+    /**
+     * Counts fillings of the other two bands under a profile. Only the second band's profiles whose first
+     * two stacks fit around the given profile are looked at, by trying each split of those two stacks.
+     * @param second Second band's tally, grouped by {@link #groupByFirstStacks(ProfileTally)}.
+     * @param third Tally for the third band; or null if it has no clues.
+     */
+    private static BigInteger pair(long profile, Map<Long,long[]> second, ProfileTally third) {
+        long[][] splits = splits(profile);
+        Sum sum = new Sum();
+        for (long a : splits[0]) {
+            for (long b : splits[1]) {
+                long[] group = second.get(a | b);
+                if (group == null) continue;
+                for (int i = 0; i < group.length; i += 2) {
+                    long other = a | b | group[i];
+                    if (!areDisjoint(profile, other)) continue;
+                    long rest = FIELD_THREES - profile - other;
+                    long numRest = (third == null) ? fillings(rest) : third.get(rest);
+                    sum.add(group[i + 1] * numRest);
+                }
+            }
+        }
+        return sum.get();
+    }
+
+    /**
+     * Groups a tally by the fields of its first two stacks.
+     * @return Map of those fields to the { third stack's fields, count } pairs that share them, flattened.
+     */
+    static Map<Long,long[]> groupByFirstStacks(ProfileTally tally) {
+        long firstStacks = (1L << (4 * Sudoku.DIGITS)) - 1L;
+        Map<Long,Integer> sizes = new HashMap<>();
+        for (int i = 0; i < tally.keys.length; i++) {
+            if (tally.counts[i] > 0L) sizes.merge(tally.keys[i] & firstStacks, 2, Integer::sum);
+        }
+        Map<Long,long[]> groups = new HashMap<>();
+        Map<Long,Integer> filled = new HashMap<>();
+        for (int i = 0; i < tally.keys.length; i++) {
+            if (tally.counts[i] == 0L) continue;
+            long key = tally.keys[i] & firstStacks;
+            long[] group = groups.computeIfAbsent(key, k -> new long[sizes.get(k)]);
+            int n = filled.getOrDefault(key, 0);
+            group[n] = tally.keys[i] & ~firstStacks;
+            group[n + 1] = tally.counts[i];
+            filled.put(key, n + 2);
+        }
+        return groups;
+    }
+
+    /**
+     * Gets the number of ways to fill two bands without clues under a band with the given profile.
+     */
+    static BigInteger completions(long profile) {
+        long shapeKey = shapeKey(profile);
+        BigInteger count = COMPLETIONS.get(shapeKey);
+        if (count == null) {
+            count = CANONICAL_COMPLETIONS.computeIfAbsent(canonicalShape(shapeKey), canonical -> {
+                long representative = profileForShape(canonical);
+                long[][] splits = splits(representative);
+                Sum sum = new Sum();
+                for (long a : splits[0]) {
+                    for (long b : splits[1]) {
+                        for (long c : splits[2]) {
+                            long other = a | b | c;
+                            sum.add(fillings(other) * fillings(FIELD_THREES - representative - other));
+                        }
+                    }
+                }
+                return sum.get();
+            });
+            COMPLETIONS.put(shapeKey, count);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of fillings of a band without clues that have the given profile.
+     */
+    static long fillings(long profile) {
+        long shapeKey = shapeKey(profile);
+        Long count = FILLINGS.get(shapeKey);
+        if (count == null) {
+            count = CANONICAL_FILLINGS.computeIfAbsent(canonicalShape(shapeKey), BandCounter::countFillings);
+            FILLINGS.put(shapeKey, count);
+        }
+        return count;
+    }
+
+    /**
+     * Counts the fillings for a shape. Each digit takes one row in each stack, a different one each time;
+     * a filling is a choice of those rows such that no column holds two digits in the same row.
+     */
+    private static long countFillings(long shapeKey) {
+        int[] cols = new int[Sudoku.DIGITS * 3];
+        int d = 0;
+        for (int shape = 0; shape < 27; shape++) {
+            for (int n = (int) (shapeKey >>> (2 * shape)) & 3; n > 0; n--) {
+                cols[d * 3] = shape / 9;
+                cols[d * 3 + 1] = 3 + (shape / 3) % 3;
+                cols[d * 3 + 2] = 6 + shape % 3;
+                d++;
+            }
+        }
+        // Rows can be relabeled, so fix the first digit's rows and count the rest 6 times.
+        int[] usedRows = new int[Sudoku.DIGITS];
+        for (int s = 0; s < 3; s++) usedRows[cols[s]] |= 1 << s;
+        return 6L * countFillings(cols, 1, usedRows);
+    }
+
+    private static long countFillings(int[] cols, int d, int[] usedRows) {
+        if (d == Sudoku.DIGITS) return 1L;
+        int c0 = cols[d * 3], c1 = cols[d * 3 + 1], c2 = cols[d * 3 + 2];
+        long count = 0L;
+        for (int[] rows : GridCanonicalizer.PERMS3) {
+            int r0 = 1 << rows[0], r1 = 1 << rows[1], r2 = 1 << rows[2];
+            if ((usedRows[c0] & r0) != 0 || (usedRows[c1] & r1) != 0 || (usedRows[c2] & r2) != 0) continue;
+            usedRows[c0] |= r0;
+            usedRows[c1] |= r1;
+            usedRows[c2] |= r2;
+            count += countFillings(cols, d + 1, usedRows);
+            usedRows[c0] ^= r0;
+            usedRows[c1] ^= r1;
+            usedRows[c2] ^= r2;
+        }
+        return count;
+    }
+
+    /**
+     * For each stack, the profile fields of every way to choose the next band's columns for each digit,
+     * from the two columns the given profile leaves open, with three digits to a column.
+     */
+    static long[][] splits(long profile) {
+        long[][] splits = new long[3][];
+        for (int s = 0; s < 3; s++) {
+            long[] stackSplits = new long[56];
+            int n = 0;
+            for (int choice = 0; choice < (1 << Sudoku.DIGITS); choice++) {
+                long fields = 0L;
+                int[] perCol = new int[3];
+                for (int d = 0; d < Sudoku.DIGITS; d++) {
+                    int taken = (int) (profile >>> (2 * (s * Sudoku.DIGITS + d))) & 3;
+                    // The two open columns, lower first
+                    int col = ((choice >> d) & 1) == 0 ? (taken == 0 ? 1 : 0) : (taken == 2 ? 1 : 2);
+                    perCol[col]++;
+                    fields |= (long) col << (2 * (s * Sudoku.DIGITS + d));
+                }
+                if (perCol[0] == 3 && perCol[1] == 3) stackSplits[n++] = fields;
+            }
+            splits[s] = stackSplits;
+        }
+        return splits;
+    }
+
+    /** Whether no digit sits in the same column of the same stack in both profiles.*/
+    static boolean areDisjoint(long a, long b) {
+        long x = a ^ b;
+        return ((x | (x >>> 1)) & FIELD_LOW_BITS) == FIELD_LOW_BITS;
+    }
+
+    /**
+     * Gets the shape of a profile: how many digits fall in each combination of columns, one per stack,
+     * packed as 2 bits per combination (at most 3 digits share one, as columns hold 3).
+     */
+    static long shapeKey(long profile) {
+        long key = 0L;
+        for (int d = 0; d < Sudoku.DIGITS; d++) {
+            int c0 = (int) (profile >>> (2 * d)) & 3;
+            int c1 = (int) (profile >>> (2 * (Sudoku.DIGITS + d))) & 3;
+            int c2 = (int) (profile >>> (2 * (2 * Sudoku.DIGITS + d))) & 3;
+            key += 1L << (2 * (c0 * 9 + c1 * 3 + c2));
+        }
+        return key;
+    }
+
+    /** Gets the smallest shape key reachable by reordering stacks and columns within stacks.*/
+    static long canonicalShape(long shapeKey) {
+        int[] shapes = new int[Sudoku.DIGITS];
+        int[] counts = new int[Sudoku.DIGITS];
+        int n = 0;
+        for (int shape = 0; shape < 27; shape++) {
+            int count = (int) (shapeKey >>> (2 * shape)) & 3;
+            if (count > 0) {
+                shapes[n] = shape;
+                counts[n++] = count;
+            }
+        }
+        long best = shapeKey;
+        for (int[] transform : SHAPE_TRANSFORMS) {
+            long key = 0L;
+            for (int i = 0; i < n; i++) {
+                key += (long) counts[i] << (2 * transform[shapes[i]]);
+            }
+            if (key < best) best = key;
+        }
+        return best;
+    }
+
+    /** Gets a profile with the given shape, giving digits their combinations in order.*/
+    static long profileForShape(long shapeKey) {
+        long profile = 0L;
+        int d = 0;
+        for (int shape = 0; shape < 27; shape++) {
+            for (int n = (int) (shapeKey >>> (2 * shape)) & 3; n > 0; n--) {
+                profile |= (long) (shape / 9) << (2 * d);
+                profile |= (long) ((shape / 3) % 3) << (2 * (Sudoku.DIGITS + d));
+                profile |= (long) (shape % 3) << (2 * (2 * Sudoku.DIGITS + d));
+                d++;
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * Finds every valid shape, with the number of profiles that have it (9! over the product of the
+     * factorials of its counts, for the ways to hand out digits).
+     * @param colCounts Digits so far in each column, by stack * 3 + column.
+     */
+    private static void enumerateShapes(int shape, int[] counts, int[] colCounts, long key, List<long[]> shapes) {
+        if (shape == 27) {
+            for (int colCount : colCounts) {
+                if (colCount != 3) return;
+            }
+            long numProfiles = 362880L;
+            for (int count : counts) {
+                numProfiles /= (count == 3) ? 6L : (count == 2) ? 2L : 1L;
+            }
+            shapes.add(new long[] { key, numProfiles });
+            return;
+        }
+        int c0 = shape / 9, c1 = 3 + (shape / 3) % 3, c2 = 6 + shape % 3;
+        for (int count = 0; count <= 3; count++) {
+            if (colCounts[c0] + count > 3 || colCounts[c1] + count > 3 || colCounts[c2] + count > 3) break;
+            counts[shape] = count;
+            colCounts[c0] += count;
+            colCounts[c1] += count;
+            colCounts[c2] += count;
+            enumerateShapes(shape + 1, counts, colCounts, key + ((long) count << (2 * shape)), shapes);
+            colCounts[c0] -= count;
+            colCounts[c1] -= count;
+            colCounts[c2] -= count;
+        }
+        counts[shape] = 0;
+    }
+
+    /** A band filling in progress.*/
+    private static class Partial {
+        final int pos;
+        final long profile;
+        final int[] rowUsed;
+        final int[] colUsed;
+        final int[] boxUsed;
+
+        Partial(int pos, long profile, int[] rowUsed, int[] colUsed, int[] boxUsed) {
+            this.pos = pos;
+            this.profile = profile;
+            this.rowUsed = rowUsed;
+            this.colUsed = colUsed;
+            this.boxUsed = boxUsed;
+        }
+    }
+
+    /**
+     * Enumerates the fillings of a band consistent with every clue, tallied by profile.
+     * The band is filled part way to give each thread several starting points.
+     */
+    private ProfileTally tallyBand(int band, ThreadPoolExecutor pool, int numThreads) {
+        int offset = band * BAND_SIZE;
+        int[] rowUsed = new int[3];
+        int[] colUsed = new int[Sudoku.DIGITS];
+        int[] boxUsed = new int[3];
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            int digit = board[ci];
+            if (digit == 0) continue;
+            colUsed[ci % 9] |= Sudoku.ENCODER[digit];
+            if (ci >= offset && ci < offset + BAND_SIZE) {
+                rowUsed[(ci - offset) / 9] |= Sudoku.ENCODER[digit];
+                boxUsed[(ci % 9) / 3] |= Sudoku.ENCODER[digit];
+            }
+        }
+
+        List<Partial> frontier = new ArrayList<>();
+        frontier.add(new Partial(0, 0L, rowUsed, colUsed, boxUsed));
+        while (frontier.size() < numThreads * 16 && frontier.get(0).pos < BAND_SIZE) {
+            List<Partial> next = new ArrayList<>();
+            for (Partial partial : frontier) {
+                int pos = partial.pos;
+                int c = pos % 9;
+                int clue = board[offset + pos];
+                int free = (clue > 0) ? Sudoku.ENCODER[clue] : candidates(partial, pos);
+                for (int bits = free; bits != 0; bits &= bits - 1) {
+                    int encoded = bits & -bits;
+                    int[] rows = partial.rowUsed.clone();
+                    int[] cols = partial.colUsed.clone();
+                    int[] boxes = partial.boxUsed.clone();
+                    rows[pos / 9] |= encoded;
+                    cols[c] |= encoded;
+                    boxes[c / 3] |= encoded;
+                    next.add(new Partial(pos + 1, withDigit(partial.profile, c, encoded), rows, cols, boxes));
+                }
+            }
+            if (next.isEmpty()) return new ProfileTally();
+            frontier = next;
+        }
+
+        final List<Partial> starts = frontier;
+        List<Future<ProfileTally>> futures = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            final int first = t;
+            futures.add(pool.submit(() -> {
+                ProfileTally tally = new ProfileTally();
+                for (int i = first; i < starts.size(); i += numThreads) {
+                    Partial start = starts.get(i);
+                    fill(offset, start.pos, start.profile, start.rowUsed, start.colUsed, start.boxUsed, tally);
+                }
+                return tally;
+            }));
+        }
+
+        ProfileTally tally = new ProfileTally();
+        for (Future<ProfileTally> future : futures) {
+            ProfileTally part = getResult(future);
+            for (int i = 0; i < part.keys.length; i++) {
+                if (part.counts[i] > 0L) tally.add(part.keys[i], part.counts[i]);
+            }
+        }
+        return tally;
+    }
+
+    private void fill(
+        int offset, int pos, long profile,
+        int[] rowUsed, int[] colUsed, int[] boxUsed,
+        ProfileTally tally
+    ) {
+        if (pos == BAND_SIZE) {
+            tally.add(profile, 1L);
+            return;
+        }
+        int clue = board[offset + pos];
+        if (clue > 0) {
+            fill(offset, pos + 1, withDigit(profile, pos % 9, Sudoku.ENCODER[clue]), rowUsed, colUsed, boxUsed, tally);
+            return;
+        }
+        int r = pos / 9, c = pos % 9, b = c / 3;
+        for (int bits = ~(rowUsed[r] | colUsed[c] | boxUsed[b]) & 0x1ff; bits != 0; bits &= bits - 1) {
+            int encoded = bits & -bits;
+            rowUsed[r] |= encoded;
+            colUsed[c] |= encoded;
+            boxUsed[b] |= encoded;
+            fill(offset, pos + 1, withDigit(profile, c, encoded), rowUsed, colUsed, boxUsed, tally);
+            rowUsed[r] ^= encoded;
+            colUsed[c] ^= encoded;
+            boxUsed[b] ^= encoded;
+        }
+    }
+
+    private static int candidates(Partial partial, int pos) {
+        int c = pos % 9;
+        return ~(partial.rowUsed[pos / 9] | partial.colUsed[c] | partial.boxUsed[c / 3]) & 0x1ff;
+    }
+
+    /** Records that the encoded digit sits in the given column.*/
+    private static long withDigit(long profile, int col, int encoded) {
+        int digitIndex = Integer.numberOfTrailingZeros(encoded);
+        return profile | ((long) (col % 3) << (2 * ((col / 3) * Sudoku.DIGITS + digitIndex)));
+    }
+
+    private static BigInteger sumAll(ThreadPoolExecutor pool, List<Callable<BigInteger>> tasks) {
+        List<Future<BigInteger>> futures = new ArrayList<>();
+        for (Callable<BigInteger> task : tasks) {
+            futures.add(pool.submit(task));
+        }
+        BigInteger sum = BigInteger.ZERO;
+        for (Future<BigInteger> future : futures) {
+            sum = sum.add(getResult(future));
+        }
+        return sum;
+    }
+
+    private static <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while counting", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Counting failed", e.getCause());
+        }
+    }
+
+    /**
+     * Number of band fillings per profile, in an open-addressed table; a band can have millions of fillings,
+     * each tallied as it is found. Slots with a count of 0 are empty.
+     */
+    static class ProfileTally {
+        long[] keys = new long[1 << 10];
+        long[] counts = new long[1 << 10];
+        private int size = 0;
+
+        int size() {
+            return size;
+        }
+
+        long get(long profile) {
+            int mask = keys.length - 1;
+            for (int i = slot(profile, mask); counts[i] > 0L; i = (i + 1) & mask) {
+                if (keys[i] == profile) return counts[i];
+            }
+            return 0L;
+        }
+
+        void add(long profile, long count) {
+            int mask = keys.length - 1;
+            int i = slot(profile, mask);
+            while (counts[i] > 0L) {
+                if (keys[i] == profile) {
+                    counts[i] += count;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = profile;
+            counts[i] = count;
+            if (++size * 2 > keys.length) grow();
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldCounts = counts;
+            keys = new long[oldKeys.length * 2];
+            counts = new long[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldCounts[i] > 0L) add(oldKeys[i], oldCounts[i]);
+            }
+        }
+
+        private static int slot(long profile, int mask) {
+            long h = profile * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 32) & mask;
+        }
+    }
+
+    /** Accumulates long terms into a BigInteger, only touching the BigInteger when the long would overflow.*/
+    private static class Sum {
+        private BigInteger big = BigInteger.ZERO;
+        private long small = 0L;
+
+        void add(long term) {
+            if (small > Long.MAX_VALUE - term) {
+                big = big.add(BigInteger.valueOf(small));
+                small = 0L;
+            }
+            small += term;
+        }
+
+        BigInteger get() {
+            return big.add(BigInteger.valueOf(small));
+        }
+    }
+
+    static int numClues(int[] digits, int band) {
+        int n = 0;
+        for (int ci = band * BAND_SIZE; ci < (band + 1) * BAND_SIZE; ci++) {
+            if (digits[ci] > 0) n++;
+        }
+        return n;
+    }
+
+    /**
+     * Roughly how much work counting takes with this orientation: enumerating the bands with clues,
+     * then pairing the profiles of the two smallest, each profile of the first against a 900th of
+     * the second's (the share whose first two stacks fit) after 56 * 56 lookups.
+     */
+    static double decompositionCost(int[] digits) {
+        List<Double> sizes = new ArrayList<>();
+        for (int band = 0; band < 3; band++) {
+            if (numClues(digits, band) > 0) sizes.add(estimateFillings(digits, band));
+        }
+        sizes.sort(null);
+        double cost = 0.0;
+        for (double size : sizes) cost += size;
+        if (sizes.size() > 1) {
+            cost += sizes.get(0) * (56.0 * 56.0 + sizes.get(1) / 900.0);
+        }
+        return cost;
+    }
+
+    /**
+     * Estimates how many fillings a band has. Clues cut the count geometrically, 27 of them to 1;
+     * each empty cell is further cut by the share of digits its column's clues in other bands leave it.
+     */
+    static double estimateFillings(int[] digits, int band) {
+        double estimate = Math.pow(BAND_FILLINGS, (BAND_SIZE - numClues(digits, band)) / (double) BAND_SIZE);
+        for (int ci = band * BAND_SIZE; ci < (band + 1) * BAND_SIZE; ci++) {
+            if (digits[ci] > 0) continue;
+            int others = 0;
+            for (int r = 0; r < Sudoku.DIGITS; r++) {
+                if (r / 3 != band && digits[r * 9 + ci % 9] > 0) others++;
+            }
+            estimate *= (Sudoku.DIGITS - others) / (double) Sudoku.DIGITS;
+        }
+        return Math.max(1.0, estimate);
+    }
+
+    static int[] transpose(int[] digits) {
+        int[] transposed = new int[Sudoku.SPACES];
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            transposed[(ci % 9) * 9 + ci / 9] = digits[ci];
+        }
+        return transposed;
+    }
+
+    private static boolean hasConflict(int[] digits) {
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            if (digits[ci] == 0) continue;
+            for (int ni : Sudoku.CELL_NEIGHBORS[ci]) {
+                if (digits[ni] == digits[ci]) return true;
+            }
+        }
+        return false;
+    }
+}
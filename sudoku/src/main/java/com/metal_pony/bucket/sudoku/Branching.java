@@ -0,0 +1,201 @@
+package com.metal_pony.bucket.sudoku;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Built-in branching strategies.
+ *
+ * Which is fastest depends on the work: finding a first solution rewards lucky orderings, while counting
+ * or proving uniqueness visits the whole tree, where smaller branches pay off. See the benchBranching
+ * command to compare them on the bundled puzzles.
+ */
+public enum Branching implements BranchingStrategy {
+    /**
+     * The cell with the fewest candidates, ties broken randomly; its candidates in random order.
+     * The default.
+     */
+    MRV {
+        @Override
+        public int branch(int[] digits, int[] candidates, int[] alternatives) {
+            int ci = fewestCandidatesCell(digits, candidates, true);
+            return cellBranch(ci, candidates[ci], alternatives, true);
+        }
+    },
+
+    /**
+     * Like {@link #MRV}, but also considers each digit's places in each row, column, and region,
+     * and branches on the places instead when there are fewer of them than the best cell's candidates.
+     */
+    FEWEST_PLACES {
+        @Override
+        public int branch(int[] digits, int[] candidates, int[] alternatives) {
+            int ci = fewestCandidatesCell(digits, candidates, true);
+            int fewest = Sudoku.BIT_COUNT_MAP[candidates[ci]];
+            if (fewest <= 1) return cellBranch(ci, candidates[ci], alternatives, true);
+
+            int[] places = new int[Sudoku.DIGITS + 1];
+            int[] bestUnit = null;
+            int bestDigit = 0;
+            for (int[][] units : UNITS) {
+                for (int[] unit : units) {
+                    int placed = 0;
+                    for (int d = 1; d <= Sudoku.DIGITS; d++) places[d] = 0;
+                    for (int ui : unit) {
+                        if (digits[ui] > 0) {
+                            placed |= Sudoku.ENCODER[digits[ui]];
+                        } else {
+                            for (int d : Sudoku.CANDIDATES_ARR[candidates[ui]]) places[d]++;
+                        }
+                    }
+                    for (int d = 1; d <= Sudoku.DIGITS; d++) {
+                        if ((placed & Sudoku.ENCODER[d]) != 0) continue;
+                        // A digit with nowhere to go in a unit: dead end
+                        if (places[d] == 0) return 0;
+                        if (places[d] < fewest) {
+                            fewest = places[d];
+                            bestUnit = unit;
+                            bestDigit = d;
+                        }
+                    }
+                }
+            }
+            if (bestUnit == null) return cellBranch(ci, candidates[ci], alternatives, true);
+
+            int n = 0;
+            for (int ui : bestUnit) {
+                if (digits[ui] == 0 && (candidates[ui] & Sudoku.ENCODER[bestDigit]) != 0) {
+                    alternatives[n++] = BranchingStrategy.placement(ui, bestDigit);
+                }
+            }
+            shuffle(alternatives, n);
+            return n;
+        }
+    },
+
+    /**
+     * The cell with the fewest candidates, ties broken by the most empty neighbors, so the choice
+     * constrains the most other cells, then randomly. Candidates in random order.
+     */
+    DEGREE_MRV {
+        @Override
+        public int branch(int[] digits, int[] candidates, int[] alternatives) {
+            ThreadLocalRandom rand = ThreadLocalRandom.current();
+            int best = -1;
+            int bestScore = Integer.MAX_VALUE;
+            int ties = 0;
+            for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+                if (digits[ci] > 0) continue;
+                int numCandidates = Sudoku.BIT_COUNT_MAP[candidates[ci]];
+                // At most 20 neighbors, so the candidate count dominates
+                if (numCandidates * 32 - 20 > bestScore) continue;
+                int emptyNeighbors = 0;
+                for (int ni : Sudoku.CELL_NEIGHBORS[ci]) {
+                    if (digits[ni] == 0) emptyNeighbors++;
+                }
+                int score = numCandidates * 32 - emptyNeighbors;
+                if (score < bestScore) {
+                    best = ci;
+                    bestScore = score;
+                    ties = 1;
+                } else if (score == bestScore && rand.nextInt(++ties) == 0) {
+                    best = ci;
+                }
+            }
+            return cellBranch(best, candidates[best], alternatives, true);
+        }
+    },
+
+    /**
+     * The first cell with the fewest candidates; its candidates in ascending order.
+     * Every search of a board takes the same path.
+     */
+    DETERMINISTIC {
+        @Override
+        public int branch(int[] digits, int[] candidates, int[] alternatives) {
+            int ci = fewestCandidatesCell(digits, candidates, false);
+            return cellBranch(ci, candidates[ci], alternatives, false);
+        }
+    },
+
+    /**
+     * Any empty cell, picked uniformly at random; its candidates in random order.
+     * A baseline with no heuristic at all.
+     */
+    RANDOM {
+        @Override
+        public int branch(int[] digits, int[] candidates, int[] alternatives) {
+            int numEmpty = 0;
+            for (int digit : digits) {
+                if (digit == 0) numEmpty++;
+            }
+            int pick = ThreadLocalRandom.current().nextInt(numEmpty);
+            for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+                if (digits[ci] == 0 && pick-- == 0) {
+                    return cellBranch(ci, candidates[ci], alternatives, true);
+                }
+            }
+            return 0;
+        }
+    };
+
+    private static final int[][][] UNITS = { Sudoku.ROW_INDICES, Sudoku.COL_INDICES, Sudoku.REGION_INDICES };
+
+    /**
+     * Gets a strategy by name, ignoring case.
+     * @throws IllegalArgumentException If there is no strategy with the name.
+     */
+    public static Branching forName(String name) {
+        for (Branching strategy : values()) {
+            if (strategy.name().equalsIgnoreCase(name)) return strategy;
+        }
+        throw new IllegalArgumentException("Unknown branching strategy: " + name);
+    }
+
+    /**
+     * Finds the empty cell with the fewest candidates.
+     * @param randomTies Whether to pick randomly among ties, instead of the first.
+     */
+    static int fewestCandidatesCell(int[] digits, int[] candidates, boolean randomTies) {
+        int min = Sudoku.DIGITS + 1;
+        int first = -1;
+        int ties = 0;
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            if (digits[ci] > 0) continue;
+            int numCandidates = Sudoku.BIT_COUNT_MAP[candidates[ci]];
+            if (numCandidates < min) {
+                min = numCandidates;
+                first = ci;
+                ties = 1;
+            } else if (numCandidates == min) {
+                ties++;
+            }
+        }
+        if (!randomTies || ties <= 1) return first;
+
+        int pick = ThreadLocalRandom.current().nextInt(ties);
+        for (int ci = first; ci < Sudoku.SPACES; ci++) {
+            if (digits[ci] == 0 && Sudoku.BIT_COUNT_MAP[candidates[ci]] == min && pick-- == 0) return ci;
+        }
+        return first;
+    }
+
+    /** Writes a cell's candidates as placements.*/
+    static int cellBranch(int ci, int cellCandidates, int[] alternatives, boolean shuffled) {
+        int[] cellDigits = Sudoku.CANDIDATES_ARR[cellCandidates];
+        for (int i = 0; i < cellDigits.length; i++) {
+            alternatives[i] = BranchingStrategy.placement(ci, cellDigits[i]);
+        }
+        if (shuffled) shuffle(alternatives, cellDigits.length);
+        return cellDigits.length;
+    }
+
+    private static void shuffle(int[] arr, int n) {
+        ThreadLocalRandom rand = ThreadLocalRandom.current();
+        for (int i = n - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int tmp = arr[i];
+            arr[i] = arr[j];
+            arr[j] = tmp;
+        }
+    }
+}
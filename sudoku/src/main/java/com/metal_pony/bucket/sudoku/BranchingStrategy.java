@@ -0,0 +1,38 @@
+package com.metal_pony.bucket.sudoku;
+
+/**
+ * Decides where a search branches once the board can't be reduced further.
+ *
+ * A branch is a list of placements, each a cell and a digit, that exclude one another and between them
+ * cover every solution of the board: the candidates of one cell, or the places for one digit in a row,
+ * column, or region. The search tries them in the order given. Any such branch keeps counts exact,
+ * so strategies only change how fast a search gets there.
+ *
+ * See {@link Branching} for the built-in strategies.
+ */
+public interface BranchingStrategy {
+    /**
+     * Packs a placement into an int, as stored in the alternatives array.
+     */
+    static int placement(int ci, int digit) {
+        return (ci << 4) | digit;
+    }
+
+    static int placementCell(int placement) {
+        return placement >> 4;
+    }
+
+    static int placementDigit(int placement) {
+        return placement & 0xf;
+    }
+
+    /**
+     * Chooses the next branch for a valid board with at least one empty cell.
+     * @param digits Digit per cell, 0 for empty. Not to be modified.
+     * @param candidates Candidates mask per cell, for empty cells. Not to be modified.
+     * @param alternatives Receives the branch's placements, packed by {@link #placement(int, int)},
+     * in the order to try them. Has room for 9.
+     * @return Number of placements written; 0 if the board can't be solved.
+     */
+    int branch(int[] digits, int[] candidates, int[] alternatives);
+}
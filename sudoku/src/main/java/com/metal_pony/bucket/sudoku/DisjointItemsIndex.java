@@ -0,0 +1,211 @@
+package com.metal_pony.bucket.sudoku;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import com.metal_pony.bucket.sudoku.util.SudokuMask;
+
+/**
+ * Tracks which unavoidable sets a partial puzzle mask has not hit yet, and gives a lower bound on
+ * the number of clues still needed to hit them all.
+ *
+ * Unhit items that share no cells each need their own clue, so the size of any set of pairwise
+ * disjoint unhit items is a lower bound. One is packed greedily, smallest items first, checking each
+ * item against the cells used so far with two words.
+ *
+ * Item data is shared between copies from {@link #newState()}; the hit counts are not, so each search
+ * thread keeps its own state and updates it as cells are chosen and unchosen.
+ */
+public final class DisjointItemsIndex {
+    private final SudokuMask[] items;
+    private final long[] highs;
+    private final long[] lows;
+    private final int[][] cells;
+    /** Ids of the items that include each cell.*/
+    private final int[][] itemsByCell;
+
+    /** Number of chosen cells in each item.*/
+    private final int[] hits;
+    /** Bit set of unhit item ids.*/
+    private final long[] unhit;
+    private int numUnhit;
+
+    /**
+     * Creates an index of the given items with no cells chosen.
+     * @param itemCollection Unavoidable sets.
+     */
+    public DisjointItemsIndex(Collection<SudokuMask> itemCollection) {
+        items = itemCollection.toArray(new SudokuMask[itemCollection.size()]);
+        Arrays.sort(items, (a, b) -> (a.bitCount() != b.bitCount()) ? a.bitCount() - b.bitCount() : a.compareTo(b));
+        highs = new long[items.length];
+        lows = new long[items.length];
+        cells = new int[items.length][];
+
+        int[] cellCounts = new int[Sudoku.SPACES];
+        for (int id = 0; id < items.length; id++) {
+            highs[id] = items[id].highBits();
+            lows[id] = items[id].lowBits();
+            cells[id] = items[id].toIndices();
+            for (int ci : cells[id]) cellCounts[ci]++;
+        }
+        itemsByCell = new int[Sudoku.SPACES][];
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            itemsByCell[ci] = new int[cellCounts[ci]];
+            cellCounts[ci] = 0;
+        }
+        for (int id = 0; id < items.length; id++) {
+            for (int ci : cells[id]) {
+                itemsByCell[ci][cellCounts[ci]++] = id;
+            }
+        }
+
+        hits = new int[items.length];
+        unhit = new long[(items.length + 63) / 64];
+        reset();
+    }
+
+    private DisjointItemsIndex(DisjointItemsIndex other) {
+        items = other.items;
+        highs = other.highs;
+        lows = other.lows;
+        cells = other.cells;
+        itemsByCell = other.itemsByCell;
+        hits = new int[items.length];
+        unhit = new long[other.unhit.length];
+        reset();
+    }
+
+    /**
+     * Creates an index sharing this one's items, with no cells chosen.
+     */
+    public DisjointItemsIndex newState() {
+        return new DisjointItemsIndex(this);
+    }
+
+    /**
+     * Creates an index with this one's items plus the given one, with no cells chosen.
+     */
+    public DisjointItemsIndex with(SudokuMask item) {
+        List<SudokuMask> itemList = new ArrayList<>(Arrays.asList(items));
+        itemList.add(item);
+        return new DisjointItemsIndex(itemList);
+    }
+
+    /**
+     * Unchooses all cells.
+     */
+    public void reset() {
+        Arrays.fill(hits, 0);
+        Arrays.fill(unhit, -1L);
+        if (items.length % 64 != 0) {
+            unhit[unhit.length - 1] = (1L << (items.length % 64)) - 1L;
+        }
+        numUnhit = items.length;
+    }
+
+    /** Number of items.*/
+    public int size() {
+        return items.length;
+    }
+
+    /** Number of items not hit by the chosen cells.*/
+    public int numUnhit() {
+        return numUnhit;
+    }
+
+    /** Whether the chosen cells hit every item.*/
+    public boolean isSatisfied() {
+        return numUnhit == 0;
+    }
+
+    /** Gets the item with the given id. Items are ordered smallest first.*/
+    public SudokuMask item(int id) {
+        return items[id];
+    }
+
+    /** Gets the cell indices of the item with the given id.*/
+    public int[] cells(int id) {
+        return cells[id];
+    }
+
+    /**
+     * Marks the cell as chosen. A cell should not be chosen again before it is unchosen.
+     */
+    public void choose(int cell) {
+        for (int id : itemsByCell[cell]) {
+            if (hits[id]++ == 0) {
+                unhit[id >>> 6] &= ~(1L << id);
+                numUnhit--;
+            }
+        }
+    }
+
+    /**
+     * Chooses every cell set in the mask.
+     */
+    public void choose(SudokuMask mask) {
+        for (int ci : mask.toIndices()) {
+            choose(ci);
+        }
+    }
+
+    /**
+     * Undoes {@link #choose(int)} for the cell.
+     */
+    public void unchoose(int cell) {
+        for (int id : itemsByCell[cell]) {
+            if (--hits[id] == 0) {
+                unhit[id >>> 6] |= 1L << id;
+                numUnhit++;
+            }
+        }
+    }
+
+    /**
+     * Gets the id of the smallest unhit item, or -1 if every item is hit.
+     */
+    public int firstUnhit() {
+        for (int w = 0; w < unhit.length; w++) {
+            if (unhit[w] != 0L) {
+                return (w << 6) + Long.numberOfTrailingZeros(unhit[w]);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets a lower bound on the number of clues that must be added to the chosen cells to hit every item.
+     */
+    public int lowerBound() {
+        return lowerBound(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets a lower bound on the number of clues that must be added to the chosen cells to hit every item,
+     * stopping early once it reaches the given limit.
+     * @param limit The bound is not counted past this.
+     * @return The size of a greedy set of disjoint unhit items, at most limit.
+     */
+    public int lowerBound(int limit) {
+        if (numUnhit == 0 || limit <= 0) return 0;
+
+        long usedHigh = 0L;
+        long usedLow = 0L;
+        int bound = 0;
+        for (int w = 0; w < unhit.length; w++) {
+            long word = unhit[w];
+            while (word != 0L) {
+                int id = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1L;
+                if ((highs[id] & usedHigh) == 0L && (lows[id] & usedLow) == 0L) {
+                    usedHigh |= highs[id];
+                    usedLow |= lows[id];
+                    if (++bound >= limit) return bound;
+                }
+            }
+        }
+        return bound;
+    }
+}
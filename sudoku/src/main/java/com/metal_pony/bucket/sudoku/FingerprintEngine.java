@@ -0,0 +1,275 @@
+package com.metal_pony.bucket.sudoku;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.metal_pony.bucket.sudoku.util.SudokuMask;
+
+/**
+ * Computes grid fingerprints (dc2-4, ac2-4, fp2-4) from a single sieve per grid.
+ *
+ * A level-L sieve holds the minimal unavoidable sets contained in some combo of the level.
+ * Every combo of a lower level is contained in one of a higher level, so one sieve seeded
+ * at the highest requested level holds the items of every lower level too. Each item is then
+ * classified by the number of digits it uses (dc), and the fewest rows, columns, or regions
+ * it spans (ac). An fp item is either.
+ *
+ * The sieve is discarded once the item counts are taken, so memory per grid is bounded by
+ * one sieve.
+ */
+public class FingerprintEngine {
+    public static final int MIN_LEVEL = 2;
+    public static final int MAX_LEVEL = 4;
+
+    /** All fingerprint names, in the order they are usually listed.*/
+    public static final List<String> ALL_NAMES = List.of(
+        "dc2", "dc3", "dc4",
+        "ac2", "ac3", "ac4",
+        "fp2", "fp3", "fp4"
+    );
+
+    /** Area combo masks indexed by level. These do not depend on the grid.*/
+    static final SudokuMask[][] AREA_COMBOS = new SudokuMask[MAX_LEVEL + 1][];
+    static {
+        for (int level = MIN_LEVEL; level <= MAX_LEVEL; level++) {
+            int[] combos = Sudoku.DIGIT_COMBOS_MAP[level];
+            AREA_COMBOS[level] = new SudokuMask[combos.length * 3];
+            int i = 0;
+            for (int combo : combos) {
+                SudokuMask rowMask = new SudokuMask();
+                SudokuMask colMask = new SudokuMask();
+                SudokuMask regionMask = new SudokuMask();
+                for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+                    if ((combo & (1 << Sudoku.CELL_ROWS[ci])) > 0) rowMask.setBit(ci);
+                    if ((combo & (1 << Sudoku.CELL_COLS[ci])) > 0) colMask.setBit(ci);
+                    if ((combo & (1 << Sudoku.CELL_REGIONS[ci])) > 0) regionMask.setBit(ci);
+                }
+                AREA_COMBOS[level][i++] = rowMask;
+                AREA_COMBOS[level][i++] = colMask;
+                AREA_COMBOS[level][i++] = regionMask;
+            }
+        }
+    }
+
+    /**
+     * Gets copies of the area combo masks for the given level.
+     * @param level 2 through 4.
+     * @throws IllegalArgumentException If the level is out of range.
+     */
+    public static List<SudokuMask> areaCombos(int level) {
+        validateLevel(level);
+        List<SudokuMask> combos = new ArrayList<>(AREA_COMBOS[level].length);
+        for (SudokuMask combo : AREA_COMBOS[level]) {
+            combos.add(new SudokuMask(combo));
+        }
+        return combos;
+    }
+
+    /**
+     * Gets the digit combo masks for the given grid and level.
+     * Each combo is built from the precomputed mask of each of its digits.
+     * @param board Full sudoku board.
+     * @param level 2 through 4.
+     * @throws IllegalArgumentException If the level is out of range.
+     */
+    public static List<SudokuMask> digitCombos(int[] board, int level) {
+        validateLevel(level);
+        SudokuMask[] digitMasks = new SudokuMask[Sudoku.DIGITS];
+        for (int d = 0; d < Sudoku.DIGITS; d++) {
+            digitMasks[d] = new SudokuMask();
+        }
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            digitMasks[board[ci] - 1].setBit(ci);
+        }
+
+        int[] combos = Sudoku.DIGIT_COMBOS_MAP[level];
+        List<SudokuMask> result = new ArrayList<>(combos.length);
+        for (int combo : combos) {
+            SudokuMask digMask = new SudokuMask();
+            for (int d = 0; d < Sudoku.DIGITS; d++) {
+                if ((combo & (1 << d)) > 0) {
+                    digMask.add(digitMasks[d]);
+                }
+            }
+            result.add(digMask);
+        }
+        return result;
+    }
+
+    private static void validateLevel(int level) {
+        if (level < MIN_LEVEL || level > MAX_LEVEL) throw new IllegalArgumentException("Invalid level");
+    }
+
+    private static int nameIndex(String name) {
+        int index = ALL_NAMES.indexOf(name);
+        if (index < 0) throw new IllegalArgumentException("Unknown fingerprint: " + name);
+        return index;
+    }
+
+    /**
+     * Computes the requested fingerprints for the given grid in one pass.
+     * @param grid Full and valid sudoku.
+     * @param names Fingerprint names, e.g. "dc2", "ac3", "fp4".
+     * @param numThreads Number of threads used to seed the sieve.
+     * @return Map of fingerprint name to fingerprint, in the order requested.
+     * @throws IllegalArgumentException If a name is not recognized, or the grid is not full and valid.
+     */
+    public static Map<String,String> fingerprints(Sudoku grid, Collection<String> names, int numThreads) {
+        int maxDigitLevel = 0;
+        int maxAreaLevel = 0;
+        for (String name : names) {
+            nameIndex(name);
+            int level = name.charAt(2) - '0';
+            if (!name.startsWith("ac")) maxDigitLevel = Math.max(maxDigitLevel, level);
+            if (!name.startsWith("dc")) maxAreaLevel = Math.max(maxAreaLevel, level);
+        }
+
+        int[] board = grid.getBoard();
+        SudokuSieve sieve = new SudokuSieve(board);
+        List<SudokuMask> combos = new ArrayList<>();
+        if (maxDigitLevel > 0) combos.addAll(digitCombos(board, maxDigitLevel));
+        if (maxAreaLevel > 0) combos.addAll(areaCombos(maxAreaLevel));
+        if (numThreads > 1) {
+            sieve.seedThreaded(combos, numThreads);
+        } else {
+            sieve.seed(combos);
+        }
+
+        // Item counts by number of cells, for each fingerprint
+        int[][] counts = new int[ALL_NAMES.size()][Sudoku.SPACES + 1];
+        for (SudokuMask item : sieve.items()) {
+            int digits = 0, rows = 0, cols = 0, regions = 0;
+            for (int ci = item.nextSetBit(0); ci >= 0; ci = item.nextSetBit(ci + 1)) {
+                digits |= 1 << (board[ci] - 1);
+                rows |= 1 << Sudoku.CELL_ROWS[ci];
+                cols |= 1 << Sudoku.CELL_COLS[ci];
+                regions |= 1 << Sudoku.CELL_REGIONS[ci];
+            }
+            int numDigits = Integer.bitCount(digits);
+            int numAreas = Math.min(Integer.bitCount(rows), Math.min(Integer.bitCount(cols), Integer.bitCount(regions)));
+            int numCells = item.bitCount();
+            for (int level = MIN_LEVEL; level <= MAX_LEVEL; level++) {
+                int li = level - MIN_LEVEL;
+                if (numDigits <= level) counts[li][numCells]++;
+                if (numAreas <= level) counts[3 + li][numCells]++;
+                if (numDigits <= level || numAreas <= level) counts[6 + li][numCells]++;
+            }
+        }
+
+        Map<String,String> result = new LinkedHashMap<>();
+        for (String name : names) {
+            result.put(name, fingerprint(name.charAt(2) - '0', counts[nameIndex(name)]));
+        }
+        return result;
+    }
+
+    public static Map<String,String> fingerprints(Sudoku grid, Collection<String> names) {
+        return fingerprints(grid, names, 1);
+    }
+
+    private static ExecutorService _pool;
+
+    /**
+     * Executor shared by all batches, sized to the number of cores.
+     * Threads are daemons so an idle pool does not keep the JVM alive.
+     */
+    static synchronized ExecutorService pool() {
+        if (_pool == null) {
+            _pool = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "fingerprinter");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            );
+        }
+        return _pool;
+    }
+
+    /**
+     * Computes the requested fingerprints for a batch of grids, one grid per thread.
+     * Runs on a pool shared across calls, so at most one thread per core is used whatever numThreads is.
+     * @param grids Full and valid sudoku grids.
+     * @param names Fingerprint names, e.g. "dc2", "ac3", "fp4".
+     * @param numThreads Number of grids to process at once.
+     * @return Fingerprint maps in the same order as the grids; null for any that failed.
+     */
+    public static List<Map<String,String>> fingerprintAll(
+        List<Sudoku> grids,
+        Collection<String> names,
+        int numThreads
+    ) {
+        if (numThreads < 1) throw new IllegalArgumentException("numThreads must be positive");
+        for (String name : names) nameIndex(name);
+
+        final List<Map<String,String>> results = new ArrayList<>(Collections.nCopies(grids.size(), null));
+        final AtomicInteger nextIndex = new AtomicInteger();
+        int numWorkers = Math.min(numThreads, grids.size());
+        List<Future<?>> workers = new ArrayList<>(numWorkers);
+        for (int w = 0; w < numWorkers; w++) {
+            workers.add(pool().submit(() -> {
+                int i;
+                while ((i = nextIndex.getAndIncrement()) < grids.size()) {
+                    Map<String,String> prints = null;
+                    try {
+                        prints = fingerprints(grids.get(i), names, 1);
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                    synchronized (results) {
+                        results.set(i, prints);
+                    }
+                }
+            }));
+        }
+
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (InterruptedException | ExecutionException e) {
+                e.printStackTrace();
+            }
+        }
+        synchronized (results) {
+            return results;
+        }
+    }
+
+    /**
+     * Formats item counts into a fingerprint string.
+     * @param level Fingerprint level.
+     * @param countsByNumCells Number of items, indexed by the number of cells they contain.
+     */
+    static String fingerprint(int level, int[] countsByNumCells) {
+        int maxNumCells = 0;
+        for (int numCells = 0; numCells < countsByNumCells.length; numCells++) {
+            if (countsByNumCells[numCells] > 0) maxNumCells = numCells;
+        }
+
+        ArrayList<String> itemsList = new ArrayList<>();
+        // An item (unavoidable set) includes a minimum of 4 cells
+        for (int numCells = 4; numCells <= maxNumCells; numCells++) {
+            // In level 2, there can be no UAs using an odd number of cells,
+            // because each cell must have at least one complement.
+            // Skipping odd numbers avoids "::", keeping the fingerprint short.
+            if (level == 2 && (numCells & 1) == 1) {
+                continue;
+            }
+
+            int count = countsByNumCells[numCells];
+            itemsList.add((count > 0) ? Integer.toString(count, 16) : "");
+        }
+
+        return String.join(":", itemsList);
+    }
+}
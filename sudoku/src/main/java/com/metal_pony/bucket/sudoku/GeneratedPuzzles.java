@@ -1,10 +1,21 @@
 package com.metal_pony.bucket.sudoku;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * Puzzles generated ahead of time, read from resource files.
+ * Nothing is read until this class is first used.
+ */
 public class GeneratedPuzzles {
+  static final String RESOURCES_DIR = "resources";
+  static final String PUZZLES_24_RESOURCE = "puzzles-24-1000.txt";
 
   public static List<Sudoku> convertStringsToBoards(String[] strs) {
     ArrayList<Sudoku> boards = new ArrayList<>();
@@ -21,1016 +32,32 @@ public class GeneratedPuzzles {
    */
   public static String[] getRandomPuzzleAndSolution() {
     ThreadLocalRandom rand = ThreadLocalRandom.current();
-    int index = rand.nextInt(PUZZLES_24_1000.length);
+    String puzzle = PUZZLES_24_1000[rand.nextInt(PUZZLES_24_1000.length)];
 
-    return new String[] { PUZZLES_24_1000[index], SOLUTIONS[index] };
+    return new String[] { puzzle, new Sudoku(puzzle).solution().toString() };
   }
 
-  public static final String[] SOLUTIONS = new String[] {
-
-  };
-
-  public static final String[] PUZZLES_24_1000 = new String[] {
-    ".5....92..2.1.4.7..4.3....156.........8..72....4.9........46.....7.8.36....5.....",
-    "...6....9.9..18.451.5.........95......28....46...2....8....3......1893..2.....1..",
-    ".6...58......1.734.8.9......2..7..........3...34....96...7...4...13...6.8..4..2..",
-    ".7......952....73...3....8.....8.......2....4..431.....1..68.5.257...8.......91..",
-    "9..7.5..33......4..1...........9.4.28352....6...5........9.....2...63..7.7.....14",
-    "9..5.3.8...2694............41....5.36.........3..8..7..7..1.864..........5....1.7",
-    "2...3.4..3...1..75.....2.....8....5...4...3.1...6.....9.7..6....3.8.....6.1275...",
-    "2..7...16..6.....8....8.9.3..8.4.5...9.2........3......41.3..6.8...5.2.1..9......",
-    ".....4..9236........91...6..1......57.....42.........13....25.4.6.38.2...8..5....",
-    "5..26......6...4..7.......13......5..7...1.3....9....8.6..329..83..75........9..4",
-    "8.14......5..2.6.....3......65.....17.3.46.9..4...8....2.7...38...9..........3..5",
-    "......65.....6...4...7.8...8..3.2..7...8....9..4..1..2..1..48...4...63...3..2...6",
-    "..1...6.43.67....1.9...............265.3..1..9...1.5.....56.....32..4.......82.4.",
-    "..43.......7..8..52..7...6.8......93.2..9..7.6.....1.2..1.2....39.6..........9.8.",
-    ".7..8...3......9.695...6..4...8....93........12.6.9..........2..3.5.1...2....4.81",
-    ".243...1..7..9..6...1...8........67...6..5..4........1.978.61..5.....2......3..5.",
-    ".......7.2...65...4.3...1...2.17.....34...6...5...3..7...5...9..7..28......6...41",
-    ".8.........4.9..3..527.8.......4.2...76....1.9......835..41...78......2.....62...",
-    "..5...8...972......2..1..7..64....8.3...2.6......53.....2.7.51.8....5.6..7.......",
-    ".9..........452.....6....128..5..49.71...4.8....1..3.7.......7..39.6.......3....9",
-    ".792.5.1..8.1..........7..........7...6.3..9.5....1.3.6..4......4...25..2...1.8.7",
-    "...42.37...8..5...1......2.5...1..4.8.3...5....79...6.2....16..6.97.2............",
-    "23.........1.6...8.....94.....1..5.4.57...9.649.5...3.....746......2...........91",
-    ".7..9...2..2..17.4..1.6..8..158..........6..59......4.6.82.7......4...31.........",
-    "..9.21.58...8..........5.243..........6.8.....5....796.9..3.2...2......18....9..5",
-    "5..7....4.9.1..6....783....16.47.8......5....9......6..3.....28..1..8.9..4.......",
-    ".45..7......21..9.7....3.6.....6...7.....58....47.13...2..39...6.......81.3......",
-    "..4.......1.94....8.32..9....9.7........1.836.5..6..4....4..378..6......2......5.",
-    "3.....6....2...4.3...48...5..65......7...8.62.5.....9.1...69.....8.5....6.....14.",
-    "6..2..9...824...6.......8.3.4.1.....3....5.79...9..2...7.361.....8............53.",
-    ".5.6....18...4.6.5.4......3..1.8..7......4.....4.5...6...7....8..6...25.39..6....",
-    ".3.......5..4.9......2.8..3.....2.1..9.7.....362.1.8.........9...3..4..5875...6..",
-    ".........98...3.2..4.76..3....8...........91..51..2..6.9.63.2.4......87...8..4...",
-    "...4.8.3..7...........65..42...59....6..1.3..9.......84.........39.7..85.852.....",
-    ".6.5..9..2...6.........75.3.4..7.......1.6..8...39....4..6....18......29.51.3....",
-    "56..........89...7..7....4....9..1...9..2.3.5.7.4.1.....4......6..38..5...26...9.",
-    "...4.....3...71.9.6.1.....8..3.........6..1...7.9.4..57......56....6...295...38..",
-    "4...1..5..1.....43..5....97.......38......6..2..89..7.12.......8..57......492....",
-    "..6...142.8.7.....1........6.....57..............94...5.....3.6..315..8476..8..2.",
-    "..........5...2.79.7.....48......38.6.37.....2..1..5....4...8..1..9...6..2.87...1",
-    "1.8.....54..8....19....2.....128..6....9..4...7.....8.....39.....5...2.6.6...7.3.",
-    "..1.642...37.........9....8..34..8.7......4..2..73....49..8...3..2.......7...6.5.",
-    "......9.1..9.......5.28.4...4...3.5.........4837.......83..4.7....7523...9.6.....",
-    ".....2...9.4....8.3.57.........2.7...7.....14...86...5..8...5....71.5..9...6.31..",
-    "21.7....6.841....3..........9..3......3..761..4..1..3....5.2...6.....2...7...6..8",
-    ".......394...6..........265..6...7..5..91.....3.5.6.91..1....2..5.7.....9...8...7",
-    "....9...412....95..74...6......4...9.152......9...18....34.5.........14.....63...",
-    "....2.....8..97....5...1..6..3.78.1...7...4.8...35...9..8.....1...6...8..3....2.7",
-    ".5......1.3..4...6..85..4....2....4.......8.....2.1.957.........9.45......43.256.",
-    "3.2...8....74.....5...6.9.......8.........69....53.....19.7..5...53.4...84...2.1.",
-    "4.1...........93.6....38.....46.......6..4.59..2..3......3....56..57..4...78..9..",
-    "25....4....8...1.....5...9663......5...1..3.4....9......67.9.1.3....28..9...5....",
-    ".794.....4.3.6.9.....3...7......5...5....1.23....8.....6..9..38.5.6..7..3..8.....",
-    "..7.....2.86..4.3.9...15.........82..9..7...1........6...3..7..62.89..1.8.4......",
-    "..1.7...8...9.....4.5.......4......6...23415....59.3..75...........23.9.9..74....",
-    ".9.8.........9..7.7....2..8.1........3..7.46...65...291..9....7...2....48...5.3..",
-    "...3......46.......7.1..4.8.5.8...3......9..2......9.4..42.6..7.68....25..7...1..",
-    ".....7.213........5.7..13...63.52.4.....9.8.6.5..........1..93.7..6.......1.....4",
-    "........2.....4...1...693........1...6...2.59.47...28........1...52.6..7.7438....",
-    "8....3..46.....5.147..8...2...4.5.....4.....93...26......1...7.2...38........7..6",
-    ".3.4...5...9....2....8....1.53.......8..241.7.2..3..9.79.6...1....3.5..2.........",
-    ".2..5...75......34..9...5.........4165........8..31.7.9.37...2.1...9.......3....8",
-    ".2.7.......9...7.3.43.98.15........1...43..9.2...1.5.....84...2..1....5.........7",
-    "..5..9..2..2.7...4.6.1..3.5.4...8.7..31..6....27.4........87.......5...3.......4.",
-    ".589.1.....9..42..41.......3...2.5.....5...9..24...........3.478..........3782...",
-    "325..46..4..7......1...6....5...1.48.....5....63.2.......5..96..8..9.4.........5.",
-    "...9..62..1...7........8..17..8...9....2.9...23...6.....45.1.6.8.6...7..3.....5..",
-    "..21...8.79.....6.....3..7.4..59.7....7...8..8...7..2.6..7...5....912..4.........",
-    ".7.95...6.........5.1.478......6...3..92.....4...15...9.5..3...1.24..5.........6.",
-    "..2.38...7....5.24.81.....7....2.3...9...4.1....5.......3.5...1...8......5....798",
-    "...5..7.25.7....1.3...2.9...6...2..4.1.....8......43..8..7.5..6.7.2....8.....1...",
-    "64.....25..59.4........3.9....2...51.2.8..7...........1....6.3827..4.....5....6..",
-    ".7.....96.8.5....3..5.19.7.2..............3..5986.......2..17....7.9..28....5....",
-    "1..9.32...57..24....9....5.6......1......79.....418....1.26....9.........4.8....2",
-    ".7..8.3....2..6..9.....12...9..........42...68.65.31.2...64..7.........55.....9..",
-    ".......4..........6...738...9..3..1.754.9..3......5...17....9......6.38..3.4.8.7.",
-    "...9...1...9....28.6.2......51.6.4.37.....5...2..9.........1.5.2.....7.1.9.7.8...",
-    ".641....8....5.1...7.....35.1.9..........28..8..7...4.4..29...7.5..3..........2.6",
-    "1.6....5.5..4.....9.....246...3.......4.......63.9...8...7..46..7.8.2.....1.6..9.",
-    "...58....3.....9.6...7....1...6...5..6.81..2..5792.......4....8..1....6.2.....3.7",
-    "6.....73.7..1.6.5....57......9...37.......4.5...817.....398......2....8..5....2..",
-    "...5.7.......62..3..6.......5....61..9..2....2....195.5637....4..4......8...4..9.",
-    ".....4..9.61......5.....6...3.5.8.2..2.7....37....2.94...9...12...43....9...5....",
-    "......5.4.2.....8965..3........92...93..8..4..4...1.5.5.8....9.....4..3.....2...1",
-    "....8.2..3...71..8..2.3...6..9..3..4.....6....3..2....1...6..754.5...1...8....9..",
-    "..3......6.....9.558......24.........9..3.1..1...26.9...76...3..6.7194.......5...",
-    "..57...896......2...9...4........8....75.6...2.8.7..6.7..29...8.1......64...3....",
-    "5....4.9...9.6......2...5...3.....7.....8...6....39..2.456...13.....12..6...4.9..",
-    "...8.4....27........5.6..8.....2...16.8...35....5..7....96..51..4.1....3....9.2..",
-    "..7..3.1.5.....89..91.....4...7...6..4........52.3.7.........3..2..86...47.5..1..",
-    "...3.4.1.1.3....5.6...7....9.....82...8..1.3....5..6.........9.28.75.....769.....",
-    "3.6....289...8........41...6....5..3..819..4..9.......8........42.3..5......183..",
-    ".....8.64.4....82.7.....3....3..6.8....7.25.3.9...........13.......9..57.56..7...",
-    "2.96......87.....2......5739.....3.8...7....41..5.....5....46............3417..2.",
-    "..5.8..9.6..7....18..6......16.....9..8...25.7......6...234....3......47.....6.3.",
-    "...1.5.....58.69...429........4...27....58....3...2..8.13.....56........5..7....4",
-    "5.........6...3......4.2.7..9...5.867.69..4..4.....5.........29..1..8...92..1...8",
-    "4.7...8....6..2..4.....1.....2.13......9..36..4..28...9.....1.82.5........1.7.5..",
-    "......4.1.3............4.6.57..6...2.....1.492....3...6..2...9.953....7..2.8..1..",
-    "......8.2.36..8..5...46........9..1..7......349.6.3...8....97.....1.....1.23....6",
-    "..3..8.29.6....1......7...5...9...5.4..6..27........13.4..17...2.9.......78.6....",
-    "...5...8.32....6...58.39...5...6...2...8......9..57........1...4.2....1.7..698...",
-    "...7.35...7...8.......9..4...8......19..47.....3...129..9..........3.8.58...2.6.7",
-    "...6....51..3..64..4...5......7.8.......945.3......4..6...8....2...7.9.48.9.....2",
-    ".3...2.6...258.9.....1......9.2576....6...7.........834..9......6..1....2.3.....4",
-    ".2....9.4........756.....2....892.7..5..7.4..1..6......4.....6.3.7..4.......8.7.3",
-    "..3..8..69.8376............6..2.13..4.....1..7.......4.1.9..58.........1....6.2.9",
-    "64.....9.1....3..8..32..4.....51.243....6.1...............8.5..3...7...95....6.2.",
-    "..4.8...1.....34......5..29..85.9...7..............63.39....1.7...7.....15.9.6..3",
-    "....7.......9.3...3.5....8..5..4...3.3...2.75.64.....88.1.9..3....4.....7..6...4.",
-    "..1..3.86.6.7.89.....9...3.........2.3..2..9..7...41..........5...6.7...7.2.4.6..",
-    ".4.........8..39..9........3..7..6...7.69.1...9..5...8.......42..5.678....48....6",
-    "....3...16.42.7.....86.......1.4...9.62...3.......3.....97.4.......1....7...56.14",
-    "....3..4...4.1....9..2.871..724......16..7.23....2..8....6......8....1..4......9.",
-    "..8.1....3..2.5....1..63...2........13...98.69..4..21....8..973...3.....6........",
-    ".7..2...6..8.13...5.6...2...1...59...4......26.......3........8.57......1..47.56.",
-    ".6....3......58..2...24....3..8.......7...68..2..3...7..84.2..169.1.......4...7..",
-    "3..6...2...9...3....5..81......46......17..9..4....8..92..3.4...5.4...63.8.......",
-    "8....3.6...4.....7.729......8.2...794.........1.4.5........6391.....4...6....7.2.",
-    "........32..9.86.....6..19.84...7..1....9.....1.4...3....3....26......4.9.7...81.",
-    ".5..4...88.7...6.......54.7..6......9...74.......68......7..26.71........621...3.",
-    ".12......8.6..2..........19....49..71...7...54..5.....69.3.5......62....7.5.8....",
-    ".....6...7.813......9.....7....4.1.35.4.9.2......21..8.2........73....4.....826..",
-    "...13....7.46..9.....8..41.27.9.........8...9.6.....5.....2...79.5...13.4......2.",
-    "..4683.2.........4....127..5..8.4....61........3....8.15....8.....96...1......93.",
-    "273.............5....4.21...3....9..8.4...3.1...6...8.9...1.52...6.2.........9.68",
-    "..5....4.4..2...9..7.9....2...1.59.6..9...52..3...2........38......791..6.8......",
-    "...9..27.9..653............81......3....7..9..5.291.4...5.......4.76....7......15",
-    ".8..6..4..........4...92.672...7.15...3.5....7...2...3..16.........8.7..936......",
-    ".5.......4.638....7..26.3.15.......8..3........8...7.4.758...9...1...2.....9.1...",
-    "......1.459..7......86...2....4.......57.8....3....86......7....1.89.6..6891.....",
-    ".2...3.9...1.............544..68.2........9..1.8........5..6..19..3.5..7.364.7...",
-    "...3..87......5.6..6.7..925432.7.....7..3....9..8..5........2..2.5......3...1....",
-    "...6..1...5..9..3.28...........8..136...4.9......3...58.135.2....3..8......7...6.",
-    ".51.8...7.3.....6......5.8...29........27.4.......1.3..6.7....13.....296.2..3....",
-    ".8...92..1...6.....4.....1....8.7......3....48.....75.4.5..2..1....94..3.78.....2",
-    ".....7.6.1..3....8.9.6..4.792........1..6........4.....8......43.6.51.2....72...1",
-    "2..18..5.....7..8....52.3....4..1........2...5.7....969.........6..1..3.84..6.1..",
-    "........242.7....3.3.9...7..1...4...79...3........2.646..........9.4...65..8..92.",
-    "5..3...487.64..3.....5.............6.9....8.23...56...145...6......9....86...2...",
-    "..1.63...7.....1.33......49.853......7..4...5..29......3.......4...7..86......71.",
-    "7....5....35......2......989.85...7..5..1...3......14....24.....2....4....6.913..",
-    "3..2..71...6......4..1.....5........7....82.3...5741..1.59.....2......8.9.3...6..",
-    ".3.7..........813..6...1.7..7..3......2.9...4.4...2..85....7.8...7.......9854....",
-    ".......74......9367...2....8.561...71.2.....8.......4..74....1....4......8.96...3",
-    ".....98......3.....7.514.....9...71.3......8..4........9.8..3..8..65...1.12...46.",
-    ".5.....9.9...67..1......68.....8......1.5..28..3.9..6.2.....7.....819.4.6....3...",
-    ".4...1......9..1..7.58.4.......3....4.8...5.6..76....295..8...7...2..4......9..1.",
-    "...9...2.14.367......4.....2.4..5..............9...3.......8..6.37.14.85.5....7.2",
-    "..4..2.........3...8...1.6.4....72..7..8.5.....9..31.6.2.1.89.7.7.9........3.....",
-    "..5..2.6..2.8..3........1..6.8..14..49.3.8..........1...........74.6.5.33....78..",
-    "2....4....1.6..9.....9...3....47..5.7.6......3.......2..15..8...3...2.796.7.4....",
-    "..8..1..4..4..6.......7..26...3.4.....5...2.8841......52........192...63.......9.",
-    "...781..........63.9..3..1.18.6.7.25...8....6.5..........1...3........8..25.4.1..",
-    "3..9...6..8...2.93.....5....5.....46...5..13......6..2..4......9.3.2..787....1...",
-    "....4......3...6.58..9.1..7...4.89...2.13..6...1.......7.5.......8..9.1.63...2...",
-    "14.9.7.......2.....7..31..84......5....6..9.22..51.7..36..........14........98...",
-    "......1..5..8....9.92.....4.85.6....96......1....7..4......89.....29...584...53..",
-    ".....4..2.3...18...6.32.9..9....5.785.4...1....8.4...........1.....7...9149......",
-    "5...1.9..8....6.....23.....3..45........3.75..6......2....91.4..19...3...4..2..6.",
-    "67.....5....2..9..3..8...1......7....5..9.1....9.2357.5..6..4...3....7.......4.6.",
-    "..4.2.56....6....367...1....4.8.........6.87..9...3...2.84..6......1...9....3...5",
-    "..95.4.7...68......5.9......7......6.....5.4...2.6...86...4...9.18....533....7...",
-    "..9....61...6.7....5...8.9.7...3..143.5..4..9..2........7..32......5..3.4...8....",
-    ".......83581.6..7.3.6.........24...1....7...8.28....5.94.7..8.....1.5..9.........",
-    "...76...9.......8....3..1.5.9.67......6..254..4.......36.94...2.5............785.",
-    ".9.........21..7...86.49..1.7.31....84....5...3....2......3...44.....9.6.....4.2.",
-    ".1..7..5.95....1....3...4.2...8..3.....26..4756.......8..3.....4..69.....3......5",
-    ".....82..7.539......2.1...4.7.....5.4...6..7.2..84.........38..93.........7.5...1",
-    "...52.....2..91..3.8...6.....6.8.5....7...2.99....3.1...51...9.3....86...1.......",
-    "..2.7.......9.3..874......54...3.2...........521..4..337.5..4........5...6.3.8...",
-    "...9..3..4.1683.....8....5...7.12.3....5..249..................73..5.9.....3.9.2.",
-    ".6.........5439...2..8..59...417....8.........9.5..6.2....9.....8.....596.....41.",
-    ".7....1...53..1..76....3.2.4.......29...8...6.6.....1....3..45...8..6...5...2..6.",
-    "9.3........6.71......98...34.....12..79...46....71....6.....94....8.........4.67.",
-    "4....57.8..9....3........14...32.....46.9...3......1...6..8........37.8.1..2..9.7",
-    "6...5..87..98..5.63...1.......6.1.2....29........7...9.7....6.5.9.....1.....4.3..",
-    ".95.....7.4..1..2.....375.....7.8.5..631...........8.6251....9....5....84........",
-    "..29..3..6...........5...8...589..4..9..3............13.......25.9.624.3.4..7...8",
-    ".1........29.7.5.35.3..82.............6...91...8.43..5.8....6..2..9...7....28....",
-    "..6..1.....728...68....925......2531..8.........4.3....12.....7.....71..9..5.....",
-    "4....5..9.2...9..31..46...5..........7..83..26....4......5......84.9.7..5.7...9..",
-    "3.8..9....4..5...17.....26.....46.7.....8.5..6.4..3....7.......9.1.....5......927",
-    "....9.....6.5..1..4587...6...7.......1..5......6...8.1..38..94..7.4......9....31.",
-    "...9.6.5..2......8..34.8........5.7.......8.17.6..93...32...6...19....8....3...4.",
-    "....6..41.52....8.7....2......2.5...5.9...4..14.9...5.....2.3.6..7418............",
-    ".2..9..4..732..8..5....3...71.........97....6.............8.4...85.2..3.9.6.15...",
-    "93..7.2....1...95...2....6....1.....5......8....42.....8.26...5.......1.6..895..2",
-    "3...4.2....8.........1.27.8..5..7..4...4.6.2.61.8.....8.....59....7...6..9..3....",
-    ".4..58........29....2.1..7...6....8.3.1...4.29.......14.7.....9.6..7..1....4.1...",
-    ".......5...5.4.8..12....7..4........6....4172.13.25...........9...83.....8.69..4.",
-    "...6..5...9..8.......1..68921...3...9.........36....7..8...97.5..5.4291..........",
-    ".29.51.....4...27.....3.....3.8...9...7.....5...2.5..8.....6..9.65...8.7..2.1....",
-    ".6....4.3.3..946.7.....1.5.......86.94.56......1......4..8...........374....4.9..",
-    "..8.2.59.5..4..8.1.1.................2.7.59.4...8...75...3..28.1...8..36.........",
-    "4.....8........41.9....6..5.......7..4..2...8736..5....7..8.........913.25...4..9",
-    "......9....57..8..9..5..13..9..2....8....4...4.7..8..2..6.5..1..4.6..7......9..6.",
-    ".6..8.4..3.8.6.......5.9...8.3.9..7......41.........5..251..78...9....4...7.....3",
-    "......71.41..8..6.8............65.9..3...98.....2.1....4..1.6..75........8.64..2.",
-    ".8..6..9.2....3....3...86...935...4.....74..97...1..2.1.2.....7..49..2...........",
-    ".....153...9.3..7......4...4...6..2...5..26.......34...92.8.3..6...7..5..4......9",
-    "..9..72....782..........1.3.43....8.5....4...2....6.5.8...5.6.....9......3....915",
-    "57.2.1..32..........4.3...79..7...2......31....8...6...2..9..5.....5.34...61.....",
-    "..7..6..46.....7.535.2........14.6...3....9.........5.4.......7.9..8...252...1.8.",
-    "...4.....35.6....42.....85...4.6...85...93......1........5...9.9....17.61..9...2.",
-    "....1......3..4..51.4..2.6..4.9.13...7.....5.31..6..........9.3.568.....7...4....",
-    "...........4.86.9..3.7..1.....8..9.3.1.......5.9...82..4....57...3.......7.4.9.62",
-    "47......1..2.....51.3........5.2..36...74.....6..9...7...8...4....21..736....5...",
-    "...2..5..59.....1..63.5...9..14.........6.74.........5.3...5....458.9..18...7....",
-    "2...5.......8.1......23.1.....9....5....15..78.9...........6...3.4.2.81..18.4...2",
-    ".....267..4.7......3......9..9...1.6..4.875......6..3.6..97.8..2.3...9.........1.",
-    "..3...6.......95....84....7.7..14...52.....6.....2...961.9...4....3..9...978.....",
-    ".....12...9...5..4...9............1.251.67....7..1......8..2.39.1.5.8.4.9.....6..",
-    "..1.....3....24...........795.......7...86.3....2.9....1..6....2..9.758...3..8.72",
-    "2.7......6....4......21..848....9.2........7...5..2..6...16..3...3.....1.214.5...",
-    "........4....479..2.5..3.67.2..8.4.5....3.69.....71...5.3.........4.8...8...5....",
-    ".3...7.....8.5.46..4...17..1..2........863..5......2.4...7.......2...5.1....3.8.9",
-    ".932....6.......5.1.84..........7..4..6.1...2...58.....7.126....6.7....58.......3",
-    "....67....9.4..1....325....2...346.7.8.......1..6.9.8...7...5396................8",
-    "8..3...95..4.....1..7...46...2.36.4...6.8..3....7..........5..75...........21.3.9",
-    "5.....37..........4...5..6..6..8.9.3.5..73......1...2.1..8.6.42..82.........9..5.",
-    "...8...14.2.4.......8.73....9..6....5.1..7.....2..9..6.......47...2...8...9..1.53",
-    "...2.........7826.......5.99...37...8.4..6.3.16.......7.5....1..9......3..85....4",
-    "..3......8..12.6.........4..7..6...9...9...1....8.732.4....5...652.....3.1...9.6.",
-    "...27.1.8.2.....9..84...7..2...1....95.....76.6......5......6.7...6.3..2..9....8.",
-    "7....54..2..7..36.....4.........47....1..9.....85.......58.3..9.2....54..8...12..",
-    "8..32.....6...75....3.......347.6..1...83.7....5.....9...9.8.......5.26.....1...8",
-    "14.....6....1.....9.....7.8..6....8.....5...278.....3....9...2..6.4.18.....3.21.9",
-    "8..23..5........137.......41.84..26......3.........5.7.4.6..1..561..8........9...",
-    "....2..594......1..9....2.....2........96......3.4.1....1.9...6..61.37...576...2.",
-    ".....5.82.8..3.476.........9...7..1....5.6....2.3.1....3......8...2...63..7.4.5..",
-    "....6....2....9..5.8.4...1...621....14...3..........86....9.8..369..7.4...5...2..",
-    ".9.2.....5..34...7......1..1......7......863...86....4.3...7...8.5....6..6.4.28..",
-    ".....8.7.4.......87...42.3.3...9.1...57...8....2.....6.....6.42.9.78.3..........9",
-    "....2.38.9.1....4....34......54.......2.3.59....5....6..46.....1.7..5..4...2...1.",
-    ".9..42.1...39.............4.4..1..62...2...5.8...5...1.2....3...6.....8773.5.....",
-    "2..9......1..4.....5..6...4...65.8....438.951.......3.....3.4........58.92.4.....",
-    ".7.........98.617......56.2.8.9.......3...4....7..421...8.....6...7...3..6..52...",
-    ".75.6..1.8.............3..5..3.7...8...2...3.2.1..4.7..2...94..6...32....8...5...",
-    "5....8..7..1..........4.62.47.8....1......83.1............26574..........2753..6.",
-    "...12.64.5.....89.........5.3...12....6...7...4..3.1.9....8....9..5...61..29.....",
-    "..97.5...8.....6...67......9......47...1....3..1.26...2..5.7...4.3..1.5..9.....8.",
-    "...14.....5.2....87....86.......956..8......92.4.5..7....8....6.47.13.........9..",
-    "...5.7.....6...3.4.9...4..1....4.6.3........2..1...85.3....6...1.8...4....278...6",
-    "..96.2.3...2.....5...349...2.14......6......7...9.1...3..26.41.......8..94.......",
-    "1......2..2..........16.9.5..82.76...5..4..73......5..8....4..2..7..9...96....1..",
-    "...4......84......5....1.7.6....715.8..3...96.9........3.2.......8.9.4......46.17",
-    "1729...5.....5..3.85.....2..9.1..5.8.....3....2.7.....2.9..8.....1.....3...5....4",
-    ".79...8..485.....7.......1..9..7.5.2.....6.8..1.2.4................82.6..5...312.",
-    ".....1...3.67....5..15..74...9...........23.8....8..2..9.1..8..1.......78...73.5.",
-    "13....9......4.......32.5.42.1...85.7..6.........5.2.1...2...7.9.....6..3..8....9",
-    ".......4....51.7...7......93.58...7......45....936.4...8..2......17....2..79..6..",
-    "3..9......5....2..7..28...69.8.........8.2......5..3.4.....185...6...9..5..32..7.",
-    ".92.34...3...2..1.......7....9...3.........6..7.98.........2..6..5.4..8..6139..4.",
-    ".5.7....94..6.........342..1...6..........17.2...8......94...17...17.4...4...2..3",
-    "..4..9..659.......7..6...4..1.7..2....84..1..4...8.6....5..........35....6..2.8.1",
-    ".5......2.....24..3..7.9....369............1..4...857.12.3.7.5..7..2.6..8........",
-    "..4.81...38..9....6....5..2....169...7.......45....7.69......4......4.8....8.3.9.",
-    ".2..5......5.6.....3.8.7........2..8.129...5.....8....4....1.97......365.69.....2",
-    "86.....5..............84..3.3..752.85.........9.6....4....38..9..152......31...4.",
-    "......6......538..2.5..43..4.928.....2.........6..9.23....3...4.67.........92..7.",
-    "6.71...2.2....35..9..6......7..96.543............2..1..9.4.....7....5.3..5......6",
-    "87.....5...1.839.2.4..5...8........5....18........2.31...3..2...6.7.9.4..9.......",
-    ".8.....431.3.4..9.....9......8.....2...7.3..85.7..9....54..7...21..84..........5.",
-    ".7.2.......1..68.....3.4.......93.2..2....4.91.78..3..4...5.....3....9..8..7..2..",
-    "8............9...3..9..351.......42...47.6...53.....79......76..4.....3.79.2....5",
-    ".8....4.....17....7.1........9...2.75..9.8.........9........15825...9.4...764..2.",
-    "8....9......1873....6......9......57.....124...3.5...8.5......9.27..8..46....2...",
-    "3....94.5..25......74..2.......4..7.......34.8.67....9.1...78.....9......6....7.4",
-    "...8..5..8.9...13......6.4.....3.8...1.......7.4.5...9.6.2.9.......1...2..1..346.",
-    ".7.......85.26.41......4......5.27.....9...6..32........5..9...4....16....9.7.83.",
-    ".67.....1....9....8...56......8..5.....26.1...58..1..4....38.4..79......2.....9.3",
-    ".....1..457..8..9.......75..18.....7..26...13....9..6....9...38....2....45..6....",
-    "5......92..7..........9...6.43.2..8....86..59.8.....1.25...1.........1..3..9...45",
-    "6.7..91.58............1.2...9..21....4.......5.2..67.....6.7...1.....45.....4..37",
-    ".4.5.....7.21.....5....29.....6...1.1.....8.5.7......2.6.....59...7.5.6...9..1.3.",
-    "..24...3.5...8.....8.27....6.....2...9..268.1.4.3....99..8..6...7...........52...",
-    "..97.......7....43.8.....9.5...83...816.........2.........74638....3.1..9....5.2.",
-    ".2....7..5...1.8..4.9.6..2...5..6.9.3.............7684...37....1.7.5.......9...6.",
-    "8.31....4......5..7.....36.16..37.......4......89.5...9..8...4..35.9...8.......2.",
-    "..5.......72..9.81.8.4...5....8...7..6..9....4...6.8..7...5...6..86..7......12...",
-    "3.7......8....4.......9.8....8....95....26..3..5....2......2.6..9..1.4....6.47.59",
-    "2....3..6..4....52.7.....4.........3.9....4..6...491..4...8..3..16.9......86.2...",
-    ".2.6....47......5.5...13....12..4...8...3.6........1.8.45.......912.8...2....5...",
-    "8....5.4...3.8...6......1.7.6..4.....3..7...82.9..6....15...26....5.......2.9...3",
-    "45............89..3.24..81..172..........53..5.......1...3.4.7...5..6....6.....28",
-    ".9.....67..7...4....31.9..2.....561.....96.4....2......4..5....97..2...3..19.....",
-    "..84......9.....86.167..4.....2....95.7.9.......54.2..1...7...3....6.....8.....21",
-    "..8....3..4..6.9...524....7..5.98...1.........8.....2.8.4..1........2.9..19...65.",
-    "..1.6.2.5.3.......7..9.............7..2.836..6.....45......4.2.46...7.3....5..14.",
-    "....5..29..9...7..36.....5..4.1.....13..7....8...23...2.1.....4.....439....7..5..",
-    ".8.1.9.......2.....45.......9283....6.....3.....2.164....5.29.....3....83.8...7..",
-    "..7...4......542..6.1...78.9....76....41.........95....5.26...3.....3....9....14.",
-    "..21.6..9.........31.9.......4.8..6....2.1..89....74....6..2...4.7...5..15....6..",
-    "....3.9.8.324....61.85...2.8.............7...9.6...3.5..5..1..9....9.85.4........",
-    "....8...........7.6..7.4..11....8764..7.6.2.8.5............3.1942.....8..35......",
-    "6..4......8......3....531.....5.9.2.39..2....1....76...3.....4..48.....5..9..57..",
-    "4.98..1.......6.8.16.2........4...3.3...5...28...7..1...5......2.......6...314..9",
-    ".5......3.9..46.5....1.92.....9.16.43....4.......3.....2.....1..1..78.9.4.....5..",
-    ".2...9.46.13..7...4..2.1....9.......65.....71.......5.24.7.......1...98....1....3",
-    "..9.8.....4.1..98...2....31...8.346.2...7.1......4.............3.7.5..9....9..8.2",
-    "..2.4..3.7..51...2..8....6....73.4..........3..58...21.7.6....4.6.......1..3....8",
-    "........9...85......9...8.6.......2.14...3.....6.7.1.5.97..1.8.2...9..7..6...4..3",
-    "9.7.2..........3..2...74.1....6.51..7...3.9...6...9..3.1..43.8.5...9..........5..",
-    "4.....6.2..5..8...6..1...5.39.5...7..8....9......8...5....29..4.2.......8...15..6",
-    "....65..45..3..2.7.9.7.8......4.7.36..9...4....2....8..4..7...1......6...8.....5.",
-    ".3.6.....2...9.1....62.15..5..9.8..6......8...23..5.7..7..2............1.6.....93",
-    ".....1..66.....28..72......93...2.7.4.67...3.....15...1...26........8.63....7....",
-    "....967.86...8492...1.............3...3...1...9..2.4...3....8.9....58...75......6",
-    "9..1......532....7......8....53.1..4......916.4..7...2.3..8.........4...6.473....",
-    ".9...176.8.35.4.....1......6.....958.78.5...........4.9..3.............23..8...74",
-    "1....3..9.5..2......6....17..5.89...3.9.....8.4.2.1.....48...7.....5....2...3.6..",
-    "5....1..3.1......8.8.425...........56..2..4....1..3...9.25....6....76..4.5....7..",
-    "..4.......6..1......7958.3....4...92......56....86...14...3.7..8..1.....5..7...2.",
-    "8......1..6..4.....4.7.9......3.8.7...1....482...5........7.6.33.....59...5..6..4",
-    ".......179..18..6..86..7.9....8.5...3..94...6.......294.97....3..2.........3.....",
-    "3...68...4.1...6.27...3..5........1..3....9.8...39......98..4..516..4.........7..",
-    "5..4....2.6.1..938......4..6.1...........85.7.5.....84496...........3...3.82.....",
-    "9......4.8.29......3.....57..1..64...9.4.2....5..7..91.......7.......1.6..3..1.2.",
-    ".4.5.9.......1.2........91....85.....2..3......89.14....3....5..12..6.....64...73",
-    "7..............5.9..61.347...5..7...34..5...8.7...6.4...3.9.....6...8.9.2...1....",
-    "18...4.9...429......7.5.....5..76....9.3...1.2..9...................8..78..16.5.9",
-    "...37......3....5.1.8.....4..6..2...384...5....5....17.39....7.5....3..9...2.8...",
-    "...8..3..3....46...2..1.7..6.54..2....1..9....4...7.9.9....2.1.......453...6.....",
-    "4...98.35....1.....2....6.42.....4.........2935.......9.7..35...3...21.....8...7.",
-    "6.8.7..3.7.....1...42.......3.....9...5.3...7....49..28....1......26.5...24....8.",
-    "..2..5.3.3..2..8......68....4......76..1......5..74.8...9....7....4..3.1.....25.6",
-    "69.....8.8....6.1.2.....5....5.94.........8...8..6..9.5..37..6.4.......7...6...35",
-    ".6..89....4....5.....7..1..3..4......28..1.9..9.5.2..46.7......2.31...6.....3....",
-    "4..2...6.3.5..7.4.6..9...1..........1.......7.23.5.18..8...3...9...7......6...5.9",
-    "...6...2.............79.5....5...8...68.37..4....21....942...5...7.8....5....631.",
-    "7....52..91.2.....2..86.......5.........9.46348......9......1.4.9.1..5..8....2...",
-    "....1....2163..8.......9.3..3....1..4.7...6......65.......4135.1.3..2.....4.....9",
-    "...8.6....72..1.6.1..7..........9.........25..54.8...6...3..9.48.6.....539...7...",
-    "..2........9.5..3.86.97..1..........7.1.......2341...8.....73......49.2.1....2.5.",
-    "........7.3..1..6....2439...8195..3...7.........8.....8..4....96...2.8.....7..25.",
-    ".17.............1496.15.....738........49.5.7.....5.6....2.....3.1...6..8...69...",
-    "....3....754..8.....64..........58..8.....42.....8967...8..75..2.9......6.....29.",
-    "....64..14....8.....7....3..4....38..36...75.8..........4..3.2....9.....3..581..6",
-    "2..81....7..5...8..857.........9457.1....76...4....1......8...3........296.2.....",
-    "5....6.....7.......8.92...7..4.....8...1..64.79.4...2......1..917....5..3.....86.",
-    ".....1.....923...565.9..2..7......2....6......94...18.8......7...1...5..5..7...93",
-    "4859....6...1.......7.....3.6.42.........82....9.....85....41.73......42.....7.6.",
-    "....4.9.....65..18.......34...1...9281.4.9.6...2.....31.....25.9..8.1............",
-    "9.72............6.3.1.792...93.1.......7.2...4..5.......6....1.....63.28.5..4....",
-    ".98.3....2.....6.17..1.........2.7.9...89..2...5..73..4.....2....736...5...7.....",
-    "..7..35625..81....3......4..9..5173.7..2.8..6..............5....6.....2.....4..7.",
-    "..9....4..479...1..6..7.8..79..6..3.6.8.......3..8.4...5...4.......2.6..2....3...",
-    ".6..7.9..2..9.13.........6...5.....38..5.......6.14.82.1....27......6..8..2..3...",
-    "6..4.......7...41..849...7.....5.9..54...8...7...2.........3..8....1...5..38.62..",
-    "3.79...2..8...6.34.6.2.5..15.........73.....8..2.........6.2.7....5..1......1...3",
-    ".....9......21..8.9..3.47...3.4..29.5....2..86..5................7...9.6.9...84.2",
-    "9..65..7.4...1..5.........36..7.5.....2..3..1..524.8....6...9..51....4..........6",
-    "1...9..3....86....3....24.5.8....3..5417..9.......6..........5..1..25..66......9.",
-    "3.5....1.....7.8...8..6..25.2....6...91.2.7....6..4.5.........2.5.....4.....3.98.",
-    "62..5.3...3......9.........3..4..7...5.....8...12...54.......1...264...5.6.72..3.",
-    ".3..2...5659..31.8......6...457..........1.....7.468..........2....68.....19...6.",
-    "..41.....29..6.1..1...75.......5...64.....597.....4....7...3.5...9..2....8.....42",
-    "93......22....9..85...32.9............4..85...5.926.......8...1....6.43....3...2.",
-    "91....7....2...8.4.5..28.6...6........9.4...28......1.3..7...81.....4.......695..",
-    "....82.4.9..4...3....7....8.6...5.2..8......9..1....7.6.....98.2.7..9.....4.1.5..",
-    "...84.1..9.5...3......3...72......73.6...5...3.9..2.....7.....6....2..3...4.1.28.",
-    ".....43....61.2..8.............9..7..5.2.......4....838.1....59..9..68...45.7.2..",
-    "......5.98.6..1..3..9....1.78..39.2.3..6.........1.4.89...........5...9.....6.8.4",
-    "2..............53..1..54.9...89.........618.4.....2....2...8.5..9....2..3...7.948",
-    "..846...9.........7.9...2.....1.6..4..18..3..3.....7.5......528..3...9..8....1..6",
-    ".7.4..8..3....879..4.6...32..3..7.....6.2...........8............4.6.2.18..1..64.",
-    "1.........4..1.7.....2...31...19.......8.5..2.9.....6..7....69.5..6.3.2...6.5.8..",
-    "3.6.71..5........79...4...3..9.....2.....43..5....8.466.2.......37.2..8.......5..",
-    "7..5.2......6....3..41...6.....81.....8.64.9..3..9.....8..............56329....47",
-    "....8.5.9....3....31.9.67...58...6.....6.2...........36.7.9..4......3.5..4.1...7.",
-    ".5.8..........324......6.5.6..4...3...16...75.4.....9..25.9...4.8.2.....1....7...",
-    ".7....3..34.......6...2............4.3..5..21.86..4.9....8.6.1....4..6..1.42...5.",
-    ".....96.42..5.........2.9.......1.7..3.7...82..8.9.1......3..5.9.3..7.6..2.1.....",
-    "...65...9.93..2...4.2............768...7.....31.......9......2...8364.....5.218..",
-    "...6..5.2.64.1.....9..5..1..1....4...7......38.3...1.6.......6...5..8..99....7.2.",
-    "..5.4..6......2......39.5122.4..6..3...7...8..1.4.....6....1..8..2....763........",
-    "...68..3.....3..6.8.....7.121......3.....95.....1.68..624.......5......2..7..49..",
-    "..1..4..8.....5...7...216..3............16.37..6.42..52....79..95....4.........2.",
-    ".....6.73...73........5...2..6..3..4...51....58....1...3..49..527.....61......2..",
-    ".4.....3..3....5.75.9...8......9...3..28...6..6..1.........1.....46..92...82.5.1.",
-    ".9.4.....1.56..3.........17..1......2.4.6...5...8..7.3..3..98...8.......7...8.24.",
-    "..89....3354..6.8....7....6.1.....7.5..4...1...........9......814...53.7.8..6....",
-    "36...2..82...3..4.....452..1.....85...6.1.......6...27...49..7..3......4.9.......",
-    ".214.........7....638.2.............47.81.2.....3....7.83.5.4.6.....98....5...1..",
-    "...4......32..7...1..23.6......7...5..6.18..4.78......3....497..87....6..9.......",
-    "9...87.2....35......4....3..5..3..8..8.....697...4.5......9...632....7.....6....2",
-    "7..4.2...2......3........5..3..5.6..41.9...........3.1..5.16.8..8.7....534.....6.",
-    ".3.4.....4..........59.17.8.1...78.2..2.........38.5.4..8...1......93...726......",
-    "4......757...2.6..9.68.......3.....969.4.71..2...8...3...1....4.4.2.9............",
-    "..2.37.....9......54....8639.....1....57....2.3...6..5..6..2..17...8.......46....",
-    "4....7.9.9.14.5..........5..4....5..3...2..4..82....7..2.....8....67...2....8.71.",
-    "..83............6.7.68..2..9...4.785.51.2..........3..2.3...1.........4...726.8..",
-    "..6...8...1....6.......2..38..6.......147.2.......179.......4..6.253....358.1....",
-    "....4.....3...9..8..58...6.1.8..64.....4..2..4..1....9......9.5...723.4......83..",
-    "5...7..1..3.....96........3..45...3....8...5.2...9.6...75.31...1.2.......4.6..8..",
-    ".3...9.....1.2...36..1..8.7...9..........375..9.51..2..2......4..6.42.........57.",
-    "...1....5....3.8.......69.79..3.......4.8.1..6.2..97........5.38.1.......9.72..4.",
-    ".43.82...2....9.6..5......1....2...6....7.4.......3..9..9.....5.7.1.8...61....98.",
-    ".....8.3..74.2.8.......74..7........64...9.....8...2912.19..5.......4.......7.3.9",
-    "...628..3..3....4.1..7..........7..8.64.3.......2..5..6.74...51....1.......5..9.6",
-    "..3.6.1481......9............4.....5.263.....3......712..84..395......1.....97...",
-    "......9..4....8.5.68......1.3.9....6.....35...9.261...24...6......74..2........13",
-    "..7..3.1..4.5....95.........3...6.45.2.1.......8..7...8...32..44..7...9.....9...7",
-    "7.......112.9.....3......5.....3..6..368.....87.15...9....7.4.......1.9..1...83..",
-    "..1.....7....2.4.824597....8...42.....6.3..1.......2..31.........4.8...3.....7..5",
-    "7...3....1..8.....3...79.26.2.....3..9...8.4.....9.6...7....3..65.1..49......6...",
-    "1.......8...52.....9.6......7....8.98..7.95....2.4.3...26.7...5.......7..3.8....2",
-    "7....8..52...1.47.....9583...5.2.........7.....6..35.1..............97.6914......",
-    "..6582..........6.4.......5....7.9.63.....8..1.8.6...7.8.416.............248...3.",
-    "..1..4........65.77...92....3.9....6.......8.6.48....2...15..49..6...2..1......5.",
-    "8..16...9........3..75......5......4.......6742.....3....82..9....67.1.85.2...7..",
-    ".....6.7...84......1....26.3.7...41.....857....6.....54.....9...3..6.1.....542...",
-    ".1.69...8...........935.1...3...2.9..6..3....8....64..3....7...4.......1...1..847",
-    "..6....42.2...916.5....3..98...3.2...6.....3......49..73...5......68.........7.1.",
-    "8..21..4.5..7...9........7.....4...6..85......16.8......9...1......3.5..3578....9",
-    "1........8.3...7.4297.....1..97.2................489.2.6...7.8..356...4.....5....",
-    "8..7....5.72....3..5.8..1......71..3..9.2...42.......1..81.4.......6.....95....8.",
-    ".......7...6.2.54.79.46..8........5....3.5..8..1.49........4...8.....32.1...93...",
-    "......73..1.64....6..9.3..1...7.2.....9.....5..2..14..4..2...68.....5..9.5..3....",
-    "..87..52......98......419..2.....7..5..9...8.7..1.6......6.2.7........6..5..97...",
-    ".7...9......4..38..14....9....8..57.7..........92.6.....35.71....2.8..3.8..3.....",
-    "1....7..38.5..3.4.....5..2..5...13...9.7....1.6..2..8.9..........2...8...3.17....",
-    "..6.....18...12..5.7...3....3..9..4...7.8..2.1..6..7..32..........9.6...6.5....9.",
-    "5.1..679..6.9....428........9..52.4.......2..8..6.........4..3.7.2.....9.3.....6.",
-    "....7.9..6..8..7.3...5.3.4..561...........83.9..........2.......4.237.8..9...8..5",
-    "..8......3.9.5........7.8536.............9..719..42....71...2.....3..7....6.95..4",
-    "5.1......9...6.3.1...7.4..67..5...2.2..19......3.......5..4.7.9.....75..1.......3",
-    ".37.5..6..4.6..95.1....4..7..6.7........1.7.5.....8...2.......4.......3.3.84....2",
-    "7.....2.98..7....4.....6....59......3.4..8.5.....9..2...78.....6.....4...2.1.3.87",
-    ".....985..9........5..6..7.3..1...62.......4.68..........9713..7..6.3.21.....2...",
-    "8..5..7...9...8..12..4..39...5....8..3.62...5.7..........17.........4.5...6.5...3",
-    ".3.....8......1.54...9.7....5...2..6...86.7.36..3......2..7...5..4......58.2..4..",
-    ".8......6....1.7.....7...5....6...1...9...5.275...3..8.4....2..3..15....1..3..68.",
-    "1.......9....5.3.1......67...9.7....2....489..83.6...5..6..154...4.......72......",
-    ".4..2..6.....7.1..5...4.8.3..6.....5.2.....9.......3.12.3..59...9.7.4.1.1........",
-    ".9...1.4.541.....8.......69...8.5...97.4...5.63...........197.67.9..........3....",
-    "2874...6....6.............7.....98..6.2.8...55.......9..6..3.2.8.....7...7.1.49..",
-    "..2..8.19.......6..6...5...5..724...1........6..5..23........94.1....8...5..43..2",
-    "7..3..9.5.........2....7..6.........5.8..6..1..14.5....12..4.....4...5.89...32..7",
-    "9..8.....8..3.2.5......6.2.2.5...79..4......8...5...6...2914.....9...4.3....5....",
-    "5...1...3....6.4.97...34.......91....7..4..3...2..58........65...9.....4.5..87...",
-    ".4..3..2...35.9......6....552...68...8.3.....4...1...6.9....1.........9..6..25..3",
-    "46..1.7.9...........7....35.853.2............67....5......459.7...2.7.......83.1.",
-    "57..4.9.........5.....8..4.83.5........9.18.4.2...6.9.15..........2...1.....5.38.",
-    ".629..3.84....1.2..5...3..9..9...6.7...7......35.6.......3..9...81..7.......2....",
-    ".379.4.26..4......2....1....167........6..8.3.....5........6.3.5..3.249......7...",
-    "2.8.6.........2.......17..6.....4..7.91....4878....1..3..........67...94....4..71",
-    ".2..56.8....1..7...49.8....6....73..75...4.....4..8..69.6.......1.....4.....3..5.",
-    "4.......6.1.9.7.3.....6..9....4....5...2..9..9.3.....229......36...1....54.82....",
-    "........3...7.1...79..4..8.15.2.4......8.......2..7.68.7.....46......1..41..8.5..",
-    "...6......4..7....562..9....5.3..2..9..1.438.3....6.......3...183...7.9........2.",
-    ".9.3.....8...2....6......3.94..6..5...6..43.1..5.8.2...1...8.......3..6.5..9...2.",
-    ".....8.....29..5..9.....7.....39..5.35..472....8..6...2...7....5....24.6......8.3",
-    ".2...8..9...74.....39...6.....2.3......8..591.98.....28.23...7.........4.....1.2.",
-    "..4...6.7..9237....5.........6....4.53.8.9.......6.....4....7...2...5..3..17..5.2",
-    "....23...8.......7...76...557.3.9.....4....861........24...7.3...8....7..9.4..6..",
-    "..871.....6..94.7..........6.....9...4...92......2.73....5....28.72...4...1.8.6..",
-    "...6..4..18..9......4.73..229....8.........3...5.4........645....2....9.3.9.1...6",
-    "9...58..62.891.5..........83...76......29......7.............4...14..79..596.....",
-    "...241......9.6....8........1.4.2..5.357...8.........4..7..4.9...467.8..8......3.",
-    "...2......7.5...1...8.69.5........83...8...6.....731..8.2..59..5....73..9..6.....",
-    "2.......6....8.3.7.3..1..2....1.72..4.........2.34..9...65....48....9.5..1..3....",
-    ".......76.6.2..5.4.31....2..8.........5..3...3..65...1.58.9.....7.5.......47....2",
-    ".9...325.81..2............1....56..9...7..8..3.9....45.5.9.4..........3..8..1.6..",
-    "8...1.......62..7.2......84.....5....9.3..4.6.23..4...3.8.....7..4......7..14...5",
-    "....5..94.7.4.16..1..........3...8......7..695....8...9..54....71.9....3..83.....",
-    "...2......1..73.96....1.........42.3.....6....7...954.8......1..61.3....53..9..7.",
-    "4.5.......6...9....7..61.83..39.....8.........21...69....5....79.4..7.1......3.6.",
-    "1.2.......9.....81.7......3...7...4.3...91..2.....47....8.7..1..1..596.8......4..",
-    "......5..8..4..2....42..73...91.3..55.8.....221............547.6.5.......3.7.....",
-    "19.......4..2......8.37.4..........195.7.82....7.....9.4...7.9...8.3..2....5..8..",
-    "..6..........514..2.4........3..7...1....4...9....8536..2.....76.1...3.....1628..",
-    "8....247...17.5.6.4.........28..9.......38...61.....5..6.....3.1...5..4.......7.1",
-    ".....6.....192.....9.8...2.2..1..4.3.6..5......87.....92........85.1.6.......37.8",
-    "..7.59...4...6.53..9......2......38.5..9.14..2.13.........1...8...6.7..4.....2...",
-    "....5...6....34..165.9.13...8..9...........9..12...843..7....2.56.1.....3........",
-    "..28....7.1.9..6.55.9..1.......23...8....4..9..3....7..2.....8....4.....4...85.1.",
-    ".5.8.....9..1....278.6....4..9....3.3......75.....41.6.36.7......2.1.7........8..",
-    ".59.7..4....5..6...2..4....5.3....94..13...8....4...5..96.....1.....3.......85..2",
-    "2....4..5.3....7...1.9.8....2....3.7..5.......791..4...8......2..23..6...9..81...",
-    "...5..7......3.4..2.6.1.........2..3..4...9.719.....4.........1.5..463....915.6..",
-    "....92..44.35..........6..7..6...7387...4.2..95............1......2..4..382...6..",
-    ".124....78..9...6.....6..42.7...4..9...1.3...1.....27.........6587...4...2.......",
-    "..59..7..2...3....6.8.4...5.....35.7...25.41.4.....3.........2.9..1.......7...9.3",
-    "..8.37162...8...7...6......79.5......4.....93......6...6..1..3...5..29.4.......2.",
-    "9...2537........622.7...9...9....81....4.3.................2.3..3..5.1....2.6..47",
-    ".....7.4.3.....7.118..5....653............2.....971.5..3.6....8..6..2..3..2.8....",
-    ".....13..........519.3..7.43..5...........6.3.....8529..9.1....6..8.......7..596.",
-    ".....26...2.1.....9.......4..5..78.66...24....73..6.......83......4...9..5.9..23.",
-    "31......9...517.....6....4...937...66..4....2....5.....6.....1..4...3.6...52..9..",
-    "..6.4.29....3....47.4...1....5.21.6...75.9...8.........9...6.3..1.78......8......",
-    "..76......6..85.....92...6..4.51....2..4..93.........45....2.....1...7.9.....748.",
-    "2..5...4...94...1..85.3.....3.....6....91.8......8...3..87.6..2.67......5....9...",
-    "...9.....3....67...9..2......3.7......2465.97.......5..4619....1..2.....72....8..",
-    ".43.7..81.5........7...9.4....3........1.4...5..96.2...38...79.........2..643....",
-    "....72....3..6..48.9.81.2..8.....91...3..5.7.95......6.82....5..........4.......1",
-    ".9..1.75.......3...2..8.....8...4..64...2..713..69.8.....95..4..5.......6....8...",
-    "6...3....1....74...8....73.2....9.1......6...3..5....2.1......8..9.7.....5..6427.",
-    ".87.....5..3..7...5..24.......6.5....3..7.1..4...1......4...9.....5628.....4...32",
-    "...9...2...4..2....9.5..13.915..6...3......6...2....4....2....56.7..82........39.",
-    "...2..1..9.87........1...435..39...8..4....5.72...8....5..3........2.81.4.....3..",
-    ".....6....1..8..5.3.6...........56.757.6.3.1.1......9...4.....12..3..7.89......3.",
-    "34......7.1.38....7....61......3.6....61.4.9.....9..325..9.2..1......8....4......",
-    "18......6.....18.44.9...1....3.7.5...6..2.73......9........43.2..7.1..6.....3....",
-    ".6.......23....15.89...72..5.42....17..3.6.4.......7.......8......1.53.7....6....",
-    "..5......47.2..3...1..897...549.......7.6....2.........9.8....51...4.932.......7.",
-    ".4..8.5.....3.79....3....87....6.....2..79..6.8....1.........4......5793..143....",
-    "1....76..6..8...1......5..2..7.....8....82.3..8.3......6...47.5..5.........1.642.",
-    ".4.....6......7....9..4.8..7.2.9..8....2....9.5..3...163.....94.8....2.....9..65.",
-    "6.54.31...........71....2.6.68..7..3.738...4.....5....1......24.........9.....57.",
-    "8...1...475.....2....8..6....9.8...51..52.847......1.....6.85..9...........4....1",
-    "...4...294.....1..8..6.1...15..8..3...7...........7.82.6..34...2.5...........83.5",
-    "....695...6.1......8....2.9.76.9......1....8.9.......33...8..97.......5.8.543....",
-    ".24..8.6...1.3.8......2..3.....13...1..4.6..8......45...3...6..9..........8.72.4.",
-    "7...4.3....9...5..6..1.32...6.48...3..75.1..9.......62.....6...8..3....4.......1.",
-    "6..5........2....12....8..9.1...68..9...3..1.3...4..5...94....6......3.5.....127.",
-    "...4.59.8..4......3...9..7.......5...1....8.3.8.74..6....1...3..72.....5..3...4.9",
-    ".5.7....389....1.....295...4.15....8......72...5...4..1.3.4..6........4.....71...",
-    "...5...2...9..6..7.5...3..14.....85.56.....7...74....9...2..........97...18.3...4",
-    ".3.61..7....9841....2.........5...942.........5...7.3.3....1....678.....4...2...7",
-    "35...1..............1.6.79.61.8........9.6.24.8....6......52.694.....1..7.2......",
-    ".231.....4....68.....7.....8..3..67...428...........4..5793.1..3.9..5.........5..",
-    ".........12.9.5...7.9......4.1.568...65..2.......4...58...7.3.....1.9..42......1.",
-    "..3.12.7.9.......1...7.9.3..9.6......3......8.572..6......81...2..97..5........1.",
-    "....5..8.42......5...8...3957.....4......1...1.4.36........59..385.6......7.4....",
-    "......9...72.5...46.8..1...5..7..1...3.....7..6...8.......7..43..4...2.99...6...7",
-    "......562.89..2.....6.3.7..6.....9...1.......4.7....21..1.7.......9....5.2.1.3..4",
-    "6...1.5.9..7......2.....6......4..929..2..34.....7.8.....3..72..8.4.....19..6....",
-    ".867...9..2....1....498.....3.2.4..84..6.........93..7..2......1...5..6.......71.",
-    ".6......3.5..7.41......96........3.....3.18..37....94...6....2...1.4.5....7.8...9",
-    ".8...........81....563..2.............41...3.29.5...67..9.5...85.3..6.7......3..1",
-    ".2758...68512...............8..4.2...............93..1.42....1..7....85.5....94..",
-    "..84.3....26....94...1...8...2...74.....126.......58..5.9....1.....3.....1..6.3..",
-    "..8.2.1.9.........7....52....9..1.45384.7..........6....32....8.......9.4..1..5.2",
-    ".....6...5.9....1....7.8.3...1..5..9..2.....1..8....7394..32.........54..2.18....",
-    "....8..6.2..6.3.9..7....24.3..7.....1...94..769..5....7.5..1.........8...8.9.....",
-    ".6...1...9.......4.3.457.6.3......7.6...2.41...9.1...5..8.4.......2......1....78.",
-    "3.8.6...154....9...............2...5412..8.3......4.2....9.3.8....4....3.9.7..6..",
-    "...7..8.5.....8...6.5.......9.5.6......8..9..7..3.2...2....3..8..7....31.5...9.42",
-    "..7.9..5..6......4.8.3.16.....8.....8.26..3........1.2.95.3.........2.....34...18",
-    "2...493..7.....58...8..5..29.......4.1....27...376..1.6...2.9.............4..8...",
-    ".65.....1......58.....9.....1.2.7.638..1..........6.7...17...9.....52..7...4..8.5",
-    "...9....19..2.756.17..5.............6..3.4...3....8.42.37.......2..8.75........9.",
-    "..1..8.392.....8...4..2.1..38....5..7...........3..6..5...4...2...96.....798....4",
-    "5...27..69.8..6.4..2.5....1..9...8.......3.9.8......7.3.5........241.......36....",
-    ".4..17....523...8...9.....4......1...38..1.2.71..48...4....2.6...3.7........9....",
-    ".....2..1........4..3..8...6.5.......2..1..9...49..6...5.14..26...5...4.4..6...73",
-    "....6..3...64.3..11........73...5..............982...7.7..8.1....8..4.2.94..7.6..",
-    ".....85..........9.48.9261.7..........9.71..6.8..4.2......6..8....7....556....4..",
-    ".2...384....2...7989..4.2....1...6.....82...1.....4......6.....2...5.......791..6",
-    "........51268.......4..7.2.....4..37...79..4.........998..2..6..731.....6.5......",
-    ".3....6.5..........468.9....2.....9.584.........62.5....9.......5.236.8..6.5..1..",
-    "......7.3..7.3.9.....1.....7..9.1.4..6....5..9....3..8..24.......6....1..34278...",
-    "..53.......2....5.....6.9.2..7..4.83...21.7....86...4.....5....86.....7..1.9..4..",
-    "....95.8.2...38...48.7.......78...523...5.........1....4...6..5.9.2....4.2.....3.",
-    ".9....72...687.....5...1..4...912....39...4.......5....2...6...8......9.9....8.75",
-    "87.....96..6..3.......8.....1.9...24..9.3......5...7..6..3..1.7....5..3.....74..2",
-    ".....73.........69....5....5..3..8..3..29.7....7.1..4..4...12....8..2.3..9..8...6",
-    ".8...9..7...21.4..4.....95...3...6.881......5....3..2.26.1............4.1....7..6",
-    ".7.2...1.42.6........8.9..2.36.8.........428.9.....7....3..7.........8..6.1...45.",
-    "9.5..6..........3..3..98.21.8....2.......5.....6....83..2.3..5.8.....6...79.8...4",
-    ".8.6...152......4.1....2..97.......6......5....683......498.....3.16.........57.8",
-    "1......63...136.7.6...9.8........9....37...8...25...3.......2.4...68.....2...5.9.",
-    "2..9.7.1.....38.......5.........6.7434.........1.....8.......856..3.1.9.41...9.2.",
-    ".4.71.....3...2.......8.29...83...15...........1.6..7.........7...1.5.82.736....4",
-    "........1.5.9.3.7...82.......1.5.83...2.6.4..5..83..9.1.....6..29.7.......4......",
-    "4...1.5..9......8.8..4.7..1.3.8...26........7.......5...7..6.....65.1.4.1..9..2..",
-    ".19..8..........51....6..7...6..7......8.2...5..3..2..23.64...8..4..1..59.......3",
-    "83.......7.69.1...........7..16.5...924...5......1.9.....4..6...87....1.5....8..2",
-    "....867....2.........7.......6..7.9..4.....7..8.56.....5..3..4.36.24..811......2.",
-    "3.....579..4.97..............6....81...2.........392.446.78.3......2.....81..4...",
-    "38......5..5.....6....7..1......2.9.9.8.63.5..37........2.....9.5.1..4......843..",
-    "2.........9..46......3...65.6...4.....7....52..2.3.6..4..5..7..8.9.....3.3....91.",
-    "4.2..9...85..62.......73...........12......7.9.1...5.6.6..........8.19.35.3...4..",
-    "..38....1.1..9.724......8.9.....195.........8.28......1...2.....3..5.....46..3..7",
-    ".4..5.1...6...8.9.58..6....8......4.2.9..4..8......9...3.......4987..6.....1..5..",
-    ".9...3....6..7.83.48.5....1...6.....3.....68.8.......47....2...1..346.....4...3..",
-    "..65.4.8.3..1......9...2..4......176..7.23..............9...2..15....7.8..2..7.4.",
-    ".......6..8..65..74.1..2..3......6921.5.4....6.....4...3.......74....9.......958.",
-    "...7.4..3....2..1.84.....26.25.3....7....6....6...97........341...4.1.......5..8.",
-    "..2...75......76..8....3..44.................6.7..83.9.5..19....9..258..7.4....1.",
-    "2...17.8.1....3.....4...5.38.96.........2..9..6.7..4.1.3........5...8..9....7..5.",
-    "3...5.6....1....2...54.7....3.5.8...6...41....9...6..18...7...9..6.....5....9..4.",
-    "..19.3.5.42..............4...8...6..61..2......9.5.8.....79......26..3....75...94",
-    ".8...5.1.5..1..3.9..1......1....4.53....2.7.8..........7..6.......859.4....7..69.",
-    "......29..1..8.........6.45..61........9.8..6.79..5...9......5...74..6..53...2.1.",
-    ".672..13..1.......5.8...97......3...2....6.9....75.....53........15....6....6.2.8",
-    "4.1...8.....6.......8..2.7..6.43....1...5...2.....67.4.1.....3758..4.....9..1....",
-    "7.........95...........32.932....1...8.....2...97...5.1.2...96.4....15.....54...8",
-    ".9...47....6...23.........5..89.14.7....5.....6.8........5...2..437....95.96.....",
-    ".8...5.7.......2.3.4..........52.......6.....1..3..549.1....7..8...16....9.74..25",
-    "..6...529.3..8...1.........37.9.5....6943....5...6.......6.87...15........2....1.",
-    ".7.81....9...6....86...24..........3....36..85.4..71...8...5.6....2...........915",
-    "..6.3..7.5..6.......18.5......5..7.31..3425...4...7...8.........9..2.1....7...6..",
-    "5.4........2...8...8...5..2.3...8..........95..6.7.3.....9..6.47.3.1...8.9...2.3.",
-    "..7.4.9..4..28...32..5...7...21......5.7.......6........1..5.3....6...4.8....96.2",
-    "5.3.....86....8...9...62.7..8....1.7..7...4....174.3......8..9.....76....35......",
-    ".......5.29.7....8.1..63........1.69....4.1...21.3....7.6...52..3.61..........7..",
-    "587......1.....5...368...........762..29............9.....9....7...6.4..8..2539.1",
-    ".....6...8..9.73........8.9.15.4...7...6...2.7....3....51...2..49.....51.......98",
-    "15....9.......7.6.6....513.8..4........5..2.451....37........8..97.6........9...3",
-    "1..6..5.4...7...1.2..........5....2...68.........9.85.7......4...9.7.13..6.519...",
-    "..5..2..77...9.2.3...6.394...8.......2....8.....7....1.7.....54.4...8...5...3..1.",
-    "7..2.4..3....3......6...51..13...2...57.4..8.2....8..59.1.......4..9.......5....1",
-    "57..............7...1..4..349.8...3...7.3..243....6........2.918..9..4.....1..8..",
-    ".6.3.24...5..........9..32.....1..36.....3...2.1..4......5.6..1..5....8..89.3.6..",
-    "86.5.......1..9.43....6........8..9..........9..3..2.7..6....35.2.7.1..9.1..3.8..",
-    ".....43....71....6.6...3.9...1....2.63..1...492...6.5...4..8...5...........6..2.8",
-    "4.61....2.8....5...1...97..74.5...3.....2.4.......8.6......5.......3...7978..2...",
-    ".5...94.2.7.....564..1.........2.9..2.8.......3..76.....7.5..89.......43.16......",
-    "..35..28.4...8.1........4.........92..8.15....25.....7.....9...6....2.5..4..5.9.6",
-    "...4.6.5.....2...7.4...5.1.7..........3.........74.8...872...9.....946.5.6..5..3.",
-    "2.7..6..........3.3....59.88..1....79..6..1......943..........36.4.7..1..9..2....",
-    "........8......4.6..2.9.....1....6.5...4.3..9.7.81.2...862.4..1....8..3.7.1......",
-    "69.2...........6251...3...8.....6.4..3.429....6..7..8..71....9.3....41...........",
-    "..3.74..5.67.21...........1...6...3..36..9..4.4.28.......5..4.2.9........7....8..",
-    "...6.18.2.5.7...3.8..5.3.....4...7...91..546....8........9.8..4..6..........7..1.",
-    ".8.....5....31.7...29...3..9...8..4..51.7..2....6.1...8....6...7.....2.....9...76",
-    ".....6.4..1.3..7........31.8..6..9......81.....72.5.6.4....8..5.7..3.2.....5.9...",
-    "..1...7.....7..94.6.3......43...769....2....8.6.....7....1.5.8.71..9.....2.6.....",
-    ".9.6.8..2....7.8..5..3....18...1....6...4.3...72...9.6...8..5......27.........42.",
-    "8..4..........8295..1.....4..2......7.3.5...615....4.2.9...6.7.....4...3...92....",
-    ".8.472..6......5......967.3...3.8....61.......4.....3..7..2.......8..4......5169.",
-    "..3..4.6....18.4..9...6.1..4...1.....8...3.......7.836.......843.....5.76.2......",
-    "...1............1617.2...85....4...98..62..4.2.....7......75....4....3..5.63.9...",
-    ".....7123....1..5..59..6...9..6.4.....8.2...1....95.......6..3.2..8......4....26.",
-    "7....9...16..5..9..8.1.........24...9.4..83.7.7......8...3..76....5......5....83.",
-    "......4...9....5...7..93..28......14...3....616....8.....872.....85..2......647..",
-    "..6.3.....5784...3..9...7..5........3......91.....524..9...43.52...6.1.......7...",
-    ".1...37.584....3...9........672..1.......1.6..2.4.........38......5.6.....1.475..",
-    "....27..8...9....31.68......4.7......82.4..7.5....9.1..7.....2.6...........58..49",
-    ".1...85...6....9.8........459..831...4..5.2.......9...4.......3..32......8..96..7",
-    ".89..6.....7.....21....36.8...56...9..1..2...8......4.67.24.3..........5...9..2..",
-    "...31.2.73..57......1..4...7...2.4....4.......1......5.8....65.6.39.....9......73",
-    "....92..7......4..6......3.8...3....1.2.8....7....42.5.......5.45....3....3.1.649",
-    ".........3...15..2...8...1..79.....52.3..9....18..74...6.98......57...8......21..",
-    "...8..65.8..7.1..9.34.......6.13......2...7...9.6....2.1.........92...87...5..4..",
-    "79......58..1...4..2...6..9....2.1....15....7.85.1..2..79..26..6...........3.....",
-    ".5.8.....1.4......3....78.54....925.....2...7.3.5..61...6..........7.9..8...1.7..",
-    "...9...3..47......26............4.9....2..7......8.5....31.7.49.....6.1..1.4.92.5",
-    ".....81..73....9.2...........8..5.31...64.....95...7.......1..6.8.476.2.3...8....",
-    ".6.53.....5......643...2......2..35...14....2.....8....7....21.6.......3..58.49..",
-    "..7.9.....42173........2...73...496.9.6....1........2....6.......9.5.4.....2.8..3",
-    ".....6..8..54.9.......25.16.....73..4.......22...5...9.1..9..8.6.4.1.2.....3.....",
-    "4.....38..5..18.....3...2....4...6.28.762...........91.1.73..........9....29....4",
-    ".1.8.....7..6.3..4......23..7....19.96..42...........5.35...4..2.....5.1..9..4...",
-    "...8...5.86..5..7.........4........5..2.716...81.4.2..1...8.....389....7.....5..9",
-    ".7..8...22..9...3.85......9.....2.5....8.....5..36...71.47....8....5...3.....9.2.",
-    "..31...7......8.6.....568..6...3...15..........2..1..9....67.1.......2.4.8...473.",
-    ".4..96....2..7...3..84..79.3......6.8..5....7..23.48...........9...45....6...2...",
-    "87......14..1..7....3.469....7...5.9.5.6..........9..76......4...8..2....92..3...",
-    ".5732......9..........692.....6.8.2.6.....3..4....387..13.5.....7..4..........5.9",
-    ".8....9.6...5.3.4.9.76.......4....3..368.7.2...8..5............2..71..6.3...6....",
-    "....156.4.4....1....27......74.2.....895.4.......7.3..1..8...2....13..6...6......",
-    ".5...6....4..3..68..12......1..8..4..8...19.....7..2..8...496.........9..7.35....",
-    "1.2.5.9...........39...2..5...1.82....3.......5..26...6.73....18....7....21.....9",
-    "..8.13......96.5...1..4....567.............6...21....9...79.3..6..3.51..8.....4..",
-    ".6..84.9....5.....5.......2....9.12..7...198..4....5.6....1..6.4....9....372.....",
-    "......2...2.461...7.825...6.....87..4..5....9.5.....3....7....55....3.6..9.....2.",
-    ".7..4..618......37.3..1.9....947...2....5.3..15.........5...7.6.4.......9....8...",
-    ".......2.593.......18.4.6.........83....2..9..7............69.54..3.571.1....24..",
-    "..6.........8..95.3...9..1.26..8.........3..4...24...945..2...89.2.......8.3.5...",
-    "..........2...6.9..4...17...18.4..3....6....4...35.2..6...728..1.....4...8..3..2.",
-    "279...........3..5........4.8.2....1..6..5...5..6...8.8....79....3....5..679.4..3",
-    "..9...62...437.......1..7..1.7.........9.5..8.8.7.......6.54.3.........4.5..318..",
-    ".9..6..7.3.4....9....7....3....9...8.81.4....7..35...6.2...63.9..7.......3......5",
-    "63....5..9.....347.7.1.....5....4.....83...79......1...5...3......9...81.6.87....",
-    "5..4....1.236....9.6...5.....2..15.8..........8.3.7...65..2..8......4..2.7....1..",
-    "4...9....7...4..12..2..7.........98.8.32.9.6....4..........1.3..5........39..567.",
-    "..78...9.95.........42.5.......2..35..217...4.1..........4..3...3...16...7..3..2.",
-    ".621..5..5.9.7......7..2.....52....8..4....733..4.9........32.1...7......8...4...",
-    "...1..4.331....6..6......98.7.......23..5..76........99....3.....7.6.5......85..2",
-    "..1.8.42.7.3...5.....7..............53....8.69..61....42.1...3.....6.....954.2...",
-    "....9.......64...1.61.....34...8...951.......6.8..1.4213.....5.........6.7..12...",
-    "...1..........4.1......5..99..3...7.41..2.3.6.3..5.4..1...7..4.6.3...8.....2.8...",
-    "....6....7.43..5...5...7..26...9..2......3..18..1....5..2.81..7.37......4....5...",
-    ".......9..9.2.......38.47....4...9....198...2...6.5.....93...65.8....1..5....1.2.",
-    ".....1.9.1.37..2...6.4....1..8....6....9.6..5.3..2....9.5..84..6...........24..7.",
-    ".....6.4.2.4...8..8...5....1........73.4..9....6...37...2.63..1.1......5....28.3.",
-    "..1..8.2...673.....8..9...462.....8....4..1.........95.4.5.2...7.....9..568......",
-    ".9......1867............3...4..5..9..1..9.68.....18.........41...9..4..5.3.8.17..",
-    ".1.9..8..87...4..2...1.2.....4...5..95..........3..1...9.....7.....652...67..8.3.",
-    "6..7.......85....27..2.95.....83...1.9.1..3...71..5.........1.34...9.7........4..",
-    "....67.........3....253...66...9.4..9.8...5.145...3.........2..59.....7......1.34",
-    "1.....72...7.9...4.26.....8..1....5.29...5...3.8..4...7..2........657....3...1...",
-    "....3.2...69.8....2.....53...7..3.....46..1....2..4..78.6.............139..2.64..",
-    "7..4........9..5.8.39.........8..195..4...2...91....4.6.......9.....3817....74...",
-    ".....2.3.9.....4......7.812...5.7..6........3..1..4.5...84......15..6.7..69.8....",
-    ".82.......7..6......62.4....2.6....38..5....7.64..2...73.1.5..8....8.....4....3..",
-    "...14...97....6.3.............5..8..1.8...4.2.5..2...3....58...63....2....4..79.6",
-    "....6.21.19..7...4.........9.67....3.....2.....4....964....86......3.5...812..9..",
-    ".2..8..3.4..1........7..5....6........7..49.59..3...2...487...66.....2.8.5.....1.",
-    "....4.32......67.857...3..46.28..........4..9.5.....7......91...1.2.......94..8..",
-    "...785...3.........4...1285.2...4......3..49...39.....1...7...8.......5.2..54.6..",
-    "..4...2..9..7......7.6.2....5....9.719....3.......16....847...1....9.7.....1.3.8.",
-    ".5.9.4......1.....6..2...1...3...9......65.87...3.82...3..4..6.7.4.......8...3..5",
-    "....2.......3..85.9.8...3...6...7....25....6.3.....24.2...9...8.8....41.7..43....",
-    ".7.....1......7.6.369.....2...35.....4.2..9...2..6...741.......8....213.5......2.",
-    "..12.5..6.3....4...9..8....4.....6.5..5..1..........18....7.8.1...59..7...6..2.9.",
-    "9....3...2..78......52.......35.64....9....1..4.....5...8..5.39...1...247.......5",
-    "8.6..97.4.4......8.....3....2.9.6.......1..2...97....6.31...5.....2.86..7.....3..",
-    "..8..92.11..763.....7....5.6..234.....5..1.8..7.............86.....8..9...35.....",
-    ".....6....5....32..31...8.54.3.5.67.165..3......8....374.2..........4..........6.",
-    "...........5..2.76.1..7........2....36...57..9.....8...5..37.8....9.6.....68..312",
-    "8.....9...4.1........95.18..3..7.....5..6.47.9.......2.92.........2...5.16..8.3..",
-    "...81.....8...4...9..5..6....5.2..14...7.5.........53.347....9.8..3.......2..9.4.",
-    ".3.9.7.....5.8.6..7..5..3...82.4....4....3.....97...25.....6...2.34...7.8........",
-    "....91..3.8.....6.....2.57.8.73.6.......5....4......2.9..4.....63...7.5...1....86",
-    "......5......852.........341.....8.5.3..7......49....77...9..5.94.6......6.3.4..8",
-    "..2.....1.7...3.2......4...5..179..2.8..3.5...31......6..54....8...6..3...5..1...",
-    "9..6..4..6....75..2..51.8........7.3......196.4...3....9..2...8.35...9....1......",
-    "1.......66..2.49..4...1.....17..2.9........1.......56.98......7.26.3...8....65...",
-    "7...1...3.9....4..6....7..8.7...5...5..9....4.8.7..6......98.......4.23.3..6...1.",
-    "8..9..1.............7.25.8.....5.4...7..4...61.6.8.2..63..1..5...1...39......8...",
-    ".....5...12....6....5.......47....2..9...1.7....6.7.54..23..7...73.8..9....5..2..",
-    "..82..41......9...7.6.5.....3..1.2..2.1..85.....4.....3.5....6......68...8.1....2",
-    "....7.96.....31..2.5..........9124....1.....8....6....84....63...5..7..4.9....57.",
-    "...21....6...7...5.3...9.2....3.......1..863.9....78....41.2...8.2.6.......9..4..",
-    "....3..5..4.5...8.27.8........2.6..97..3..5.2.....9...1.....7...6..4.31....98....",
-    ".......6..14......3..9...4286.32..1...9.8.7..1..4...2......7...4.....69....2.1...",
-    "..1....2....69.78.....51.....6....3....7.......21.34....84.......3....4565.2..1..",
-    "..7.95......8...2...9.1.35.7..2.........476..81......5.......4..31.2.86.......1..",
-    "2....6.....3...628.1.5....9...2.59..6...7.4....7..9...1..4.........3.751.2.......",
-    "3......1...576.....1...269.1.94.......4.85......2..5......3..68..8.5...49........",
-    ".1....6.54........26..3.....7...4..11....897..4.9...3.....15.2.9.......8......7.3",
-    ".9...78..6..1......7..4..231..45....2.....93.....9..........29.8..6....7.....835.",
-    ".34....5.6....3..9....1.6...7.48.96..8......7...2...3...9..6.....6..74...4.....2.",
-    "....34....2....8.74...7..921..5..6.4.6.9....8..5......6.23..5..9.1..........8....",
-    "..2.9......1....56.8.46.....4.2....33...7.6.8.......9........72....47.8..19..2...",
-    "..6.437...9..1.46.1..........9.67.3..1.......7..3..2........64.27.......5.4..2...",
-    ".5............7......68.42.5.81346...9........4.7..3..........137....59.....4..68",
-    ".7...51...8..91....3.7....8..4.........6.25......8.6....8.....279.3...8.2..1....7",
-    "..9...16....42..5.5...17..........4....2736...3........4...1...8.26..4.7.6.8.....",
-    "..2............3...73.4.1..86...4..3.9.2...144....7.....8.3...5...1.9.2.5....8...",
-    ".8...6..1.4.5....6....13.......71.5.51.4...38.7..........2.......3..54..7.9....6.",
-    "..6.97.....9...1..8.........4.5.62.316.7.3.4..........32...4.8.6...........15.4..",
-    "4...2..5.7..6..3.2....1.9..1..7..5....5.8.1..3..........6....8....97.....4....736",
-    "4.789...51..2...9......76...79.....68.24............716.....9..2.8.......5...3...",
-    "9..........2..5..8.8..3.2.7...189...2......5.3...2.91.7.........1...3....5..763..",
-    "........826.3.7...394.........27.65.......19..3...6.7...6.......85..3.......95.6.",
-    ".92....4857..2...9......5.....6.439..8.9..1.6...........17.5............267.9....",
-    "...7523.....3...4........5..3756.....9.8.....8.....4....9.2....3....9.1528......9",
-    "9.6......25.68....7............3.6...7......2....21985...26...81.....2...4..9..7.",
-    "......6...3..98.....53..2...89...5..4.18....2....4..6986.9......9..7....7....5...",
-    ".3417.........68.3.....5...9..7....6....3.71..8.9..5....2......6...12...4.3...1..",
-    "48.1...........6..5.2...7.9....7.89.3.1.9........3......58...7....7.2....2...9.65",
-    ".2...9......6437.......74.11...3.5....9..2..87......9.8.......69.3.16.......8....",
-    "2......468.5..27............48.6.2.1...38...........75....7..2..3.1.9.....483....",
-    ".....7...7.9..5.8...4.9..1....1.2....4.....952........6.8....5...3..8..1.2.67.3..",
-    "1.....3.6.9...52.....62....2.9......7...1..4....284...5.........7.5..968..61.....",
-    "2..........3.2.6.4.51.....98...65..7.........5..89..1.1....2..5...7..23.74.......",
-    "...8.4..26......5....91...8...6......4.5.9.13..2.....976.1..8.......8...5.3...9..",
-    "...2........61.....7..341...9...84.....923.5.........7..25..38.8..7..6.........29",
-    "..34......9.13....8..7.2.9.7.8.96....5...7..33.....7........25.1.4..3...........9",
-    ".2....47...736......8...2.395...1.8.4...576........5...8....32........9.1...9....",
-    "..8.43.16.5..6.9.....9...3..3.2.......5.7...8.8.........7.9..4.16.....5....6....3",
-    ".152....73..............4.86....7.452....46......1....5.2..1.74.6.5...9...4......",
-    "...9.......3..452...4.78.1..........9..5.14..3...9..........67..37.5...88.23.....",
-    ".682.....1.7..3...5............94.5.......67...537......4..7..2.8.1...4..2.8..7..",
-    "....6.39..8.......9.....2.5.......78..1..8......327..15..68........72....3.5.1..2",
-    ".6.......27.6..8.59..5....65...42.1........83..2.9.........8.34..9..1.....1.2....",
-    "...165..9.7...4.3........2.5.....7.32.........8..9..12....2.4....93.6...8.4..9...",
-    "2.....15.....4..2..48.1.........6.4..5.38..769...........8.....3.5...6....913.2..",
-    ".....91......2...69.4...3..3...9..2........1746...2.....7...4..13.5.4.7....2.8...",
-    "...6.2..4...1.7...649........5...7...2.5..64.49....5..8.....13.....8...7..6.....9",
-    "....3.4868.92..............9....5.4.2..78.6..........5.6..2..7....3.....5.3..8.21",
-    ".........5.3....9..2.9.83.6.6..7.4....7.54.81........3....49.............78.316..",
-    "...........4.7.5.3..14.3.8..6.3..1....7.......2....4.5.9....6.4..5..12....2.87...",
-    "84...7..2...1.....75....18.3...9.7.8.9..4.....7.....61.64..3...........39...8....",
-    "6..4.......5792.4.....5.9..1.7.6......2....7.....4.1...79..1..........928..5....1",
-    ".......12....374...1...5.........1.893......6.6..9..5.....23.65..3.7.....7.65....",
-    ".....76.9.4...2......35...8..65...1....6..7..1.5..98......7.36...8....5.5....1...",
-    "....5.4..78......29.5...8......651.7..2.9...4...3.....53.........74.....1...39.2.",
-    "36.7........645....95..8......5..416...2....7.....9...18..7..9......46....2...8..",
-    "..4.5.2..........8..361....4.......3..6..4852.9...5.4..2...1....89...3..7..8.....",
-    ".2.......3......846...5...9..8..19237...........2...6....9..6.1.9..1...2...82.5..",
-    "..3.7.2.....1.....2.....6....7.4....638..9..1..2......37..6...5.5.9.8.7...9..3...",
-    ".........5.6329..81.7.....3..29....6..3..4........5.91.....3...3.1......7..84..5.",
-    "...8.9........7..9.12.3.....7.3.5.4..6.....1......2.7.63.7....1.49.....57...6....",
-    "....173...5....8...42..8.1..7...59..6..4...8.9......3...8.2..............31.7.6.5",
-    "4...6......8....63..3.94...5.48..9........1...7.6...3.69..2..8.......75..27......",
-    "..9..2..3.5.8.19.......9..4.35...6.......8.354......8...61.....798....6.....3....",
-    ".1..9.24....75...882...1...........64...8...3...5...7..6...7...2.9...8...51.2....",
-    "57.9..3.6..85.17.......64....5.............1432......97.9....3.....9.2....37.....",
-    "49.....3..5...8.......3.87....3.2...........7.14....9..3952..1.......3.5.2..6.7..",
-    "..19.26.42.....1....7.4....69...3....85.........256.......7...875......6...3..2..",
-    "..3..7.4..9....3..5......271.....2......1...5..285..7.....46.....9.....38...7.9.1",
-    "...4.68.74....3...8..5...49..3..7....6.........46...3.....9..84.....5.9...71...6.",
-    "7....8.......2.97...3..5....56...1.....1.......2..75.4.....6..5.1.87..9..6...4..8",
-    ".....6...76..1..8.3.....15....73.56.4.........8....97.8....9.4..9....3......27.1.",
-    "8...32.....1....876...4....75....1..........54..5...6..3..297.....4...92..4..6...",
-    "2....3....74...8....3...2.1...3.4.79.........6.8.92.......31.2.7....9.6..6....4..",
-    ".5....4....4....79...........9..4..34..2..9....7.1.5.8.95.....46...5.72..4...6...",
-    "..14.2.......8....6.3.7..5.......82..7.8....44.....1.95.......77..56..9......7.6.",
-    "..9..78...8...2...3.1......8..1...4..6..95..2.......61...7.....43.6.8....12...5..",
-    "..4.912..72............581.....6.....83...5....7.....4.96..3.7..7.6....1....8...9",
-    "..3..1.....78..........45.63.52....1..........1.3.7.6..7..9.......4..8.95.27...1.",
-    "...6.4..1.4.7.12.9........8451....2.........4....7.8..8...6....3..5.2...92.....4.",
-    "..13.....2.....48....58...6.......5...5.492.37......4.16..7...5...453........8...",
-    ".1..6.....7.89...3..53..6..28.4.19..1..7..4..9.....8....2....7..9..3............2",
-    ".5..8.6..679....4......9.........52...8...3......9.....3.57.....946..1.5.8..2..6.",
-    "....2......45.......7...391..9..4...6.......9.5..3..46...816...7.1..5....3...25..",
-    ".....3......4..8.7...5...14.8.....2.39...2...5.......9.3.6..4..1...5.6..95...73..",
-    ".1..4.2....58..31.6..5..7..49.16....8.2..9.................3.5...1......7....8.34",
-    "9.....3....42...983...76..5.7..4.2.98...9..3......5......81...4..2........3...1..",
-    "4.1...........8..6...4...19.......8..79..5...25..9......2......3..65.7..5...71.92",
-    ".....7.4...2.....9.183...5....2.5.7.73.....95........8..6..2...8...5.1.6....91...",
-    ".....87.2.....25.3....1..6813.4...7.....6.....7.......4..7.....7.6.8..9.8...9..3.",
-    "........8.4...293..1.9.45......6.48.....81......7.3...3..1....7..5.....6.7...5.1.",
-    "1.7....2..96...1....32..5.96.143........21..4....5.........9.6......4..58.......7",
-    "5.9.3.......8...4.....26...2..6...3.4...9.......5.2..9.857...93.....1....3....68.",
-    "...8..3.....3...6.7.......2......4..8.1.37......6.8.5..14........349.2.7.7...56..",
-    "..9.7.6.....5......7....8..1...357..2.7..1..3....8....3..8.2..75..4...2...1....6.",
-    ".5.42..8.3.6..7......8.....1..5..6.8......5..97......1.....19.....38..57.2..6....",
-    ".43..1..59.....3.......4..83...9.7..2.1..7...6.....84...2....3.....85..1......4.7",
-    ".8.........4.....1.97.25..3....31.7.5....7..84....6.....268..9........17..8....6.",
-    "....3......6.4..53..915...2.2......4.....12....15.....14.2...6..35.7.89..........",
-    "..4.8...2..9..1..6.3.2...7.56.........2.9......182...5....6.4.1...3..9..6..1.....",
-    "...7...2...9...5.37...319....3..6.8.9....4......1....71..945......36...5..7......",
-    "..2..1..4..97.51..8......6....9...........68....4.65..2.85...961..6..7.........3.",
-    "3.285.........3..8..714......1.8..5.....9...48.....376..4........952..........9.7",
-    "....4.6.2..1.3.........2.1.83...5...592..1..3.......6......9.....57..8..6....83.5",
-    ".81....3...3......9.4.....5.3......9...3.4..8..27...1....4....7..5..38.46...5.9..",
-    ".45..6..99......7....2..583.6....2..471.8......3......6.7....5....6.5........1..4",
-    "..8.7.6.5..34..1...1..3.72..5...6.4.38............8..3.7..........6...8.2..1...6.",
-    "3...67..4.5.3..6...8.1....5.....9.76...85.....3.....58.18..........7..6.9...3....",
-    "...7...2...7..1.8..8.5...1..4..3.......1...4..32.....8..9.42..5..4.9...2.7.....3.",
-    ".6..85.3....6..8....3....71...35..........29......8.6.8..1....26....49...9.5.3...",
-    "4.......6......2.....821....4..8..3...52.71...3.5..79..........8..794....5....67.",
-    "4....6.5..7....4.8.1......67...6.....3.97....5.8..........8.2..3.....71..2.19.8..",
-    ".....4.9.71....4.....9...1.....3....8...42..5..6..9.73..3.9........8673..5...1...",
-    "..5.....4..29....148....5.........3......8..987..13.......59..765.7....8...8...2.",
-    ".....37.6..1.7.....3.8........4..8.9.6.9...1...3.2...47....59.2.9...7.3.........1",
-    "....7....4..693....7..1..8...21.58......26.7.3.....4...3.....5...9.3...4......1.9",
-    "..5.8.....6.172.3...7...24......9..2.......9...46..7......4.........15.9.12.6...8",
-    "1..9.....8..7.........46.9..68......23..5...195.....78...5.37........8...2.....69",
-    "..8.5.34...94.7........1..5.....5.2.3...6.1..574....9........7.......4.84.67.....",
-    "..263.........58..73.1..9......9.....1......554...3.......7.4...29...58....4..36.",
-    ".6...5......389....8...49..1.5...4..7......5..3.4......5.1...6......2..364....79.",
-    ".7.84....9...1...2..8.3.....4.72............51.3..578...2....515.....4.6..7......",
-    "...26.3......3.4....8.....24.1......72....8.5.8..16.....53..6.......42..8..5...3.",
-    "35....8....6.5712........366...12..7..2....8....94.......6.9...13..8.9...........",
-    ".....8..9...2.315..83...7..3..19...5..1..2...597............96...58.....6...1....",
-    "......4..4....61.3.769.1.....3.....276.....94.985..........82..9.1.........7...5.",
-    ".35.7...1.8......29......5....4...2..7...2...3.6.9.7......3.9.5.1.9...6.7....6...",
-    ".........3..758....69.............5...7..4.8..186.32.9.3..8...........287.194....",
-    "835......1....5....629....17..2..89..2.......61...3.......91........8.65...3..2..",
-    "......1....612..5.3.............3...7...46...45.71.....2..9.7...7...5.4.9..23..8.",
-    ".....87......3....6..27...8.6...28....3..1..78..6..9.....1.4....7.8......91...6.3",
-    "..35.71.2.9...8.........5.7.26.....1.4...17..57....6...5...9........54..4.......6",
-    ".9...75..7....3.......8.4.2.....9....8..5.9...463....1..5..82...7....63...1.....4",
-    ".....2..9.5..6......1.4.3.7.9.5...8.536........8..........9.7...4..5...1.1...7.23",
-    ".......9..37.8.5..5..2....13.2..96...5..1...9.....7.2...1..54......74.......6..7.",
-    "32...8..9............9..52359.....8..745..3.....2..1....9.......4....6.2....76.5.",
-    "9..........1.9.6..24.3....1....3894....5....2..5.7......9...75.3...4...8.56......",
-    "57..6...8........5.......6..8....32.6.....54.3.2........971......3.58.7..413.....",
-    "...1.........5.8..94..6...7.......65.9.3....4..3..41...36.9...8.8....62....4...7.",
-    "1....973.....14.9....5...6.2...6..437........65....1.73.........9..7..2....1..8..",
-    ".5...79...9....85.84.9........7..1....1..4..8.3..62.......1..7.....2...36....3.4.",
-    "3..1.7.9...9....1...6.3..846.38..7............54.......38..5..........4..129....8",
-    "......6.7..69.2...9.3.........7..43...5......8....1......5....2.54...31..17.86..4",
-    "..6..8.3......26.4......2.9.3..8....8..5..19.2....6...6.3.4....4.1..3.......1..7.",
-    ".568........6.12..7.1....9.......1...7..5.42.3.81.......3.1.9..2...4..8.........2",
-    "9.1.34.....8.9.........7.4...69..4..3.......1.2.1......7.5...86.....8.7...9.7...3",
-    "4....72.....3...8......87.6.4.......8.2.6..5.9.7.......1.7...682..........6.91..5",
-    ".8.....4..495.....7.21....8.1.357.......69.5.3.............82.769...5.........8..",
-    "1..9....6.....681..9.5.........2......3..14..6.13.......9....7..1...9..5.578..6..",
-    "6...9.5.7..1...6......5.3....35....9...93.4......74.....2.....3..42......8.64...1",
-    ".......3.....2...4..4.8.6.979.....8.....45....6.71.5.....2.37..1......6..5..79...",
-    "...3.21.....8...5.8.74.....31....6......3..94....4....735........1.69.7..6......2",
-    "54....3..2.......9....6.78..8..1......2....47.3.2.4..6..53..2.....8.....72.....6.",
-    "..54.........7....3......2....3.25848.....2..2....1.6..8...5....3..6...171....4.8",
-    ".....28....8....9..5..3......9.854...........28.6......7..6..34.21.9...8...1.47..",
-    "..2.7....7.6..3...9..4...7.........1..48....3..1.3...6...3.86...9..2.....15..7.9.",
-    "638..5.7....2.3..4....9....5...4..624..67.....6.........1..63...7.....2...3.....5",
-    "..6..82......9.7..2.1.6...43..6..97.7......5..2.9..1.8...............8.65.8..4...",
-    "1...298..2..6.......51...32.265.3.9..3....6....7......8.1.........21...76........",
-    ".5..13..2...92....19.....5...5...1.....2.......4.79...3..4.852......68.9......3..",
-    ".1.93.8.79...7...5......2.....78......2..1...76......3.8....6...7...29..6.1..8...",
-    "....9...67.8..3....6...8.71.....7..28....1..9..1.......4951......5...16....3...5.",
-    "....9.........6.7..372..59.9..17...6...9..8..1....3..5....4....31.5....8..8....2.",
-    "1.2....96.......3...9.8..2...391..8.....5....5..8..6...26..1...........4...43.71.",
-    "4...6.....1....4...582.....3.2.89.............9.3.2.8.6....7.2....1.37..2.5...8..",
-    ".8..3.4.....876...2.......9...723...8........4...6.57.5...8.2.6.4..5.....9...4...",
-    ".....916.8.........39.5..8..2.1853.4..3.7.....5....2...6......1..72..........6..8",
-    "....2...4..4..762.........15....6.3.....5.14223....9..1.9.......2...9...6....8.5.",
-    ".32.6.4...9......1.1..47.5...7....35.....59...68.........45.6.........8....6...12",
-    "..34..5..7....2.......7.98....3....7.748....9.....5146.6.........9..4.3..4.5.....",
-    ".6.4..28......76...3.....54...84..6.59..........2.5.......34..5..2...8.1.7...2...",
-    "..49....8961..4..2..........5..3.9.432..7.6.........1.2.3.........7........5..731",
-    "186.9...4.....8.........9...3....26..94.7..1..2.........7.4.5....85...43...62....",
-    ".5....1......4...7.2.597.....3.5...4..21.....1...32...69....5.8.........4.57....3",
-    "6.........9.....5....3.........4...1...7.......4.926..8.9.2..3.5.14.3.6...35..82.",
-    "..2...3...61.57..47....4.1.........3...1......5....82.4..9.3...8..5......3.816...",
-    "....874..3.2.....9.1..........4.5.......9.1...4...8..68......42.3.12.6.7.....9..3",
-    ".1.............57..9.485...6..73......4....9...9........89.3..77..6.23...3.1...2.",
-    "4.31..2...7...9......5....1...7.1..23..28.5........91...19.5......3...7.8.......4",
-    "1..65...7.2..3......3........12...85..2....7.....93.2.96..4........17..4....2.9..",
-    "..5..3..1...89............2....4....1.6..7....3..265.7.179..8.53.....7....84.....",
-    "..5..19......5...7..1.7.8.58......4..9...6..3...1..52...374...2.....3.....72.....",
-    "..2.......3...8....9....2.5.746......5..128.....3...4.4....76.8....96.....1..3.7.",
-    "861..5...5..3...1....76....6..9....5..3........2...17......9..8.4..1..9...964....",
-    ".7......3....46.....2...8....5.2......6..9.5...9..8..2...47...5.3....47.....5.168",
-    "...48..39....96....29..5.6.5.......7...7......816...........621...8.9.....2..37..",
-    ".......166.........5784.........71.8.....5.....1....79..2..3..1.38.9......95.2.4.",
-    ".6..5..9..3....52.2.8..6..79...75.3...24..1..4.......9.....8.........3...4.73....",
-    "948...5.....8......6.4.1.2......5..73.....4...21.4..3.174.........2.3..8.......1.",
-    "...........4.2...5.8..1.32.9....6.543......82..8..4..3.7..8.......3.1........716.",
-    "..3.7.1.......2.98...8......2...1.864..2.7..5..6.....98..4.....1...3.9..6......7.",
-    "5....8...68.....52.4....1..8.9.3.........6..8.31...47...8.2.3...7..4......6.....1",
-    "......5.4..1....82..36......7.35.......8..2....9.1..7.9...8....7......93..842...1",
-    ".9.1..2.........7.56.9..1.......64.3.35......4...8..6..23.1.7....96..3.8.........",
-    "9.2.......6......7......9.5..7......4..5.12.81.69.....82...94............4.38..56",
-    "..2.6.......9..78....41.....7...5..848..36.9.6........9.......1....2..5...5.4.92.",
-    "13.98.....9......5....2..94...2.3.....7.....84....91...62..1......39...7....52...",
-    "9.7..2.....4...1.....5.4.6...3....54.6.8.....2.......6....2..7...1.7.....3.98.5.2",
-    "....25..9...64....5.4.18.2.82.........9...7...3.7...6.......4.....4.621..1.....3.",
-    "...8.35..6.9.1.4..........8...73....86....3.7..3....24..1.84........6...9......52",
-    "....7..6.9.5..6....7..5..3.1.9.854.......4.....39..1.........46....4.89...7..1...",
-    "9....2..31..5....8..78..........859....1.....26..4.....1....4..4.839.1...3..5....",
-    ".169...5...2....3.......2..9....8......6.4...45..1.7....1.795.......5..7..9.6...8",
-    "......25......1.68..278......78..32..4.62.........41..3.........6.3.7.9...4.....2",
-    "..6.27...2..1.87..........2.37...6.....4...13..89.1...9..........176..45........6",
-    ".85....3.1......5.24.8.......6.74...8..1.2.........96...8.5....45.63...9........1",
-    "9.64.1.....3...69....5....7.5.6.........4.91......37..68.9..4..3........41.....5.",
-    ".......3.83.6...9..97..2..6....4...117...........3.5.42....49....6..9.....8.53...",
-    ".95..7.....29.......7..6..1....7..38..1...6...6..4.27.....3.........8.4.4.....365",
-    ".....5....1..6..7..3..2.1.....7....48.......6.968...21.2.983.........2.3..9.5....",
-    "....2...3.6..13...3....8..79.....6...84...9......7.25..3..8...247.9.......2..1...",
-    "2175..8.......6.5..4..9....6...71.......6..2.9....3..11.....4.84.9.......8....3..",
-    "......79.2..7.91.6...5....819..35...6.........4..612....7...5......1.....8.3...6.",
-    ".4..1.......6.2..797......2...2.4....64...3.......9..13.....8.4...7..9.58...2..6.",
-    "3.....5.....1.36...9..2....6...7.......4.2.8.....3..17....951...7524.....8...6...",
-    "........39478.....5..1....2...4.8....79....5.1..7......2...63.8....8..4..9...2.1.",
-    "1..4..5....5......9...........8..76.7..2.6...8....7.94.2.5.9..3.4.7.3..1......6..",
-    "3.4..92..6....54....2......4.81.6.....5.38.9.............85.3...1.6....7.....48..",
-    "...965.....4......8......3.3.1..6.4........7..5.71............994.28.1....657...8",
-    ".........149..2..6...1....3...86.....9..4..72..5..1.9.8..4......5.7...6..7...62..",
-    "...42....8.7....3......5..979......6.4.1..79..5....1..2....637..6.5...........6.4",
-    "...6.97.52.6..........8.3....42....9.....6...81..3...7..83.146.....5.....4.....8.",
-    ".4.89.....25......8........1..5......6.....97...7..63.....5.3..9.....42..1..628.5",
-    "....7......4..86.96.5....8..1..3..46.967.....4...5..9......43..8.....5....2..3...",
-    ".....6...3.284..7.68...7....2.1.....4.3.5..8.9........5..4..3.1.1...96........9..",
-    ".75....38.8.9...4.2.....5..7..........4..7.59....1..2.....7..8...1..43.....129...",
-    ".....6........2816.....9....9.3.....421......5...6...9835....646...1..732........",
-    ".....83.1..6.......9.42..5.........35..8..29..1...6..86...31...2..5.9.....5...8..",
-    ".43.9......64..5.8....53...6....7.2.....1......5....69...........432..8.78...12..",
-    "6.1.43........2.7.2.3.8.....1....6.5.....5..1.4.....39...27..4.4.......6.....89..",
-    "....398.....2.19...19.....427......9...3954....4........8......1......3.3.2..46..",
-    ".....58..54....6.9..1.6...............467.....2..4198...2859.....7.....13...2....",
-    ".8...56...1.9....4..437...........9.8.1.6...329........4.138...3..7..52..........",
-    "...56..24.......8.6..3...7..3........76...2.9.5.8...1......38..59..7...6.64......",
-    "......35.6......7..716.3.....91...45.4...7.2...8..........34.....5926..1......5..",
-    "4..65..7.....3.8.1..7.....3..1.....95.4.1.2...2.7.8.1...3.....8.....9...7......4.",
-    "8....3..7..4...8.3..7..295...1.....46..9..1........53....728........4...5....6..9",
-    ".2.8..4...87..1.......7..2......3.1.8...14......7..39..4.......35.9.2....764.....",
-    ".8.7.......9.2.4.......5.....4..8..792....6..8..31...........4.3.7..9.2....8.415.",
-    ".4........7.14...3..23..71....7.2....2.5.6...73.............8.6..5....2.3.1.6.5..",
-    ".4..8....2.6.3.7.1...5....3......3......6....4...7.268......51.7....5.9.61.2.....",
-    "...625...6.......4...8...71....3.91...8.4.32.5....1....2..7...9.7..8.....14......",
-    "7....351.......78.2..7.......31.......8.5..29.....4...3.79..1..1.....8...5..1..3.",
-    ".6........8.6..9.3....31.4684.......57....3.....8.21.7...7........2.....934.....5",
-    "32....8.4...9.......86.....6..5....7.3..8...1..5.....8.....9.4...4.1..6..612..3..",
-    "......64...1.529..........5..76.3.........86.29...8....1...723.8...........39.1.4",
-    "1...2...7...5....9..68..4..2.4...3...6.48..7.....3.5.2.2..1....7...5....3....8...",
-    ".75............384.1..8..7.5....12...2...479.....6...82..95....3..7..96..........",
-    "...87.9.......1.3.9.8..4..5...7..31.2..4.8...74......2....3.....6.2...78.....6...",
-    "....4.......5..78.9...3......24....1..83...9.1.3.......2..9.8..8......76.6.2.4.5.",
-    ".1.....79............537.4...9..5........2....7..4.83.7.24...6.8..6..35..6..2....",
-    "...3....5.7.1...2..83.4...1..12...4...7.9...3....5......8..39....47.....9..4..2..",
-    "6..8......2...7......6..8.3...1.6..9.9.....423..........9.5..24.5.2.1.....2...1.8",
-    "3.....615..2.......8..4.......18...7..6..2..97....3.....1...8364...2..9.53.......",
-    "7..1.......69...35.5............23......9........7582.62...1.5.5..4..17.4.......2",
-    ".6...8...........41..7........875.....7.....1..8.365..9564...1........52.2...98..",
-    ".15.769........4.5.........49.......2....5.6....2.1.......8.1..1.2...57.87.1.3...",
-    "..74..........8371.......8....691....4....21..5.........8.....746...5...2.98.36..",
-    "........7.8..52...6..1..4..8.......47.4.6.8...3..7.26.4..38.....7......9..9.....6",
-    ".5.2..6.......3518..9......1......2...35..9..247...38.......2.34..8......6...5...",
-    "..7....6.....29..41......2...5.42..626..7.38........1.6..2.....3....4.......85.9.",
-    "..4...1...1.89.7..2..3...8..7.1.9.......36.4.3...5..1.........9....1.53..8.6.....",
-    "...5...3..1......6...9....2..9.7....3.6...4..28..6.....9....8......4..1774..82..3",
-    "1.2.7.......5.....5...41.7..........23.9..5.87...5.32.....1...53596..8...........",
-    "3..4.5.....5....9.7....6...254................1..98.5.......78..9..813.2...623...",
-    "43.....5....4..2...8...3.7.7..6.9.8...9......82..7........2...5..8.1....9...68.3.",
-    ".47.5............2.1...3.....4..8....6..4.5...79...13.....2.4.6..8..43.5...5...8.",
-    ".....5....1.8....6.7.9...8....6.8.1...4.9.7..6...43...2.7....9.1...3.......5.9..8",
-    ".3....7..4.8......26..573..3..8.1..6.......9.5...2.........4......198.6......62.3",
-    "6...7..4.2.....51...4...8...8..42...17.....6.9..7....14...36.7.......6.3..9......",
-    ".8.1.....7.....95.9...7.6...7..2.84.........6....45.2.63.9...72.2............74..",
-    "....5.....4.9...8...9..8...38..751....7..1.......8...5.3...495...1.....3.9.6...7.",
-    "...6....8..3.9...264.5......78...3..9..31..4......5.9...5..2.8..........73.9...5.",
-    "..1..72.42.....1..7....9.6.47..9......357...8.......3.63.....9.......8..5..13....",
-    "........4.....3.8..2...93.7..4.67...1...8...2...5..1....1.4....7....1.6.392..5...",
-    "..6..37.12.........9.8...6...9...6...8.316.........85.....32...53.4......6.....75",
-    "....96.729......8....2.......9......4.1..7..8...3...5..5.1...93.2..647.....73....",
-    "...7..5...83.....2......46....6.17.5....9......8..5..65.7.6.....1...7..3...834...",
-    ".....3.9.1..6.5..363.24.7..........8..9..4....7.3.14...28...5.......6......5..3..",
-    ".9....617....8....1.....9...279.1..8.1...8...4....6...7......6...463.7........5.9",
-    "......4...6.....939..82.7....59....4......1.7..1..5..819.7...2....28....3....1..."
-  };
+  /**
+   * Reads the non-blank lines of a resource file.
+   * @return The lines; or an empty array if the resource is missing or can't be read.
+   */
+  static String[] readResourceLines(String name) {
+    List<String> lines = new ArrayList<>();
+    InputStream in = GeneratedPuzzles.class.getResourceAsStream(String.format("/%s/%s", RESOURCES_DIR, name));
+    if (in == null) return new String[0];
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        line = line.trim();
+        if (!line.isEmpty()) lines.add(line);
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+      return new String[0];
+    }
+    return lines.toArray(new String[lines.size()]);
+  }
 
+  /** 1000 puzzles with 24 clues and a unique solution.*/
+  public static final String[] PUZZLES_24_1000 = readResourceLines(PUZZLES_24_RESOURCE);
 }
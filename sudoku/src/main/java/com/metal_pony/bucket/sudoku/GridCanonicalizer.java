@@ -0,0 +1,231 @@
+package com.metal_pony.bucket.sudoku;
+
+import java.util.Arrays;
+
+/**
+ * Puts sudoku boards into a canonical form: the lexicographically smallest board reachable by
+ * transposing, reordering bands, rows within bands, stacks and columns within stacks, and
+ * relabeling digits. Boards that are the same up to those symmetries have the same canonical form.
+ *
+ * Digits are relabeled in order of first appearance, so only the row and column orders are searched.
+ * Each column order is tried, and rows are then picked one at a time, abandoning a branch as soon as
+ * a row compares greater than the same row of the best board so far.
+ *
+ * Empty cells stay empty and sort before any digit, so puzzles can be canonicalized as well as grids.
+ */
+public class GridCanonicalizer {
+    static final int[][] PERMS3 = {{0,1,2}, {0,2,1}, {1,0,2}, {1,2,0}, {2,0,1}, {2,1,0}};
+
+    /** Every order of columns that keeps stacks together: 6 stack orders times 6^3 column orders.*/
+    static final int[][] COLUMN_ORDERS = new int[6 * 6 * 6 * 6][];
+    static {
+        int n = 0;
+        for (int[] stackPerm : PERMS3) {
+            for (int[] p0 : PERMS3) {
+                for (int[] p1 : PERMS3) {
+                    for (int[] p2 : PERMS3) {
+                        int[][] colPerms = {p0, p1, p2};
+                        int[] order = new int[Sudoku.DIGITS];
+                        for (int s = 0; s < 3; s++) {
+                            for (int k = 0; k < 3; k++) {
+                                order[s * 3 + k] = stackPerm[s] * 3 + colPerms[s][k];
+                            }
+                        }
+                        COLUMN_ORDERS[n++] = order;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A canonical board and the transformation that produced it.
+     */
+    public static class Result {
+        /** The canonical board.*/
+        public final int[] digits;
+        /** For each canonical cell, the cell of the original board it came from.*/
+        public final int[] cellMap;
+        /** For each original digit, the canonical digit it became. Index 0 maps to 0.*/
+        public final int[] digitMap;
+
+        Result(int[] digits, int[] cellMap, int[] digitMap) {
+            this.digits = digits;
+            this.cellMap = cellMap;
+            this.digitMap = digitMap;
+        }
+
+        /**
+         * For each cell of the original board, the canonical cell it went to.
+         * Maps the canonical board back to the original, as the cellMap of the reverse transformation.
+         */
+        public int[] inverseCellMap() {
+            int[] inverse = new int[cellMap.length];
+            for (int ci = 0; ci < cellMap.length; ci++) {
+                inverse[cellMap[ci]] = ci;
+            }
+            return inverse;
+        }
+
+        /**
+         * For each canonical digit, the original digit it came from. Index 0 maps to 0.
+         */
+        public int[] inverseDigitMap() {
+            int[] inverse = new int[digitMap.length];
+            for (int d = 0; d < digitMap.length; d++) {
+                inverse[digitMap[d]] = d;
+            }
+            return inverse;
+        }
+    }
+
+    /**
+     * Gets the canonical form of the given board.
+     * @param digits Board digits, with 0 for empty cells.
+     * @throws IllegalArgumentException If the board does not have 81 cells.
+     */
+    public static Result canonicalize(int[] digits) {
+        if (digits == null || digits.length != Sudoku.SPACES) {
+            throw new IllegalArgumentException("board must have 81 cells");
+        }
+        return new Search(digits).run();
+    }
+
+    /**
+     * Gets the canonical form of the given board as a string, with '.' for empty cells.
+     */
+    public static String canonicalString(Sudoku board) {
+        int[] canonical = canonicalize(board.getBoard()).digits;
+        StringBuilder strb = new StringBuilder(Sudoku.SPACES);
+        for (int d : canonical) {
+            strb.append(d == 0 ? '.' : (char) ('0' + d));
+        }
+        return strb.toString();
+    }
+
+    /** Search state for one board.*/
+    private static class Search {
+        private static final int UNSET = Sudoku.DIGITS + 1;
+
+        final int[] original;
+        final int[][] boards;
+
+        // Best board so far. Rows past a newly improved row are reset to UNSET.
+        final int[] best = new int[Sudoku.SPACES];
+        final int[] bestRows = new int[Sudoku.DIGITS];
+        int[] bestCols;
+        boolean bestTransposed;
+        final int[] bestLabels = new int[Sudoku.DIGITS + 1];
+
+        // Current branch
+        int[] board;
+        int[] cols;
+        boolean transposed;
+        final int[] rows = new int[Sudoku.DIGITS];
+        int usedRows;
+        /** Digit labels after each depth's row.*/
+        final int[][] labels = new int[Sudoku.DIGITS + 1][Sudoku.DIGITS + 1];
+        final int[] nextLabel = new int[Sudoku.DIGITS + 1];
+        final int[] rowVals = new int[Sudoku.DIGITS];
+
+        Search(int[] digits) {
+            this.original = digits;
+            int[] transpose = new int[Sudoku.SPACES];
+            for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+                transpose[ci] = digits[(ci % Sudoku.DIGITS) * Sudoku.DIGITS + (ci / Sudoku.DIGITS)];
+            }
+            this.boards = new int[][]{digits, transpose};
+            Arrays.fill(best, UNSET);
+        }
+
+        Result run() {
+            for (int t = 0; t < 2; t++) {
+                board = boards[t];
+                transposed = (t == 1);
+                for (int[] order : COLUMN_ORDERS) {
+                    cols = order;
+                    usedRows = 0;
+                    search(0);
+                }
+            }
+
+            int[] cellMap = new int[Sudoku.SPACES];
+            for (int r = 0; r < Sudoku.DIGITS; r++) {
+                for (int c = 0; c < Sudoku.DIGITS; c++) {
+                    int row = bestRows[r];
+                    int col = bestCols[c];
+                    cellMap[r * Sudoku.DIGITS + c] = bestTransposed
+                        ? col * Sudoku.DIGITS + row
+                        : row * Sudoku.DIGITS + col;
+                }
+            }
+            // Digits missing from the board get the remaining labels, in order
+            int[] digitMap = Arrays.copyOf(bestLabels, bestLabels.length);
+            int next = 0;
+            for (int d = 1; d <= Sudoku.DIGITS; d++) next = Math.max(next, digitMap[d]);
+            for (int d = 1; d <= Sudoku.DIGITS; d++) {
+                if (digitMap[d] == 0) digitMap[d] = ++next;
+            }
+            return new Result(Arrays.copyOf(best, best.length), cellMap, digitMap);
+        }
+
+        void search(int r) {
+            int firstRow, lastRow;
+            if (r % 3 == 0) {
+                // Any row from a band not yet used
+                firstRow = 0;
+                lastRow = Sudoku.DIGITS;
+            } else {
+                int band = rows[r - 1] / 3;
+                firstRow = band * 3;
+                lastRow = firstRow + 3;
+            }
+
+            for (int row = firstRow; row < lastRow; row++) {
+                if ((usedRows & (1 << row)) != 0) continue;
+                if (r % 3 == 0 && (usedRows & (7 << ((row / 3) * 3))) != 0) continue;
+
+                int[] rowLabels = labels[r + 1];
+                System.arraycopy(labels[r], 0, rowLabels, 0, rowLabels.length);
+                int next = nextLabel[r];
+                int cmp = 0;
+                for (int c = 0; c < Sudoku.DIGITS; c++) {
+                    int d = board[row * Sudoku.DIGITS + cols[c]];
+                    int v = 0;
+                    if (d > 0) {
+                        if (rowLabels[d] == 0) rowLabels[d] = ++next;
+                        v = rowLabels[d];
+                    }
+                    rowVals[c] = v;
+                    if (cmp == 0) {
+                        int b = best[r * Sudoku.DIGITS + c];
+                        if (v > b) {
+                            cmp = 1;
+                            break;
+                        }
+                        if (v < b) cmp = -1;
+                    }
+                }
+                if (cmp > 0) continue;
+                if (cmp < 0) {
+                    System.arraycopy(rowVals, 0, best, r * Sudoku.DIGITS, Sudoku.DIGITS);
+                    Arrays.fill(best, (r + 1) * Sudoku.DIGITS, Sudoku.SPACES, UNSET);
+                }
+
+                rows[r] = row;
+                nextLabel[r + 1] = next;
+                if (r == Sudoku.DIGITS - 1) {
+                    // Reached only when the whole board is at most the best
+                    System.arraycopy(rows, 0, bestRows, 0, Sudoku.DIGITS);
+                    bestCols = cols;
+                    bestTransposed = transposed;
+                    System.arraycopy(rowLabels, 0, bestLabels, 0, bestLabels.length);
+                } else {
+                    usedRows |= 1 << row;
+                    search(r + 1);
+                    usedRows &= ~(1 << row);
+                }
+            }
+        }
+    }
+}
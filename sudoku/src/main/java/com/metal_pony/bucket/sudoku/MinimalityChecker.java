@@ -0,0 +1,306 @@
+package com.metal_pony.bucket.sudoku;
+
+import static com.metal_pony.bucket.sudoku.Sudoku.CELL_COLS;
+import static com.metal_pony.bucket.sudoku.Sudoku.CELL_REGIONS;
+import static com.metal_pony.bucket.sudoku.Sudoku.CELL_ROWS;
+import static com.metal_pony.bucket.sudoku.Sudoku.COL_INDICES;
+import static com.metal_pony.bucket.sudoku.Sudoku.DIGITS;
+import static com.metal_pony.bucket.sudoku.Sudoku.MIN_CLUES;
+import static com.metal_pony.bucket.sudoku.Sudoku.REGION_INDICES;
+import static com.metal_pony.bucket.sudoku.Sudoku.ROW_INDICES;
+import static com.metal_pony.bucket.sudoku.Sudoku.SPACES;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.metal_pony.bucket.sudoku.util.SudokuMask;
+
+/**
+ * Finds which clues of puzzles with a particular solution grid are redundant, i.e. could be removed
+ * with the puzzle keeping its single solution.
+ *
+ * A clue is needed exactly when some unavoidable set of the grid contains it and no other clue: the
+ * cells of that set could then take their other arrangement once the clue is gone. The checker keeps a
+ * pool of the grid's unavoidable sets, starting with those on two digits, which are cheap to find, and
+ * adds the ones it finds while checking. For a clue the pool doesn't settle, the clue counts of its row,
+ * column and region first show whether a naked or hidden single would put it straight back. Otherwise the
+ * puzzle is searched with the clue changed to each other digit, stopping at the first solution found.
+ *
+ * The pool is shared by every puzzle checked, so checking a batch of puzzles of one grid with one checker
+ * gets cheaper as it goes. Also takes unavoidable sets from elsewhere, such as a sieve's items.
+ * Safe to share across threads.
+ */
+public class MinimalityChecker {
+    /** Sets are no longer added to the pool once it has this many.*/
+    static final int MAX_POOL_SIZE = 1 << 16;
+
+    /** Rows, then columns, then regions.*/
+    static final int NUM_UNITS = 3 * DIGITS;
+    static final int[][] UNIT_INDICES = new int[NUM_UNITS][];
+    /** The row, column and region of each cell, as unit indices.*/
+    static final int[][] CELL_UNITS = new int[SPACES][];
+    static {
+        for (int i = 0; i < DIGITS; i++) {
+            UNIT_INDICES[i] = ROW_INDICES[i];
+            UNIT_INDICES[DIGITS + i] = COL_INDICES[i];
+            UNIT_INDICES[2 * DIGITS + i] = REGION_INDICES[i];
+        }
+        for (int ci = 0; ci < SPACES; ci++) {
+            CELL_UNITS[ci] = new int[] { CELL_ROWS[ci], DIGITS + CELL_COLS[ci], 2 * DIGITS + CELL_REGIONS[ci] };
+        }
+    }
+
+    private final Sudoku grid;
+    private final int[] gridDigits;
+    /** Unavoidable sets of the grid.*/
+    private final Set<SudokuMask> pool;
+    /** Whether the two-digit unavoidable sets have been pooled yet.*/
+    private boolean seeded;
+
+    /**
+     * Creates a checker for puzzles with the given solution.
+     * @param grid Full and valid sudoku.
+     * @throws IllegalArgumentException If the given sudoku is not full and valid.
+     */
+    public MinimalityChecker(Sudoku grid) {
+        if (!grid.isSolved()) {
+            throw new IllegalArgumentException("could not create minimality checker for malformed grid");
+        }
+        this.grid = new Sudoku(grid);
+        this.gridDigits = grid.getBoard();
+        this.pool = new LinkedHashSet<>();
+        this.seeded = false;
+    }
+
+    /**
+     * Pools the unavoidable sets on two digits, if not done yet.
+     * Left until needed, since puzzles with the fewest clues are settled without the pool.
+     * Other threads may go on before this finishes; the pool only ever saves them searches.
+     */
+    private void seed() {
+        synchronized (pool) {
+            if (seeded) return;
+            seeded = true;
+        }
+        for (SudokuMask combo : FingerprintEngine.digitCombos(gridDigits, 2)) {
+            grid.filter(combo.flip()).searchForSolutions3(solution -> {
+                addUnavoidableSet(grid.diff2(solution));
+                return true;
+            });
+        }
+    }
+
+    /**
+     * Adds unavoidable sets of the grid to the pool, e.g. the items of its sieve.
+     * @param sets Unavoidable sets of this checker's grid. These are not modified.
+     */
+    public void addUnavoidableSets(Collection<SudokuMask> sets) {
+        for (SudokuMask set : sets) {
+            addUnavoidableSet(set);
+        }
+    }
+
+    /**
+     * @return Number of unavoidable sets in the pool.
+     */
+    public int numUnavoidableSets() {
+        synchronized (pool) {
+            return pool.size();
+        }
+    }
+
+    /**
+     * Checks whether the puzzle has a single solution, and needs every one of its clues for that.
+     * Stops at the first clue found to be redundant.
+     * @param puzzle Puzzle whose clues agree with this checker's grid.
+     * @throws IllegalArgumentException If a clue of the puzzle differs from the grid.
+     */
+    public boolean isMinimal(Sudoku puzzle) {
+        SudokuMask redundant = findRedundant(puzzle, true);
+        return redundant != null && redundant.bitCount() == 0;
+    }
+
+    /**
+     * Finds the clues that could each be removed on its own, with the puzzle keeping its single solution.
+     * Removing several of them at once may not keep it.
+     * @param puzzle Puzzle whose clues agree with this checker's grid.
+     * @return Mask of the redundant clues, empty if the puzzle is minimal;
+     * or null if the grid is not the puzzle's only solution.
+     * @throws IllegalArgumentException If a clue of the puzzle differs from the grid.
+     */
+    public SudokuMask redundantClues(Sudoku puzzle) {
+        return findRedundant(puzzle, false);
+    }
+
+    private SudokuMask findRedundant(Sudoku puzzle, boolean stopAtFirst) {
+        int[] digits = puzzle.getBoard();
+        SudokuMask clues = new SudokuMask();
+        for (int ci = 0; ci < SPACES; ci++) {
+            if (digits[ci] > 0) {
+                if (digits[ci] != gridDigits[ci]) {
+                    throw new IllegalArgumentException("Puzzle clue differs from the grid");
+                }
+                clues.setBit(ci);
+            }
+        }
+
+        if (hasOtherSolution(puzzle)) return null;
+
+        SudokuMask redundant = new SudokuMask();
+        // Without one of its clues, a puzzle would have fewer clues than any with a single solution
+        if (clues.bitCount() <= MIN_CLUES) return redundant;
+
+        seed();
+        boolean[] needed = neededByPool(clues);
+        int[][] unitDigitCounts = unitDigitCounts(digits);
+        List<Integer> toSearch = new ArrayList<>();
+        for (int ci = clues.nextSetBit(0); ci >= 0; ci = clues.nextSetBit(ci + 1)) {
+            if (needed[ci]) continue;
+            if (isRestoredBySingle(digits, unitDigitCounts, ci)) {
+                redundant.setBit(ci);
+                if (stopAtFirst) return redundant;
+            } else {
+                toSearch.add(ci);
+            }
+        }
+
+        // Searched last, as by far the most expensive check
+        for (int ci : toSearch) {
+            if (!hasSolutionWithOtherDigit(puzzle, digits, unitDigitCounts, ci)) {
+                redundant.setBit(ci);
+                if (stopAtFirst) return redundant;
+            }
+        }
+        return redundant;
+    }
+
+    /**
+     * Marks the clues that some pooled unavoidable set contains as its only clue.
+     */
+    private boolean[] neededByPool(SudokuMask clues) {
+        boolean[] needed = new boolean[SPACES];
+        SudokuMask hit = new SudokuMask();
+        synchronized (pool) {
+            for (SudokuMask set : pool) {
+                SudokuMask.and(set, clues, hit);
+                if (hit.bitCount() == 1) {
+                    needed[hit.nextSetBit(0)] = true;
+                }
+            }
+        }
+        return needed;
+    }
+
+    /**
+     * Whether the puzzle has a solution other than the grid. If so, the difference is pooled.
+     */
+    private boolean hasOtherSolution(Sudoku puzzle) {
+        AtomicReference<SudokuMask> other = new AtomicReference<>();
+        puzzle.searchForSolutions3(solution -> {
+            SudokuMask diff = grid.diff2(solution);
+            if (diff.bitCount() == 0) return true;
+            other.set(diff);
+            return false;
+        });
+        if (other.get() == null) return false;
+        addUnavoidableSet(other.get());
+        return true;
+    }
+
+    /**
+     * Whether the puzzle, with the clue changed to another digit, has a solution.
+     * If it does, that is a second solution once the clue is removed, so the clue is needed.
+     * The difference between that solution and the grid is pooled.
+     */
+    private boolean hasSolutionWithOtherDigit(Sudoku puzzle, int[] digits, int[][] unitDigitCounts, int clueIndex) {
+        for (int d = 1; d <= DIGITS; d++) {
+            if (d == digits[clueIndex] || isBlocked(digits, unitDigitCounts, clueIndex, d, clueIndex)) continue;
+
+            Sudoku changed = new Sudoku(puzzle);
+            changed.setDigit(clueIndex, d);
+            AtomicReference<SudokuMask> other = new AtomicReference<>();
+            changed.searchForSolutions3(solution -> {
+                other.set(grid.diff2(solution));
+                return false;
+            });
+            if (other.get() != null) {
+                addUnavoidableSet(other.get());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addUnavoidableSet(SudokuMask set) {
+        if (set.bitCount() == 0) return;
+        synchronized (pool) {
+            if (pool.size() < MAX_POOL_SIZE) {
+                pool.add(new SudokuMask(set));
+            }
+        }
+    }
+
+    /**
+     * Number of clues of each digit in each unit.
+     */
+    private static int[][] unitDigitCounts(int[] digits) {
+        int[][] counts = new int[NUM_UNITS][DIGITS + 1];
+        for (int ci = 0; ci < SPACES; ci++) {
+            if (digits[ci] > 0) {
+                for (int unit : CELL_UNITS[ci]) {
+                    counts[unit][digits[ci]]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Whether, with the clue removed, the remaining clues alone leave the cell only its digit (naked single),
+     * or leave the digit no other place in one of the cell's units (hidden single).
+     */
+    private static boolean isRestoredBySingle(int[] digits, int[][] unitDigitCounts, int clueIndex) {
+        int digit = digits[clueIndex];
+
+        boolean nakedSingle = true;
+        for (int d = 1; d <= DIGITS && nakedSingle; d++) {
+            nakedSingle = (d == digit) || isBlocked(digits, unitDigitCounts, clueIndex, d, clueIndex);
+        }
+        if (nakedSingle) return true;
+
+        for (int unit : CELL_UNITS[clueIndex]) {
+            boolean hiddenSingle = true;
+            for (int ci : UNIT_INDICES[unit]) {
+                if (ci != clueIndex && digits[ci] == 0 && !isBlocked(digits, unitDigitCounts, ci, digit, clueIndex)) {
+                    hiddenSingle = false;
+                    break;
+                }
+            }
+            if (hiddenSingle) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether the digit can't go in the cell because of a clue in one of its units, other than the removed clue.
+     */
+    private static boolean isBlocked(int[] digits, int[][] unitDigitCounts, int ci, int digit, int removedIndex) {
+        for (int unit : CELL_UNITS[ci]) {
+            int count = unitDigitCounts[unit][digit];
+            if (digits[removedIndex] == digit && isInUnit(removedIndex, unit)) {
+                count--;
+            }
+            if (count > 0) return true;
+        }
+        return false;
+    }
+
+    private static boolean isInUnit(int ci, int unit) {
+        int[] units = CELL_UNITS[ci];
+        return unit == units[0] || unit == units[1] || unit == units[2];
+    }
+}
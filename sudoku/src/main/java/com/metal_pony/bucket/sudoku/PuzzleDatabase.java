@@ -0,0 +1,500 @@
+package com.metal_pony.bucket.sudoku;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An append-only file of puzzle records, indexed in memory for finding puzzles by clue count, by
+ * solution, by canonical solution grid (so, by any grid isomorphic to it), and by the fingerprints
+ * of their solution grids.
+ *
+ * Each record is one line of comma-separated fields: puzzle, solution, canonical solution grid
+ * (see {@link GridCanonicalizer}), then the fingerprints named in {@link #PRINTS}, in that order,
+ * left empty where not computed. Records are never rewritten. The indexes map each key to the byte
+ * offsets of its records, so a lookup is one hash probe plus a read per matching record.
+ *
+ * The indexes are built when the database is opened: the file is split into chunks at line breaks,
+ * the chunks are indexed in parallel, and the chunk indexes are merged in file order, each index on
+ * its own thread. A last record cut short, e.g. by a crash partway through appending it, is dropped.
+ */
+public class PuzzleDatabase implements Closeable {
+    /** Fingerprints a record can hold, in file order.*/
+    public static final List<String> PRINTS = List.of("dc2", "dc3", "dc4", "ac2", "ac3", "ac4", "fp2", "fp3", "fp4");
+
+    static final int PUZZLE_FIELD = 0;
+    static final int SOLUTION_FIELD = 1;
+    static final int CANONICAL_FIELD = 2;
+    static final int FIRST_PRINT_FIELD = 3;
+    static final int NUM_FIELDS = FIRST_PRINT_FIELD + 9;
+
+    /** Files are split into chunks of at least this many bytes for indexing.*/
+    static final long MIN_CHUNK_BYTES = 1L << 20;
+
+    /** Byte offsets of the records under one key, in file order.*/
+    static class Offsets {
+        long[] offsets = new long[2];
+        int size = 0;
+
+        void add(long offset) {
+            if (size == offsets.length) offsets = Arrays.copyOf(offsets, size * 2);
+            offsets[size++] = offset;
+        }
+
+        void addAll(Offsets other) {
+            if (size + other.size > offsets.length) {
+                offsets = Arrays.copyOf(offsets, Math.max(size + other.size, size * 2));
+            }
+            System.arraycopy(other.offsets, 0, offsets, size, other.size);
+            size += other.size;
+        }
+    }
+
+    /** The indexes for some span of the file; for the whole file once merged.*/
+    static class Indexes {
+        final List<Map<String,Offsets>> byField = new ArrayList<>();
+        final Offsets[] byClues = new Offsets[Sudoku.SPACES + 1];
+        int numRecords = 0;
+        /** Offset just past the last whole record; -1 if there are none.*/
+        long end = -1L;
+
+        Indexes() {
+            for (int f = 0; f < NUM_FIELDS; f++) {
+                // Puzzles themselves aren't looked up
+                byField.add((f == PUZZLE_FIELD) ? null : new HashMap<>());
+            }
+            for (int clues = 0; clues <= Sudoku.SPACES; clues++) byClues[clues] = new Offsets();
+        }
+
+        void add(String record, long offset) {
+            String[] fields = record.split(",", -1);
+            if (fields.length != NUM_FIELDS) {
+                throw new IllegalArgumentException("Malformed puzzle record at offset " + offset);
+            }
+            for (int f = 0; f < NUM_FIELDS; f++) {
+                Map<String,Offsets> index = byField.get(f);
+                if (index != null && !fields[f].isEmpty()) {
+                    index.computeIfAbsent(fields[f], key -> new Offsets()).add(offset);
+                }
+            }
+            byClues[numClues(fields[PUZZLE_FIELD])].add(offset);
+            numRecords++;
+        }
+    }
+
+    private final FileChannel channel;
+    private Indexes indexes;
+
+    /**
+     * Opens the database in the given file, creating the file if needed, and builds its indexes.
+     * @param numThreads Number of threads to build the indexes with.
+     * @throws IOException If the file can't be opened or read.
+     * @throws IllegalArgumentException If a record is malformed, or numThreads is not positive.
+     */
+    public PuzzleDatabase(String path, int numThreads) throws IOException {
+        this.channel = FileChannel.open(
+            Paths.get(path),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+        );
+        try {
+            buildIndexes(numThreads);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Makes the record line for a puzzle, computing its solution, canonical grid, and the given fingerprints.
+     * @param prints Names of fingerprints to compute, from {@link #PRINTS}. Others are stored only if
+     * already computed.
+     * @throws IllegalArgumentException If the puzzle has no solution, or a fingerprint name is unknown.
+     */
+    public static String toRecord(PuzzleEntry entry, String... prints) {
+        if (entry.solution == null || entry.solution.isBlank()) {
+            Sudoku solution = entry.puzzle().solution();
+            if (solution == null) throw new IllegalArgumentException("Puzzle has no solution: " + entry.puzzleStr());
+            entry.solution = solution.toString();
+            entry._solution = solution;
+        }
+        entry.fingerprints(prints);
+
+        StringBuilder strb = new StringBuilder();
+        strb.append(entry.puzzleStr()).append(',');
+        strb.append(entry.solutionStr()).append(',');
+        strb.append(GridCanonicalizer.canonicalString(new Sudoku(entry.solutionStr())));
+        for (String name : PRINTS) {
+            String print = entry.getPrint(name);
+            strb.append(',').append((print == null) ? "" : print);
+        }
+        return strb.toString();
+    }
+
+    /**
+     * Appends a puzzle, computing its solution, canonical grid and the given fingerprints, and indexes it.
+     * @param prints Names of fingerprints to compute, from {@link #PRINTS}.
+     * @throws IllegalArgumentException If the puzzle has no solution, or a fingerprint name is unknown.
+     */
+    public void add(PuzzleEntry entry, String... prints) throws IOException {
+        addRecord(toRecord(entry, prints));
+    }
+
+    /**
+     * Appends a record made by {@link #toRecord(PuzzleEntry, String...)}, and indexes it.
+     * @throws IllegalArgumentException If the record is malformed.
+     */
+    public synchronized void addRecord(String record) throws IOException {
+        if (record.indexOf('\n') >= 0 || record.split(",", -1).length != NUM_FIELDS) {
+            throw new IllegalArgumentException("Malformed puzzle record: " + record);
+        }
+        long offset = indexes.end;
+        ByteBuffer buffer = ByteBuffer.wrap((record + "\n").getBytes(StandardCharsets.US_ASCII));
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        indexes.add(record, offset);
+        indexes.end = position;
+    }
+
+    /**
+     * Appends many puzzles, computing their records on several threads, and indexes them.
+     * Records are appended in input order. Puzzles without a solution are skipped.
+     * @param puzzles Lines whose first comma-separated field is a puzzle string.
+     * @param prints Names of fingerprints to compute, from {@link #PRINTS}.
+     * @return Number of puzzles added.
+     * @throws IllegalArgumentException If a fingerprint name is unknown, or numThreads is not positive.
+     */
+    public int addAll(Iterator<String> puzzles, int numThreads, String... prints) throws IOException {
+        if (numThreads < 1) throw new IllegalArgumentException("numThreads must be positive");
+        for (String name : prints) printField(name);
+
+        // Enough pending records to keep every thread busy, without holding futures for the whole input.
+        final int window = numThreads * 16;
+        Queue<Future<String>> records = new LinkedList<>();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            numThreads, numThreads,
+            1L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>()
+        );
+        int added = 0;
+        try {
+            while (puzzles.hasNext()) {
+                String line = puzzles.next().trim();
+                int comma = line.indexOf(',');
+                String puzzle = (comma < 0) ? line : line.substring(0, comma);
+                if (puzzle.isEmpty()) continue;
+                records.offer(pool.submit(() -> toRecord(new PuzzleEntry(puzzle), prints)));
+                if (records.size() >= window) added += addNext(records);
+            }
+            while (!records.isEmpty()) added += addNext(records);
+        } finally {
+            pool.shutdownNow();
+        }
+        return added;
+    }
+
+    /**
+     * Appends the next computed record, unless its puzzle was skipped.
+     * @return 1 if appended; otherwise 0.
+     */
+    private int addNext(Queue<Future<String>> records) throws IOException {
+        try {
+            addRecord(records.poll().get());
+            return 1;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException) {
+                System.err.println(e.getCause().getMessage());
+                return 0;
+            }
+            throw new IllegalStateException("Making puzzle record failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while adding puzzles", e);
+        }
+    }
+
+    /** Number of records.*/
+    public synchronized int size() {
+        return indexes.numRecords;
+    }
+
+    /**
+     * Puzzles whose solution grids have the given fingerprint.
+     * @param name Fingerprint name, from {@link #PRINTS}.
+     * @throws IllegalArgumentException If the name is unknown.
+     */
+    public List<PuzzleEntry> findByPrint(String name, String print) throws IOException {
+        return read(lookup(printField(name), print));
+    }
+
+    /** Puzzles with the given number of clues.*/
+    public List<PuzzleEntry> findByClues(int numClues) throws IOException {
+        if (numClues < 0 || numClues > Sudoku.SPACES) return new ArrayList<>();
+        Offsets offsets;
+        synchronized (this) {
+            offsets = copy(indexes.byClues[numClues]);
+        }
+        return read(offsets);
+    }
+
+    /** Puzzles with the given solution.*/
+    public List<PuzzleEntry> findBySolution(String solution) throws IOException {
+        return read(lookup(SOLUTION_FIELD, solution));
+    }
+
+    /**
+     * Puzzles whose solutions are the given grid up to symmetry and relabeling of digits.
+     * @throws IllegalArgumentException If the grid is not full and valid.
+     */
+    public List<PuzzleEntry> findIsomorphic(Sudoku grid) throws IOException {
+        // Checked on a copy, as transforms like scramble() leave the grid's constraints stale
+        if (!new Sudoku(grid.getBoard()).isSolved()) throw new IllegalArgumentException("Grid is not solved");
+        return read(lookup(CANONICAL_FIELD, GridCanonicalizer.canonicalString(grid)));
+    }
+
+    /**
+     * Finds fingerprints that more than one grid has, where grids that are the same up to symmetry
+     * and relabeling count as one. A fingerprint that tells every grid apart has none.
+     * @param name Fingerprint name, from {@link #PRINTS}.
+     * @return For each shared fingerprint, the canonical grids that have it.
+     * @throws IllegalArgumentException If the name is unknown.
+     */
+    public synchronized Map<String,Set<String>> sharedPrints(String name) {
+        int field = printField(name);
+        // Invert the canonical grid index, rather than reading every record
+        Map<Long,String> canonicalAt = new HashMap<>();
+        for (Map.Entry<String,Offsets> entry : indexes.byField.get(CANONICAL_FIELD).entrySet()) {
+            Offsets offsets = entry.getValue();
+            for (int i = 0; i < offsets.size; i++) canonicalAt.put(offsets.offsets[i], entry.getKey());
+        }
+
+        Map<String,Set<String>> shared = new LinkedHashMap<>();
+        for (Map.Entry<String,Offsets> entry : indexes.byField.get(field).entrySet()) {
+            Offsets offsets = entry.getValue();
+            if (offsets.size < 2) continue;
+            Set<String> grids = new LinkedHashSet<>();
+            for (int i = 0; i < offsets.size; i++) grids.add(canonicalAt.get(offsets.offsets[i]));
+            if (grids.size() > 1) shared.put(entry.getKey(), grids);
+        }
+        return shared;
+    }
+
+    /**
+     * Rebuilds the indexes from the file, in parallel. Done on open; only needed again if the file
+     * was appended to by something else.
+     * @param numThreads Number of threads to index with.
+     * @throws IllegalArgumentException If a record is malformed, or numThreads is not positive.
+     */
+    public synchronized void rebuildIndexes(int numThreads) throws IOException {
+        buildIndexes(numThreads);
+    }
+
+    /** Builds the indexes; kept private so the constructor calls nothing a subclass could override.*/
+    private void buildIndexes(int numThreads) throws IOException {
+        if (numThreads < 1) throw new IllegalArgumentException("numThreads must be positive");
+
+        long size = channel.size();
+        int numChunks = (int) Math.max(1L, Math.min(numThreads * 4L, size / MIN_CHUNK_BYTES));
+        long chunkSize = (size + numChunks - 1) / numChunks;
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            numThreads, numThreads,
+            1L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>()
+        );
+        try {
+            List<Future<Indexes>> chunkFutures = new ArrayList<>();
+            for (int c = 0; c < numChunks; c++) {
+                long start = Math.min(size, c * chunkSize);
+                long end = Math.min(size, start + chunkSize);
+                chunkFutures.add(pool.submit(() -> indexChunk(start, end, size)));
+            }
+            List<Indexes> chunks = new ArrayList<>();
+            for (Future<Indexes> future : chunkFutures) chunks.add(getResult(future));
+            indexes = merge(chunks, pool);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Drop a partly written last record, so the next record starts on a line of its own
+        if (indexes.end < size) channel.truncate(indexes.end);
+    }
+
+    /**
+     * Indexes the records that start in the given span of the file.
+     * A record belongs to the chunk its first byte is in, so each record is indexed exactly once.
+     */
+    private Indexes indexChunk(long start, long end, long size) throws IOException {
+        Indexes chunk = new Indexes();
+        if (start >= end) return chunk;
+        // From the byte before the chunk, to see whether a record starts on its first byte
+        long mapStart = Math.max(0L, start - 1);
+        MappedByteBuffer buffer = channel.map(
+            FileChannel.MapMode.READ_ONLY,
+            mapStart,
+            Math.min(size - mapStart, Integer.MAX_VALUE)
+        );
+        int pos = (int) (start - mapStart);
+        if (start > 0) {
+            // Skip to the start of the first record beginning in this chunk
+            pos--;
+            while (pos < buffer.limit() && buffer.get(pos) != '\n') pos++;
+            pos++;
+        }
+        int chunkEnd = (int) (end - mapStart);
+        byte[] line = new byte[256];
+        while (pos < chunkEnd) {
+            int lineEnd = pos;
+            while (lineEnd < buffer.limit() && buffer.get(lineEnd) != '\n') lineEnd++;
+            // No line break: the record was cut short
+            if (lineEnd >= buffer.limit()) break;
+
+            int length = lineEnd - pos;
+            if (length > line.length) line = new byte[Math.max(length, line.length * 2)];
+            buffer.get(pos, line, 0, length);
+            if (length > 0) chunk.add(new String(line, 0, length, StandardCharsets.US_ASCII), mapStart + pos);
+            pos = lineEnd + 1;
+            chunk.end = mapStart + pos;
+        }
+        return chunk;
+    }
+
+    /** Merges the chunk indexes in file order, each index on its own thread.*/
+    private static Indexes merge(List<Indexes> chunks, ThreadPoolExecutor pool) {
+        Indexes merged = new Indexes();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int f = 0; f < NUM_FIELDS; f++) {
+            Map<String,Offsets> index = merged.byField.get(f);
+            if (index == null) continue;
+            final int field = f;
+            futures.add(pool.submit(() -> {
+                for (Indexes chunk : chunks) {
+                    for (Map.Entry<String,Offsets> entry : chunk.byField.get(field).entrySet()) {
+                        Offsets offsets = index.get(entry.getKey());
+                        if (offsets == null) {
+                            index.put(entry.getKey(), entry.getValue());
+                        } else {
+                            offsets.addAll(entry.getValue());
+                        }
+                    }
+                }
+            }));
+        }
+        for (Indexes chunk : chunks) {
+            for (int clues = 0; clues <= Sudoku.SPACES; clues++) merged.byClues[clues].addAll(chunk.byClues[clues]);
+            merged.numRecords += chunk.numRecords;
+        }
+        for (Future<?> future : futures) getResult(future);
+        merged.end = 0L;
+        for (Indexes chunk : chunks) merged.end = Math.max(merged.end, chunk.end);
+        return merged;
+    }
+
+    private synchronized Offsets lookup(int field, String key) {
+        Offsets offsets = indexes.byField.get(field).get(key);
+        return (offsets == null) ? new Offsets() : copy(offsets);
+    }
+
+    private static Offsets copy(Offsets offsets) {
+        Offsets result = new Offsets();
+        result.offsets = Arrays.copyOf(offsets.offsets, offsets.size);
+        result.size = offsets.size;
+        return result;
+    }
+
+    private List<PuzzleEntry> read(Offsets offsets) throws IOException {
+        List<PuzzleEntry> entries = new ArrayList<>(offsets.size);
+        for (int i = 0; i < offsets.size; i++) {
+            String[] fields = readFields(offsets.offsets[i]);
+            entries.add(new PuzzleEntry(
+                fields[PUZZLE_FIELD],
+                fields[SOLUTION_FIELD],
+                orNull(fields[FIRST_PRINT_FIELD]), orNull(fields[FIRST_PRINT_FIELD + 1]), orNull(fields[FIRST_PRINT_FIELD + 2]),
+                orNull(fields[FIRST_PRINT_FIELD + 3]), orNull(fields[FIRST_PRINT_FIELD + 4]), orNull(fields[FIRST_PRINT_FIELD + 5]),
+                orNull(fields[FIRST_PRINT_FIELD + 6]), orNull(fields[FIRST_PRINT_FIELD + 7]), orNull(fields[FIRST_PRINT_FIELD + 8])
+            ));
+        }
+        return entries;
+    }
+
+    /** Reads the record at the given offset, up to its line break.*/
+    private String[] readFields(long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(512);
+        long position = offset;
+        while (true) {
+            int n = channel.read(buffer, position);
+            for (int i = (int) (position - offset); i < buffer.position(); i++) {
+                if (buffer.get(i) == '\n') {
+                    return new String(buffer.array(), 0, i, StandardCharsets.US_ASCII).split(",", -1);
+                }
+            }
+            if (n < 0) throw new IOException("Record at offset " + offset + " has no line break");
+            position = offset + buffer.position();
+            if (!buffer.hasRemaining()) {
+                ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                bigger.put(buffer);
+                buffer = bigger;
+            }
+        }
+    }
+
+    private static String orNull(String field) {
+        return field.isEmpty() ? null : field;
+    }
+
+    private static int printField(String name) {
+        int i = PRINTS.indexOf(name);
+        if (i < 0) throw new IllegalArgumentException("Unknown fingerprint: " + name);
+        return FIRST_PRINT_FIELD + i;
+    }
+
+    private static int numClues(String puzzle) {
+        int clues = 0;
+        for (int i = 0; i < puzzle.length(); i++) {
+            char ch = puzzle.charAt(i);
+            if (ch >= '1' && ch <= '9') clues++;
+        }
+        return Math.min(clues, Sudoku.SPACES);
+    }
+
+    private static <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while indexing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException) throw (IllegalArgumentException) e.getCause();
+            throw new IllegalStateException("Indexing failed", e.getCause());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+}
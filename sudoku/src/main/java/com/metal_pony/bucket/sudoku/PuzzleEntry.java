@@ -1,10 +1,8 @@
 package com.metal_pony.bucket.sudoku;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.PrintWriter;
 import java.io.Reader;
 import java.util.ArrayList;
 import java.util.LinkedList;
@@ -16,6 +14,7 @@ import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
 import com.google.gson.Gson;
+import com.metal_pony.bucket.sudoku.util.BatchJob;
 import com.metal_pony.bucket.util.ThreadPool;
 
 public class PuzzleEntry {
@@ -101,6 +100,59 @@ public class PuzzleEntry {
     public String fp3() { return (fp3 == null) ? (fp3 = solution().fp3()) : fp3; }
     public String fp4() { return (fp4 == null) ? (fp4 = solution().fp4()) : fp4; }
 
+    String getPrint(String name) {
+        switch (name) {
+            case "dc2": return dc2;
+            case "dc3": return dc3;
+            case "dc4": return dc4;
+            case "ac2": return ac2;
+            case "ac3": return ac3;
+            case "ac4": return ac4;
+            case "fp2": return fp2;
+            case "fp3": return fp3;
+            case "fp4": return fp4;
+            default: throw new IllegalArgumentException("Unknown fingerprint: " + name);
+        }
+    }
+
+    private void setPrint(String name, String print) {
+        switch (name) {
+            case "dc2": dc2 = print; break;
+            case "dc3": dc3 = print; break;
+            case "dc4": dc4 = print; break;
+            case "ac2": ac2 = print; break;
+            case "ac3": ac3 = print; break;
+            case "ac4": ac4 = print; break;
+            case "fp2": fp2 = print; break;
+            case "fp3": fp3 = print; break;
+            case "fp4": fp4 = print; break;
+            default: throw new IllegalArgumentException("Unknown fingerprint: " + name);
+        }
+    }
+
+    /**
+     * Gets the given fingerprints, computing any that are missing in a single pass over one sieve.
+     * @param names Fingerprint names, e.g. "dc2", "ac3", "fp4".
+     * @return The fingerprints, in the order requested.
+     */
+    public String[] fingerprints(String... names) {
+        List<String> missing = new ArrayList<>();
+        for (String name : names) {
+            if (getPrint(name) == null && !missing.contains(name)) {
+                missing.add(name);
+            }
+        }
+        if (!missing.isEmpty()) {
+            FingerprintEngine.fingerprints(solution(), missing).forEach(this::setPrint);
+        }
+
+        String[] result = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            result[i] = getPrint(names[i]);
+        }
+        return result;
+    }
+
     private static final String JSON_FORMAT = """
     {
       "puzzle":   "%s",
@@ -110,12 +162,14 @@ public class PuzzleEntry {
     }""";
     @Override
     public String toString() {
-        return String.format(JSON_FORMAT, puzzleStr(), solutionStr(), fp2(), fp3());
+        fingerprints("fp2", "fp3");
+        return String.format(JSON_FORMAT, puzzleStr(), solutionStr(), fp2, fp3);
     }
 
     private static final String CSV_FORMAT = "%s,%s,%s,%s,%s";
     public String toCsv() {
-        return String.format(CSV_FORMAT, puzzleStr(), solutionStr(), dc2(), dc3(), fp3());
+        fingerprints("dc2", "dc3", "fp3");
+        return String.format(CSV_FORMAT, puzzleStr(), solutionStr(), dc2, dc3, fp3);
     }
 
     /**
@@ -147,6 +201,14 @@ public class PuzzleEntry {
         );
     }
 
+    /**
+     * Reads the 17-clue puzzles from 'resources/sudoku-17.txt', one string per puzzle,
+     * without building entries for them.
+     */
+    public static String[] puzzles17() {
+        return GeneratedPuzzles.readResourceLines(PUZZLES_17_RESOURCE);
+    }
+
     public static List<PuzzleEntry> allSudoku17() {
         List<PuzzleEntry> entries = new ArrayList<>();
 
@@ -198,37 +260,55 @@ public class PuzzleEntry {
     }
 
     public static void buildCSV(String outFilePath, int numThreads) {
+        buildCSV(outFilePath, numThreads, null, false);
+    }
+
+    /**
+     * Writes a CSV line for each 17-clue puzzle, in resource order. Progress is checkpointed, so an
+     * interrupted build can resume where it left off.
+     * @param checkpointPath Checkpoint file; or null to use the output path plus ".checkpoint".
+     * @param resume Whether to resume from the checkpoint, if there is one.
+     */
+    public static void buildCSV(String outFilePath, int numThreads, String checkpointPath, boolean resume) {
+        // Enough pending lines to keep every thread busy, without holding futures for the whole file.
+        final int window = numThreads * 16;
         ThreadPool.setSizeAndStart(numThreads);
         Queue<Future<String>> entries = new LinkedList<>();
 
         try (
+            BatchJob job = new BatchJob("buildcsv", outFilePath, checkpointPath);
             InputStream sudoku17inStream = puzzles17Stream();
             Scanner sudoku17Scanner = new Scanner(sudoku17inStream);
         ) {
+            job.start(resume);
+            long skip = job.offset();
             while (sudoku17Scanner.hasNextLine()) {
                 String line = sudoku17Scanner.nextLine().trim();
                 if (line.isEmpty()) continue;
+                if (skip > 0L) {
+                    skip--;
+                    continue;
+                }
                 entries.offer(ThreadPool.submit(() -> new PuzzleEntry(line).toCsv()));
+                if (entries.size() >= window) {
+                    completeNext(job, entries);
+                }
             }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        ThreadPool.shutdown();
-
-        try (
-            PrintWriter fOut = new PrintWriter(outFilePath);
-        ) {
-            int n = 0;
             while (!entries.isEmpty()) {
-                Future<String> entry = entries.poll();
-                String entryStr = entry.get();
-                System.out.printf("[%d] %s\n", n, entryStr);
-                fOut.println(entryStr);
-                n++;
+                completeNext(job, entries);
             }
-        } catch (FileNotFoundException | InterruptedException | ExecutionException e) {
+        } catch (IOException | InterruptedException | ExecutionException e) {
             e.printStackTrace();
+        } finally {
+            ThreadPool.shutdown();
         }
     }
+
+    private static void completeNext(BatchJob job, Queue<Future<String>> entries)
+        throws InterruptedException, ExecutionException
+    {
+        String entryStr = entries.poll().get();
+        System.out.printf("[%d] %s\n", job.offset(), entryStr);
+        job.complete(entryStr);
+    }
 }
@@ -0,0 +1,127 @@
+package com.metal_pony.bucket.sudoku;
+
+import java.io.File;
+import java.util.function.Consumer;
+
+/**
+ * A directory of saved sieves, keyed by grid and a name describing how the sieve was seeded.
+ * e.g. A level 3 full print sieve is cached as "fp3".
+ *
+ * Sieves can also be cached under the canonical form of their grid (see {@link GridCanonicalizer}).
+ * A sieve cached that way serves every grid that is the same up to symmetry and relabeling:
+ * it's mapped onto the requested grid with {@link SudokuSieve#transform(int[], int[])} instead of being seeded.
+ */
+public class SieveCache {
+    public static final String FILE_EXTENSION = ".sieve";
+
+    private final File dir;
+
+    /**
+     * Creates a cache in the given directory, creating the directory if needed.
+     * @param dirPath Path of the cache directory.
+     * @throws IllegalArgumentException If the path exists but is not a directory,
+     * or the directory could not be created.
+     */
+    public SieveCache(String dirPath) {
+        this.dir = new File(dirPath);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IllegalArgumentException("Could not use sieve cache directory: " + dirPath);
+        }
+    }
+
+    /**
+     * Gets the path of the file for the given grid and sieve name.
+     */
+    public String pathFor(Sudoku grid, String name) {
+        return new File(dir, String.format("%s-%s%s", grid.toString(), name, FILE_EXTENSION)).getPath();
+    }
+
+    /**
+     * Whether a sieve is cached for the given grid and name.
+     */
+    public boolean contains(Sudoku grid, String name) {
+        return new File(pathFor(grid, name)).isFile();
+    }
+
+    /**
+     * Loads the cached sieve for the given grid and name.
+     * @return The sieve; or null if none is cached or the file could not be read.
+     */
+    public SudokuSieve get(Sudoku grid, String name) {
+        if (!contains(grid, name)) return null;
+        return SudokuSieve.load(pathFor(grid, name));
+    }
+
+    /**
+     * Saves the sieve under the given name, replacing any sieve cached for the same grid and name.
+     * @return True if the sieve was saved; otherwise false.
+     */
+    public boolean put(String name, SudokuSieve sieve) {
+        return sieve.save(pathFor(sieve.config(), name));
+    }
+
+    /**
+     * Loads a sieve for the given grid, from the sieve cached for that exact grid,
+     * or else from the sieve cached for its canonical form, mapped onto the grid.
+     * @return The sieve; or null if neither is cached or could be read.
+     */
+    public SudokuSieve getIsomorphic(Sudoku grid, String name) {
+        SudokuSieve sieve = get(grid, name);
+        if (sieve != null) return sieve;
+
+        GridCanonicalizer.Result canonical = GridCanonicalizer.canonicalize(grid.getBoard());
+        SudokuSieve canonicalSieve = get(new Sudoku(canonical.digits), name);
+        if (canonicalSieve == null) return null;
+        return canonicalSieve.transform(canonical.inverseCellMap(), canonical.inverseDigitMap());
+    }
+
+    /**
+     * Saves the sieve under the canonical form of its grid, so that any isomorphic grid can use it.
+     * @return True if the sieve was saved; otherwise false.
+     */
+    public boolean putCanonical(String name, SudokuSieve sieve) {
+        GridCanonicalizer.Result canonical = GridCanonicalizer.canonicalize(sieve.config().getBoard());
+        return put(name, sieve.transform(canonical.cellMap, canonical.digitMap));
+    }
+
+    /**
+     * Like {@link #computeIfAbsent(Sudoku, String, Consumer)}, but reuses a sieve cached for any grid
+     * isomorphic to the given one, and caches new sieves under the canonical grid.
+     * @param seeder Seeds a new, empty sieve if none is cached.
+     */
+    public SudokuSieve computeIfAbsentIsomorphic(Sudoku grid, String name, Consumer<SudokuSieve> seeder) {
+        SudokuSieve sieve = getIsomorphic(grid, name);
+        if (sieve == null) {
+            sieve = new SudokuSieve(grid);
+            seeder.accept(sieve);
+            putCanonical(name, sieve);
+        }
+        return sieve;
+    }
+
+    /**
+     * Loads the cached sieve for the given grid and name, or creates, seeds, and caches it.
+     * @param seeder Seeds a new, empty sieve if none is cached.
+     */
+    public SudokuSieve computeIfAbsent(Sudoku grid, String name, Consumer<SudokuSieve> seeder) {
+        SudokuSieve sieve = get(grid, name);
+        if (sieve == null) {
+            sieve = new SudokuSieve(grid);
+            seeder.accept(sieve);
+            put(name, sieve);
+        }
+        return sieve;
+    }
+
+    /**
+     * Loads the cached full print sieve of the given level for the grid or any grid isomorphic to it,
+     * or seeds it and caches it under the canonical grid.
+     * @param level 2 through 4.
+     * @param numThreads Number of threads used for seeding.
+     */
+    public SudokuSieve fullPrint(Sudoku grid, int level, int numThreads) {
+        return computeIfAbsentIsomorphic(grid, "fp" + level, sieve -> {
+            sieve.seedThreaded(sieve.fullPrintCombos(level), numThreads);
+        });
+    }
+}
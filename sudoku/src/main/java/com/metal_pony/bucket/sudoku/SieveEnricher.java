@@ -0,0 +1,187 @@
+package com.metal_pony.bucket.sudoku;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.metal_pony.bucket.sudoku.util.SudokuMask;
+
+/**
+ * Grows a sieve in the background while puzzles are generated from it.
+ *
+ * Work comes from two sources. Puzzle masks that recently failed a uniqueness check are searched first,
+ * since their unavoidable sets are the ones generation keeps running into. Otherwise the sieve's
+ * level 2 and then level 3 print combos are seeded, one at a time. Items found are validated without
+ * holding the sieve lock, then merged in one batch per search, so a generator checking masks against
+ * the sieve sees all of a batch or none of it.
+ *
+ * The task stops once it has used its budget of CPU time, or when closed. Time spent waiting for
+ * failed masks doesn't count against the budget.
+ */
+public class SieveEnricher implements AutoCloseable {
+    /** Number of failed puzzle masks kept for searching. The oldest are dropped first.*/
+    static final int MAX_PENDING_MASKS = 32;
+    /** Highest level of print combos to seed from.*/
+    static final int MAX_COMBO_LEVEL = 3;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final SudokuSieve sieve;
+    private final Sudoku grid;
+    private final long budgetNanos;
+    private final Deque<SudokuMask> pending;
+    private final AtomicInteger numAdded;
+    private final Thread thread;
+    private volatile long usedNanos;
+    private volatile boolean closed;
+
+    /**
+     * Creates and starts a background task that adds items to the given sieve.
+     * @param sieve Sieve to grow.
+     * @param budgetMs Milliseconds of CPU time the task may use in total.
+     * Measured as wall time if the JVM can't measure thread CPU time.
+     * @throws IllegalArgumentException If the budget is negative.
+     */
+    public SieveEnricher(SudokuSieve sieve, long budgetMs) {
+        if (budgetMs < 0L) throw new IllegalArgumentException("budgetMs must not be negative");
+        this.sieve = sieve;
+        this.grid = sieve.config();
+        this.budgetNanos = budgetMs * 1_000_000L;
+        this.pending = new ArrayDeque<>();
+        this.numAdded = new AtomicInteger();
+        this.usedNanos = 0L;
+        this.closed = false;
+        this.thread = new Thread(this::run, "sieve-enricher");
+        this.thread.setDaemon(true);
+        // Generation shouldn't wait on the enricher for a CPU
+        this.thread.setPriority(Thread.MIN_PRIORITY);
+        this.thread.start();
+    }
+
+    /** The sieve being grown.*/
+    public SudokuSieve sieve() {
+        return sieve;
+    }
+
+    /** Number of items added to the sieve so far.*/
+    public int numAdded() {
+        return numAdded.get();
+    }
+
+    /** Milliseconds of the budget used so far.*/
+    public long usedMs() {
+        return usedNanos / 1_000_000L;
+    }
+
+    /** Whether the task has stopped, having used its budget or been closed.*/
+    public boolean isDone() {
+        return !thread.isAlive();
+    }
+
+    /**
+     * Queues a puzzle mask that has more than one solution, to search it for unavoidable sets.
+     * Returns immediately. Ignored once the task is done.
+     * @param puzzleMask Mask of the puzzle's clues. This is copied.
+     */
+    public void offer(SudokuMask puzzleMask) {
+        if (closed || isDone()) return;
+        synchronized (pending) {
+            if (pending.size() == MAX_PENDING_MASKS) {
+                pending.removeFirst();
+            }
+            pending.addLast(new SudokuMask(puzzleMask));
+            pending.notify();
+        }
+    }
+
+    /**
+     * Stops the task and waits for it to finish its current search.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (pending) {
+            pending.notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        int comboLevel = 2;
+        List<SudokuMask> combos = sieve.fullPrintCombos(comboLevel);
+        int comboIndex = 0;
+
+        while (!closed && usedNanos < budgetNanos) {
+            if (comboIndex == combos.size() && comboLevel < MAX_COMBO_LEVEL) {
+                combos = sieve.fullPrintCombos(++comboLevel);
+                comboIndex = 0;
+            }
+            boolean hasCombos = comboIndex < combos.size();
+
+            SudokuMask puzzleMask = nextPending(!hasCombos);
+            if (puzzleMask != null) {
+                // Already rejected by items found since it was offered
+                if (!sieve.doesMaskSatisfy(puzzleMask)) continue;
+                search(grid.filter(puzzleMask));
+            } else if (hasCombos) {
+                search(grid.filter(new SudokuMask(combos.get(comboIndex++)).flip()));
+            }
+        }
+    }
+
+    /**
+     * Takes the most recently offered mask.
+     * @param wait Whether to wait for a mask to be offered if there are none.
+     * @return The mask; or null if there are none, or the task was closed while waiting.
+     */
+    private SudokuMask nextPending(boolean wait) {
+        synchronized (pending) {
+            while (wait && pending.isEmpty() && !closed) {
+                try {
+                    pending.wait();
+                } catch (InterruptedException e) {
+                    return null;
+                }
+            }
+            return pending.pollLast();
+        }
+    }
+
+    /**
+     * Finds the unavoidable sets between the grid and the puzzle's other solutions, and adds them to the sieve.
+     * The search is cut short if the budget runs out or the task is closed.
+     */
+    private void search(Sudoku puzzle) {
+        final long start = time();
+        List<SudokuMask> found = new ArrayList<>();
+        puzzle.searchForSolutions3(
+            solution -> {
+                SudokuMask diff = grid.diff2(solution);
+                if (diff.bitCount() > 0 && !sieve.isDerivative(diff) && sieve.validate(diff)) {
+                    found.add(diff);
+                }
+                return !isOverBudget(start);
+            },
+            () -> isOverBudget(start)
+        );
+        numAdded.addAndGet(sieve.merge(found));
+        usedNanos += time() - start;
+    }
+
+    private boolean isOverBudget(long searchStart) {
+        return closed || usedNanos + (time() - searchStart) >= budgetNanos;
+    }
+
+    /** CPU time of the calling thread, or wall time if that isn't supported.*/
+    private static long time() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+}
@@ -0,0 +1,167 @@
+package com.metal_pony.bucket.sudoku;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estimates how many solutions a puzzle has, for puzzles too sparse to count exactly.
+ *
+ * Each probe walks one random path down the search tree, branching on the cell with the fewest
+ * candidates, and multiplies the branching factors along the way. A path that reaches a solution
+ * scores that product; a dead end scores 0. The mean score is an unbiased estimate of the solution
+ * count (Knuth's estimator). A probe costs a fraction of a millisecond however sparse the puzzle is,
+ * so a few seconds of probing usually gets within 5%, even for the empty grid.
+ *
+ * Scores are heavy-tailed: rare deep paths score very high. The confidence interval uses the normal
+ * approximation, which can be optimistic with few samples, so at least {@link #MIN_SAMPLES} are taken
+ * before a target error may stop the run.
+ */
+public class SolutionEstimator {
+    /** Probes taken before the relative error is trusted.*/
+    public static final int MIN_SAMPLES = 1000;
+    /** Two-sided 95% normal quantile.*/
+    public static final double Z_95 = 1.959964;
+
+    /** Probes each thread runs between checks of the stopping conditions.*/
+    static final int CHUNK_SIZE = 64;
+
+    /**
+     * Result of an estimate.
+     */
+    public static class Estimate {
+        /** Mean probe score; the estimated number of solutions.*/
+        public final double estimate;
+        public final double standardError;
+        /** Bounds of the 95% confidence interval, clamped at 0.*/
+        public final double low, high;
+        /** Half-width of the confidence interval over the estimate. 0 if every probe scored 0.*/
+        public final double relativeError;
+        public final long samples;
+        public final long elapsedMs;
+
+        Estimate(long samples, double mean, double m2, long elapsedMs) {
+            this.samples = samples;
+            this.estimate = mean;
+            this.standardError = (samples > 1L) ? Math.sqrt(m2 / (samples - 1L) / samples) : Double.POSITIVE_INFINITY;
+            double halfWidth = Z_95 * standardError;
+            this.low = Math.max(0.0, mean - halfWidth);
+            this.high = mean + halfWidth;
+            if (samples > 1L && m2 == 0.0 && mean == 0.0) {
+                this.relativeError = 0.0;
+            } else {
+                this.relativeError = (mean > 0.0) ? (halfWidth / mean) : Double.POSITIVE_INFINITY;
+            }
+            this.elapsedMs = elapsedMs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "%.4g solutions (95%% CI %.4g - %.4g, ±%.1f%%) from %d samples in %d ms",
+                estimate, low, high, relativeError * 100.0, samples, elapsedMs
+            );
+        }
+    }
+
+    private final Sudoku root;
+
+    /** Probes handed out to threads, including those still running.*/
+    private long claimed;
+    // Running totals, merged from each thread's finished chunks (Chan et al.)
+    private long n;
+    private double mean;
+    private double m2;
+
+    /**
+     * Creates an estimator for the given puzzle. The puzzle is copied.
+     */
+    public SolutionEstimator(Sudoku puzzle) {
+        this.root = new Sudoku(puzzle);
+        this.root.resetCandidatesAndValidity();
+    }
+
+    /**
+     * Runs probes until one of the stopping conditions is met.
+     * @param maxSamples Most probes to run.
+     * @param numThreads Number of threads to probe with.
+     * @param targetRelativeError Stop once the relative error is at most this; or 0 for no target.
+     * @param timeBudgetMs Stop after about this long; or 0 for no budget.
+     * @return The estimate.
+     * @throws IllegalArgumentException If maxSamples or numThreads is not positive.
+     */
+    public Estimate estimate(int maxSamples, int numThreads, double targetRelativeError, long timeBudgetMs) {
+        if (maxSamples < 1) throw new IllegalArgumentException("maxSamples must be positive");
+        if (numThreads < 1) throw new IllegalArgumentException("numThreads must be positive");
+
+        synchronized (this) {
+            claimed = 0L;
+            n = 0L;
+            mean = 0.0;
+            m2 = 0.0;
+        }
+        long start = System.currentTimeMillis();
+        long deadline = (timeBudgetMs > 0L) ? (start + timeBudgetMs) : Long.MAX_VALUE;
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            numThreads, numThreads,
+            1L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>()
+        );
+        for (int t = 0; t < numThreads; t++) {
+            pool.submit(() -> {
+                while (true) {
+                    int chunk;
+                    synchronized (this) {
+                        if (isDone(maxSamples, targetRelativeError, deadline)) return;
+                        // Claim the chunk up front, so threads together never exceed maxSamples.
+                        chunk = (int) Math.min(CHUNK_SIZE, maxSamples - claimed);
+                        claimed += chunk;
+                    }
+                    probe(chunk);
+                }
+            });
+        }
+
+        pool.shutdown();
+        try {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+            pool.shutdownNow();
+        }
+
+        synchronized (this) {
+            return new Estimate(n, mean, m2, System.currentTimeMillis() - start);
+        }
+    }
+
+    private boolean isDone(int maxSamples, double targetRelativeError, long deadline) {
+        if (claimed >= maxSamples) return true;
+        if (System.currentTimeMillis() >= deadline) return true;
+        if (targetRelativeError > 0.0 && n >= MIN_SAMPLES) {
+            return new Estimate(n, mean, m2, 0L).relativeError <= targetRelativeError;
+        }
+        return false;
+    }
+
+    /** Runs a chunk of probes and merges its totals.*/
+    private void probe(int chunk) {
+        double chunkMean = 0.0;
+        double chunkM2 = 0.0;
+        for (int i = 1; i <= chunk; i++) {
+            double score = new Sudoku(root).probeSolutions();
+            double delta = score - chunkMean;
+            chunkMean += delta / i;
+            chunkM2 += delta * (score - chunkMean);
+        }
+
+        synchronized (this) {
+            long total = n + chunk;
+            double delta = chunkMean - mean;
+            mean += delta * chunk / total;
+            m2 += chunkM2 + delta * delta * n * chunk / total;
+            n = total;
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.metal_pony.bucket.sudoku;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Stack;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -14,11 +16,11 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 import com.metal_pony.bucket.sudoku.util.SudokuMask;
-import com.metal_pony.bucket.util.Counting;
 import com.metal_pony.bucket.util.Shuffler;
 
 public class Sudoku {
@@ -53,22 +55,28 @@ public class Sudoku {
      * Maps candidates masks to the array of digits (encoded) it represents.
      */
     static final int[][] CANDIDATES = new int[CANDIDATES_ARR.length][];
+    // The table-building blocks below work through local references. Until class init finishes,
+    // the interpreter resolves every access to this class's own static fields and methods the slow way,
+    // which made these loops the bulk of startup for one-off commands.
     static {
-        for (int val = 0; val < CANDIDATES_ARR.length; val++) {
-            CANDIDATES_ARR[val] = new int[Integer.bitCount(val)];
-            CANDIDATES[val] = new int[Integer.bitCount(val)];
+        int[][] candidatesArr = CANDIDATES_ARR;
+        int[][] candidates = CANDIDATES;
+        for (int val = 0; val < candidatesArr.length; val++) {
+            int[] digits = new int[Integer.bitCount(val)];
+            int[] encoded = new int[digits.length];
             int _val = val;
             int i = 0;
-            int j = 0;
             int digit = 1;
             while (_val > 0) {
                 if ((_val & 1) > 0) {
-                    CANDIDATES_ARR[val][i++] = digit;
-                    CANDIDATES[val][j++] = ENCODER[digit];
+                    digits[i] = digit;
+                    encoded[i++] = 1 << (digit - 1);
                 }
                 _val >>= 1;
                 digit++;
             }
+            candidatesArr[val] = digits;
+            candidates[val] = encoded;
         }
     }
 
@@ -82,14 +90,22 @@ public class Sudoku {
      */
     public static final int[][] DIGIT_COMBOS_MAP = new int[DIGITS + 1][];
     static {
-        for (int nDigits = 0; nDigits < DIGIT_COMBOS_MAP.length; nDigits++) {
-            DIGIT_COMBOS_MAP[nDigits] = new int[Counting.nChooseK(DIGITS, nDigits).intValueExact()];
-        }
+        // Sized by tallying bit counts rather than (9 choose n), which keeps BigInteger out of class init.
+        int[] bitCountMap = BIT_COUNT_MAP;
+        int[][] combosMap = DIGIT_COMBOS_MAP;
         int[] combosCount = new int[DIGITS + 1];
-        for (int i = 0; i < BIT_COUNT_MAP.length; i++) {
+        for (int i = 0; i < bitCountMap.length; i++) {
             int bits = Integer.bitCount(i);
-            BIT_COUNT_MAP[i] = bits;
-            DIGIT_COMBOS_MAP[bits][combosCount[bits]++] = i;
+            bitCountMap[i] = bits;
+            combosCount[bits]++;
+        }
+        for (int nDigits = 0; nDigits < combosMap.length; nDigits++) {
+            combosMap[nDigits] = new int[combosCount[nDigits]];
+            combosCount[nDigits] = 0;
+        }
+        for (int i = 0; i < bitCountMap.length; i++) {
+            int bits = bitCountMap[i];
+            combosMap[bits][combosCount[bits]++] = i;
         }
     }
 
@@ -124,20 +140,31 @@ public class Sudoku {
     public static int[][][] BAND_ROW_INDICES = new int[3][3][DIGITS];
     public static int[][][] STACK_COL_INDICES = new int[3][3][DIGITS];
     static {
+        int[] cellRows = CELL_ROWS;
+        int[] cellCols = CELL_COLS;
+        int[] cellRegions = CELL_REGIONS;
+        int[][] rowIndices = ROW_INDICES;
+        int[][] colIndices = COL_INDICES;
+        int[][] regionIndices = REGION_INDICES;
+        int[][] bandIndices = BAND_INDICES;
+        int[][] stackIndices = STACK_INDICES;
+        int[][][] bandRowIndices = BAND_ROW_INDICES;
+        int[][][] stackColIndices = STACK_COL_INDICES;
         int[] rowi = new int[DIGITS];
         int[] coli = new int[DIGITS];
         int[] regi = new int[DIGITS];
         for (int i = 0; i < SPACES; i++) {
-            int row = cellRow(i);
-            int col = cellCol(i);
-            int region = cellRegion(i);
-            CELL_ROWS[i] = row;
-            CELL_COLS[i] = col;
-            CELL_REGIONS[i] = region;
-
-            ROW_INDICES[row][rowi[row]++] = i;
-            COL_INDICES[col][coli[col]++] = i;
-            REGION_INDICES[region][regi[region]++] = i;
+            // Same as cellRow, cellCol, and cellRegion
+            int row = i / DIGITS;
+            int col = i % DIGITS;
+            int region = (row / RANK) * RANK + (col / RANK);
+            cellRows[i] = row;
+            cellCols[i] = col;
+            cellRegions[i] = region;
+
+            rowIndices[row][rowi[row]++] = i;
+            colIndices[col][coli[col]++] = i;
+            regionIndices[region][regi[region]++] = i;
 
             int band = row / RANK;
             int rowInBand = row % RANK;
@@ -145,10 +172,10 @@ public class Sudoku {
             int colInStack = col % RANK;
             int indexInBand = i % (DIGITS * RANK);
             int indexInStack = (row * RANK) + colInStack;
-            BAND_INDICES[band][indexInBand] = i;
-            STACK_INDICES[stack][indexInStack] = i;
-            BAND_ROW_INDICES[band][rowInBand][col] = i;
-            STACK_COL_INDICES[stack][colInStack][row] = i;
+            bandIndices[band][indexInBand] = i;
+            stackIndices[stack][indexInStack] = i;
+            bandRowIndices[band][rowInBand][col] = i;
+            stackColIndices[stack][colInStack][row] = i;
         }
     }
     public static int[][] ROW_NEIGHBORS = new int[SPACES][DIGITS - 1];
@@ -156,10 +183,17 @@ public class Sudoku {
     public static int[][] REGION_NEIGHBORS = new int[SPACES][DIGITS - 1];
     public static int[][] CELL_NEIGHBORS = new int[SPACES][3*(DIGITS-1) - (DIGITS-1)/2]; // Not checked if true for other ranks
     static {
+        int[] cellRows = CELL_ROWS;
+        int[] cellCols = CELL_COLS;
+        int[] cellRegions = CELL_REGIONS;
         for (int ci = 0; ci < SPACES; ci++) {
-            int row = cellRow(ci);
-            int col = cellCol(ci);
-            int region = cellRegion(ci);
+            int row = cellRows[ci];
+            int col = cellCols[ci];
+            int region = cellRegions[ci];
+            int[] rowNeighbors = ROW_NEIGHBORS[ci];
+            int[] colNeighbors = COL_NEIGHBORS[ci];
+            int[] regionNeighbors = REGION_NEIGHBORS[ci];
+            int[] cellNeighbors = CELL_NEIGHBORS[ci];
 
             int ri = 0;
             int coli = 0;
@@ -168,21 +202,21 @@ public class Sudoku {
 
             for (int cj = 0; cj < SPACES; cj++) {
                 if (ci == cj) continue;
-                int jrow = cellRow(cj);
-                int jcol = cellCol(cj);
-                int jregion = cellRegion(cj);
+                int jrow = cellRows[cj];
+                int jcol = cellCols[cj];
+                int jregion = cellRegions[cj];
 
                 if (jrow == row) {
-                    ROW_NEIGHBORS[ci][ri++] = cj;
+                    rowNeighbors[ri++] = cj;
                 }
                 if (jcol == col) {
-                    COL_NEIGHBORS[ci][coli++] = cj;
+                    colNeighbors[coli++] = cj;
                 }
                 if (jregion == region) {
-                    REGION_NEIGHBORS[ci][regi++] = cj;
+                    regionNeighbors[regi++] = cj;
                 }
                 if (jrow == row || jcol == col || jregion == region) {
-                    CELL_NEIGHBORS[ci][ni++] = cj;
+                    cellNeighbors[ni++] = cj;
                 }
             }
         }
@@ -1090,6 +1124,86 @@ public class Sudoku {
         int difficulty,
         long timeoutMs,
         boolean useSieve
+    ) {
+        return generatePuzzle(grid, numClues, sieve, difficulty, timeoutMs, useSieve, false);
+    }
+
+    /**
+     * Generates a puzzle.
+     * If numClues is less than the minimum 17, returns null.
+     * @param grid (Optional) The solution. If provided, must be full and valid.
+     * @param numClues Number of clues.
+     * @param sieve A list of SudokuMask to use as a sieve of unavoidable sets.
+     * @param difficulty From 0 to 4.
+     * @param timeoutMs Amount of system time(ms) to spend generating. 0 for no limit.
+     * @param useSieve Whether a sieve may be seeded progressively at certain points.
+     * @param guided Whether to order removals and put-backs by sieve coverage, instead of randomly.
+     * Cells that hit the fewest sieve items are removed first, and cells in a greedy hitting set of the
+     * sieve items are removed last. Ties are broken randomly.
+     * @return A new Sudoku instance (the puzzle); or null if the time limit is exceeded.
+     * @throws IllegalArgumentException If a populated sieve is given without a grid;
+     * if a grid is given but is invalid or not full;
+     * if difficulty is out of range.
+     */
+    public static Sudoku generatePuzzle(
+        Sudoku grid,
+        int numClues,
+        SudokuSieve sieve,
+        int difficulty,
+        long timeoutMs,
+        boolean useSieve,
+        boolean guided
+    ) {
+        return generatePuzzle(grid, numClues, sieve, difficulty, timeoutMs, useSieve, guided, Branching.MRV);
+    }
+
+    /**
+     * Generates a puzzle like {@link #generatePuzzle(Sudoku, int, SudokuSieve, int, long, boolean, boolean)},
+     * checking each candidate puzzle for uniqueness with the given branching strategy.
+     * @param branching Chooses where the uniqueness checks branch.
+     */
+    public static Sudoku generatePuzzle(
+        Sudoku grid,
+        int numClues,
+        SudokuSieve sieve,
+        int difficulty,
+        long timeoutMs,
+        boolean useSieve,
+        boolean guided,
+        BranchingStrategy branching
+    ) {
+        return generatePuzzle(grid, numClues, sieve, difficulty, timeoutMs, useSieve, guided, branching, null);
+    }
+
+    /**
+     * Generates a puzzle from the enricher's sieve and grid, like
+     * {@link #generatePuzzle(Sudoku, int, SudokuSieve, int, long, boolean, boolean, BranchingStrategy)}.
+     * Puzzle masks that fail the uniqueness check are handed to the enricher to search in the background,
+     * instead of seeding the sieve while generation waits. Items the enricher adds are used as they arrive.
+     * @param enricher Grows the sieve in the background. Can be shared by a batch of puzzles.
+     */
+    public static Sudoku generatePuzzle(
+        SieveEnricher enricher,
+        int numClues,
+        int difficulty,
+        long timeoutMs,
+        boolean guided,
+        BranchingStrategy branching
+    ) {
+        SudokuSieve sieve = enricher.sieve();
+        return generatePuzzle(sieve.config(), numClues, sieve, difficulty, timeoutMs, true, guided, branching, enricher);
+    }
+
+    private static Sudoku generatePuzzle(
+        Sudoku grid,
+        int numClues,
+        SudokuSieve sieve,
+        int difficulty,
+        long timeoutMs,
+        boolean useSieve,
+        boolean guided,
+        BranchingStrategy branching,
+        SieveEnricher enricher
     ) {
         if (numClues < MIN_CLUES)
             return null;
@@ -1105,6 +1219,8 @@ public class Sudoku {
             throw new IllegalArgumentException(String.format("Invalid difficulty (%d); expected 0 <= difficulty <= 4", difficulty));
         if (sieve == null)
             sieve = new SudokuSieve(grid);
+        if (guided)
+            return generatePuzzleGuided(grid, numClues, sieve, difficulty, timeoutMs, useSieve, branching, enricher);
 
         ThreadLocalRandom rand = ThreadLocalRandom.current();
         long start = System.currentTimeMillis();
@@ -1145,14 +1261,10 @@ public class Sudoku {
                     continue;
                 }
 
-                if (grid.filter(mask).solutionsFlag() != 1) {
+                if (grid.filter(mask).solutionsFlag(branching) != 1) {
                     puzzleCheckFails++;
-                    if (useSieve && puzzleCheckFails == 100 && sieve.size() < 100) {
-                        sieve.seedThreaded(sieve.fullPrintCombos(2));
-                    } else if (useSieve && puzzleCheckFails == 2000 && sieve.size() < 1000) {
-                        sieve.seedThreaded(sieve.fullPrintCombos(3));
-                    } else if (useSieve && puzzleCheckFails > 10_000 && sieve.size() < 10_000) {
-                        sieve.addFromPuzzleMask(mask);
+                    if (useSieve) {
+                        enrichSieve(sieve, enricher, mask, puzzleCheckFails);
                     }
 
                     mask.setBit(choice);
@@ -1170,7 +1282,7 @@ public class Sudoku {
             (
                 remaining.size() == numClues &&
                 difficulty > 0 &&
-                grid.filter(mask).solutionsFlag() == 1 //&&
+                grid.filter(mask).solutionsFlag(branching) == 1 //&&
                 // grid.filter(mask).difficulty() != difficulty
             ) || remaining.size() == startChoices
             ) {
@@ -1190,77 +1302,376 @@ public class Sudoku {
         return grid.filter(mask);
     }
 
+    /**
+     * Seeds the sieve progressively as puzzle checks keep failing during generation.
+     * With an enricher, the mask is handed to it instead, and this returns right away.
+     * @param enricher (Optional) Grows the sieve in the background.
+     * @param mask The puzzle mask that failed the check.
+     * @param puzzleCheckFails Number of failed puzzle checks so far.
+     * @return True if the sieve was seeded; otherwise false.
+     */
+    private static boolean enrichSieve(SudokuSieve sieve, SieveEnricher enricher, SudokuMask mask, int puzzleCheckFails) {
+        if (enricher != null) {
+            enricher.offer(mask);
+            return false;
+        }
+        if (puzzleCheckFails == 100 && sieve.size() < 100) {
+            sieve.seedThreaded(sieve.fullPrintCombos(2));
+        } else if (puzzleCheckFails == 2000 && sieve.size() < 1000) {
+            sieve.seedThreaded(sieve.fullPrintCombos(3));
+        } else if (puzzleCheckFails > 10_000 && sieve.size() < 10_000) {
+            return sieve.addFromPuzzleMask(mask) > 0;
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Generates a puzzle, ordering removals and put-backs by sieve coverage.
+     * When a removal leaves the puzzle with another solution, the cells where that solution differs
+     * from the grid form an unavoidable set. It is added to the coverage, so the same dead end is
+     * caught by the coverage instead of the solver from then on.
+     * See {@link #generatePuzzle(Sudoku, int, SudokuSieve, int, long, boolean, boolean)}.
+     */
+    private static Sudoku generatePuzzleGuided(
+        Sudoku grid,
+        int numClues,
+        SudokuSieve sieve,
+        int difficulty,
+        long timeoutMs,
+        boolean useSieve,
+        BranchingStrategy branching,
+        SieveEnricher enricher
+    ) {
+        ThreadLocalRandom rand = ThreadLocalRandom.current();
+        long start = System.currentTimeMillis();
+        int puzzleCheckFails = 0;
+        SudokuMask mask = SudokuMask.full();
+        int numRemaining = SPACES;
+        ArrayList<Integer> removed = new ArrayList<>();
+        List<Integer> putBack = new ArrayList<>();
+        int enrichedItems = (enricher != null) ? enricher.numAdded() : 0;
+        SieveCoverage coverage = new SieveCoverage(sieve, mask);
+
+        while (numRemaining > numClues) {
+            if (timeoutMs > 0L && (System.currentTimeMillis() - start) > timeoutMs) {
+                return null;
+            }
+
+            // Pick up whatever the enricher has added since the coverage was built
+            if (enricher != null && enricher.numAdded() != enrichedItems) {
+                enrichedItems = enricher.numAdded();
+                coverage = coverage.rebuild(sieve, mask);
+            }
+
+            int startChoices = numRemaining;
+            for (int choice : coverage.removalOrder(mask, putBack)) {
+                if (numRemaining == numClues) break;
+
+                // Removing the cell would leave some unavoidable set without a clue
+                if (!coverage.canRemove(choice)) continue;
+
+                mask.unsetBit(choice);
+                SudokuMask unavoidable = unhitUnavoidableSet(grid, mask, branching);
+                if (unavoidable != null) {
+                    puzzleCheckFails++;
+                    boolean seeded = useSieve && enrichSieve(sieve, enricher, mask, puzzleCheckFails);
+                    mask.setBit(choice);
+                    if (seeded) {
+                        coverage = coverage.rebuild(sieve, mask);
+                    }
+                    coverage.learn(unavoidable, mask);
+                    continue;
+                }
+
+                coverage.remove(choice);
+                removed.add(choice);
+                numRemaining--;
+            }
+
+            // If no cells were chosen
+            // - Put some cells back and try again
+            if (
+            (
+                numRemaining == numClues &&
+                difficulty > 0 &&
+                grid.filter(mask).solutionsFlag(branching) == 1
+            ) || numRemaining == startChoices
+            ) {
+                int numToPutBack = Math.min(3 + rand.nextInt(3), removed.size());
+                putBack = coverage.putBackOrder(removed).subList(0, numToPutBack);
+                for (int cell : putBack) {
+                    removed.remove(Integer.valueOf(cell));
+                    mask.setBit(cell);
+                    coverage.restore(cell);
+                    numRemaining++;
+                }
+            }
+        }
+
+        return grid.filter(mask);
+    }
+
+    /**
+     * Looks for a solution of the grid, filtered by the mask, other than the grid itself.
+     * @return The cells where that solution differs from the grid, which no clue in the mask covers;
+     * or null if the grid is the only solution.
+     */
+    private static SudokuMask unhitUnavoidableSet(Sudoku grid, SudokuMask mask, BranchingStrategy branching) {
+        AtomicReference<SudokuMask> result = new AtomicReference<>();
+        grid.filter(mask).searchForSolutions3(solution -> {
+            SudokuMask diff = grid.diff2(solution);
+            if (diff.bitCount() > 0) {
+                result.set(diff);
+                return false;
+            }
+            return true;
+        }, branching);
+        return result.get();
+    }
+
+    /**
+     * Tracks how many clues of a puzzle mask each unavoidable set contains, as clues are removed and restored.
+     * Starts with the sieve items, and grows with sets learned during generation.
+     * The coverage of a cell is the number of sets it appears in. For sieve items, that is the sieve's
+     * reduction matrix, but taken from one snapshot of the items so the two stay consistent while the sieve grows.
+     */
+    private static class SieveCoverage {
+        final List<int[]> itemCells = new ArrayList<>();
+        final List<SudokuMask> learned = new ArrayList<>();
+        final int[][] itemsByCell = new int[SPACES][8];
+        final int[] cellCounts = new int[SPACES];
+        int[] hits = new int[64];
+
+        SieveCoverage(SudokuSieve sieve, SudokuMask mask) {
+            for (SudokuMask item : sieve.items()) {
+                add(item, mask);
+            }
+        }
+
+        /** Creates a new coverage from the sieve's current items, keeping the learned sets.*/
+        SieveCoverage rebuild(SudokuSieve sieve, SudokuMask mask) {
+            SieveCoverage result = new SieveCoverage(sieve, mask);
+            for (SudokuMask item : learned) {
+                result.learn(item, mask);
+            }
+            return result;
+        }
+
+        /** Adds an unavoidable set found outside of the sieve.*/
+        void learn(SudokuMask item, SudokuMask mask) {
+            learned.add(item);
+            add(item, mask);
+        }
+
+        private void add(SudokuMask item, SudokuMask mask) {
+            int id = itemCells.size();
+            int[] cells = item.toIndices();
+            itemCells.add(cells);
+            if (id == hits.length) {
+                hits = Arrays.copyOf(hits, id * 2);
+            }
+            for (int ci : cells) {
+                if (mask.testBit(ci)) hits[id]++;
+                if (cellCounts[ci] == itemsByCell[ci].length) {
+                    itemsByCell[ci] = Arrays.copyOf(itemsByCell[ci], cellCounts[ci] * 2);
+                }
+                itemsByCell[ci][cellCounts[ci]++] = id;
+            }
+        }
+
+        /** Whether the cell can be removed without leaving a set unhit.*/
+        boolean canRemove(int cell) {
+            for (int i = 0; i < cellCounts[cell]; i++) {
+                if (hits[itemsByCell[cell][i]] == 1) return false;
+            }
+            return true;
+        }
+
+        void remove(int cell) {
+            for (int i = 0; i < cellCounts[cell]; i++) hits[itemsByCell[cell][i]]--;
+        }
+
+        void restore(int cell) {
+            for (int i = 0; i < cellCounts[cell]; i++) hits[itemsByCell[cell][i]]++;
+        }
+
+        /**
+         * Orders the clues in the mask for removal.
+         * A greedy hitting set of the sets is picked from the clues, taking the cell that hits
+         * the most unhit sets each time. Those cells are likely needed in the final puzzle, so they
+         * go last, weakest first. The other clues go first, those hitting the fewest sets first.
+         * @param deferred Cells to try last, e.g. those just put back, so they are not simply removed again.
+         */
+        List<Integer> removalOrder(SudokuMask mask, List<Integer> deferred) {
+            List<Integer> clues = new ArrayList<>();
+            for (int ci = 0; ci < SPACES; ci++) {
+                if (mask.testBit(ci)) clues.add(ci);
+            }
+            Shuffler.shuffle(clues);
+
+            int[] unhitCounts = new int[SPACES];
+            for (int ci : clues) unhitCounts[ci] = cellCounts[ci];
+            boolean[] isHit = new boolean[itemCells.size()];
+            boolean[] isAnchor = new boolean[SPACES];
+            List<Integer> anchors = new ArrayList<>();
+            while (true) {
+                int best = -1;
+                for (int ci : clues) {
+                    if (!isAnchor[ci] && unhitCounts[ci] > 0 && (best < 0 || unhitCounts[ci] > unhitCounts[best])) {
+                        best = ci;
+                    }
+                }
+                if (best < 0) break;
+
+                isAnchor[best] = true;
+                anchors.add(0, best);
+                for (int i = 0; i < cellCounts[best]; i++) {
+                    int id = itemsByCell[best][i];
+                    if (isHit[id]) continue;
+                    isHit[id] = true;
+                    for (int ci : itemCells.get(id)) {
+                        unhitCounts[ci]--;
+                    }
+                }
+            }
+
+            List<Integer> order = new ArrayList<>(clues.size());
+            for (int ci : clues) {
+                if (!isAnchor[ci]) order.add(ci);
+            }
+            // Stable sort keeps the shuffled order within ties
+            order.sort((a, b) -> cellCounts[a] - cellCounts[b]);
+            order.addAll(anchors);
+            for (int ci : deferred) {
+                if (order.remove(Integer.valueOf(ci))) order.add(ci);
+            }
+            return order;
+        }
+
+        /**
+         * Orders removed cells for putting back, those in the most sets that are down to a single
+         * clue first. Putting one back frees the other clue of each such set for removal.
+         */
+        List<Integer> putBackOrder(List<Integer> removed) {
+            int[] tightCounts = new int[SPACES];
+            for (int ci : removed) {
+                for (int i = 0; i < cellCounts[ci]; i++) {
+                    if (hits[itemsByCell[ci][i]] == 1) tightCounts[ci]++;
+                }
+            }
+
+            List<Integer> order = new ArrayList<>(removed);
+            Shuffler.shuffle(order);
+            order.sort((a, b) -> tightCounts[b] - tightCounts[a]);
+            return order;
+        }
+    }
+
     private static class SudokuNode {
         Sudoku sudoku;
-        int index = -1;
-        int values = -1;
+        BranchingStrategy branching;
+        int[] alternatives = new int[DIGITS];
+        int numAlternatives = 0;
+        int nextAlternative = 0;
         SudokuNode(Sudoku sudoku) {
+            this(sudoku, Branching.MRV);
+        }
+        SudokuNode(Sudoku sudoku, BranchingStrategy branching) {
             this.sudoku = sudoku;
+            this.branching = branching;
             sudoku.reduce();
-            index = sudoku.pickEmptyCell();
-            if (index != -1) {
-                values = sudoku.candidates[index];
+            // A solved or invalid board has nothing to branch on
+            if (sudoku.isValid && sudoku.numEmptyCells > 0) {
+                numAlternatives = branching.branch(sudoku.digits, sudoku.candidates, alternatives);
             }
         }
         SudokuNode next() {
-            // If this node's sudoku had no emptycells, then `index` and `values`
-            // would have never been set, and both would still be -1
-            if (values <= 0 || !sudoku.isValid) return null;
+            if (!hasNext()) return null;
 
             Sudoku s = new Sudoku(sudoku);
-            int[] candidateDigits = CANDIDATES_ARR[values];
-            int randomCandidateDigit = candidateDigits[ThreadLocalRandom.current().nextInt(candidateDigits.length)];
-            s.setDigit(index, randomCandidateDigit);
-            values &= ~(ENCODER[randomCandidateDigit]);
-            return new SudokuNode(s);
+            int placement = alternatives[nextAlternative++];
+            s.setDigit(BranchingStrategy.placementCell(placement), BranchingStrategy.placementDigit(placement));
+            return new SudokuNode(s, branching);
         }
         boolean hasNext() {
-            return (values > 0 && sudoku.isValid) ? true : false;
+            return (nextAlternative < numAlternatives && sudoku.isValid);
         }
     }
 
     private static class ANode {
         Snapshot snapshot = new Snapshot();
-        int emptyCi = -1;
-        int emptyCandidates = -1;
+        int[] alternatives = new int[DIGITS];
+        int numAlternatives = 0;
+        int nextAlternative = 0;
 
         ANode() {}
 
-        void set(Sudoku sudoku) {
+        void set(Sudoku sudoku, BranchingStrategy branching) {
             snapshot.set(sudoku);
-            emptyCi = sudoku.pickEmptyCell();
-            emptyCandidates = -1;
-            if (!sudoku.isValid) return;
-            emptyCandidates = (snapshot.isValid && emptyCi > -1) ? snapshot.candidates[emptyCi] : -1;
+            nextAlternative = 0;
+            numAlternatives = 0;
+            if (!sudoku.isValid || sudoku.numEmptyCells == 0) return;
+            numAlternatives = branching.branch(sudoku.digits, sudoku.candidates, alternatives);
+            // The strategy found a dead end that the candidates alone don't show
+            if (numAlternatives == 0) sudoku.isValid = false;
         }
 
         boolean loadNext(Sudoku sudoku) {
-            if (emptyCandidates <= 0) {
-                return false;
-            }
-
-            do {
+            while (nextAlternative < numAlternatives) {
+                int placement = alternatives[nextAlternative++];
+                int ci = BranchingStrategy.placementCell(placement);
                 sudoku.loadFromSnapshot(snapshot);
-                int[] candidateDigits = CANDIDATES_ARR[emptyCandidates];
+                sudoku.setDigit(ci, BranchingStrategy.placementDigit(placement));
 
-                int randomCandidateDigit = candidateDigits[ThreadLocalRandom.current().nextInt(candidateDigits.length)];
-                // int randomCandidateDigit = candidateDigits[candidateDigits.length - 1];
-
-                sudoku.setDigit(emptyCi, randomCandidateDigit);
-                emptyCandidates -= ENCODER[randomCandidateDigit];
-
-                // sudoku.reduce();
-                for (int ni : CELL_NEIGHBORS[emptyCi]) {
+                for (int ni : CELL_NEIGHBORS[ci]) {
                     if (sudoku.digits[ni] == 0) sudoku.reduceCell(ni);
                 }
-
-            } while (emptyCandidates > 0 && !sudoku.isValid);
-
-            return sudoku.isValid;
+                if (sudoku.isValid) return true;
+            }
+            return false;
         }
     }
 
     public void searchForSolutions3(Function<Sudoku,Boolean> solutionCallback) {
+        searchForSolutions3(solutionCallback, null, Branching.MRV);
+    }
+
+    /**
+     * Searches for solutions like {@link #searchForSolutions3(Function)}, branching as the given strategy decides.
+     */
+    public void searchForSolutions3(Function<Sudoku,Boolean> solutionCallback, BranchingStrategy branching) {
+        searchForSolutions3(solutionCallback, null, branching);
+    }
+
+    /**
+     * Search steps between checks of the cancellation condition in
+     * {@link #searchForSolutions3(Function, BooleanSupplier)}.
+     */
+    static final int CANCEL_CHECK_STEPS = 1024;
+
+    /**
+     * Searches for solutions like {@link #searchForSolutions3(Function)}, but also stops once
+     * <code>isCancelled</code> returns true, so that a search proving there are no solutions can be abandoned.
+     * The condition is checked every {@link #CANCEL_CHECK_STEPS} search steps.
+     * @param solutionCallback Called with each solution; return false to stop searching.
+     * @param isCancelled Checked periodically; return true to stop searching. May be null.
+     */
+    public void searchForSolutions3(Function<Sudoku,Boolean> solutionCallback, BooleanSupplier isCancelled) {
+        searchForSolutions3(solutionCallback, isCancelled, Branching.MRV);
+    }
+
+    /**
+     * Searches for solutions like {@link #searchForSolutions3(Function, BooleanSupplier)}, branching as
+     * the given strategy decides.
+     * @param branching Chooses where to branch.
+     */
+    public void searchForSolutions3(
+        Function<Sudoku,Boolean> solutionCallback,
+        BooleanSupplier isCancelled,
+        BranchingStrategy branching
+    ) {
         Sudoku puzz = new Sudoku(this);
         puzz.resetCandidatesAndValidity();
         puzz.reduce();
@@ -1274,11 +1685,16 @@ public class Sudoku {
 
         ANode[] stack = new ANode[puzz.numEmptyCells];
         for (int i = 0; i < stack.length; i++) stack[i] = new ANode();
-        stack[0].set(puzz);
+        stack[0].set(puzz, branching);
         stack[0].loadNext(puzz);
         int curStackIndex = 0;
+        int steps = 0;
 
         while (curStackIndex > -1) {
+            if (isCancelled != null && ++steps == CANCEL_CHECK_STEPS) {
+                if (isCancelled.getAsBoolean()) break;
+                steps = 0;
+            }
             // NOTE: puzz state is modified by ANodes -- it will be kept in sync with the stack top.
             if (!puzz.isValid) {
                 // While top does NOT have a valid alternative, POP off the stack.
@@ -1292,7 +1708,7 @@ public class Sudoku {
                 // Valid but not solved, PUSH to the stack.
                 curStackIndex++;
                 // Copy puzz state into node, then find/load the next valid state.
-                stack[curStackIndex].set(puzz);
+                stack[curStackIndex].set(puzz, branching);
                 stack[curStackIndex].loadNext(puzz);
             }
         }
@@ -1304,6 +1720,14 @@ public class Sudoku {
      * @return Number of solutions.
      */
     public long countSolutions() {
+        return countSolutions(Branching.MRV);
+    }
+
+    /**
+     * Counts the puzzle's solutions like {@link #countSolutions()}, branching as the given strategy decides.
+     * @return Number of solutions.
+     */
+    public long countSolutions(BranchingStrategy branching) {
         Sudoku root = new Sudoku(this);
         root.resetCandidatesAndValidity();
 
@@ -1311,7 +1735,7 @@ public class Sudoku {
 
         long count = 0L;
         Stack<SudokuNode> stack = new Stack<>();
-        stack.push(new SudokuNode(root));
+        stack.push(new SudokuNode(root, branching));
 
         while (!stack.isEmpty()) {
             SudokuNode top = stack.peek();
@@ -1520,6 +1944,77 @@ public class Sudoku {
         return count.get();
     }
 
+    /**
+     * Estimates the number of solutions by random probing, without searching the whole tree.
+     * Runs exactly the given number of probes.
+     * @see SolutionEstimator
+     */
+    public SolutionEstimator.Estimate estimateSolutions(int samples, int numThreads) {
+        return new SolutionEstimator(this).estimate(samples, numThreads, 0.0, 0L);
+    }
+
+    /**
+     * Estimates the number of solutions by random probing, stopping at the given number of probes,
+     * once the 95% confidence interval is within the target relative error, or when the time budget
+     * runs out, whichever comes first.
+     * @param targetRelativeError Half-width of the confidence interval over the estimate; or 0 for no target.
+     * @param timeBudgetMs Time budget; or 0 for none.
+     * @see SolutionEstimator
+     */
+    public SolutionEstimator.Estimate estimateSolutions(
+        int maxSamples,
+        int numThreads,
+        double targetRelativeError,
+        long timeBudgetMs
+    ) {
+        return new SolutionEstimator(this).estimate(maxSamples, numThreads, targetRelativeError, timeBudgetMs);
+    }
+
+    /**
+     * Counts the solutions exactly by decomposing the grid into bands, for puzzles with too many
+     * solutions to search, such as a single filled band or the empty grid.
+     * @see BandCounter
+     */
+    public BigInteger countSolutionsByBands(int numThreads) {
+        return new BandCounter(this).count(numThreads);
+    }
+
+    /**
+     * Counts the solutions exactly, searching only one of each set of branches that the puzzle's
+     * automorphisms map onto one another. Several times faster for puzzles whose clues map onto
+     * themselves under a rotation, reflection, or other symmetry with some relabeling of digits;
+     * the same as countSolutions otherwise.
+     * @see SymmetryCounter
+     */
+    public long countSolutionsBySymmetry(int numThreads) {
+        return new SymmetryCounter(this).count(numThreads);
+    }
+
+    /**
+     * Follows one random path down the same search tree countSolutions walks: reduce, then branch on
+     * the cell with the fewest candidates. Returns the product of the branching factors if the path ends
+     * in a solution, or 0 at a dead end. Its expected value is the number of solutions (Knuth, 1975).
+     * <br></br>
+     * ⚠️ This board is modified; probe a copy.
+     */
+    double probeSolutions() {
+        double product = 1.0;
+        while (true) {
+            reduce();
+            if (!isValid) return 0.0;
+            if (isSolved()) return product;
+
+            int ci = pickEmptyCell();
+            if (ci < 0) return 0.0;
+            int cellCandidates = candidates[ci] & ~cellConstraints(ci);
+            if (cellCandidates == 0) return 0.0;
+
+            int[] candidateDigits = CANDIDATES_ARR[cellCandidates];
+            product *= candidateDigits.length;
+            setDigit(ci, candidateDigits[ThreadLocalRandom.current().nextInt(candidateDigits.length)]);
+        }
+    }
+
     /**
      * Generates a random full Sudoku grid.
      */
@@ -1669,45 +2164,12 @@ public class Sudoku {
         return result;
     }
 
-    private String fpFromSieve(int level, SudokuSieve sieve) {
-        // Track the maximum number of cells used by any unavoidable set
-        // int minNumCells = SPACES;
-        int maxNumCells = 0;
-        int[] itemCountByNumCells = new int[SPACES];
-        for (SudokuMask ua : sieve.items()) {
-            int numCells = ua.bitCount();
-            itemCountByNumCells[numCells]++;
-            // if (numCells < minNumCells) minNumCells = numCells;
-            if (numCells > maxNumCells) maxNumCells = numCells;
-        }
-
-        ArrayList<String> itemsList = new ArrayList<>();
-        // An item (unavoidable set) includes a minimum of 4 cells
-        for (int numCells = 4; numCells <= maxNumCells; numCells++) {
-            // In level 2, there can be no UAs using an odd number of cells,
-            // because each cell must have at least one complement.
-            // Skipping odd numbers avoids "::", keeping the fingerprint short.
-            if (level == 2 && (numCells & 1) == 1) {
-                continue;
-            }
-
-            int count = itemCountByNumCells[numCells];
-            itemsList.add((count > 0) ? Integer.toString(count, 16) : "");
-        }
-
-        return String.join(":", itemsList);
-    }
-
     private String dc(int level) {
-        SudokuSieve sieve = new SudokuSieve(getBoard());
-        sieve.seed(sieve.digitCombos(level));
-        return fpFromSieve(level, sieve);
+        return FingerprintEngine.fingerprints(this, List.of("dc" + level)).get("dc" + level);
     }
 
     private String ac(int level) {
-        SudokuSieve sieve = new SudokuSieve(getBoard());
-        sieve.seed(sieve.areaCombos(level));
-        return fpFromSieve(level, sieve);
+        return FingerprintEngine.fingerprints(this, List.of("ac" + level)).get("ac" + level);
     }
 
     public String dc2() { return dc(2); }
@@ -1723,13 +2185,16 @@ public class Sudoku {
     public String fp4() { return fp(4); }
     public String fp(int level) { return fp(level, 1); }
     public String fp(int level, int numThreads) {
-        SudokuSieve sieve = new SudokuSieve(getBoard());
-        if (numThreads == 1) {
-            sieve.seed(sieve.fullPrintCombos(level));
-        } else {
-            sieve.seedThreaded(sieve.fullPrintCombos(level), numThreads);
-        }
-        return fpFromSieve(level, sieve);
+        return FingerprintEngine.fingerprints(this, List.of("fp" + level), numThreads).get("fp" + level);
+    }
+
+    /**
+     * Computes several fingerprints at once, sharing one sieve.
+     * @param names Fingerprint names, e.g. "dc2", "ac3", "fp4".
+     * @return Map of fingerprint name to fingerprint, in the order requested.
+     */
+    public Map<String,String> fingerprints(String... names) {
+        return FingerprintEngine.fingerprints(this, Arrays.asList(names));
     }
 
     /***********************************************
@@ -1938,10 +2403,8 @@ public class Sudoku {
     public Sudoku filter(SudokuMask mask) {
         // Throw if this is not full grid
         Sudoku result = new Sudoku();
-        for (int ci = 0; ci < SPACES; ci++) {
-            if (mask.testBit(ci)) {
-                result.setDigit(ci, digits[ci]);
-            }
+        for (int ci = mask.nextSetBit(0); ci >= 0; ci = mask.nextSetBit(ci + 1)) {
+            result.setDigit(ci, digits[ci]);
         }
         return result;
     }
@@ -1996,14 +2459,43 @@ public class Sudoku {
      * </ul>
      */
     public int solutionsFlag() {
+        return solutionsFlag(Branching.MRV);
+    }
+
+    /**
+     * Gets the flag like {@link #solutionsFlag()}, branching as the given strategy decides.
+     */
+    public int solutionsFlag(BranchingStrategy branching) {
         if (!isValid) return 0;
         if (numEmptyCells > SPACES - MIN_CLUES) return 2;
 
         AtomicInteger count = new AtomicInteger();
-        searchForSolutions3(_s -> (count.incrementAndGet() < 2));
+        searchForSolutions3(_s -> (count.incrementAndGet() < 2), branching);
         return count.get();
     }
 
+    /**
+     * Checks whether the puzzle has a single solution, and needs every one of its clues for that.
+     * To check many puzzles with the same solution, share one {@link MinimalityChecker} instead.
+     * @see MinimalityChecker#isMinimal(Sudoku)
+     */
+    public boolean isMinimal() {
+        Sudoku solution = solution();
+        return solution != null && new MinimalityChecker(solution).isMinimal(this);
+    }
+
+    /**
+     * Finds the clues that could each be removed on its own, with the puzzle keeping its single solution.
+     * Removing several of them at once may not keep it.
+     * @return Mask of the redundant clues, empty if the puzzle is minimal;
+     * or null if the puzzle doesn't have exactly one solution.
+     * @see MinimalityChecker#redundantClues(Sudoku)
+     */
+    public SudokuMask redundantClues() {
+        Sudoku solution = solution();
+        return (solution != null) ? new MinimalityChecker(solution).redundantClues(this) : null;
+    }
+
     /**
      * Finds and returns the index of an empty cell, or -1 if no empty cells exist.
      * Prioritizes empty cells with the fewest number of candidates. If multiple cells
@@ -1,35 +1,158 @@
 package com.metal_pony.bucket.sudoku;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.TreeSet;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
+import com.metal_pony.bucket.sudoku.util.ConcurrentMaskSet;
+import com.metal_pony.bucket.sudoku.util.MaskSet;
 import com.metal_pony.bucket.sudoku.util.SudokuMask;
 
 public class SudokuSieve {
+    /** Number of items a seeding worker buffers before merging them into the sieve.*/
+    static final int SEED_BATCH_SIZE = 32;
+
+    /** Identifies sieve files ("SIEV").*/
+    static final int FILE_MAGIC = 0x53494556;
+    static final int FILE_VERSION = 1;
+    /** Magic, version, grid digits, number of items, number of groups.*/
+    static final int FILE_HEADER_SIZE = 4 + 4 + Sudoku.SPACES + 4 + 4;
+
+    private static ExecutorService _seedPool;
+
+    /**
+     * Executor shared by all sieves for threaded seeding.
+     * Threads are daemons so an idle pool does not keep the JVM alive.
+     */
+    static synchronized ExecutorService seedPool() {
+        if (_seedPool == null) {
+            _seedPool = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "sieve-seeder");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            );
+        }
+        return _seedPool;
+    }
+
     private static class ItemGroup {
         final int order;
-        final TreeSet<SudokuMask> items;
+        /** Ids of items with this bit count, in insertion order. Includes inactive items.*/
+        int[] ids;
+        int length;
         ItemGroup(int order) {
             this.order = order;
-            this.items = new TreeSet<>();
+            this.ids = new int[8];
+            this.length = 0;
+        }
+        void add(int id) {
+            if (length == ids.length) {
+                ids = Arrays.copyOf(ids, length * 2);
+            }
+            ids[length++] = id;
+        }
+    }
+
+    /**
+     * Read-only view of the active items for seeding workers, bucketed by each item's lowest cell.
+     * Buckets may share arrays with later snapshots, which only ever write past this one's sizes.
+     */
+    private static class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(
+            new long[Sudoku.SPACES][0],
+            new long[Sudoku.SPACES][0],
+            new int[Sudoku.SPACES]
+        );
+
+        final long[][] highs;
+        final long[][] lows;
+        final int[] sizes;
+        Snapshot(long[][] highs, long[][] lows, int[] sizes) {
+            this.highs = highs;
+            this.lows = lows;
+            this.sizes = sizes;
+        }
+
+        /**
+         * Checks whether any item is covered by the given mask.
+         * An item's lowest cell must be in the mask, so only those buckets are scanned.
+         */
+        boolean hasItemCoveredBy(SudokuMask mask) {
+            long maskHigh = mask.highBits();
+            long maskLow = mask.lowBits();
+            for (int ci = mask.nextSetBit(0); ci >= 0; ci = mask.nextSetBit(ci + 1)) {
+                long[] bucketHighs = highs[ci];
+                long[] bucketLows = lows[ci];
+                for (int i = 0, n = sizes[ci]; i < n; i++) {
+                    if ((bucketHighs[i] & ~maskHigh) == 0L && (bucketLows[i] & ~maskLow) == 0L) {
+                        return true;
+                    }
+                }
+            }
+            return false;
         }
     }
 
     private final Sudoku _config;
+    private final UnavoidableSetValidator _validator;
     private final int[] board;
     private int size;
     private final ArrayList<ItemGroup> _itemGroupsByBitCount;
     private int[] reductionMatrix;
 
+    /**
+     * Every indexed item, active or not, where each item's index in the set is its id.
+     * Items are never removed from the set, so ids stay fixed until the next reindex.
+     */
+    private final MaskSet _ids;
+    /** Ids of the items currently in the sieve.*/
+    private final BitSet _active;
+    /** Maps each cell index to the ids of all items (active or not) that include the cell.*/
+    private final BitSet[] _cellIndex;
+    /** Active items by lowest cell, appended to as items are added. Backs the published snapshot.*/
+    private long[][] _bucketHighs;
+    private long[][] _bucketLows;
+    private int[] _bucketSizes;
+    /** Whether items were removed since the buckets were last built, so they must be rebuilt.*/
+    private boolean _bucketsStale;
+    /**
+     * Active items as of the last seeding merge. Seeding workers read it without locking
+     * to skip derivative candidates early.
+     */
+    private volatile Snapshot _snapshot;
+    /**
+     * Whether unvalidated additions (rawAdd, and loading with keepMinimal) keep the sieve minimal:
+     * supersets of an existing item are refused, and existing supersets of a new item are evicted.
+     * Validated items never need this, as no minimal unavoidable set contains another.
+     */
+    private boolean _keepMinimal;
+    /** Number of items refused or evicted for being supersets of other items.*/
+    private int _numPruned;
+
     /**
      * Creates a new Sieve for the given sudoku configuration.
      * @param config Full and valid sudoku.
@@ -42,11 +165,25 @@ public class SudokuSieve {
 
         this.board = config.getBoard();
         this._config = new Sudoku(this.board);
+        this._validator = new UnavoidableSetValidator(this._config);
         this._itemGroupsByBitCount = new ArrayList<>(Sudoku.SPACES + 1);
         for (int n = 0; n <= Sudoku.SPACES; n++) {
             this._itemGroupsByBitCount.add(n, new ItemGroup(n));
         }
         this.reductionMatrix = new int[Sudoku.SPACES];
+        this._ids = new MaskSet();
+        this._active = new BitSet();
+        this._cellIndex = new BitSet[Sudoku.SPACES];
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            this._cellIndex[ci] = new BitSet();
+        }
+        this._bucketHighs = new long[Sudoku.SPACES][0];
+        this._bucketLows = new long[Sudoku.SPACES][0];
+        this._bucketSizes = new int[Sudoku.SPACES];
+        this._bucketsStale = false;
+        this._snapshot = Snapshot.EMPTY;
+        this._keepMinimal = false;
+        this._numPruned = 0;
     }
 
     /**
@@ -72,6 +209,30 @@ public class SudokuSieve {
         return size == 0;
     }
 
+    /**
+     * @return Whether unvalidated additions keep the sieve minimal.
+     */
+    public synchronized boolean isKeepMinimal() {
+        return _keepMinimal;
+    }
+
+    /**
+     * Sets whether items added without validation keep the sieve minimal, refusing supersets of
+     * existing items and evicting existing supersets of new items.
+     * Turning this on does not evict existing supersets; use <code>compact()</code> for that.
+     * @param keepMinimal
+     */
+    public synchronized void setKeepMinimal(boolean keepMinimal) {
+        _keepMinimal = keepMinimal;
+    }
+
+    /**
+     * @return Number of items refused or evicted so far for being supersets of other items.
+     */
+    public synchronized int numPruned() {
+        return _numPruned;
+    }
+
     /**
      * @return A Sudoku instance copy of the grid associated with this sieve.
      */
@@ -92,10 +253,8 @@ public class SudokuSieve {
      * @return The given list, for convenience.
      */
     public synchronized Set<SudokuMask> items(Set<SudokuMask> list) {
-        for (ItemGroup group : _itemGroupsByBitCount) {
-            for (SudokuMask item : group.items) {
-                list.add(new SudokuMask(item));
-            }
+        for (int id = _active.nextSetBit(0); id >= 0; id = _active.nextSetBit(id + 1)) {
+            list.add(_ids.get(id));
         }
         return list;
     }
@@ -119,9 +278,12 @@ public class SudokuSieve {
      * @return The first item in the sieve; null if the sieve is empty.
      */
     public synchronized SudokuMask first() {
+        if (size == 0) return null;
         for (ItemGroup group : _itemGroupsByBitCount) {
-            if (group.items.size() > 0) {
-                return group.items.first();
+            for (int i = 0; i < group.length; i++) {
+                if (_active.get(group.ids[i])) {
+                    return _ids.get(group.ids[i]);
+                }
             }
         }
 
@@ -135,9 +297,9 @@ public class SudokuSieve {
      */
     public synchronized SudokuMask find(Function<SudokuMask,Boolean> predicate) {
         for (ItemGroup group : _itemGroupsByBitCount) {
-            if (group.items.isEmpty()) continue;
-            for (SudokuMask item : group.items) {
-                SudokuMask _item = new SudokuMask(item.toString());
+            for (int i = 0; i < group.length; i++) {
+                if (!_active.get(group.ids[i])) continue;
+                SudokuMask _item = _ids.get(group.ids[i]);
                 if (predicate.apply(_item)) {
                     return _item;
                 }
@@ -165,8 +327,11 @@ public class SudokuSieve {
         }
         List<SudokuMask> results = new ArrayList<>();
         synchronized (this) {
-            for (SudokuMask item : groupForBitCount(numClues).items) {
-                results.add(new SudokuMask(item.toString()));
+            ItemGroup group = groupForBitCount(numClues);
+            for (int i = 0; i < group.length; i++) {
+                if (_active.get(group.ids[i])) {
+                    results.add(_ids.get(group.ids[i]));
+                }
             }
         }
         return results;
@@ -176,95 +341,160 @@ public class SudokuSieve {
         masks.forEach(mask -> addFromFilter(mask));
     }
 
-    // TODO These can be precompiled on class load
     public List<SudokuMask> areaCombos(int level) {
-        if (level < 2 || level > 4) throw new IllegalArgumentException("Invalid level");
-
-        List<SudokuMask> combos = new ArrayList<>();
-        for (int combo : Sudoku.DIGIT_COMBOS_MAP[level]) {
-            SudokuMask rowMask = new SudokuMask();
-            SudokuMask colMask = new SudokuMask();
-            SudokuMask regionMask = new SudokuMask();
-
-            for (int ci = 0; ci < Sudoku.SPACES; ci++) {
-                if ((combo & (1 << Sudoku.CELL_ROWS[ci])) > 0) {
-                    rowMask.setBit(ci);
-                }
-                if ((combo & (1 << Sudoku.CELL_COLS[ci])) > 0) {
-                    colMask.setBit(ci);
-                }
-                if ((combo & (1 << Sudoku.CELL_REGIONS[ci])) > 0) {
-                    regionMask.setBit(ci);
-                }
-            }
+        return FingerprintEngine.areaCombos(level);
+    }
 
-            combos.add(rowMask);
-            combos.add(colMask);
-            combos.add(regionMask);
-        }
+    public List<SudokuMask> digitCombos(int level) {
+        return FingerprintEngine.digitCombos(board, level);
+    }
 
+    public List<SudokuMask> fullPrintCombos(int level) {
+        List<SudokuMask> combos = new ArrayList<>();
+        combos.addAll(digitCombos(level));
+        combos.addAll(areaCombos(level));
         return combos;
     }
 
-    public List<SudokuMask> digitCombos(int level) {
-        if (level < 2 || level > 4) throw new IllegalArgumentException("Invalid level");
+    /**
+     * Seeds the sieve by filtering its grid with each of the given masks, across multiple threads.
+     *
+     * Workers run on a shared executor and take masks from a common index. Unavoidable sets found
+     * are deduplicated through a concurrent set, checked against a published snapshot of the sieve
+     * indexed by cell, and validated without holding the sieve lock. Valid items are buffered per worker and merged
+     * into the sieve in batches, smallest first, where the final derivative check is made.
+     * @param masks Masks used to filter the grid. These are not modified.
+     * @param numThreads Maximum number of workers.
+     * @return Number of items added to the sieve.
+     */
+    public int seedThreaded(Collection<SudokuMask> masks, int numThreads) {
+        if (numThreads < 1) throw new IllegalArgumentException("numThreads must be positive");
 
-        List<SudokuMask> combos = new ArrayList<>();
-        int[] board = _config.getBoard();
-        for (int combo : Sudoku.DIGIT_COMBOS_MAP[level]) {
-            SudokuMask digMask = new SudokuMask();
+        final SudokuMask[] work = masks.toArray(new SudokuMask[masks.size()]);
+        final AtomicInteger nextIndex = new AtomicInteger();
+        final AtomicInteger numAdded = new AtomicInteger();
+        final ConcurrentMaskSet seen = new ConcurrentMaskSet();
+        publishSnapshot();
 
-            for (int ci = 0; ci < Sudoku.SPACES; ci++) {
-                if ((combo & (1 << (board[ci]) - 1)) > 0) {
-                    digMask.setBit(ci);
+        int numWorkers = Math.min(numThreads, work.length);
+        List<Future<?>> workers = new ArrayList<>(numWorkers);
+        for (int w = 0; w < numWorkers; w++) {
+            workers.add(seedPool().submit(() -> {
+                List<SudokuMask> buffer = new ArrayList<>(SEED_BATCH_SIZE);
+                int i;
+                while ((i = nextIndex.getAndIncrement()) < work.length) {
+                    _config.filter(new SudokuMask(work[i]).flip()).searchForSolutions3(solution -> {
+                        SudokuMask diff = _config.diff2(solution);
+                        if (
+                            diff.bitCount() > 0 &&
+                            seen.add(diff) &&
+                            !_snapshot.hasItemCoveredBy(diff) &&
+                            !isDerivativeOf(diff, buffer) &&
+                            validate(diff)
+                        ) {
+                            buffer.add(diff);
+                            if (buffer.size() >= SEED_BATCH_SIZE) {
+                                numAdded.addAndGet(merge(buffer));
+                            }
+                        }
+                        return true;
+                    });
                 }
-            }
+                numAdded.addAndGet(merge(buffer));
+            }));
+        }
 
-            combos.add(digMask);
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (InterruptedException | ExecutionException e) {
+                e.printStackTrace();
+            }
         }
 
-        return combos;
+        return numAdded.get();
     }
 
-    public List<SudokuMask> fullPrintCombos(int level) {
-        List<SudokuMask> combos = new ArrayList<>();
-        combos.addAll(digitCombos(level));
-        combos.addAll(areaCombos(level));
-        return combos;
+    public int seedThreaded(Collection<SudokuMask> masks) {
+        return seedThreaded(masks, Runtime.getRuntime().availableProcessors());
     }
 
-    public void seedThreaded(Collection<SudokuMask> masks, int numThreads) {
-        ThreadPoolExecutor pool = new ThreadPoolExecutor(
-            numThreads, numThreads,
-            1L, TimeUnit.MINUTES,
-            new LinkedBlockingQueue<>()
-        );
+    /**
+     * Adds the buffered items to the sieve, smallest first, skipping derivatives.
+     * The buffer is cleared and the snapshot republished with the new items.
+     * @return Number of items added.
+     */
+    int merge(List<SudokuMask> buffer) {
+        if (buffer.isEmpty()) return 0;
+        buffer.sort((a, b) -> Integer.compare(a.bitCount(), b.bitCount()));
+        int added = 0;
+        synchronized (this) {
+            for (SudokuMask item : buffer) {
+                if (!isDerivative(item) && rawAdd(item)) {
+                    added++;
+                }
+            }
+            publishSnapshot();
+        }
+        buffer.clear();
+        return added;
+    }
 
-        masks.forEach(mask -> pool.submit(() -> {
-            addFromFilter(mask);
-        }));
+    /**
+     * Publishes the active items for seeding workers. Items added since the last publish are
+     * already in the buckets, so this only copies the bucket references and sizes, unless items
+     * were removed and the buckets must be rebuilt.
+     */
+    private synchronized void publishSnapshot() {
+        if (_bucketsStale) {
+            _bucketHighs = new long[Sudoku.SPACES][0];
+            _bucketLows = new long[Sudoku.SPACES][0];
+            Arrays.fill(_bucketSizes, 0);
+            for (ItemGroup group : _itemGroupsByBitCount) {
+                for (int i = 0; i < group.length; i++) {
+                    int id = group.ids[i];
+                    if (_active.get(id)) {
+                        addToBuckets(_ids.get(id));
+                    }
+                }
+            }
+            _bucketsStale = false;
+        }
+        _snapshot = new Snapshot(_bucketHighs.clone(), _bucketLows.clone(), _bucketSizes.clone());
+    }
 
-        pool.shutdown();
-        try {
-            pool.awaitTermination(1L, TimeUnit.DAYS);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+    /**
+     * Appends the item to the bucket of its lowest cell. A full bucket is copied into a larger
+     * array, leaving published snapshots with the old one.
+     */
+    private void addToBuckets(SudokuMask item) {
+        int ci = item.nextSetBit(0);
+        if (ci < 0) return;
+        int n = _bucketSizes[ci];
+        if (n == _bucketHighs[ci].length) {
+            int capacity = Math.max(8, n * 2);
+            _bucketHighs[ci] = Arrays.copyOf(_bucketHighs[ci], capacity);
+            _bucketLows[ci] = Arrays.copyOf(_bucketLows[ci], capacity);
         }
+        _bucketHighs[ci][n] = item.highBits();
+        _bucketLows[ci][n] = item.lowBits();
+        _bucketSizes[ci] = n + 1;
     }
 
-    public void seedThreaded(Collection<SudokuMask> masks) {
-        seedThreaded(masks, Runtime.getRuntime().availableProcessors());
+    private static boolean isDerivativeOf(SudokuMask mask, List<SudokuMask> items) {
+        for (SudokuMask item : items) {
+            if (mask.hasBitsSet(item)) return true;
+        }
+        return false;
     }
 
     /**
-     * Checks whether the given SudokuMask is an unavoidable set.
+     * Checks whether the given SudokuMask is a minimal unavoidable set.
      * @param mask Mask representing an unavoidable set.
-     * @return True if the mask is an unavoidable set; otherwise false.
+     * @return True if the mask is a minimal unavoidable set; otherwise false.
      */
     public boolean validate(SudokuMask mask) {
-        return _config.filter(
-            new SudokuMask(mask.toString()).flip()
-        ).allBranchesSolveUniquely();
+        return _validator.isMinimalUnavoidable(mask);
     }
 
     /**
@@ -276,18 +506,20 @@ public class SudokuSieve {
      */
     public synchronized boolean isDerivative(SudokuMask mask) {
         if (mask.bitCount() == 0) return true;
+        if (size == 0) return false;
 
-        for (ItemGroup group : _itemGroupsByBitCount) {
-            if (group.items.size() > 0) {
-                for (SudokuMask item : group.items) {
-                    if (mask.hasBitsSet(item)) {
-                        return true;
-                    }
+        // An item is covered by the mask if none of its cells fall outside of the mask.
+        BitSet covered = (BitSet) _active.clone();
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            if (!mask.testBit(ci)) {
+                covered.andNot(_cellIndex[ci]);
+                if (covered.isEmpty()) {
+                    return false;
                 }
             }
         }
 
-        return false;
+        return !covered.isEmpty();
     }
 
     /**
@@ -295,10 +527,8 @@ public class SudokuSieve {
      * @param item Mask of the item to add.
      */
     synchronized void addToReductionMatrix(SudokuMask item) {
-        for (int i = 0; i < Sudoku.SPACES; i++) {
-            if (item.testBit(i)) {
-                reductionMatrix[i]++;
-            }
+        for (int i = item.nextSetBit(0); i >= 0; i = item.nextSetBit(i + 1)) {
+            reductionMatrix[i]++;
         }
     }
 
@@ -307,26 +537,153 @@ public class SudokuSieve {
      * @param item Mask of the item to subtract.
      */
     synchronized void subtractFromReductionMatrix(SudokuMask item) {
-        for (int i = 0; i < Sudoku.SPACES; i++) {
-            if (item.testBit(i)) {
-                reductionMatrix[i]--;
-            }
+        for (int i = item.nextSetBit(0); i >= 0; i = item.nextSetBit(i + 1)) {
+            reductionMatrix[i]--;
         }
     }
 
+    /**
+     * Puts the item with the given id back into the sieve.
+     */
+    private void activate(int id) {
+        SudokuMask item = _ids.get(id);
+        _active.set(id);
+        size++;
+        addToReductionMatrix(item);
+        if (!_bucketsStale) {
+            addToBuckets(item);
+        }
+    }
+
+    /**
+     * Takes the item with the given id out of the sieve. The item stays indexed.
+     */
+    private void deactivate(int id) {
+        _active.clear(id);
+        size--;
+        subtractFromReductionMatrix(_ids.get(id));
+        _bucketsStale = true;
+    }
+
+    /**
+     * Assigns a new id to the given item and indexes it by cell.
+     */
+    private int index(SudokuMask item) {
+        int id = _ids.indexLimit();
+        _ids.add(item);
+        groupForBitCount(item.bitCount()).add(id);
+        for (int ci = item.nextSetBit(0); ci >= 0; ci = item.nextSetBit(ci + 1)) {
+            _cellIndex[ci].set(id);
+        }
+        return id;
+    }
+
     /**
      * Adds an item directly into the sieve without validating.
+     * If the sieve keeps itself minimal, existing supersets of the item are evicted first.
      * @param item Item to add.
-     * @return True if the item was added; otherwise false if the item already exists.
+     * @return True if the item was added; otherwise false if the item already exists,
+     * or the sieve keeps itself minimal and the item is a superset of an existing item.
      */
     public synchronized boolean rawAdd(SudokuMask item) {
-        if (!groupForBitCount(item.bitCount()).items.contains(item)) {
-            groupForBitCount(item.bitCount()).items.add(item);
-            size++;
-            addToReductionMatrix(item);
-            return true;
+        int id = _ids.indexOf(item);
+        if (id >= 0 && _active.get(id)) return false;
+        if (_keepMinimal && !makeMinimalFor(item)) return false;
+        activate((id >= 0) ? id : index(item));
+        return true;
+    }
+
+    /**
+     * Prepares to add the given item to a minimal sieve, evicting any items that are supersets of it.
+     * @return False if the item is itself a superset of an item in the sieve, so must not be added.
+     */
+    private boolean makeMinimalFor(SudokuMask item) {
+        if (isDerivative(item)) {
+            _numPruned++;
+            return false;
+        }
+        evictSupersetsOf(item, -1);
+        return true;
+    }
+
+    /**
+     * Removes all active items, other than the one with the given id, that include all the cells
+     * of the given item. Candidates come from intersecting the per-cell index.
+     * @return Number of items evicted.
+     */
+    private int evictSupersetsOf(SudokuMask item, int itemId) {
+        if (item.bitCount() == 0) return 0;
+        BitSet supersets = (BitSet) _active.clone();
+        for (int ci = item.nextSetBit(0); ci >= 0 && !supersets.isEmpty(); ci = item.nextSetBit(ci + 1)) {
+            supersets.and(_cellIndex[ci]);
+        }
+        if (itemId >= 0) {
+            supersets.clear(itemId);
+        }
+        int evicted = 0;
+        for (int id = supersets.nextSetBit(0); id >= 0; id = supersets.nextSetBit(id + 1)) {
+            deactivate(id);
+            evicted++;
+        }
+        _numPruned += evicted;
+        return evicted;
+    }
+
+    /**
+     * Evicts every item that is a superset of another item in the sieve, for sieves filled
+     * without validation, then reclaims storage for all removed items.
+     * @return Number of items evicted.
+     */
+    public synchronized int compact() {
+        int evicted = 0;
+        for (ItemGroup group : _itemGroupsByBitCount) {
+            for (int i = 0; i < group.length; i++) {
+                int id = group.ids[i];
+                if (_active.get(id)) {
+                    evicted += evictSupersetsOf(_ids.get(id), id);
+                }
+            }
+        }
+        if (_ids.indexLimit() > size) {
+            reindex();
+        }
+        return evicted;
+    }
+
+    /**
+     * Reclaims storage for removed items once they outnumber the items in the sieve.
+     * Removed items are kept indexed until then, so adding one back is cheap.
+     */
+    private void reclaimIfSparse() {
+        if (_ids.indexLimit() - size > Math.max(size, 64)) {
+            reindex();
+        }
+    }
+
+    /**
+     * Rebuilds the item index from the active items only, dropping removed items.
+     */
+    private void reindex() {
+        SudokuMask[] activeItems = new SudokuMask[size];
+        int n = 0;
+        for (int id = _active.nextSetBit(0); id >= 0; id = _active.nextSetBit(id + 1)) {
+            activeItems[n++] = _ids.get(id);
+        }
+
+        _ids.clear();
+        _active.clear();
+        for (ItemGroup group : _itemGroupsByBitCount) {
+            group.length = 0;
+        }
+        for (BitSet cellItems : _cellIndex) {
+            cellItems.clear();
+        }
+        Arrays.fill(reductionMatrix, 0);
+        size = 0;
+
+        for (SudokuMask item : activeItems) {
+            activate(index(item));
         }
-        return false;
     }
 
     /**
@@ -356,7 +713,7 @@ public class SudokuSieve {
      */
     public int addFromFilter(SudokuMask mask) {
         AtomicInteger numAdded = new AtomicInteger();
-        _config.filter(mask.flip()).searchForSolutions3(solution -> {
+        _config.filter(new SudokuMask(mask).flip()).searchForSolutions3(solution -> {
             SudokuMask diff = _config.diff2(solution);
             if (
                 diff.bitCount() > 0 &&
@@ -394,9 +751,10 @@ public class SudokuSieve {
      * @return True if the item was found and removed; otherwise false.
      */
     public synchronized boolean remove(SudokuMask item) {
-        if (groupForBitCount(item.bitCount()).items.remove(item)) {
-            size--;
-            subtractFromReductionMatrix(item);
+        int id = _ids.indexOf(item);
+        if (id >= 0 && _active.get(id)) {
+            deactivate(id);
+            reclaimIfSparse();
             return true;
         }
         return false;
@@ -425,50 +783,291 @@ public class SudokuSieve {
         return removeOverlapping(mask, removedList);
     }
 
+    /**
+     * Removes and returns all items that include any of the cells in the given mask.
+     * Items removed are automatically deducted from the reduction matrix.
+     * @param mask
+     * @param removedList A list to add the removed items to.
+     * @return The given list for convenience.
+     */
     public synchronized List<SudokuMask> removeOverlapping(SudokuMask mask, List<SudokuMask> removedList) {
-        for (ItemGroup group : _itemGroupsByBitCount) {
-            group.items.removeIf((i) -> {
-                // boolean shouldRemove = i.testBit(Sudoku.SPACES - 1 - cellIndex);
-                boolean shouldRemove = i.intersects(mask);
-                if (shouldRemove) {
-                    removedList.add(i);
-                    size--;
-                    subtractFromReductionMatrix(i);
-                }
-                return shouldRemove;
-            });
+        BitSet overlapping = overlappingIds(mask);
+        for (int id = overlapping.nextSetBit(0); id >= 0; id = overlapping.nextSetBit(id + 1)) {
+            removedList.add(_ids.get(id));
+            deactivate(id);
         }
+        reclaimIfSparse();
         return removedList;
     }
 
+    /**
+     * Ids of active items that include any of the cells in the given mask.
+     */
+    private BitSet overlappingIds(SudokuMask mask) {
+        BitSet overlapping = new BitSet(_ids.indexLimit());
+        for (int ci = mask.nextSetBit(0); ci >= 0; ci = mask.nextSetBit(ci + 1)) {
+            overlapping.or(_cellIndex[ci]);
+        }
+        overlapping.and(_active);
+        return overlapping;
+    }
+
     /**
      * Checks whether the given mask intersects with all sieve items.
      * @param puzzleMask
      * @return True if the mask contains at least one bit intersecting with each sieve item.
      */
     public synchronized boolean doesMaskSatisfy(SudokuMask puzzleMask) {
-        for (ItemGroup group : _itemGroupsByBitCount) {
-            for (SudokuMask item : group.items) {
-                // TODO There's no way this is correct, right?
-                if (!item.intersects(puzzleMask)) {
-                    return false;
+        if (size == 0) return true;
+        BitSet unhit = (BitSet) _active.clone();
+        for (int ci = puzzleMask.nextSetBit(0); ci >= 0; ci = puzzleMask.nextSetBit(ci + 1)) {
+            unhit.andNot(_cellIndex[ci]);
+            if (unhit.isEmpty()) {
+                return true;
+            }
+        }
+        return unhit.isEmpty();
+    }
+
+    /**
+     * Saves the sieve's items to a binary file.
+     * The file holds a header with the grid, then each group of items with the same bit count,
+     * smallest first, with two longs per item. The file is written next to the target and moved
+     * into place, so readers never see a partial file.
+     * @param path Path of the file to write.
+     * @return True if the file was written; otherwise false.
+     */
+    public synchronized boolean save(String path) {
+        Path target = Paths.get(path);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)));
+        ) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+                out.writeByte(board[ci]);
+            }
+            out.writeInt(size);
+
+            int numGroups = 0;
+            for (ItemGroup group : _itemGroupsByBitCount) {
+                if (countActive(group) > 0) numGroups++;
+            }
+            out.writeInt(numGroups);
+
+            for (ItemGroup group : _itemGroupsByBitCount) {
+                int count = countActive(group);
+                if (count == 0) continue;
+                out.writeInt(group.order);
+                out.writeInt(count);
+                for (int i = 0; i < group.length; i++) {
+                    int id = group.ids[i];
+                    if (!_active.get(id)) continue;
+                    out.writeLong(_ids.highBits(id));
+                    out.writeLong(_ids.lowBits(id));
                 }
             }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
         }
         return true;
     }
 
+    private int countActive(ItemGroup group) {
+        int count = 0;
+        for (int i = 0; i < group.length; i++) {
+            if (_active.get(group.ids[i])) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Loads a sieve from a file written by {@link #save(String)}.
+     * The file is memory-mapped and read in one pass. Items are trusted as they were validated
+     * when first added, so they are not validated again.
+     * @param path Path of the file to read.
+     * @return A new SudokuSieve; or null if the file could not be read or is not a sieve file.
+     */
+    public static SudokuSieve load(String path) {
+        return load(path, false);
+    }
+
+    /**
+     * Loads a sieve from a file written by {@link #save(String)}, without validating its items.
+     * @param path Path of the file to read.
+     * @param keepMinimal Whether the loaded sieve keeps itself minimal, starting with the file's
+     * items: any that are supersets of others are pruned as they are read.
+     * @return A new SudokuSieve; or null if the file could not be read or is not a sieve file.
+     */
+    public static SudokuSieve load(String path, boolean keepMinimal) {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+            if (buffer.remaining() < FILE_HEADER_SIZE || buffer.getInt() != FILE_MAGIC) {
+                throw new IOException("Not a sieve file: " + path);
+            }
+            int version = buffer.getInt();
+            if (version != FILE_VERSION) {
+                throw new IOException("Unsupported sieve file version: " + version);
+            }
+
+            int[] configBoard = new int[Sudoku.SPACES];
+            for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+                configBoard[ci] = buffer.get();
+            }
+            SudokuSieve sieve = new SudokuSieve(configBoard);
+            sieve._keepMinimal = keepMinimal;
+
+            int numItems = buffer.getInt();
+            int numGroups = buffer.getInt();
+            for (int g = 0; g < numGroups; g++) {
+                int bitCount = buffer.getInt();
+                int count = buffer.getInt();
+                for (int i = 0; i < count; i++) {
+                    SudokuMask item = new SudokuMask(buffer.getLong(), buffer.getLong());
+                    if (item.bitCount() != bitCount) {
+                        throw new IOException("Corrupt sieve file: " + path);
+                    }
+                    sieve.load(item);
+                }
+            }
+            if (sieve.size + sieve._numPruned != numItems) {
+                throw new IOException("Corrupt sieve file: " + path);
+            }
+
+            sieve.publishSnapshot();
+            return sieve;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException | SudokuMask.RangeException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Creates the sieve for a transformed copy of this sieve's grid, without seeding or validating.
+     * Unavoidable sets are preserved by any transformation that keeps rows, columns, and regions intact
+     * (band, stack, row, and column swaps, rotations, reflections) and by relabeling digits, so each item
+     * only needs its cells moved.
+     * @param cellMap For each cell of the new grid, the cell of this grid it comes from.
+     * @param digitMap For each digit of this grid, the digit it becomes. Index 0 is ignored.
+     * Null to keep the digits as they are.
+     * @return A new sieve for the transformed grid, holding the transformed items.
+     * @throws IllegalArgumentException If cellMap is not a permutation that keeps cells that share
+     * a row, column, or region together, or digitMap is not a permutation of the digits.
+     */
+    public synchronized SudokuSieve transform(int[] cellMap, int[] digitMap) {
+        if (cellMap == null || cellMap.length != Sudoku.SPACES) {
+            throw new IllegalArgumentException("cellMap must have 81 cells");
+        }
+        int[] inverse = new int[Sudoku.SPACES];
+        Arrays.fill(inverse, -1);
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            int from = cellMap[ci];
+            if (from < 0 || from >= Sudoku.SPACES || inverse[from] >= 0) {
+                throw new IllegalArgumentException("cellMap is not a permutation");
+            }
+            inverse[from] = ci;
+        }
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            int from = cellMap[ci];
+            for (int ni : Sudoku.CELL_NEIGHBORS[ci]) {
+                int nFrom = cellMap[ni];
+                if (
+                    Sudoku.CELL_ROWS[from] != Sudoku.CELL_ROWS[nFrom] &&
+                    Sudoku.CELL_COLS[from] != Sudoku.CELL_COLS[nFrom] &&
+                    Sudoku.CELL_REGIONS[from] != Sudoku.CELL_REGIONS[nFrom]
+                ) {
+                    throw new IllegalArgumentException("cellMap does not keep rows, columns, and regions together");
+                }
+            }
+        }
+
+        if (digitMap != null) {
+            if (digitMap.length != Sudoku.DIGITS + 1) {
+                throw new IllegalArgumentException("digitMap must have 10 entries");
+            }
+            int seen = 0;
+            for (int d = 1; d <= Sudoku.DIGITS; d++) {
+                int to = digitMap[d];
+                if (to < 1 || to > Sudoku.DIGITS || (seen & (1 << to)) != 0) {
+                    throw new IllegalArgumentException("digitMap is not a permutation");
+                }
+                seen |= 1 << to;
+            }
+        }
+
+        int[] newBoard = new int[Sudoku.SPACES];
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            int digit = board[cellMap[ci]];
+            newBoard[ci] = (digitMap == null) ? digit : digitMap[digit];
+        }
+        SudokuSieve sieve = new SudokuSieve(newBoard);
+
+        // Mapping cells keeps the items' subset relations, so they need no checks here
+        for (ItemGroup group : _itemGroupsByBitCount) {
+            for (int i = 0; i < group.length; i++) {
+                int id = group.ids[i];
+                if (!_active.get(id)) continue;
+                SudokuMask item = _ids.get(id);
+                SudokuMask mapped = new SudokuMask();
+                for (int ci = item.nextSetBit(0); ci >= 0; ci = item.nextSetBit(ci + 1)) {
+                    mapped.setBit(inverse[ci]);
+                }
+                sieve.load(mapped);
+            }
+        }
+        sieve._keepMinimal = _keepMinimal;
+        sieve.publishSnapshot();
+        return sieve;
+    }
+
+    /**
+     * Adds a loaded item, indexing it by cell and counting it in the reduction matrix in the same pass.
+     * If the sieve keeps itself minimal, the item goes through <code>rawAdd</code> instead.
+     */
+    private void load(SudokuMask item) {
+        if (_keepMinimal) {
+            rawAdd(item);
+            return;
+        }
+        int id = _ids.indexLimit();
+        if (!_ids.add(item)) return;
+
+        groupForBitCount(item.bitCount()).add(id);
+        for (int ci = item.nextSetBit(0); ci >= 0; ci = item.nextSetBit(ci + 1)) {
+            _cellIndex[ci].set(id);
+            reductionMatrix[ci]++;
+        }
+        _active.set(id);
+        size++;
+        addToBuckets(item);
+    }
+
     @Override
     public synchronized String toString() {
         StringBuilder strb = new StringBuilder();
         strb.append("{\n");
 
         for (ItemGroup group : _itemGroupsByBitCount) {
-            if (group.items.size() > 0) {
-                strb.append(String.format("  [%d]: [\n", group.order));
-                for (SudokuMask item : group.items) {
-                    strb.append(String.format("    %s\n", _config.filter(item).toString()));
+            boolean hasItems = false;
+            for (int i = 0; i < group.length; i++) {
+                int id = group.ids[i];
+                if (!_active.get(id)) continue;
+                if (!hasItems) {
+                    strb.append(String.format("  [%d]: [\n", group.order));
+                    hasItems = true;
                 }
+                strb.append(String.format("    %s\n", _config.filter(_ids.get(id)).toString()));
+            }
+            if (hasItems) {
                 strb.append("  ],\n");
             }
         }
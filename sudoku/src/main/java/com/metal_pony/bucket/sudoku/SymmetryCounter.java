@@ -0,0 +1,423 @@
+package com.metal_pony.bucket.sudoku;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts solutions exactly for puzzles that map onto themselves under some of the transformations
+ * that keep grids valid: transposing, reordering bands, rows within bands, stacks and columns within
+ * stacks (which between them cover rotations and reflections), and relabeling digits. Such a mapping,
+ * an automorphism of the puzzle, maps its solutions onto one another.
+ *
+ * The search is split on a set of empty cells that the automorphisms only shuffle among themselves.
+ * Every way to fill those cells has as many solutions as its image under any automorphism, so the
+ * fillings are grouped by the smallest of their images, and only one filling per group is searched.
+ * The count is the sum of each searched filling's count times the size of its group. With a group of
+ * k automorphisms, that is up to k times less searching.
+ *
+ * Puzzles without automorphisms, which is most of them, are counted by plain search.
+ */
+public class SymmetryCounter {
+    /** Stop looking for automorphisms after this many; any subset of them still counts correctly.*/
+    static final int MAX_AUTOMORPHISMS = 256;
+
+    /** Branching cells are added until there are at least this many fillings per automorphism, by estimate.*/
+    static final int FILLINGS_PER_AUTOMORPHISM = 64;
+
+    /** Branching cells are added until there are at least this many fillings, by estimate.*/
+    static final long MAX_FILLINGS_ESTIMATE = 1L << 16;
+
+    /**
+     * A transformation that maps a puzzle onto itself.
+     */
+    public static class Automorphism {
+        /** For each cell, the cell whose digit moves there.*/
+        public final int[] cellMap;
+        /** For each digit, the digit it becomes. Index 0 maps to 0.*/
+        public final int[] digitMap;
+
+        Automorphism(int[] cellMap, int[] digitMap) {
+            this.cellMap = cellMap;
+            this.digitMap = digitMap;
+        }
+
+        /**
+         * Applies the transformation to a board.
+         * @return A new array with the transformed board.
+         */
+        public int[] apply(int[] digits) {
+            int[] result = new int[Sudoku.SPACES];
+            for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+                result[ci] = digitMap[digits[cellMap[ci]]];
+            }
+            return result;
+        }
+
+        public boolean isIdentity() {
+            for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+                if (cellMap[ci] != ci) return false;
+            }
+            for (int d = 0; d <= Sudoku.DIGITS; d++) {
+                if (digitMap[d] != d) return false;
+            }
+            return true;
+        }
+    }
+
+    private final Sudoku puzzle;
+    private final int[] board;
+    private List<Automorphism> automorphisms;
+
+    public SymmetryCounter(Sudoku puzzle) {
+        this.puzzle = puzzle;
+        this.board = puzzle.getBoard();
+    }
+
+    /**
+     * Gets the puzzle's automorphisms, including the identity. Found once, then kept.
+     * @return Up to {@link #MAX_AUTOMORPHISMS} automorphisms.
+     */
+    public List<Automorphism> automorphisms() {
+        if (automorphisms == null) automorphisms = automorphisms(board, MAX_AUTOMORPHISMS);
+        return automorphisms;
+    }
+
+    /**
+     * Counts the solutions.
+     * @param numThreads Number of threads to search with.
+     * @return The exact number of solutions; 0 if the clues conflict.
+     * @throws IllegalArgumentException If numThreads is not positive.
+     */
+    public long count(int numThreads) {
+        if (numThreads < 1) throw new IllegalArgumentException("numThreads must be positive");
+
+        Sudoku root = new Sudoku(puzzle);
+        root.resetCandidatesAndValidity();
+        root.reduce();
+        if (!root.isValid) return 0L;
+        if (root.isSolved()) return 1L;
+
+        List<Automorphism> symmetries = new ArrayList<>();
+        for (Automorphism automorphism : automorphisms()) {
+            if (!automorphism.isIdentity()) symmetries.add(automorphism);
+        }
+        if (symmetries.isEmpty()) {
+            return (numThreads == 1) ? puzzle.countSolutions() : puzzle.countSolutionsAsync(numThreads);
+        }
+
+        int[] cells = branchCells(root, symmetries);
+        int[] cellIndex = new int[Sudoku.SPACES];
+        for (int i = 0; i < cells.length; i++) cellIndex[cells[i]] = i;
+        // For each automorphism, where each branching cell's digit comes from, by index into cells
+        int[][] sources = new int[symmetries.size()][cells.length];
+        for (int a = 0; a < symmetries.size(); a++) {
+            int[] cellMap = symmetries.get(a).cellMap;
+            for (int i = 0; i < cells.length; i++) sources[a][i] = cellIndex[cellMap[cells[i]]];
+        }
+
+        Map<String,Group> groups = new HashMap<>();
+        List<Sudoku> fillings = new ArrayList<>();
+        fill(root, cells, 0, fillings);
+        for (Sudoku filling : fillings) {
+            String key = smallestImage(filling, cells, symmetries, sources);
+            Group group = groups.get(key);
+            if (group == null) {
+                groups.put(key, new Group(filling));
+            } else {
+                group.size++;
+            }
+        }
+
+        if (numThreads == 1) {
+            long count = 0L;
+            for (Group group : groups.values()) count += group.size * group.representative.countSolutions();
+            return count;
+        }
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            numThreads, numThreads,
+            1L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>()
+        );
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (Group group : groups.values()) {
+                futures.add(pool.submit(() -> group.size * group.representative.countSolutions()));
+            }
+            long count = 0L;
+            for (Future<Long> future : futures) count += getResult(future);
+            return count;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Fillings of the branching cells that are interchangeable, and the one to search.*/
+    private static class Group {
+        final Sudoku representative;
+        long size = 1L;
+
+        Group(Sudoku representative) {
+            this.representative = representative;
+        }
+    }
+
+    /**
+     * Finds automorphisms of a board: transformations, as combinations of transposing, row order and
+     * column order, that map its clues onto clues with a consistent relabeling of digits.
+     * Each column order is tried, and rows are picked one at a time, abandoning a branch at the first
+     * row whose clues don't line up.
+     * @param max Stop after finding this many.
+     * @return The automorphisms found, including the identity.
+     */
+    public static List<Automorphism> automorphisms(int[] board, int max) {
+        int[] identity = new int[Sudoku.SPACES];
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) identity[ci] = ci;
+        int[][] bases = { identity, Sudoku.reflectOverDiagonal(identity.clone(), Sudoku.DIGITS) };
+
+        int[] colClues = columnClues(board, identity);
+        List<Automorphism> found = new ArrayList<>();
+        for (int[] base : bases) {
+            int[] baseColClues = columnClues(board, base);
+            for (int[] colOrder : GridCanonicalizer.COLUMN_ORDERS) {
+                // Columns can only land on columns with as many clues
+                if (!sameColumnClues(colOrder, baseColClues, colClues)) continue;
+                AutomorphismSearch search = new AutomorphismSearch(board, base, colOrder, found, max);
+                if (!search.placeRow(0)) return found;
+            }
+        }
+        return found;
+    }
+
+    /** Number of clues in each column of the board as rearranged by the given cell map.*/
+    private static int[] columnClues(int[] board, int[] cellMap) {
+        int[] counts = new int[Sudoku.DIGITS];
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            if (board[cellMap[ci]] > 0) counts[ci % Sudoku.DIGITS]++;
+        }
+        return counts;
+    }
+
+    private static boolean sameColumnClues(int[] colOrder, int[] sourceClues, int[] targetClues) {
+        for (int c = 0; c < Sudoku.DIGITS; c++) {
+            if (sourceClues[colOrder[c]] != targetClues[c]) return false;
+        }
+        return true;
+    }
+
+    /** Picks source rows for each row of the image, keeping the digit relabeling consistent.*/
+    private static class AutomorphismSearch {
+        final int[] board;
+        final int[] base;
+        final int[] colOrder;
+        final List<Automorphism> found;
+        final int max;
+        final int[] rowOrder = new int[Sudoku.DIGITS];
+        final boolean[] usedRows = new boolean[Sudoku.DIGITS];
+        final boolean[] usedBands = new boolean[3];
+        final int[] digitMap = new int[Sudoku.DIGITS + 1];
+        final int[] inverse = new int[Sudoku.DIGITS + 1];
+        /** Digits first relabeled by each row of the image.*/
+        final int[][] assigned = new int[Sudoku.DIGITS][Sudoku.DIGITS];
+        final int[] numAssigned = new int[Sudoku.DIGITS];
+
+        AutomorphismSearch(int[] board, int[] base, int[] colOrder, List<Automorphism> found, int max) {
+            this.board = board;
+            this.base = base;
+            this.colOrder = colOrder;
+            this.found = found;
+            this.max = max;
+        }
+
+        /** @return False once enough automorphisms are found.*/
+        boolean placeRow(int r) {
+            if (r == Sudoku.DIGITS) return completeDigits(1);
+
+            int firstRow = 0;
+            int lastRow = Sudoku.DIGITS - 1;
+            if (r % 3 > 0) {
+                // Stay within the band the row above came from
+                firstRow = (rowOrder[r - 1] / 3) * 3;
+                lastRow = firstRow + 2;
+            }
+            for (int src = firstRow; src <= lastRow; src++) {
+                if (usedRows[src] || (r % 3 == 0 && usedBands[src / 3])) continue;
+                boolean matches = matchRow(r, src);
+                if (matches) {
+                    rowOrder[r] = src;
+                    usedRows[src] = true;
+                    if (r % 3 == 0) usedBands[src / 3] = true;
+                    boolean more = placeRow(r + 1);
+                    usedRows[src] = false;
+                    if (r % 3 == 0) usedBands[src / 3] = false;
+                    if (!more) return false;
+                }
+                unmatchRow(r);
+            }
+            return true;
+        }
+
+        /**
+         * Checks that the source row's clues land on the image row's clues, extending the relabeling.
+         * Digits newly relabeled are remembered, to be undone by {@link #unmatchRow(int)}, even on a mismatch.
+         */
+        boolean matchRow(int r, int src) {
+            numAssigned[r] = 0;
+            for (int c = 0; c < Sudoku.DIGITS; c++) {
+                int from = board[base[src * Sudoku.DIGITS + colOrder[c]]];
+                int to = board[r * Sudoku.DIGITS + c];
+                if ((from == 0) != (to == 0)) return false;
+                if (from == 0) continue;
+                if (digitMap[from] == 0 && inverse[to] == 0) {
+                    digitMap[from] = to;
+                    inverse[to] = from;
+                    assigned[r][numAssigned[r]++] = from;
+                } else if (digitMap[from] != to) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void unmatchRow(int r) {
+            for (int i = 0; i < numAssigned[r]; i++) {
+                int from = assigned[r][i];
+                inverse[digitMap[from]] = 0;
+                digitMap[from] = 0;
+            }
+            numAssigned[r] = 0;
+        }
+
+        /** Relabels the digits that don't appear in the clues every possible way.*/
+        boolean completeDigits(int from) {
+            while (from <= Sudoku.DIGITS && digitMap[from] > 0) from++;
+            if (from > Sudoku.DIGITS) {
+                int[] cellMap = new int[Sudoku.SPACES];
+                for (int r = 0; r < Sudoku.DIGITS; r++) {
+                    for (int c = 0; c < Sudoku.DIGITS; c++) {
+                        cellMap[r * Sudoku.DIGITS + c] = base[rowOrder[r] * Sudoku.DIGITS + colOrder[c]];
+                    }
+                }
+                found.add(new Automorphism(cellMap, digitMap.clone()));
+                return found.size() < max;
+            }
+            for (int to = 1; to <= Sudoku.DIGITS; to++) {
+                if (inverse[to] > 0) continue;
+                digitMap[from] = to;
+                inverse[to] = from;
+                boolean more = completeDigits(from + 1);
+                digitMap[from] = 0;
+                inverse[to] = 0;
+                if (!more) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Picks the cells to split the search on: whole orbits of empty cells under the automorphisms,
+     * fewest candidates first, until there are enough fillings to be worth grouping.
+     */
+    private static int[] branchCells(Sudoku root, List<Automorphism> symmetries) {
+        int[] orbitOf = new int[Sudoku.SPACES];
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) orbitOf[ci] = ci;
+        for (Automorphism automorphism : symmetries) {
+            for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+                int a = find(orbitOf, ci);
+                int b = find(orbitOf, automorphism.cellMap[ci]);
+                if (a != b) orbitOf[Math.max(a, b)] = Math.min(a, b);
+            }
+        }
+
+        List<List<Integer>> orbits = new ArrayList<>();
+        Map<Integer,List<Integer>> byRoot = new HashMap<>();
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            if (root.getDigit(ci) > 0) continue;
+            List<Integer> orbit = byRoot.get(find(orbitOf, ci));
+            if (orbit == null) {
+                orbit = new ArrayList<>();
+                byRoot.put(find(orbitOf, ci), orbit);
+                orbits.add(orbit);
+            }
+            orbit.add(ci);
+        }
+        orbits.sort((a, b) -> Double.compare(meanCandidates(root, a), meanCandidates(root, b)));
+
+        long target = Math.min((long) FILLINGS_PER_AUTOMORPHISM * (symmetries.size() + 1), MAX_FILLINGS_ESTIMATE);
+        List<Integer> cells = new ArrayList<>();
+        double estimate = 1.0;
+        for (List<Integer> orbit : orbits) {
+            cells.addAll(orbit);
+            for (int ci : orbit) estimate *= Sudoku.BIT_COUNT_MAP[root.getCandidate(ci)];
+            if (estimate >= target) break;
+        }
+        return cells.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) i = parent[i] = parent[parent[i]];
+        return i;
+    }
+
+    private static double meanCandidates(Sudoku root, List<Integer> orbit) {
+        double sum = 0.0;
+        for (int ci : orbit) sum += Sudoku.BIT_COUNT_MAP[root.getCandidate(ci)];
+        return sum / orbit.size();
+    }
+
+    /** Collects every consistent filling of the given cells, reduced, branching on them in order.*/
+    private static void fill(Sudoku sudoku, int[] cells, int i, List<Sudoku> fillings) {
+        while (i < cells.length && sudoku.getDigit(cells[i]) > 0) i++;
+        if (i == cells.length) {
+            fillings.add(sudoku);
+            return;
+        }
+        int ci = cells[i];
+        for (int digit : Sudoku.CANDIDATES_ARR[sudoku.getCandidate(ci)]) {
+            Sudoku next = new Sudoku(sudoku);
+            next.setDigit(ci, digit);
+            next.reduce();
+            if (next.isValid) fill(next, cells, i + 1, fillings);
+        }
+    }
+
+    /** The lexicographically smallest image of a filling's branching cells under the automorphisms.*/
+    private static String smallestImage(Sudoku filling, int[] cells, List<Automorphism> symmetries, int[][] sources) {
+        char[] digits = new char[cells.length];
+        for (int i = 0; i < cells.length; i++) digits[i] = (char) ('0' + filling.getDigit(cells[i]));
+        char[] best = digits.clone();
+        char[] image = new char[cells.length];
+        for (int a = 0; a < symmetries.size(); a++) {
+            int[] digitMap = symmetries.get(a).digitMap;
+            int[] source = sources[a];
+            int cmp = 0;
+            for (int i = 0; i < cells.length; i++) {
+                image[i] = (char) ('0' + digitMap[digits[source[i]] - '0']);
+                if (cmp == 0) {
+                    cmp = Character.compare(image[i], best[i]);
+                    if (cmp > 0) break;
+                }
+            }
+            if (cmp < 0) System.arraycopy(image, 0, best, 0, cells.length);
+        }
+        return new String(best);
+    }
+
+    private static <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while counting", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Counting failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.metal_pony.bucket.sudoku;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.metal_pony.bucket.sudoku.util.SudokuMask;
+
+/**
+ * Checks whether masks are minimal unavoidable sets of a particular grid.
+ *
+ * A mask is an unavoidable set if removing its cells from the grid leaves a puzzle with
+ * more than one solution. It is minimal if every other solution differs from the grid
+ * in every one of the mask's cells, i.e. no smaller set within it is unavoidable.
+ *
+ * Since the grid is known, only the digits within the mask can move. Rather than testing
+ * every candidate of every empty cell, the validator runs a single search over the
+ * puzzle left by removing the mask, and stops at the first solution that differs from the
+ * grid in fewer cells than the mask. Results are cached per mask and safe to share across threads.
+ */
+public class UnavoidableSetValidator {
+    /** The cache is cleared once it grows past this many entries.*/
+    static final int MAX_CACHE_SIZE = 1 << 18;
+
+    private final Sudoku grid;
+    private final int[] digits;
+    private final Map<SudokuMask,Boolean> cache;
+
+    /**
+     * Creates a validator for the given grid.
+     * @param grid Full and valid sudoku.
+     * @throws IllegalArgumentException If the given sudoku is not full and valid.
+     */
+    public UnavoidableSetValidator(Sudoku grid) {
+        if (!grid.isSolved()) {
+            throw new IllegalArgumentException("could not create validator for malformed grid");
+        }
+        this.grid = new Sudoku(grid);
+        this.digits = grid.getBoard();
+        this.cache = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Checks whether the given mask is a minimal unavoidable set of this validator's grid.
+     * @param mask Cells of the candidate unavoidable set.
+     * @return True if the mask is a minimal unavoidable set; otherwise false.
+     */
+    public boolean isMinimalUnavoidable(SudokuMask mask) {
+        if (mask.bitCount() < 4) return false;
+        Boolean cached = cache.get(mask);
+        if (cached != null) return cached;
+
+        boolean result = !hasForcedCell(mask) && searchMinimal(mask);
+        if (cache.size() >= MAX_CACHE_SIZE) {
+            cache.clear();
+        }
+        cache.put(new SudokuMask(mask), result);
+        return result;
+    }
+
+    /**
+     * @return Number of masks currently cached.
+     */
+    public int cacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * A cell that is the only one of the mask within some row, column, or region can only
+     * take back its original digit, so it cannot belong to any unavoidable set.
+     */
+    private boolean hasForcedCell(SudokuMask mask) {
+        int[] rowCounts = new int[Sudoku.DIGITS];
+        int[] colCounts = new int[Sudoku.DIGITS];
+        int[] regionCounts = new int[Sudoku.DIGITS];
+        int[] digitCounts = new int[Sudoku.DIGITS + 1];
+        for (int ci = mask.nextSetBit(0); ci >= 0; ci = mask.nextSetBit(ci + 1)) {
+            rowCounts[Sudoku.CELL_ROWS[ci]]++;
+            colCounts[Sudoku.CELL_COLS[ci]]++;
+            regionCounts[Sudoku.CELL_REGIONS[ci]]++;
+            digitCounts[digits[ci]]++;
+        }
+        for (int i = 0; i < Sudoku.DIGITS; i++) {
+            if (rowCounts[i] == 1 || colCounts[i] == 1 || regionCounts[i] == 1) {
+                return true;
+            }
+        }
+        // Each digit in the set must move to another of the set's cells.
+        for (int d = 1; d <= Sudoku.DIGITS; d++) {
+            if (digitCounts[d] == 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Searches the solutions of the grid with the mask's cells removed.
+     * Succeeds if there is another solution, and all other solutions differ in every masked cell.
+     */
+    private boolean searchMinimal(SudokuMask mask) {
+        final int maskSize = mask.bitCount();
+        final boolean[] foundOther = new boolean[] { false };
+        final boolean[] minimal = new boolean[] { true };
+        grid.filter(new SudokuMask(mask).flip()).searchForSolutions3(solution -> {
+            int numDiffs = 0;
+            for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+                if (solution.digits[ci] != digits[ci]) {
+                    numDiffs++;
+                }
+            }
+            if (numDiffs == 0) {
+                return true;
+            }
+            if (numDiffs < maskSize) {
+                minimal[0] = false;
+                return false;
+            }
+            foundOther[0] = true;
+            return true;
+        });
+        return minimal[0] && foundOther[0];
+    }
+}
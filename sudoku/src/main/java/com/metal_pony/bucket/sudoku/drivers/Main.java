@@ -1,34 +1,58 @@
 package com.metal_pony.bucket.sudoku.drivers;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadMXBean;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.Random;
 import java.util.Scanner;
 import java.util.Set;
 import java.util.Stack;
 import java.util.Map.Entry;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
-
+import java.util.function.LongFunction;
+import java.util.stream.IntStream;
+
+import com.metal_pony.bucket.sudoku.Branching;
+import com.metal_pony.bucket.sudoku.BranchingStrategy;
+import com.metal_pony.bucket.sudoku.FingerprintEngine;
+import com.metal_pony.bucket.sudoku.GeneratedPuzzles;
+import com.metal_pony.bucket.sudoku.MinimalityChecker;
+import com.metal_pony.bucket.sudoku.PuzzleDatabase;
 import com.metal_pony.bucket.sudoku.PuzzleEntry;
+import com.metal_pony.bucket.sudoku.SieveCache;
+import com.metal_pony.bucket.sudoku.SieveEnricher;
 import com.metal_pony.bucket.sudoku.Sudoku;
 import com.metal_pony.bucket.sudoku.SudokuSieve;
+import com.metal_pony.bucket.sudoku.SymmetryCounter;
 import com.metal_pony.bucket.sudoku.drivers.gui.SudokuGuiDemo;
+import com.metal_pony.bucket.sudoku.util.BatchJob;
+import com.metal_pony.bucket.sudoku.util.MaskSet;
 import com.metal_pony.bucket.sudoku.util.SudokuMask;
 
 /**
@@ -97,35 +121,53 @@ public class Main {
 
   private static final class ArgsMap extends HashMap<String,String> {}
 
-  private static final Map<String, Consumer<ArgsMap>> COMMANDS = new HashMap<>() {{
-    // --clues %d
-    put("play", Main::play);
-    // --amount %d --normalize
-    put("generateConfigs", Main::generateConfigs);
-    put("benchConfigs", Main::benchConfigGeneration);
-    // --amount %d --clues %d --threads %d
-    put("generatePuzzles", Main::generatePuzzles);
-    put("countSolutions", Main::countSolutions);
-    // --puzzle %s --threads %d --timeout %d
-    put("solve", Main::solve);
-    put("generateBands", Main::generateInitialBands);
-    // --level %d --grid %s --threads %d
-    put("sieve", Main::createSieve);
-    // --level %d --grid %s --threads %d
-    put("fingerprint", Main::fingerprint);
-
-    // For testing / experimentation
-    put("adhoc", Main::adhoc);
-    put("help", Main::help);
-    put("check17", Main::check17);
-    put("buildcsv", Main::buildcsv);
-    put("process17", Main::process17s);
-    put("dj", Main::createDisjointMaps);
-    put("countCompare", Main::compareCountSolutions);
-
-    put("buildSieveTest", Main::buildSieveTestCSV);
-    put("buildjson17", Main::sudoku17ToJSON);
-  }};
+  /**
+   * Runs the named command.
+   * A switch rather than a map of method references: bootstrapping a lambda per command took
+   * longer at startup than many one-off commands take to run.
+   * @return False if the command is not recognized; otherwise true.
+   */
+  private static boolean runCommand(String command, ArgsMap args) {
+    switch (command) {
+      // --clues %d
+      case "play": play(args); break;
+      // --amount %d --normalize
+      case "generateConfigs": generateConfigs(args); break;
+      case "benchConfigs": benchConfigGeneration(args); break;
+      case "benchBranching": benchBranching(args); break;
+      // --amount %d --clues %d --threads %d
+      case "generatePuzzles": generatePuzzles(args); break;
+      case "countSolutions": countSolutions(args); break;
+      case "estimate": estimateSolutions(args); break;
+      case "countShards": countShards(args); break;
+      case "countWorker": countWorker(args); break;
+      case "serve": serve(args); break;
+      // --puzzle %s --threads %d --timeout %d
+      case "solve": solve(args); break;
+      case "generateBands": generateInitialBands(args); break;
+      // --level %d --grid %s --threads %d
+      case "sieve": createSieve(args); break;
+      // --level %d --grid %s --threads %d
+      case "fingerprint": fingerprint(args); break;
+
+      // For testing / experimentation
+      case "adhoc": adhoc(args); break;
+      case "help": help(args); break;
+      case "check17": check17(args); break;
+      case "buildcsv": buildcsv(args); break;
+      case "process17": process17s(args); break;
+      case "dj": createDisjointMaps(args); break;
+      case "countCompare": compareCountSolutions(args); break;
+
+      case "buildSieveTest": buildSieveTestCSV(args); break;
+      case "buildjson17": sudoku17ToJSON(args); break;
+      // --op %s --in %s --out %s --threads %d --queue %d --unordered --prints %s --report %d
+      case "pipeline": pipeline(args); break;
+      case "db": puzzleDatabase(args); break;
+      default: return false;
+    }
+    return true;
+  }
 
   static boolean verbose;
 
@@ -138,26 +180,20 @@ public class Main {
 
     // Use maximum of 8 processors while keeping 2 available for the system to keep doing its thing.
     int numThreads = inBounds(Runtime.getRuntime().availableProcessors() - 2, 1, 8);
-    ThreadPoolExecutor pool = new ThreadPoolExecutor(
-      numThreads, numThreads,
-      1L, TimeUnit.SECONDS,
-      new LinkedBlockingQueue<>()
-    );
-
-    System.out.println("[");
-    PuzzleEntry.allSudoku17().forEach(entry -> {
-      pool.submit(() -> {
-        System.out.println(entry.toString() + ",");
-      });
-    });
+    List<PuzzleEntry> entries = PuzzleEntry.allSudoku17();
+    Iterator<String> indices = IntStream.range(0, entries.size()).mapToObj(Integer::toString).iterator();
 
-    pool.shutdown();
+    Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
     try {
-      pool.awaitTermination(1L, TimeUnit.DAYS);
-    } catch (InterruptedException e) {
+      out.write("[\n");
+      new Pipeline(i -> entries.get(Integer.parseInt(i)).toString() + ",")
+        .threads(numThreads)
+        .run(indices, out);
+      out.write("]\n");
+      out.flush();
+    } catch (IOException e) {
       e.printStackTrace();
     }
-    System.out.println("]");
 
     long end = System.currentTimeMillis();
     long total = end - start;
@@ -174,69 +210,48 @@ public class Main {
 
     // Use maximum of 8 processors while keeping 2 available for the system to keep doing its thing.
     int numThreads = inBounds(Runtime.getRuntime().availableProcessors() - 2, 1, 8);
-    ThreadPoolExecutor pool = new ThreadPoolExecutor(
-      numThreads, numThreads,
-      10L, TimeUnit.SECONDS,
-      new LinkedBlockingQueue<>()
-    );
-
-    String debug_setName = "dc4";
-    List<Future<String[]>> ftrs = new ArrayList<>();
-    for (PuzzleEntry entry : sudoku17) {
-      ftrs.add(pool.submit(() -> {
-        Sudoku solution = new Sudoku(entry.solution());
-        return new String[]{
-          entry.solutionStr(),
-          // solution.dc2(),
-          // solution.dc3(),
-          solution.dc4(),
-          // solution.ac2(),
-          // solution.ac3(),
-          // solution.ac4(),
-          // solution.fp2(),
-          // solution.fp3(),
-          // solution.fp4()
-        };
-      }));
+    if (args.containsKey("threads")) {
+      numThreads = inBounds(Integer.parseInt(args.get("threads")), 1, 8);
     }
+    defaultInMap(args, "batch", "256");
+    defaultInMap(args, "prints", "dc4");
+    int batchSize = Math.max(Integer.parseInt(args.get("batch")), 1);
+
+    // All requested fingerprints are computed together, from one sieve per grid.
+    List<String> printNames = List.of(args.get("prints").split(","));
+
+    BatchJob job = startBatchJob(args, "process17 " + args.get("prints"));
+    if (job == null) return;
+
+    // Batches keep the number of sieves and pending results bounded.
+    int numErrors = 0;
+    for (int batchStart = (int) job.offset(); batchStart < sudoku17.length; batchStart += batchSize) {
+      int batchEnd = Math.min(batchStart + batchSize, sudoku17.length);
+      List<Sudoku> grids = new ArrayList<>(batchEnd - batchStart);
+      for (int i = batchStart; i < batchEnd; i++) {
+        grids.add(new Sudoku(sudoku17[i].solution()));
+      }
 
-    pool.shutdown();
-
-    // HashSet<String> dc2Set = new HashSet<>();
-    // HashSet<String> dc3Set = new HashSet<>();
-    HashSet<String> dc4Set = new HashSet<>();
-
-    // HashSet<String> ac2Set = new HashSet<>();
-    // HashSet<String> ac3Set = new HashSet<>();
-    // HashSet<String> ac4Set = new HashSet<>();
-
-    // HashSet<String> fp2Set = new HashSet<>();
-    // HashSet<String> fp3Set = new HashSet<>();
-    // HashSet<String> fp4Set = new HashSet<>();
+      List<Map<String,String>> batchPrints = FingerprintEngine.fingerprintAll(grids, printNames, numThreads);
+      for (int i = 0; i < grids.size(); i++) {
+        Map<String,String> prints = batchPrints.get(i);
+        if (prints == null) {
+          // Written like Pipeline's failures, so the row is not silently missing from the output
+          job.complete(sudoku17[batchStart + i].solutionStr() + ",ERROR");
+          numErrors++;
+          continue;
+        }
 
-    // Only used for counting;
-    // int fi = 0;
-    while (!ftrs.isEmpty()) {
-      Future<String[]> ftr = ftrs.remove(0);
-      try {
-        String[] prints = ftr.get(1L, TimeUnit.MINUTES);
-        // dc2Set.add(prints[1]);
-        // dc3Set.add(prints[2]);
-        dc4Set.add(prints[1]);
-
-        // ac2Set.add(prints[4]);
-        // ac3Set.add(prints[5]);
-        // ac4Set.add(prints[6]);
-
-        // fp2Set.add(prints[7]);
-        // fp3Set.add(prints[1]);
-        // fp4Set.add(prints[9]);
-        System.out.println(String.join(",", prints));
-      } catch (InterruptedException | ExecutionException | TimeoutException e) {
-        e.printStackTrace();
+        List<String> line = new ArrayList<>();
+        line.add(sudoku17[batchStart + i].solutionStr());
+        prints.forEach((name, print) -> {
+          job.aggregate(name).add(print);
+          line.add(print);
+        });
+        job.complete(String.join(",", line));
       }
-      // fi++;
     }
+    finishBatchJob(job);
 
     long end = System.currentTimeMillis();
     long total = end - start;
@@ -244,15 +259,144 @@ public class Main {
     long secs = (total - (60000L * mins)) / 1000L;
     String timeStr = (mins > 0) ? String.format("%d min, %d sec", mins, secs) : String.format("%d sec", secs);
     System.out.printf("Done (%s). FP counts:\n", timeStr);
-    System.out.printf(
-      // "dc4: %4d\n", dc4Set.size()
-      "%s: %4d\n", debug_setName, dc4Set.size()
+    for (String name : printNames) {
+      System.out.printf("%s: %4d\n", name, job.aggregate(name).size());
+    }
+    if (numErrors > 0) {
+      System.out.printf("%d grids could not be fingerprinted; their lines end in ERROR.\n", numErrors);
+    }
+  }
 
-      // "dc2: %4d        ac2: %4d        fp2: %4d\ndc3: %4d        ac3: %4d        fp3: %4d\ndc4: %4d        ac4: %4d        fp4: %4d\n",
-      //dc2Set.size(), ac2Set.size(), fp2Set.size(),
-      // dc3Set.size(), ac3Set.size(), fp3Set.size(),
-      // dc4Set.size(), ac4Set.size(), fp4Set.size()
-    );
+  /**
+   * Starts a batch job from the --out, --checkpoint, --resume and --interval (seconds) arguments.
+   * Without --out, lines go to stdout and nothing is checkpointed. A checkpoint is also written on exit.
+   * @return The started job; or null if it could not be started.
+   */
+  static BatchJob startBatchJob(ArgsMap args, String key) {
+    defaultInMap(args, "interval", "60");
+    long intervalSecs = Math.max(Long.parseLong(args.get("interval")), 1L);
+    BatchJob job = new BatchJob(key, args.get("out"), args.get("checkpoint")).checkpointEvery(intervalSecs * 1000L);
+    try {
+      job.start(args.containsKey("resume"));
+    } catch (IOException e) {
+      e.printStackTrace();
+      return null;
+    }
+    Runtime.getRuntime().addShutdownHook(new Thread(job::checkpoint));
+    return job;
+  }
+
+  static void finishBatchJob(BatchJob job) {
+    try {
+      job.close();
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  private static void pipeline(ArgsMap args) {
+    defaultInMap(args, "threads", Integer.toString(MAX_THREADS));
+    defaultInMap(args, "queue", Integer.toString(Pipeline.DEFAULT_CAPACITY));
+    defaultInMap(args, "prints", "fp2");
+    defaultInMap(args, "report", Long.toString(Pipeline.DEFAULT_REPORT_INTERVAL_MS / 1000L));
+
+    String opName = args.get("op");
+    if (opName == null || !Pipeline.OPERATIONS.contains(opName)) {
+      System.err.println("pipeline: --op must be one of " + String.join(", ", Pipeline.OPERATIONS));
+      System.exit(1);
+    }
+    int numThreads = inBounds(Integer.parseInt(args.get("threads")), 1, MAX_THREADS);
+    int capacity = Math.max(Integer.parseInt(args.get("queue")), 1);
+    long reportMs = Math.max(Long.parseLong(args.get("report")), 0L) * 1000L;
+
+    Pipeline pipeline = new Pipeline(Pipeline.operation(opName, List.of(args.get("prints").split(","))))
+      .threads(numThreads)
+      .capacity(capacity)
+      .ordered(!args.containsKey("unordered"))
+      .reportTo(System.err, reportMs);
+
+    // Progress goes to stderr, so stdout holds only results
+    String outPath = args.get("out");
+    try (Writer out = (outPath != null)
+      ? Files.newBufferedWriter(Paths.get(outPath))
+      : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+    ) {
+      Pipeline.Stats stats;
+      if (args.get("in") != null) {
+        List<Path> files = new ArrayList<>();
+        for (String path : args.get("in").split(",")) files.add(Paths.get(path));
+        stats = pipeline.run(Pipeline.lines(files), out);
+      } else {
+        stats = pipeline.run(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)), out);
+      }
+      System.err.println("[pipeline] " + stats);
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  private static void puzzleDatabase(ArgsMap args) {
+    defaultInMap(args, "threads", Integer.toString(MAX_THREADS));
+    defaultInMap(args, "prints", "dc2,fp2");
+    defaultInMap(args, "limit", "20");
+
+    String dbPath = args.get("db");
+    if (dbPath == null) {
+      System.err.println("db: --db is required");
+      System.exit(1);
+    }
+    int numThreads = inBounds(Integer.parseInt(args.get("threads")), 1, MAX_THREADS);
+    int limit = Math.max(Integer.parseInt(args.get("limit")), 0);
+
+    long start = System.currentTimeMillis();
+    try (PuzzleDatabase db = new PuzzleDatabase(dbPath, numThreads)) {
+      debug("Indexed %d records in %d ms\n", db.size(), System.currentTimeMillis() - start);
+
+      if (args.containsKey("import")) {
+        Iterator<String> puzzles;
+        if (args.get("import").equals("17")) {
+          puzzles = List.of(PuzzleEntry.puzzles17()).iterator();
+        } else {
+          List<Path> files = new ArrayList<>();
+          for (String path : args.get("import").split(",")) files.add(Paths.get(path));
+          puzzles = Pipeline.lines(files);
+        }
+        start = System.currentTimeMillis();
+        int added = db.addAll(puzzles, numThreads, args.get("prints").split(","));
+        System.err.printf("[db] Added %d puzzles in %d ms\n", added, System.currentTimeMillis() - start);
+      }
+
+      start = System.currentTimeMillis();
+      List<PuzzleEntry> found = null;
+      if (args.containsKey("print")) {
+        found = db.findByPrint(args.get("print"), args.get("value"));
+      } else if (args.containsKey("clues")) {
+        found = db.findByClues(Integer.parseInt(args.get("clues")));
+      } else if (args.containsKey("grid")) {
+        found = db.findIsomorphic(new Sudoku(args.get("grid")));
+      } else if (args.containsKey("solution")) {
+        found = db.findBySolution(args.get("solution"));
+      } else if (args.containsKey("shared")) {
+        Map<String,Set<String>> shared = db.sharedPrints(args.get("shared"));
+        debug("(%d ms)\n", System.currentTimeMillis() - start);
+        int n = 0;
+        for (Entry<String,Set<String>> entry : shared.entrySet()) {
+          if (n++ == limit) break;
+          System.out.println(entry.getKey() + "," + String.join(",", entry.getValue()));
+        }
+        System.err.printf("[db] %d shared fingerprints\n", shared.size());
+      }
+
+      if (found != null) {
+        debug("(%d ms)\n", System.currentTimeMillis() - start);
+        for (PuzzleEntry entry : found.subList(0, Math.min(limit, found.size()))) {
+          System.out.println(entry.puzzleStr() + "," + entry.solutionStr());
+        }
+        System.err.printf("[db] %d matches\n", found.size());
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
   }
 
   // TODO update help content
@@ -265,13 +409,51 @@ Commands:
     generateConfigs [--amount (1), --normalize (false)]
         Generates a full sudoku grid. Optionally "normalize" the grid such that
         the top row reads 1 through 9, sequentially.
-    generatePuzzles [--amount (1) --clues (27) --threads (1)]
+    generatePuzzles [--amount (1) --clues (27) --threads (1) --guided --cache --branching (mrv) --enrichMs (30000) --minimal]
         Generates a sudoku puzzle with the given number of clues.
+        With `guided`, cells are removed in order of sieve coverage rather than randomly,
+        which reaches low clue counts (20-22) with far fewer solver checks.
+        `branching` is the strategy for uniqueness checks; see benchBranching.
+        `enrichMs` is the CPU time the sieve may grow for in the background across the batch,
+        when all puzzles share one grid. With 0, the sieve is seeded while generation waits.
+        With `minimal`, only puzzles that need every clue are kept; others are generated again.
     solve --grid [--timeoutMs (10_000) --threads (1)]
         Prints all solutions of the given sudoku grid.
-    sieve [--grid (random) --level (2)]
+    sieve [--grid (random) --level (2) --cache]
         Gets unavoidable sets for the given grid.
         `level` supported from 2 through 4.
+        With `cache`, sieves are saved to and loaded from the given directory,
+        keyed by grid. Also supported by generatePuzzles, dj and adhoc.
+    adhoc [--grid (random) --level (2) --clues (81) --threads (#cores) --checkpoint --resume --interval (60)]
+        Searches the grid for puzzles with at most the given number of clues, using its sieve.
+        With `checkpoint`, the search state is saved to the given file every `interval` seconds
+        and on exit. With `resume`, the search continues from that file.
+    countSolutions [--grid (random seed) --threads (1) --bands --symmetry --branching (mrv)]
+        Counts the solutions of the given puzzle exactly. May take very long for sparse puzzles.
+        `branching` is the search strategy, with one thread; see benchBranching.
+        With `bands`, counts band by band instead of searching; sparse puzzles, a filled band,
+        or even the empty grid take seconds.
+        With `symmetry`, finds the transformations that map the puzzle onto itself and searches
+        only one of each set of branches they map onto one another.
+    benchBranching [--puzzles (24|17) --amount (200) --strategies (all) --workload (all) --drop (3)]
+        Times the branching strategies (mrv, fewest_places, degree_mrv, deterministic, random)
+        on the bundled 24- or 17-clue puzzles. Workloads: solve (first solution), flag (uniqueness),
+        count (all solutions, with `drop` clues removed from each puzzle). Comma-separated lists.
+    estimate [--grid (random seed) --samples (1000000) --threads (#cores) --error (0.05) --timeMs (10000)]
+        Estimates the number of solutions by random probing of the search tree, with a 95% confidence
+        interval. Stops after `samples` probes, once the interval is within `error` of the estimate,
+        or after `timeMs`, whichever comes first. Use 0 for no error target or time budget.
+    countShards [--grid (random seed) --workers (#cores) --threads (1) --units (64 per worker) --port (0)]
+        Counts solutions exactly, with the search split into `units` work units and counted by
+        `workers` local worker processes of `threads` threads each. Units from workers that die
+        are handed out again. Workers on other machines can join with countWorker, given `port`.
+    countWorker --port [--host (127.0.0.1) --threads (1)]
+        Counts work units for the countShards coordinator at host:port until none are left.
+    serve [--host (127.0.0.1) --port (8080) --threads (#cores) --batch (32) --queue (10000)]
+        Serves /solve, /flag, /count, /generate and /fingerprint over HTTP, with JSON responses,
+        plus /metrics. Parameters come from the query string or a form body, e.g.
+        /solve?grid=...&deadlineMs=500. Requests are run on `threads` solver threads; quick ones
+        are taken in batches of up to `batch`. At most `queue` requests wait, beyond that a 503.
     fingerprint [--grid (random) --level (2)]
         Generates a fingerprint for the sudoku grid.
         `level` supported from 2 through 4.
@@ -279,6 +461,43 @@ Commands:
         operations. Therefore, if any two seemingly different grids have the same
         fingerprints, it is very likely they are the same grid, just scrambled.
         Like different states of a Rubik's cube.
+    process17 [--prints (dc4) --threads --batch (256) --out --checkpoint --resume --interval (60)]
+        Fingerprints the solutions of all known 17-clue puzzles.
+        `prints` is a comma-separated list, e.g. "dc2,ac3,fp4"; all are computed
+        from one sieve per grid. A grid that fails is written as "solution,ERROR".
+    buildcsv [--out (out/sudoku-17.csv) --threads (8) --checkpoint --resume]
+        Writes puzzle, solution and fingerprints for all known 17-clue puzzles.
+    buildSieveTest [--numEntries (8) --out --checkpoint --resume --interval (60)]
+        Writes level 2 and 3 sieve items of random grids, for tests.
+    dj [--grid (seed) --level (2) --cache --out --checkpoint --resume --interval (60)]
+        Finds every set of mutually disjoint sieve items, breadth-first.
+    Batch jobs (process17, buildcsv, buildSieveTest, dj):
+        With `out`, results are written to that file, and progress is saved to `checkpoint`
+        (default: out + ".checkpoint") every `interval` seconds and on exit.
+        With `resume`, the job continues from the checkpoint; lines after it are rewritten once.
+    pipeline --op (solve|flag|count|fingerprint|canonicalize|rate|redundant|minimal)
+        [--in (stdin) --out (stdout) --threads (#cores) --queue (1024) --unordered --prints (fp2) --report (10)]
+        Reads one sudoku per line (first comma-separated field), applies the operation in parallel,
+        and writes "sudoku,result" per line, in input order unless `unordered`.
+        `minimal` is a filter instead, writing only the lines of puzzles that need every clue.
+        `in` is a comma-separated list of files. At most `queue` lines are in flight.
+        Throughput is reported to stderr every `report` seconds (0 for never).
+    db --db [--threads (#cores) --import (17 | file,...) --prints (dc2,fp2)]
+        [--print (dc2..fp4) --value | --clues | --grid | --solution | --shared (dc2..fp4)] [--limit (20)]
+        An append-only file of puzzle records, indexed by fingerprint, clue count, solution and
+        canonical solution grid. Indexes are rebuilt in parallel on open.
+        With `import`, appends the 17-clue puzzles or the puzzles in the given files (first
+        comma-separated field per line), computing the given fingerprints.
+        Queries print "puzzle,solution" per match: puzzles whose grid has the fingerprint `value`,
+        with the given number of clues, whose solution is isomorphic to `grid`, or is `solution`.
+        With `shared`, prints fingerprints that more than one grid (up to isomorphism) has.
+
+Options for any command:
+    --v
+        Verbose output.
+    --startup-profile
+        After the command, prints to stderr how long the JVM took to reach main,
+        the static initialization time of the core classes, and the command time.
 """
     );
   }
@@ -298,33 +517,17 @@ Commands:
     final int numThreads = inBounds(Integer.parseInt(args.get("threads")), 1, 8);
     final boolean normalize = args.containsKey("normalize");
 
-    List<Future<?>> ftrs = Collections.synchronizedList(new ArrayList<>(numConfigs));
-    ThreadPoolExecutor pool = new ThreadPoolExecutor(
-      numThreads, numConfigs,
-      1L, TimeUnit.SECONDS,
-      new LinkedBlockingQueue<>()
-    );
-    pool.prestartAllCoreThreads();
-
     long start = System.currentTimeMillis();
-    for (int n = 0; n < numConfigs; n++) {
-      ftrs.add(
-        pool.submit(() -> {
-          Sudoku config = Sudoku.generateConfig();
-          if (normalize) config.normalize();
-          System.out.println(config.toString());
-          return config.toString();
-        })
-      );
-    }
-
-    pool.shutdown();
-    for (Future<?> f : ftrs) {
-      try {
-        f.get();
-      } catch (InterruptedException | ExecutionException e) {
-        e.printStackTrace();
-      }
+    Iterator<String> inputs = Collections.nCopies(numConfigs, "").iterator();
+    Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+    try {
+      new Pipeline(_input -> {
+        Sudoku config = Sudoku.generateConfig();
+        if (normalize) config.normalize();
+        return config.toString();
+      }).threads(numThreads).ordered(false).run(inputs, out);
+    } catch (IOException e) {
+      e.printStackTrace();
     }
 
     debug(
@@ -343,6 +546,7 @@ Commands:
     defaultInMap(args, "amount", "1");
     defaultInMap(args, "clues", "27");
     defaultInMap(args, "threads", "1");
+    defaultInMap(args, "enrichMs", "30000");
 
     String gridStr = args.get("grid");
     boolean useSameSolution = (gridStr == null);
@@ -350,27 +554,80 @@ Commands:
 
     final int amount = inBounds(Integer.parseInt(args.get("amount")), 1, 1_000_000);
     final int clues = inBounds(Integer.parseInt(args.get("clues")), 19, Sudoku.SPACES);
+    final boolean guided = args.containsKey("guided");
+    final Branching branching = Branching.forName(args.getOrDefault("branching", "mrv"));
     // TODO Generate with multiple threads
     // final int threads = inBounds(Integer.parseInt(args.get("threads")), 1, MAX_THREADS);
 
-    SudokuSieve sieve = new SudokuSieve(grid);
+    // A sieve grown while generating for this grid is kept in the cache for next time,
+    // under the canonical grid so that scrambled copies of it can use the sieve too
+    SieveCache cache = args.containsKey("cache") ? new SieveCache(args.get("cache")) : null;
+    SudokuSieve sieve = (cache != null && useSameSolution) ? cache.getIsomorphic(grid, "generate") : null;
+    if (sieve == null) {
+      sieve = new SudokuSieve(grid);
+    }
 
-    for (int n = 0; n < amount; n++) {
-      Sudoku puzzle = Sudoku.generatePuzzle(
+    // The sieve keeps growing in the background for the whole batch
+    final long enrichMs = Math.max(Long.parseLong(args.get("enrichMs")), 0L);
+    SieveEnricher enricher = (useSameSolution && enrichMs > 0L) ? new SieveEnricher(sieve, enrichMs) : null;
+
+    final SudokuSieve batchSieve = sieve;
+    LongFunction<Sudoku> generate = timeoutMs -> (enricher != null) ?
+      Sudoku.generatePuzzle(enricher, clues, 0, timeoutMs, guided, branching) :
+      Sudoku.generatePuzzle(
         useSameSolution ? grid : null,
         clues,
-        useSameSolution ? sieve : null,
+        useSameSolution ? batchSieve : null,
         0,
-        60*1000L,
-        true
+        timeoutMs,
+        true,
+        guided,
+        branching
       );
+
+    // Puzzles with a clue to spare are dropped and generated again, within the same time limit
+    final boolean minimal = args.containsKey("minimal");
+    MinimalityChecker checker = null;
+    if (minimal && useSameSolution) {
+      checker = new MinimalityChecker(grid);
+      checker.addUnavoidableSets(sieve.items());
+    }
+    int numDropped = 0;
+
+    long start = System.currentTimeMillis();
+    for (int n = 0; n < amount; n++) {
+      long puzzleStart = System.currentTimeMillis();
+      Sudoku puzzle = generate.apply(60*1000L);
+      while (minimal && puzzle != null && !((checker != null) ? checker.isMinimal(puzzle) : puzzle.isMinimal())) {
+        numDropped++;
+        long remainingMs = 60*1000L - (System.currentTimeMillis() - puzzleStart);
+        puzzle = (remainingMs > 0L) ? generate.apply(remainingMs) : null;
+      }
       if (puzzle == null) {
         // Timed out
-        return;
+        break;
       } else {
         System.out.println(puzzle);
       }
     }
+
+    if (minimal) {
+      debug("Dropped %d puzzles that weren't minimal.\n", numDropped);
+    }
+
+    if (enricher != null) {
+      enricher.close();
+      debug(
+        "Generated in %d ms. Enricher added %d sieve items in %d ms of CPU time.\n",
+        System.currentTimeMillis() - start,
+        enricher.numAdded(),
+        enricher.usedMs()
+      );
+    }
+
+    if (cache != null && useSameSolution) {
+      cache.putCanonical("generate", sieve);
+    }
   }
 
   private static void countSolutions(ArgsMap args) {
@@ -381,19 +638,111 @@ Commands:
     final int numThreads = inBounds(Integer.parseInt(args.get("threads")), 1, Runtime.getRuntime().availableProcessors());
 
     long start = System.currentTimeMillis();
-    long numSolutions = 0L;
-    if (numThreads == 1) {
-      debug("countSolutions(\n  grid: %s\n  numThreads: %d\n):\n", grid.toString(), numThreads);
-      numSolutions = grid.countSolutionsAsync(numThreads);
-    } else {
-
+    debug("countSolutions(\n  grid: %s\n  numThreads: %d\n):\n", grid.toString(), numThreads);
+    if (args.containsKey("bands")) {
+      BigInteger count = grid.countSolutionsByBands(numThreads);
+      debug("(%d ms)\n", System.currentTimeMillis() - start);
+      System.out.println(count);
+      return;
+    }
+    if (args.containsKey("symmetry")) {
+      SymmetryCounter counter = new SymmetryCounter(grid);
+      debug("Automorphisms: %d\n", counter.automorphisms().size());
+      long count = counter.count(numThreads);
+      debug("(%d ms)\n", System.currentTimeMillis() - start);
+      System.out.println(count);
+      return;
     }
+    Branching branching = Branching.forName(args.getOrDefault("branching", "mrv"));
+    long numSolutions = (numThreads == 1) ? grid.countSolutions(branching) : grid.countSolutionsAsync(numThreads);
     long end = System.currentTimeMillis();
     debug("Total: %d\n", numSolutions);
     debug("(%d ms)\n", end - start);
     System.out.println(numSolutions);
   }
 
+  private static void estimateSolutions(ArgsMap args) {
+    defaultInMap(args, "samples", "1000000");
+    defaultInMap(args, "threads", Integer.toString(MAX_THREADS));
+    defaultInMap(args, "error", "0.05");
+    defaultInMap(args, "timeMs", "10000");
+
+    String gridStr = args.get("grid");
+    Sudoku grid = (gridStr == null) ? Sudoku.configSeed() : new Sudoku(gridStr);
+    int samples = Math.max(Integer.parseInt(args.get("samples")), 1);
+    int numThreads = inBounds(Integer.parseInt(args.get("threads")), 1, MAX_THREADS);
+    double targetError = Math.max(Double.parseDouble(args.get("error")), 0.0);
+    long timeMs = Math.max(Long.parseLong(args.get("timeMs")), 0L);
+
+    debug("estimateSolutions(\n  grid: %s\n  numThreads: %d\n):\n", grid.toString(), numThreads);
+    System.out.println(grid.estimateSolutions(samples, numThreads, targetError, timeMs));
+  }
+
+  private static void countShards(ArgsMap args) {
+    defaultInMap(args, "workers", Integer.toString(MAX_THREADS));
+    defaultInMap(args, "threads", "1");
+    defaultInMap(args, "port", "0");
+
+    String gridStr = args.get("grid");
+    Sudoku grid = (gridStr == null) ? Sudoku.configSeed() : new Sudoku(gridStr);
+    int numWorkers = Math.max(Integer.parseInt(args.get("workers")), 0);
+    int numThreads = Math.max(Integer.parseInt(args.get("threads")), 1);
+    defaultInMap(args, "units", Integer.toString(Math.max(numWorkers, 1) * ShardedCounter.DEFAULT_UNITS_PER_WORKER));
+    int numUnits = Math.max(Integer.parseInt(args.get("units")), 1);
+
+    long start = System.currentTimeMillis();
+    ShardedCounter counter = new ShardedCounter(grid, numUnits);
+    try {
+      int port = counter.listen(Integer.parseInt(args.get("port")));
+      System.err.printf(
+        "[coordinator] %d units for %s; listening on port %d.\n", counter.units.size(), grid.toString(), port
+      );
+      counter.startLocalWorkers(numWorkers, numThreads);
+      System.out.println(counter.await());
+    } catch (IOException | InterruptedException e) {
+      e.printStackTrace();
+      System.exit(1);
+    }
+    debug("(%d ms)\n", System.currentTimeMillis() - start);
+  }
+
+  private static void countWorker(ArgsMap args) {
+    defaultInMap(args, "host", "127.0.0.1");
+    defaultInMap(args, "threads", "1");
+    if (!args.containsKey("port")) {
+      System.err.println("countWorker: --port is required");
+      System.exit(1);
+    }
+    int numThreads = inBounds(Integer.parseInt(args.get("threads")), 1, MAX_THREADS);
+    try {
+      int numUnits = ShardedCounter.work(args.get("host"), Integer.parseInt(args.get("port")), numThreads);
+      debug("Counted %d units.\n", numUnits);
+    } catch (IOException | InterruptedException e) {
+      e.printStackTrace();
+      System.exit(1);
+    }
+  }
+
+  private static void serve(ArgsMap args) {
+    defaultInMap(args, "host", "127.0.0.1");
+    defaultInMap(args, "port", Integer.toString(SudokuService.DEFAULT_PORT));
+    defaultInMap(args, "threads", Integer.toString(MAX_THREADS));
+    defaultInMap(args, "batch", Integer.toString(SudokuService.DEFAULT_MAX_BATCH));
+    defaultInMap(args, "queue", Integer.toString(SudokuService.DEFAULT_QUEUE_CAPACITY));
+
+    int numThreads = inBounds(Integer.parseInt(args.get("threads")), 1, MAX_THREADS);
+    int maxBatch = Math.max(Integer.parseInt(args.get("batch")), 1);
+    int capacity = Math.max(Integer.parseInt(args.get("queue")), 1);
+    SudokuService service = new SudokuService(numThreads, maxBatch, capacity);
+    try {
+      int port = service.start(args.get("host"), Integer.parseInt(args.get("port")));
+      System.out.printf("Serving on http://%s:%d (%d threads)\n", args.get("host"), port, numThreads);
+    } catch (IOException e) {
+      e.printStackTrace();
+      System.exit(1);
+    }
+  }
+
   private static void solve(ArgsMap args) {
     System.out.println(new Sudoku(args.get("grid")).solution().toString());
   }
@@ -409,6 +758,21 @@ Commands:
     }
   }
 
+  /**
+   * Checks whether the given argument key (without its leading "--") is made of letters,
+   * optionally joined by single dashes.
+   */
+  private static boolean isArgKey(String key) {
+    // Checked by hand; compiling a regex here was a measurable part of startup.
+    if (key.isEmpty() || key.charAt(0) == '-' || key.charAt(key.length() - 1) == '-') return false;
+    for (int i = 0; i < key.length(); i++) {
+      char c = key.charAt(i);
+      boolean isLetter = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+      if (!isLetter && !(c == '-' && key.charAt(i - 1) != '-')) return false;
+    }
+    return true;
+  }
+
   /**
    * Attempts to parse command arguments from the given array.
    * The first element is ignored as it should be the command.
@@ -433,8 +797,8 @@ Commands:
 
           lastArgKey = arg.substring(2);
 
-          // Fail if the key contains non-alphabet chars.
-          if (!lastArgKey.matches("[a-zA-Z]+")) {
+          // Fail if the key isn't alphabet chars, optionally joined by dashes.
+          if (!isArgKey(lastArgKey)) {
             throw new IllegalArgumentException("Invalid argument format: " + String.join(" ", args));
           }
 
@@ -461,6 +825,7 @@ Commands:
   }
 
   public static void main(String[] args) throws IOException, ClassNotFoundException {
+    long mainNanos = System.nanoTime();
     ArgsMap argMap = parseCommandLineArgs(args);
 
     String command = DEFAULT_COMMAND;
@@ -470,14 +835,58 @@ Commands:
       }
     }
 
-    if (!COMMANDS.containsKey(command)) {
+    verbose = argMap.containsKey("v");
+    boolean profileStartup = argMap.containsKey("startup-profile");
+    Map<String,Long> initNanos = profileStartup ? initCoreClasses() : null;
+
+    long commandNanos = System.nanoTime();
+    if (!runCommand(command, argMap)) {
       System.out.println("Sudoku: Command not recognized.");
       System.exit(1);
     }
 
-    verbose = argMap.containsKey("v");
+    if (profileStartup) {
+      printStartupProfile(mainNanos, initNanos, System.nanoTime() - commandNanos);
+    }
+  }
+
+  /** Classes whose static initializers most commands pay for, in the order they're first touched.*/
+  static final String[] CORE_CLASSES = {
+    "com.metal_pony.bucket.sudoku.util.SudokuMask",
+    "com.metal_pony.bucket.sudoku.Sudoku",
+    "com.metal_pony.bucket.sudoku.SudokuSieve",
+    "com.metal_pony.bucket.sudoku.FingerprintEngine"
+  };
 
-    COMMANDS.get(command).accept(argMap);
+  /**
+   * Initializes each of the core classes ahead of the command, timing each one.
+   * Classes that a class depends on are counted in its time, so earlier entries are the cheaper dependencies.
+   */
+  private static Map<String,Long> initCoreClasses() throws ClassNotFoundException {
+    Map<String,Long> initNanos = new LinkedHashMap<>();
+    for (String className : CORE_CLASSES) {
+      long start = System.nanoTime();
+      Class.forName(className, true, Main.class.getClassLoader());
+      initNanos.put(className.substring(className.lastIndexOf('.') + 1), System.nanoTime() - start);
+    }
+    return initNanos;
+  }
+
+  /**
+   * Prints where the time went before and during the command, to stderr so it stays out of command output.
+   */
+  private static void printStartupProfile(long mainNanos, Map<String,Long> initNanos, long commandNanos) {
+    // Uptime is read last, so the management classes it loads don't show up in the timings.
+    long totalMs = ManagementFactory.getRuntimeMXBean().getUptime();
+    double sinceMainMs = (System.nanoTime() - mainNanos) / 1e6;
+    System.err.println("Startup profile (ms):");
+    System.err.printf("  %-24s %8.1f%n", "jvm start to main", totalMs - sinceMainMs);
+    for (Entry<String,Long> entry : initNanos.entrySet()) {
+      System.err.printf("  %-24s %8.1f%n", "init " + entry.getKey(), entry.getValue() / 1e6);
+    }
+    System.err.printf("  %-24s %8.1f%n", "command", commandNanos / 1e6);
+    System.err.printf("  %-24s %8d%n", "total", totalMs);
+    System.err.printf("  %-24s %8d%n", "classes loaded", ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount());
   }
 
   // TODO #67 Create general REPL tool
@@ -608,11 +1017,11 @@ Commands:
       q.offer(band);
       reducedBands.add(band);
 
-      // TODO NOT FEASIBLE TO COUNT SOLUTIONS
-      // int rootCount = countSolutions(new Sudoku(band + "0".repeat(Sudoku.SPACES - band.length())));
-      // if (verbose) {
-      //   System.out.printf("Transforming band %s, all transforms should have %d solutions:\n", band, rootCount);
-      // }
+      BigInteger rootCount = null;
+      if (verbose) {
+        rootCount = new Sudoku(band + "0".repeat(Sudoku.SPACES - band.length())).countSolutionsByBands(1);
+        System.out.printf("Transforming band %s, all transforms should have %s solutions:\n", band, rootCount);
+      }
 
       while (!q.isEmpty()) {
         String bStr = q.poll() + "0".repeat(Sudoku.SPACES - band.length());
@@ -656,11 +1065,10 @@ Commands:
             seen.add(tStr);
             q.offer(tStr);
 
-            // TODO NOT FEASIBLE TO COUNT SOLUTIONS
-            // int count = countSolutions(new Sudoku(tStr));
-            // if (verbose) {
-            //   System.out.printf("%s [%d] %s\n", (rootCount == count) ? "  " : "🚨", count, tStr);
-            // }
+            if (verbose) {
+              BigInteger count = new Sudoku(tStr + "0".repeat(Sudoku.SPACES - N)).countSolutionsByBands(1);
+              System.out.printf("%s [%s] %s\n", count.equals(rootCount) ? "  " : "🚨", count, tStr);
+            }
           }
         }
 
@@ -709,6 +1117,19 @@ Commands:
     return reducedBands;
   }
 
+  /**
+   * Gets a full print sieve for the grid.
+   * With `--cache dir`, the sieve is loaded from the directory if present; otherwise it is seeded and saved there.
+   */
+  private static SudokuSieve fullPrintSieve(ArgsMap args, Sudoku grid, int level, int numThreads) {
+    if (args.containsKey("cache")) {
+      return new SieveCache(args.get("cache")).fullPrint(grid, level, numThreads);
+    }
+    SudokuSieve sieve = new SudokuSieve(grid);
+    sieve.seedThreaded(sieve.fullPrintCombos(level), numThreads);
+    return sieve;
+  }
+
   /**
    * level [2,4] (default: 2)
    * grid? [str] (default: randomly generated)
@@ -727,11 +1148,10 @@ Commands:
 
     Sudoku grid = (gridStr == null) ? Sudoku.generateConfig() : new Sudoku(gridStr);
     System.out.println(grid.toString());
-    SudokuSieve sieve = new SudokuSieve(grid);
 
     debug("Using " + numThreads + " threads.");
     long startTime = System.currentTimeMillis();
-    sieve.seedThreaded(sieve.fullPrintCombos(level), numThreads);
+    SudokuSieve sieve = fullPrintSieve(args, grid, level, numThreads);
     long endTime = System.currentTimeMillis();
 
     System.out.println(sieve.toString());
@@ -822,31 +1242,44 @@ Commands:
     // defaultInMap(args, "threads", "1");
 
     String gridStr = args.get("grid");
+    String checkpointPath = args.get("checkpoint");
+    boolean resume = args.containsKey("resume") && checkpointPath != null;
+    if (gridStr == null && resume) {
+      gridStr = SieveSearcher.checkpointGrid(checkpointPath);
+    }
     System.out.println("Using sudoku grid:");
     Sudoku grid = (gridStr == null) ? Sudoku.generateConfig() : new Sudoku(gridStr);
     System.out.println(grid.toString());
-    SudokuSieve sieve = new SudokuSieve(grid);
     int level = inBounds(Integer.parseInt(args.get("level")), MIN_LEVEL, MAX_LEVEL);
     int clues = inBounds(Integer.parseInt(args.get("clues")), Sudoku.MIN_CLUES, Sudoku.SPACES);
     // final int amount = Math.max(Integer.parseInt(args.get("amount")), 1);
-    // int numThreads = inBounds(Integer.parseInt(args.get("threads")), 1, Runtime.getRuntime().availableProcessors());
 
     // SIEVE SEARCHING
-    int numThreads = MAX_THREADS;
+    int numThreads = args.containsKey("threads") ? inBounds(Integer.parseInt(args.get("threads")), 1, MAX_THREADS) : MAX_THREADS;
     System.out.printf("Seeding sieve (level %d; threads %d)...", level, numThreads);
     long seedStartTime = System.currentTimeMillis();
-    sieve.seedThreaded(sieve.fullPrintCombos(level), MAX_THREADS);
+    SudokuSieve sieve = fullPrintSieve(args, grid, level, numThreads);
     long seedEndTime = System.currentTimeMillis();
     System.out.printf("Done in %d ms.\n", seedEndTime - seedStartTime);
     System.out.println(sieve.toString());
     System.out.printf("Sieve has %d items.\n", sieve.size());
 
     SieveSearcher searcher = new SieveSearcher(sieve);
+    if (checkpointPath != null) {
+      defaultInMap(args, "interval", "60");
+      long intervalSecs = Math.max(Long.parseLong(args.get("interval")), 1L);
+      searcher.checkpointTo(checkpointPath, intervalSecs * 1000L);
+      if (resume) {
+        searcher.resumeFrom(checkpointPath);
+      }
+      // Pending units always cover the rest of the search, so the state can be saved at any point
+      Runtime.getRuntime().addShutdownHook(new Thread(searcher::writeCheckpoint));
+    }
     System.out.println("Starting in just a sec...");
     sleep(2000L);
 
-    searcher.search(clues);
-    System.out.println("Done searching.");
+    List<String> puzzles = searcher.search(clues, numThreads);
+    System.out.printf("Done searching. Found %d puzzles.\n", puzzles.size());
   }
 
   // private static int[] arrCopy(int[] arr) {
@@ -902,30 +1335,123 @@ Commands:
     );
   }
 
+  /**
+   * Times each branching strategy on the bundled puzzles: finding a first solution ("solve"),
+   * checking uniqueness ("flag"), and counting the solutions of each puzzle with `drop` clues
+   * removed ("count"). Clues are removed the same way for every strategy, so the totals printed
+   * alongside the times should agree between strategies.
+   */
+  private static void benchBranching(ArgsMap args) {
+    defaultInMap(args, "puzzles", "24");
+    defaultInMap(args, "amount", "200");
+    defaultInMap(args, "strategies", "all");
+    defaultInMap(args, "workload", "all");
+    defaultInMap(args, "drop", "3");
+
+    String[] corpus = args.get("puzzles").equals("17") ? PuzzleEntry.puzzles17() : GeneratedPuzzles.PUZZLES_24_1000;
+    int amount = inBounds(Integer.parseInt(args.get("amount")), 1, corpus.length);
+    int drop = inBounds(Integer.parseInt(args.get("drop")), 0, Sudoku.MIN_CLUES);
+
+    List<Branching> strategies = new ArrayList<>();
+    if (args.get("strategies").equals("all")) {
+      strategies.addAll(List.of(Branching.values()));
+    } else {
+      for (String name : args.get("strategies").split(",")) strategies.add(Branching.forName(name.trim()));
+    }
+    List<String> workloads = args.get("workload").equals("all")
+      ? List.of("solve", "flag", "count")
+      : List.of(args.get("workload").split(","));
+
+    Sudoku[] puzzles = new Sudoku[amount];
+    Sudoku[] dropped = new Sudoku[amount];
+    Random rand = new Random(amount);
+    for (int i = 0; i < amount; i++) {
+      puzzles[i] = new Sudoku(corpus[i]);
+      int[] board = puzzles[i].getBoard();
+      for (int d = 0; d < drop; d++) {
+        int ci;
+        do { ci = rand.nextInt(Sudoku.SPACES); } while (board[ci] == 0);
+        board[ci] = 0;
+      }
+      dropped[i] = new Sudoku(board);
+    }
+
+    // Warm up the JIT, so the first strategy measured isn't penalized
+    for (Branching strategy : strategies) {
+      for (int i = 0; i < Math.min(amount, 20); i++) puzzles[i].solutionsFlag(strategy);
+    }
+
+    System.out.printf(
+      "benchBranching({ puzzles: %s, amount: %d, drop: %d })\n",
+      args.get("puzzles"), amount, drop
+    );
+    System.out.printf("%-10s %-14s %10s %14s %16s\n", "workload", "strategy", "total ms", "us / puzzle", "total");
+    for (String workload : workloads) {
+      for (Branching strategy : strategies) {
+        long[] total = new long[1];
+        long time = timeCpuExecution(() -> {
+          for (int i = 0; i < amount; i++) {
+            total[0] += benchBranchingRun(workload, strategy, puzzles[i], dropped[i]);
+          }
+        });
+        System.out.printf(
+          "%-10s %-14s %10d %14d %16d\n",
+          workload,
+          strategy.name(),
+          TimeUnit.NANOSECONDS.toMillis(time),
+          TimeUnit.NANOSECONDS.toMicros(time) / amount,
+          total[0]
+        );
+      }
+    }
+  }
+
+  private static long benchBranchingRun(String workload, BranchingStrategy strategy, Sudoku puzzle, Sudoku dropped) {
+    switch (workload) {
+      case "solve":
+        long[] found = new long[1];
+        puzzle.searchForSolutions3(solution -> {
+          found[0]++;
+          return false;
+        }, strategy);
+        return found[0];
+      case "flag":
+        return puzzle.solutionsFlag(strategy);
+      case "count":
+        return dropped.countSolutions(strategy);
+      default:
+        throw new IllegalArgumentException("Unknown workload: " + workload);
+    }
+  }
+
   private static void check17(ArgsMap args) {
     long startTime = System.currentTimeMillis();
     System.out.print("Reading in 17-clue puzzles...");
     PuzzleEntry[] sudoku17 = PuzzleEntry.all17();
     System.out.println(" ✅.");
 
-    // Use maximum of 8 processors while keeping 2 available for the system to keep doing its thing.
     int numThreads = Runtime.getRuntime().availableProcessors();
-    ThreadPoolExecutor pool = new ThreadPoolExecutor(
-      numThreads, numThreads,
-      1L, TimeUnit.SECONDS,
-      new LinkedBlockingQueue<>()
-    );
-    pool.prestartAllCoreThreads();
-
     System.out.println("Solving all puzzles" + (numThreads > 1 ? " ["+numThreads+" threads]." : "."));
     Set<String> solutions = Collections.synchronizedSet(new HashSet<>());
     Set<String> fp2s = Collections.synchronizedSet(new HashSet<>());
-    for (int i = 0; i < sudoku17.length; i++) {
-      final int j = i;
+    AtomicInteger nextIndex = new AtomicInteger();
+    AtomicInteger numErrors = new AtomicInteger();
+
+    // Each worker takes the next puzzle when it is free, so nothing queues up.
+    ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+    for (int t = 0; t < numThreads; t++) {
       pool.submit(() -> {
-        PuzzleEntry entry = sudoku17[j];
-        solutions.add(entry.solutionStr());
-        fp2s.add(entry.fp2());
+        int i;
+        while ((i = nextIndex.getAndIncrement()) < sudoku17.length) {
+          PuzzleEntry entry = sudoku17[i];
+          try {
+            solutions.add(entry.solutionStr());
+            fp2s.add(entry.fp2());
+          } catch (Throwable e) {
+            e.printStackTrace();
+            numErrors.incrementAndGet();
+          }
+        }
       });
     }
 
@@ -941,32 +1467,45 @@ Commands:
     System.out.println("Finished in " + (endTime - startTime) + " ms.");
     System.out.printf("Found %d unique solutions.\n", solutions.size());
     System.out.printf("Found %d unique fp2s.\n", fp2s.size());
+    if (numErrors.get() > 0) {
+      System.out.printf("%d puzzles failed and are not counted.\n", numErrors.get());
+    }
   }
 
   static void buildcsv(ArgsMap args) {
-    PuzzleEntry.buildCSV("out/sudoku-17.csv", 8);
+    defaultInMap(args, "out", "out/sudoku-17.csv");
+    defaultInMap(args, "threads", "8");
+    int numThreads = inBounds(Integer.parseInt(args.get("threads")), 1, MAX_THREADS);
+    PuzzleEntry.buildCSV(args.get("out"), numThreads, args.get("checkpoint"), args.containsKey("resume"));
   }
 
   static void buildSieveTestCSV(ArgsMap args) {
     defaultInMap(args, "numEntries", "8");
     int numEntries = Integer.parseInt(args.get("numEntries"));
 
-    for (int n = 0; n < numEntries; n++) {
+    // Grids are random, so resuming only needs to know how many entries are done.
+    BatchJob job = startBatchJob(args, "buildSieveTest");
+    if (job == null) return;
+
+    for (long n = job.offset(); n < numEntries; n++) {
       Sudoku grid = Sudoku.generateConfig();
       SudokuSieve sieve = new SudokuSieve(grid);
       sieve.seedThreaded(sieve.fullPrintCombos(2));
       List<String> itemStrsSorted = new ArrayList<>();
       sieve.items().forEach(item -> itemStrsSorted.add("\""+item.toString()+"\""));
       itemStrsSorted.sort(String::compareTo);
-      System.out.printf("%s;2;%d;[%s]\n", grid.toString(), sieve.size(), String.join(",", itemStrsSorted));
+      String level2 = String.format("%s;2;%d;[%s]", grid.toString(), sieve.size(), String.join(",", itemStrsSorted));
 
       sieve = new SudokuSieve(grid);
       sieve.seedThreaded(sieve.fullPrintCombos(3));
       itemStrsSorted.clear();
       sieve.items().forEach(item -> itemStrsSorted.add("\""+item.toString()+"\""));
       itemStrsSorted.sort(String::compareTo);
-      System.out.printf("%s;3;%d;[%s]\n", grid.toString(), sieve.size(), String.join(",", itemStrsSorted));
+      String level3 = String.format("%s;3;%d;[%s]", grid.toString(), sieve.size(), String.join(",", itemStrsSorted));
+
+      job.complete(level2, level3);
     }
+    finishBatchJob(job);
   }
 
   public static void createDisjointMaps(ArgsMap args) {
@@ -975,6 +1514,11 @@ Commands:
     defaultInMap(args, "level", "2");
     defaultInMap(args, "threads", "1");
     String gridStr = args.get("grid");
+    if (gridStr == null && args.containsKey("resume") && args.containsKey("out")) {
+      // Key is "dj <grid> <level>"
+      String key = BatchJob.checkpointKey(args.get("out"), args.get("checkpoint"));
+      if (key != null && key.startsWith("dj ")) gridStr = key.split(" ")[1];
+    }
     Sudoku grid = (gridStr == null) ? Sudoku.configSeed().solution() : new Sudoku(gridStr);
     int level = inBounds(Integer.parseInt(args.get("level")), MIN_LEVEL, MAX_LEVEL);
     int numThreads = inBounds(Integer.parseInt(args.get("threads")), 1, Runtime.getRuntime().availableProcessors());
@@ -983,8 +1527,13 @@ Commands:
 
     System.out.printf("Creating and seeding sieve (level %d)... ", level);
     long start = System.currentTimeMillis();
-    SudokuSieve sieve = new SudokuSieve(grid);
-    sieve.seed(sieve.digitCombos(level));
+    SudokuSieve sieve;
+    if (args.containsKey("cache")) {
+      sieve = new SieveCache(args.get("cache")).computeIfAbsent(grid, "dc" + level, s -> s.seed(s.digitCombos(level)));
+    } else {
+      sieve = new SudokuSieve(grid);
+      sieve.seed(sieve.digitCombos(level));
+    }
     long end = System.currentTimeMillis();
     System.out.printf("done (%d ms).\n", end - start);
     System.out.printf("Sieve contains %d items.\n", sieve.size());
@@ -993,30 +1542,59 @@ Commands:
     System.out.println("Creating an index of all disjoint sets...");
     start = System.currentTimeMillis();
     Set<SudokuMask> items = sieve.items();
-    SetArray<SudokuMask> disjointSetsMap = new SetArray<>(81);
+    SetArray disjointSetsMap = new SetArray(81);
     Queue<DjNode> q = new LinkedList<>();
-    for (SudokuMask m : items) {
-      DjNode node = new DjNode(1, new SudokuMask(m));
-      q.offer(node);
-      disjointSetsMap.add(node.mask, node.n);
-      System.out.printf("[%d] [%2d] %s\n", disjointSetsMap.size() - 1, node.n, grid.filterStr(node.mask));
+
+    // Breadth-first, so the queue is always the tail of the sets found so far, in the order they were
+    // printed. Input 0 is the sieve items; input k expands the k-th set found. On resume, the sets are
+    // read back from the output, and those not yet expanded are queued again.
+    BatchJob job = startBatchJob(args, String.format("dj %s %d", grid.toString(), level));
+    if (job == null) return;
+    boolean echo = args.containsKey("out");
+    if (job.offset() > 0L) {
+      long expanded = job.offset() - 1L;
+      long index = 0L;
+      try (BufferedReader in = Files.newBufferedReader(Paths.get(args.get("out")))) {
+        String line;
+        while ((line = in.readLine()) != null) {
+          DjNode node = DjNode.parse(line);
+          disjointSetsMap.add(node.mask, node.n);
+          if (index++ >= expanded) q.offer(node);
+        }
+      } catch (IOException e) {
+        e.printStackTrace();
+        return;
+      }
+      System.out.printf("Resumed with %d sets, %d to expand.\n", disjointSetsMap.size(), q.size());
+    } else {
+      List<String> lines = new ArrayList<>();
+      for (SudokuMask m : items) {
+        DjNode node = new DjNode(1, new SudokuMask(m));
+        q.offer(node);
+        disjointSetsMap.add(node.mask, node.n);
+        lines.add(node.toString(disjointSetsMap.size() - 1, grid));
+      }
+      printDjLines(job, lines, echo);
     }
 
     while (!q.isEmpty()) {
       DjNode curNode = q.poll();
 
+      List<String> lines = new ArrayList<>();
       curNode.nexts(items, nextNode -> {
         if (disjointSetsMap.add(nextNode.mask, nextNode.n)) {
-          System.out.printf("[%d] [%2d] %s\n", disjointSetsMap.size() - 1, nextNode.n, grid.filterStr(nextNode.mask));
+          lines.add(nextNode.toString(disjointSetsMap.size() - 1, grid));
           q.offer(nextNode);
         }
       });
+      printDjLines(job, lines, echo);
     }
+    finishBatchJob(job);
     end = System.currentTimeMillis();
     System.out.printf("Finished (%d ms); found %d total disjointed sets.\n", end - start, disjointSetsMap.size());
 
     for (int n = 0; n < disjointSetsMap.length; n++) {
-      Set<SudokuMask> set = disjointSetsMap.list.get(n);
+      MaskSet set = disjointSetsMap.list.get(n);
       if (set.size() > 0) {
         System.out.printf("[%2d]: %d\n", n, set.size());
       }
@@ -1024,97 +1602,17 @@ Commands:
 
   }
 
-  public static class DisjointSetsMap extends SetArray<SudokuMask> {
-    Sudoku grid;
-
-    public DisjointSetsMap(Sudoku grid) {
-      super(Sudoku.SPACES);
-      this.grid = grid;
-    }
-
-    public void dumpTo(DisjointSetsMap other) {
-      for (int i = length - 1; i > 0; i--) {
-        if (!list.get(i).isEmpty()) {
-          for (SudokuMask item : list.get(i)) {
-            other.add(item, i);
-          }
-          list.get(i).clear();
-        }
-      }
-      size = 0;
-    }
-
-    public void splitOutOverlapping(SudokuMask mask, DisjointSetsMap other) {
-      for (int i = length - 1; i > 0; i--) {
-        final int _i = i;
-        list.get(i).removeIf(item -> {
-          boolean intersects = mask.intersects(item);
-          if (intersects) {
-            other.add(item, _i);
-            size--;
-          }
-          return intersects;
-        });
-      }
-    }
-
-    public void build(int level) {
-      SudokuSieve sieve = new SudokuSieve(grid);
-      sieve.seedThreaded(sieve.digitCombos(level));
-      Set<SudokuMask> items = sieve.items();
-
-      Queue<DjNode> q = new LinkedList<>();
-      for (SudokuMask m : items) {
-        DjNode node = new DjNode(1, new SudokuMask(m));
-        q.offer(node);
-        add(node.mask, node.n);
-        // System.out.printf("[%d] [%2d] %s\n", size() - 1, node.n, grid.filterStr(node.mask));
-      }
-
-      while (!q.isEmpty()) {
-        DjNode curNode = q.poll();
-
-        curNode.nexts(items, nextNode -> {
-          if (add(nextNode.mask, nextNode.n)) {
-            // System.out.printf("[%d] [%2d] %s\n", size() - 1, nextNode.n, grid.filterStr(nextNode.mask));
-            q.offer(nextNode);
-          }
-        });
-      }
-    }
-
-    public SudokuMask largestNonOverlapping(SudokuMask mask) {
-      for (int i = length - 1; i > 0; i--) {
-        Set<SudokuMask> set = list.get(i);
-        if (!set.isEmpty()) {
-          for (SudokuMask item : set) {
-            if (!mask.intersects(item)) {
-              return new SudokuMask(item);
-            }
-          }
-        }
-      }
-      return null;
-    }
-
-    public int minToSatisfy(SudokuMask mask) {
-      // int bc = mask.bitCount();
-      for (int i = length - 1; i > 0; i--) {
-        Set<SudokuMask> set = list.get(i);
-        if (!set.isEmpty()) {
-          for (SudokuMask item : set) {
-            if (!mask.intersects(item)) {
-              return i;
-            }
-          }
-        }
-      }
-      return 0;
+  /** Completes one dj input, echoing its lines to stdout when they go to a file.*/
+  private static void printDjLines(BatchJob job, List<String> lines, boolean echo) {
+    if (echo) {
+      for (String line : lines) System.out.println(line);
     }
+    job.complete(lines.toArray(new String[lines.size()]));
   }
 
-  static class SetArray<T> {
-    List<Set<T>> list;
+  /** Sets of masks, by the number of disjoint items in them.*/
+  static class SetArray {
+    List<MaskSet> list;
     int length;
     long size;
 
@@ -1123,7 +1621,7 @@ Commands:
       this.size = 0;
       this.list = new ArrayList<>();
       for (int i = 0; i < length; i++) {
-        list.add(new HashSet<>());
+        list.add(new MaskSet());
       }
     }
 
@@ -1131,12 +1629,12 @@ Commands:
       return size;
     }
 
-    boolean contains(T data, int index) {
+    boolean contains(SudokuMask data, int index) {
       validateIndex(index);
       return list.get(index).contains(data);
     }
 
-    boolean add(T data, int index) {
+    boolean add(SudokuMask data, int index) {
       validateIndex(index);
       if (list.get(index).add(data)) {
         size++;
@@ -1166,6 +1664,21 @@ Commands:
       this.n = n;
       this.mask = mask;
     }
+    /** Formats as "[index] [n] filtered grid", as dj prints it.*/
+    String toString(long index, Sudoku grid) {
+      return String.format("[%d] [%2d] %s", index, n, grid.filterStr(mask));
+    }
+    /** Parses a line written by {@link #toString(long, Sudoku)}.*/
+    static DjNode parse(String line) {
+      int nStart = line.indexOf("] [") + 3;
+      int nEnd = line.indexOf(']', nStart);
+      String cells = line.substring(nEnd + 2);
+      SudokuMask mask = new SudokuMask();
+      for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+        if (cells.charAt(ci) != '.') mask.setBit(ci);
+      }
+      return new DjNode(Integer.parseInt(line.substring(nStart, nEnd).trim()), mask);
+    }
     List<DjNode> nexts(List<SudokuMask> maskPool) {
       List<DjNode> nexts = new ArrayList<>();
       for (SudokuMask maybeNext : maskPool) {
@@ -0,0 +1,497 @@
+package com.metal_pony.bucket.sudoku.drivers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.metal_pony.bucket.sudoku.FingerprintEngine;
+import com.metal_pony.bucket.sudoku.GridCanonicalizer;
+import com.metal_pony.bucket.sudoku.MinimalityChecker;
+import com.metal_pony.bucket.sudoku.Sudoku;
+import com.metal_pony.bucket.sudoku.util.SudokuMask;
+
+/**
+ * Streams lines through an operation on several threads, and writes the results through one writer.
+ *
+ * The calling thread reads and hands lines to workers through a bounded queue. At most `capacity`
+ * lines are in flight at once (queued, being processed, or waiting to be written), so reading blocks
+ * whenever the workers or the writer fall behind, and memory stays flat however long the input is.
+ * A single writer thread owns the output: in ordered mode it holds early results back until the
+ * lines before them are written; otherwise it writes results as they finish.
+ *
+ * If the operation throws for a line, "input,ERROR" is written in its place and the error is counted.
+ * If it returns null, the line is dropped, which makes filters of operations.
+ */
+public class Pipeline {
+  public static final int DEFAULT_CAPACITY = 1024;
+  public static final long DEFAULT_REPORT_INTERVAL_MS = 10_000L;
+  public static final List<String> OPERATIONS = List.of(
+    "solve", "flag", "count", "fingerprint", "canonicalize", "rate", "redundant", "minimal"
+  );
+  /** Number of grids the minimality operations keep checkers for.*/
+  static final int MAX_CHECKERS = 64;
+
+  /**
+   * Gets an operation by name. Each takes a line whose first comma-separated field is a sudoku
+   * string, and returns "sudoku,result":
+   * <ul>
+   * <li>solve -> the first solution found, or empty if there is none</li>
+   * <li>flag -> 0, 1 or 2 for no, one or multiple solutions</li>
+   * <li>count -> the number of solutions</li>
+   * <li>fingerprint -> the given fingerprints of the grid, or of the puzzle's solution</li>
+   * <li>canonicalize -> the canonical form, see {@link GridCanonicalizer}</li>
+   * <li>rate -> the clue count, and the number of cells left empty after naked and hidden singles
+   *    (0 when singles alone solve it)</li>
+   * <li>redundant -> the number of clues that could each be removed with the puzzle keeping a single
+   *    solution, or empty if it doesn't have one</li>
+   * </ul>
+   * The minimal operation is a filter instead: it keeps the line as it is if the puzzle has a single solution
+   * and needs every clue for it, and drops the line otherwise.
+   * @param name Operation name; one of {@link #OPERATIONS}.
+   * @param printNames Fingerprints to compute, for the fingerprint operation.
+   * @throws IllegalArgumentException If the name is not recognized.
+   */
+  public static Function<String,String> operation(String name, List<String> printNames) {
+    if (name.equals("minimal")) {
+      Function<Sudoku,MinimalityChecker> checkers = minimalityCheckers();
+      return line -> {
+        int comma = line.indexOf(',');
+        Sudoku puzzle = new Sudoku((comma < 0) ? line : line.substring(0, comma));
+        MinimalityChecker checker = checkers.apply(puzzle);
+        return (checker != null && checker.isMinimal(puzzle)) ? line : null;
+      };
+    }
+
+    Function<Sudoku,String> op;
+    switch (name) {
+      case "solve":
+        op = board -> {
+          Sudoku solution = board.solution();
+          return (solution == null) ? "" : solution.toString();
+        };
+        break;
+      case "flag":
+        op = board -> Integer.toString(board.solutionsFlag());
+        break;
+      case "count":
+        op = board -> Long.toString(board.countSolutions());
+        break;
+      case "fingerprint":
+        op = board -> {
+          Sudoku grid = board.isSolved() ? board : board.solution();
+          if (grid == null) throw new IllegalArgumentException("no solution");
+          return String.join(",", FingerprintEngine.fingerprints(grid, printNames).values());
+        };
+        break;
+      case "canonicalize":
+        op = GridCanonicalizer::canonicalString;
+        break;
+      case "rate":
+        op = board -> {
+          int clues = board.numClues();
+          board.reduce();
+          return String.format("%d,%d", clues, board.numEmptyCells());
+        };
+        break;
+      case "redundant":
+        Function<Sudoku,MinimalityChecker> checkers = minimalityCheckers();
+        op = board -> {
+          MinimalityChecker checker = checkers.apply(board);
+          SudokuMask redundant = (checker != null) ? checker.redundantClues(board) : null;
+          return (redundant == null) ? "" : Integer.toString(redundant.bitCount());
+        };
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown operation: " + name);
+    }
+
+    return line -> {
+      int comma = line.indexOf(',');
+      String sudokuStr = (comma < 0) ? line : line.substring(0, comma);
+      return sudokuStr + "," + op.apply(new Sudoku(sudokuStr));
+    };
+  }
+
+  /**
+   * Gets a function giving a minimality checker for a puzzle's solution; or null if the puzzle has none.
+   * Checkers for the most recent grids are kept, so puzzles of the same grid share one checker and the
+   * unavoidable sets it has found.
+   */
+  private static Function<Sudoku,MinimalityChecker> minimalityCheckers() {
+    Map<String,MinimalityChecker> checkers = Collections.synchronizedMap(
+      new LinkedHashMap<String,MinimalityChecker>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String,MinimalityChecker> eldest) {
+          return size() > MAX_CHECKERS;
+        }
+      }
+    );
+    return puzzle -> {
+      Sudoku solution = puzzle.solution();
+      if (solution == null) return null;
+      return checkers.computeIfAbsent(solution.toString(), key -> new MinimalityChecker(solution));
+    };
+  }
+
+  /**
+   * Counts from a finished run.
+   */
+  public static class Stats {
+    public final long read;
+    public final long written;
+    public final long errors;
+    public final long elapsedMs;
+
+    Stats(long read, long written, long errors, long elapsedMs) {
+      this.read = read;
+      this.written = written;
+      this.errors = errors;
+      this.elapsedMs = elapsedMs;
+    }
+
+    public double perSecond() {
+      return (elapsedMs > 0L) ? (written * 1000.0 / elapsedMs) : 0.0;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+        "%d read, %d written, %d errors in %d ms (%.1f/s)",
+        read, written, errors, elapsedMs, perSecond()
+      );
+    }
+  }
+
+  private static class Item {
+    static final Item END = new Item(-1L, null);
+
+    final long seq;
+    final String input;
+    String output;
+    Throwable error;
+
+    Item(long seq, String input) {
+      this.seq = seq;
+      this.input = input;
+    }
+  }
+
+  private final Function<String,String> operation;
+  private int numThreads;
+  private int capacity;
+  private boolean ordered;
+  private long reportIntervalMs;
+  private PrintStream reportStream;
+
+  private final AtomicLong read = new AtomicLong();
+  private final AtomicLong written = new AtomicLong();
+  private final AtomicLong errors = new AtomicLong();
+
+  /**
+   * Creates a single-threaded, ordered pipeline for the given operation, without reporting.
+   * @param operation Takes an input line and returns the line to write.
+   */
+  public Pipeline(Function<String,String> operation) {
+    this.operation = operation;
+    this.numThreads = 1;
+    this.capacity = DEFAULT_CAPACITY;
+    this.ordered = true;
+    this.reportIntervalMs = 0L;
+    this.reportStream = null;
+  }
+
+  public Pipeline threads(int numThreads) {
+    if (numThreads < 1) throw new IllegalArgumentException("numThreads must be positive");
+    this.numThreads = numThreads;
+    return this;
+  }
+
+  /**
+   * Sets the most lines in flight at once.
+   */
+  public Pipeline capacity(int capacity) {
+    if (capacity < 1) throw new IllegalArgumentException("capacity must be positive");
+    this.capacity = capacity;
+    return this;
+  }
+
+  /**
+   * Sets whether results are written in input order.
+   */
+  public Pipeline ordered(boolean ordered) {
+    this.ordered = ordered;
+    return this;
+  }
+
+  /**
+   * Prints progress and throughput to the given stream at the given interval while running.
+   */
+  public Pipeline reportTo(PrintStream stream, long intervalMs) {
+    this.reportStream = stream;
+    this.reportIntervalMs = intervalMs;
+    return this;
+  }
+
+  /**
+   * Iterates over the non-blank lines of the reader that do not start with '#', trimmed.
+   * Read errors are thrown as UncheckedIOException.
+   */
+  public static Iterator<String> lines(BufferedReader in) {
+    return new Iterator<>() {
+      String next = advance();
+
+      private String advance() {
+        try {
+          String line;
+          while ((line = in.readLine()) != null) {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#")) return line;
+          }
+          return null;
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public String next() {
+        if (next == null) throw new NoSuchElementException();
+        String line = next;
+        next = advance();
+        return line;
+      }
+    };
+  }
+
+  /**
+   * Iterates over the lines of each file in turn, as {@link #lines(BufferedReader)} does.
+   * Each file is opened when reached and closed when finished.
+   */
+  public static Iterator<String> lines(List<Path> files) {
+    return new Iterator<>() {
+      int fileIndex = 0;
+      BufferedReader reader = null;
+      Iterator<String> current = Collections.emptyIterator();
+
+      @Override
+      public boolean hasNext() {
+        try {
+          while (!current.hasNext()) {
+            if (reader != null) {
+              reader.close();
+              reader = null;
+            }
+            if (fileIndex >= files.size()) return false;
+            reader = Files.newBufferedReader(files.get(fileIndex++));
+            current = lines(reader);
+          }
+          return true;
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+
+      @Override
+      public String next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return current.next();
+      }
+    };
+  }
+
+  /**
+   * Runs the lines of the reader, as given by {@link #lines(BufferedReader)}.
+   * @see #run(Iterator, Writer)
+   */
+  public Stats run(BufferedReader in, Writer out) throws IOException {
+    return run(lines(in), out);
+  }
+
+  /**
+   * Runs every input through the operation and writes each result as a line.
+   * The writer is flushed but not closed.
+   * @return Counts for this run.
+   * @throws IOException If reading or writing fails. Inputs already read are still processed.
+   */
+  public Stats run(Iterator<String> inputs, Writer out) throws IOException {
+    try {
+      return runUnchecked(inputs, out);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private Stats runUnchecked(Iterator<String> inputs, Writer out) throws IOException {
+    read.set(0L);
+    written.set(0L);
+    errors.set(0L);
+    long start = System.currentTimeMillis();
+
+    BlockingQueue<Item> work = new ArrayBlockingQueue<>(capacity);
+    BlockingQueue<Item> done = new LinkedBlockingQueue<>();
+    Semaphore inFlight = new Semaphore(capacity);
+
+    Thread[] workers = new Thread[numThreads];
+    for (int w = 0; w < numThreads; w++) {
+      workers[w] = new Thread(() -> work(work, done), "pipeline-worker-" + w);
+      workers[w].start();
+    }
+
+    IOException[] writeError = new IOException[1];
+    Thread writer = new Thread(() -> {
+      writeError[0] = write(done, out, inFlight);
+    }, "pipeline-writer");
+    writer.start();
+
+    ScheduledExecutorService reporter = null;
+    if (reportStream != null && reportIntervalMs > 0L) {
+      reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "pipeline-reporter");
+        thread.setDaemon(true);
+        return thread;
+      });
+      reporter.scheduleAtFixedRate(() -> {
+        long elapsed = System.currentTimeMillis() - start;
+        reportStream.printf(
+          "[pipeline] %d read, %d written, %d errors (%.1f/s)\n",
+          read.get(), written.get(), errors.get(), written.get() * 1000.0 / Math.max(elapsed, 1L)
+        );
+      }, reportIntervalMs, reportIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    UncheckedIOException readError = null;
+    try {
+      try {
+        long seq = 0L;
+        while (inputs.hasNext()) {
+          String input = inputs.next();
+          inFlight.acquire();
+          work.put(new Item(seq++, input));
+          read.incrementAndGet();
+        }
+      } catch (UncheckedIOException e) {
+        // Finish what was read before failing
+        readError = e;
+      }
+      for (int w = 0; w < numThreads; w++) {
+        work.put(Item.END);
+      }
+      for (Thread worker : workers) {
+        worker.join();
+      }
+      done.put(Item.END);
+      writer.join();
+    } catch (InterruptedException e) {
+      e.printStackTrace();
+      for (Thread worker : workers) worker.interrupt();
+      writer.interrupt();
+      Thread.currentThread().interrupt();
+    } finally {
+      if (reporter != null) reporter.shutdownNow();
+    }
+
+    if (readError != null) throw readError;
+    if (writeError[0] != null) throw writeError[0];
+    return new Stats(read.get(), written.get(), errors.get(), System.currentTimeMillis() - start);
+  }
+
+  private void work(BlockingQueue<Item> work, BlockingQueue<Item> done) {
+    try {
+      while (true) {
+        Item item = work.take();
+        if (item == Item.END) return;
+        try {
+          item.output = operation.apply(item.input);
+        } catch (Throwable e) {
+          // Errors too: an item that never reaches the writer would stall it in ordered mode
+          item.error = e;
+        }
+        done.put(item);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Writes results until the end marker. Permits are released as items leave the pipeline,
+   * even after a write fails, so the reader never blocks on a dead writer.
+   * @return The first write error; or null if there was none.
+   */
+  private IOException write(BlockingQueue<Item> done, Writer out, Semaphore inFlight) {
+    IOException error = null;
+    Map<Long,Item> waiting = new HashMap<>();
+    long nextSeq = 0L;
+    try {
+      while (true) {
+        Item item = done.take();
+        if (item == Item.END) break;
+
+        if (!ordered) {
+          error = writeItem(item, out, error);
+          inFlight.release();
+          continue;
+        }
+
+        waiting.put(item.seq, item);
+        while ((item = waiting.remove(nextSeq)) != null) {
+          error = writeItem(item, out, error);
+          inFlight.release();
+          nextSeq++;
+        }
+      }
+      if (error == null) out.flush();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (IOException e) {
+      error = e;
+    }
+    return error;
+  }
+
+  private IOException writeItem(Item item, Writer out, IOException error) {
+    if (item.error != null) {
+      errors.incrementAndGet();
+      if (reportStream != null) {
+        reportStream.printf("[pipeline] line %d: %s\n", item.seq + 1, item.error);
+      }
+    }
+    if (error != null) return error;
+    // Dropped by a filter
+    if (item.error == null && item.output == null) return null;
+
+    try {
+      out.write((item.error != null) ? (item.input + ",ERROR") : item.output);
+      out.write('\n');
+      written.incrementAndGet();
+    } catch (IOException e) {
+      return e;
+    }
+    return null;
+  }
+}
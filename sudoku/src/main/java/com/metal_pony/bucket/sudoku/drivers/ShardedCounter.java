@@ -0,0 +1,387 @@
+package com.metal_pony.bucket.sudoku.drivers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.math.BigInteger;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.metal_pony.bucket.sudoku.Sudoku;
+
+/**
+ * Counts solutions across several processes, or machines.
+ *
+ * The coordinator splits the search tree breadth-first into work units, and serves them over TCP to any
+ * number of workers. Each worker counts a unit exactly and reports back, then asks for another. The
+ * protocol is one line per message:
+ * <pre>
+ * worker: HELLO name
+ * coordinator: UNIT id;grid;path   or   DONE
+ * worker: PING                      (every HEARTBEAT_MS while counting)
+ * worker: RESULT id count
+ * </pre>
+ * A worker that disconnects, or goes quiet for longer than the worker timeout, is dropped and its unit
+ * is handed out again. Results are kept by unit id, so a unit counted twice is only added once.
+ *
+ * Locally, the coordinator can start worker JVMs itself, and replaces any that exit before the count
+ * is done. Remote workers are started with the countWorker command, pointed at the coordinator.
+ */
+class ShardedCounter {
+  static final long HEARTBEAT_MS = 2_000L;
+  static final long DEFAULT_WORKER_TIMEOUT_MS = HEARTBEAT_MS * 5;
+  static final int DEFAULT_UNITS_PER_WORKER = 64;
+  /** How long a worker keeps trying to reach the coordinator.*/
+  static final long CONNECT_TIMEOUT_MS = 30_000L;
+
+  /**
+   * A subtree of the search: a partial grid, and the branches taken from the root to reach it.
+   * Serialized as "id;grid;ci=d,ci=d".
+   */
+  static class Unit {
+    final int id;
+    final String grid;
+    final String path;
+
+    Unit(int id, String grid, String path) {
+      this.id = id;
+      this.grid = grid;
+      this.path = path;
+    }
+
+    String serialize() {
+      return id + ";" + grid + ";" + path;
+    }
+
+    /**
+     * @throws IllegalArgumentException If the line is not a serialized unit.
+     */
+    static Unit parse(String line) {
+      String[] parts = line.split(";", -1);
+      if (parts.length != 3 || !Sudoku.isValidStr(parts[1])) {
+        throw new IllegalArgumentException("Invalid unit: " + line);
+      }
+      try {
+        return new Unit(Integer.parseInt(parts[0]), parts[1], parts[2]);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid unit: " + line, e);
+      }
+    }
+  }
+
+  final Sudoku puzzle;
+  final List<Unit> units;
+  /** Solutions found while splitting, which are in no unit.*/
+  final long splitSolutions;
+  long workerTimeoutMs;
+
+  private final LinkedBlockingDeque<Unit> pending;
+  private final Map<Integer,Long> results;
+  private ServerSocket server;
+  private volatile boolean finished;
+  private final List<Process> localWorkers;
+  private final AtomicInteger restartsLeft;
+
+  /**
+   * Splits the puzzle into about the given number of units.
+   */
+  ShardedCounter(Sudoku puzzle, int targetUnits) {
+    this.puzzle = new Sudoku(puzzle);
+    this.units = new ArrayList<>();
+    this.splitSolutions = split(puzzle, targetUnits, units);
+    this.workerTimeoutMs = DEFAULT_WORKER_TIMEOUT_MS;
+    this.pending = new LinkedBlockingDeque<>(units);
+    this.results = new HashMap<>();
+    this.finished = units.isEmpty();
+    this.localWorkers = Collections.synchronizedList(new ArrayList<>());
+    this.restartsLeft = new AtomicInteger();
+  }
+
+  /**
+   * Expands the tree breadth-first, reducing each node and branching on its cell with the fewest
+   * candidates, until there are at least the target number of open nodes.
+   * @param units Receives the open nodes, numbered in order.
+   * @return Solutions reached while expanding.
+   */
+  static long split(Sudoku puzzle, int targetUnits, List<Unit> units) {
+    long solutions = 0L;
+    Queue<Sudoku> boards = new LinkedList<>();
+    Queue<String> paths = new LinkedList<>();
+    boards.offer(new Sudoku(puzzle.toString()));
+    paths.offer("");
+
+    while (!boards.isEmpty() && boards.size() < targetUnits) {
+      Sudoku board = boards.poll();
+      String path = paths.poll();
+      board.reduce();
+      if (!board.isValid()) continue;
+      if (board.isSolved()) {
+        solutions++;
+        continue;
+      }
+
+      int ci = board.pickEmptyCell(0, Sudoku.SPACES);
+      if (ci < 0) continue;
+      for (int d : Sudoku.CANDIDATES_ARR[board.getCandidate(ci)]) {
+        Sudoku child = new Sudoku(board);
+        child.setDigit(ci, d);
+        boards.offer(child);
+        paths.offer(path.isEmpty() ? (ci + "=" + d) : (path + "," + ci + "=" + d));
+      }
+    }
+
+    int id = 0;
+    while (!boards.isEmpty()) {
+      units.add(new Unit(id++, boards.poll().toString(), paths.poll()));
+    }
+    return solutions;
+  }
+
+  /**
+   * Starts accepting workers on the given port, or any free port if 0.
+   * @return The port.
+   */
+  int listen(int port) throws IOException {
+    server = new ServerSocket(port);
+    Thread acceptor = new Thread(() -> {
+      while (!server.isClosed()) {
+        try {
+          Socket socket = server.accept();
+          Thread handler = new Thread(() -> serve(socket), "sharded-counter-conn");
+          handler.setDaemon(true);
+          handler.start();
+        } catch (IOException e) {
+          // Closed when finished
+        }
+      }
+    }, "sharded-counter-accept");
+    acceptor.setDaemon(true);
+    acceptor.start();
+    return server.getLocalPort();
+  }
+
+  /**
+   * Starts worker JVMs on this machine, with the same java and classpath as this one. A worker that
+   * exits before the count is done is replaced, up to twice the number of workers in total.
+   */
+  void startLocalWorkers(int numWorkers, int threadsPerWorker) {
+    restartsLeft.set(numWorkers * 2);
+    for (int w = 0; w < numWorkers; w++) {
+      startLocalWorker(threadsPerWorker);
+    }
+  }
+
+  private void startLocalWorker(int threads) {
+    String java = ProcessHandle.current().info().command().orElse("java");
+    ProcessBuilder builder = new ProcessBuilder(
+      java, "-cp", System.getProperty("java.class.path"), Main.class.getName(), "countWorker",
+      "--host", "127.0.0.1", "--port", Integer.toString(server.getLocalPort()), "--threads", Integer.toString(threads)
+    );
+    builder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+    builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+    try {
+      Process process = builder.start();
+      localWorkers.add(process);
+      process.onExit().thenRun(() -> {
+        localWorkers.remove(process);
+        if (!finished && restartsLeft.getAndDecrement() > 0) {
+          System.err.printf("[coordinator] Local worker exited (%d); starting another.\n", process.exitValue());
+          startLocalWorker(threads);
+        }
+      });
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /** Serves one worker until it disconnects, times out, or there is no work left.*/
+  private void serve(Socket socket) {
+    Unit unit = null;
+    String name = socket.getRemoteSocketAddress().toString();
+    try (
+      socket;
+      BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+      PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+    ) {
+      socket.setSoTimeout((int) workerTimeoutMs);
+      String hello = in.readLine();
+      if (hello == null || !hello.startsWith("HELLO")) return;
+      if (hello.length() > 6) name = hello.substring(6);
+
+      while (true) {
+        unit = nextUnit();
+        if (unit == null) {
+          out.println("DONE");
+          return;
+        }
+        out.println("UNIT " + unit.serialize());
+
+        String line;
+        do {
+          line = in.readLine();
+          if (line == null) throw new IOException("disconnected");
+        } while (line.equals("PING"));
+        String[] parts = line.split(" ");
+        if (parts.length != 3 || !parts[0].equals("RESULT") || Integer.parseInt(parts[1]) != unit.id) {
+          throw new IOException("unexpected message: " + line);
+        }
+        complete(unit, Long.parseLong(parts[2]));
+        unit = null;
+      }
+    } catch (SocketTimeoutException e) {
+      System.err.printf("[coordinator] Worker %s timed out.\n", name);
+    } catch (IOException | RuntimeException e) {
+      if (!finished) System.err.printf("[coordinator] Lost worker %s: %s\n", name, e.getMessage());
+    } finally {
+      if (unit != null && !finished) {
+        synchronized (results) {
+          if (!results.containsKey(unit.id)) {
+            System.err.printf("[coordinator] Reissuing unit %d.\n", unit.id);
+            pending.offerFirst(unit);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Takes a pending unit, waiting while all remaining units are out with workers.
+   * @return A unit; or null once every unit has a result.
+   */
+  private Unit nextUnit() {
+    try {
+      while (!finished) {
+        Unit unit = pending.poll(100L, TimeUnit.MILLISECONDS);
+        if (unit == null) continue;
+        synchronized (results) {
+          if (!results.containsKey(unit.id)) return unit;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return null;
+  }
+
+  private void complete(Unit unit, long count) {
+    synchronized (results) {
+      if (results.putIfAbsent(unit.id, count) == null && results.size() == units.size()) {
+        finished = true;
+        results.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Blocks until every unit has a result, then stops accepting workers.
+   * @return Total number of solutions.
+   */
+  BigInteger await() throws InterruptedException {
+    synchronized (results) {
+      while (!finished) results.wait();
+    }
+    finished = true;
+    try {
+      if (server != null) server.close();
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+
+    // Workers exit on DONE; don't leave any behind.
+    synchronized (localWorkers) {
+      for (Process process : localWorkers) {
+        if (!process.waitFor(HEARTBEAT_MS, TimeUnit.MILLISECONDS)) process.destroy();
+      }
+    }
+    return total();
+  }
+
+  /** Sum of the results so far, plus solutions found while splitting.*/
+  BigInteger total() {
+    BigInteger total = BigInteger.valueOf(splitSolutions);
+    synchronized (results) {
+      for (long count : results.values()) total = total.add(BigInteger.valueOf(count));
+    }
+    return total;
+  }
+
+  int numCompleted() {
+    synchronized (results) {
+      return results.size();
+    }
+  }
+
+  /**
+   * Connects to a coordinator and counts units until told there are none left.
+   * Keeps retrying the connection for a while, so workers can start before the coordinator.
+   * @param threads Threads to count each unit with.
+   * @return Number of units counted.
+   * @throws IOException If the coordinator cannot be reached, or the connection fails.
+   */
+  static int work(String host, int port, int threads) throws IOException, InterruptedException {
+    Socket socket = connect(host, port);
+    int numUnits = 0;
+    try (
+      socket;
+      BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+      PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+    ) {
+      out.println("HELLO " + ProcessHandle.current().pid() + "@" + socket.getLocalAddress().getHostName());
+      String line;
+      while ((line = in.readLine()) != null && line.startsWith("UNIT ")) {
+        Unit unit = Unit.parse(line.substring(5));
+
+        Thread heartbeat = new Thread(() -> {
+          try {
+            while (true) {
+              Thread.sleep(HEARTBEAT_MS);
+              synchronized (out) {
+                out.println("PING");
+              }
+            }
+          } catch (InterruptedException e) {
+            // Unit finished
+          }
+        }, "sharded-counter-heartbeat");
+        heartbeat.setDaemon(true);
+        heartbeat.start();
+
+        Sudoku board = new Sudoku(unit.grid);
+        long count = (threads > 1) ? board.countSolutionsAsync(threads) : board.countSolutions();
+        heartbeat.interrupt();
+        heartbeat.join();
+
+        synchronized (out) {
+          out.println("RESULT " + unit.id + " " + count);
+        }
+        numUnits++;
+      }
+    }
+    return numUnits;
+  }
+
+  private static Socket connect(String host, int port) throws IOException, InterruptedException {
+    long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MS;
+    while (true) {
+      try {
+        return new Socket(host, port);
+      } catch (IOException e) {
+        if (System.currentTimeMillis() >= deadline) throw e;
+        Thread.sleep(500L);
+      }
+    }
+  }
+}
@@ -1,365 +1,521 @@
 package com.metal_pony.bucket.sudoku.drivers;
 
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.Stack;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.metal_pony.bucket.sudoku.DisjointItemsIndex;
 import com.metal_pony.bucket.sudoku.Sudoku;
 import com.metal_pony.bucket.sudoku.SudokuSieve;
-import com.metal_pony.bucket.sudoku.drivers.Main.DisjointSetsMap;
+import com.metal_pony.bucket.sudoku.UnavoidableSetValidator;
+import com.metal_pony.bucket.sudoku.util.MaskSet;
 import com.metal_pony.bucket.sudoku.util.SudokuMask;
-import com.metal_pony.bucket.util.Shuffler;
 
+/**
+ * Branch-and-bound search for puzzles with few clues on a given grid.
+ *
+ * Every puzzle must hit each unavoidable set in the sieve. At each node, the smallest item not yet
+ * hit is picked, and the search branches on each of its cells. Cells tried in earlier branches are
+ * excluded ("seen") from later ones, so each set of cells is visited once. A node is pruned when its
+ * clues plus a lower bound on the clues still needed (from disjoint unhit items) exceed the best count.
+ *
+ * The tree is split into work units (the chosen cells so far, plus the seen cells) that run on a
+ * work-stealing pool. Workers share the best clue count found so far, and any unavoidable sets learned
+ * from masks that satisfy the sieve but are not unique puzzles. Pending units can be checkpointed to
+ * disk, so a stopped search resumes where it left off.
+ */
 class SieveSearcher {
-  class Choice {
-    int[] indices;
-    int current = -1; // Initialized to -1 so current() also returns -1
-    List<Integer> seenContributions;
-    List<SudokuMask> overlapping;
-
-    // TODO Keep track of another overlapping; for disjoint sets
-    DisjointSetsMap disjointOverlapping;
-
-    Choice() {
-      seenContributions = new ArrayList<>(8);
-      overlapping = new ArrayList<>(64);
-      disjointOverlapping = new DisjointSetsMap(grid);
+  /** Units at a depth below this are split into one unit per branch; deeper units are searched whole.*/
+  static final int DEFAULT_SPLIT_DEPTH = 3;
+  static final long DEFAULT_CHECKPOINT_INTERVAL_MS = 60_000L;
+
+  /**
+   * A subtree of the search: the cells chosen so far, in order, and the cells excluded from being chosen.
+   * Serialized as "c,c,c;seenHex".
+   */
+  static class WorkUnit {
+    final int[] prefix;
+    final SudokuMask seenMask;
+
+    WorkUnit(int[] prefix, SudokuMask seenMask) {
+      this.prefix = prefix;
+      this.seenMask = seenMask;
     }
 
-    void setChoices(int[] choices) {
-      indices = choices;
-      current = choices.length - 1;
-      while (
-        (current >= 0 && seenMask.testBit(choices[current])) //&&
-        // TODO This logic is wrong
-        //mask.bitCount() + disjointSetsMap.minToSatisfy(mask) >= maxClues
-      ) {
-        current--;
+    String serialize() {
+      StringBuilder strb = new StringBuilder();
+      for (int i = 0; i < prefix.length; i++) {
+        if (i > 0) strb.append(',');
+        strb.append(prefix[i]);
       }
+      strb.append(';');
+      strb.append(seenMask.toHexString());
+      return strb.toString();
+    }
 
-      if (current >= 0) {
-        mask.setBit(indices[current]);
-        overlapping = sieve.removeOverlapping(indices[current], overlapping);
-        // disjointSetsMap.splitOutOverlapping(mask, disjointOverlapping);
+    /**
+     * @throws IllegalArgumentException If the line is not a serialized work unit.
+     */
+    static WorkUnit parse(String line) {
+      String[] parts = line.split(";", -1);
+      if (parts.length != 2) {
+        throw new IllegalArgumentException("Invalid work unit: " + line);
+      }
+      try {
+        int[] prefix = parts[0].isEmpty()
+          ? new int[0]
+          : Arrays.stream(parts[0].split(",")).mapToInt(Integer::parseInt).toArray();
+        return new WorkUnit(prefix, SudokuMask.parseHexString(parts[1]));
+      } catch (NumberFormatException | SudokuMask.RangeException e) {
+        throw new IllegalArgumentException("Invalid work unit: " + line, e);
       }
     }
+  }
+
+  final Sudoku grid;
+  final UnavoidableSetValidator validator;
+  /** Clues every puzzle in the search starts with.*/
+  final SudokuMask baseMask;
+  final int splitDepth;
+
+  /** Items with no cells chosen. Replaced whenever an item is learned; walkers copy its state.*/
+  final AtomicReference<DisjointItemsIndex> itemsRef;
+  /** Sieve and learned items. Only changed while holding this searcher's lock.*/
+  final MaskSet knownItems;
+  final List<SudokuMask> learnedItems;
+  final AtomicInteger maxClues;
+  /** Puzzles found. Units that were running at a checkpoint are searched again on resume, so this is a set.*/
+  final Set<String> puzzles;
+  /** Units created but not finished. Together they cover all of the search left to do.*/
+  final Set<WorkUnit> pending;
+  /**
+   * Walkers hold the read lock while replacing a unit with its children; checkpoints hold the write
+   * lock while copying pending units, so they never see a split half done.
+   */
+  final ReadWriteLock splitLock;
+  final LongAdder checked;
+  volatile boolean stopped;
+
+  /** Units to start from, if resuming.*/
+  List<WorkUnit> resumeUnits;
+  String checkpointPath;
+  long checkpointIntervalMs;
+
+  SieveSearcher(SudokuSieve sieve) {
+    this(sieve, null);
+  }
+
+  SieveSearcher(SudokuSieve sieve, SudokuMask baseMask) {
+    this(sieve, baseMask, DEFAULT_SPLIT_DEPTH);
+  }
+
+  SieveSearcher(SudokuSieve sieve, SudokuMask baseMask, int splitDepth) {
+    this.grid = sieve.config();
+    this.validator = new UnavoidableSetValidator(grid);
+    this.baseMask = (baseMask == null) ? new SudokuMask() : new SudokuMask(baseMask);
+    this.splitDepth = splitDepth;
+
+    List<SudokuMask> items = new ArrayList<>(sieve.items());
+    this.itemsRef = new AtomicReference<>(new DisjointItemsIndex(items));
+    this.knownItems = new MaskSet(items.size());
+    for (SudokuMask item : items) knownItems.add(item);
+    this.learnedItems = Collections.synchronizedList(new ArrayList<>());
+    this.maxClues = new AtomicInteger(Sudoku.SPACES);
+    this.puzzles = Collections.synchronizedSet(new LinkedHashSet<>());
+    this.pending = ConcurrentHashMap.newKeySet();
+    this.splitLock = new ReentrantReadWriteLock();
+    this.checked = new LongAdder();
+    this.stopped = false;
+    this.resumeUnits = null;
+    this.checkpointPath = null;
+    this.checkpointIntervalMs = DEFAULT_CHECKPOINT_INTERVAL_MS;
+
+    System.out.printf("SieveSearcher initialized with %d sieve items.\n", items.size());
+  }
+
+  /**
+   * Periodically writes the search state to the given file while searching.
+   */
+  void checkpointTo(String path, long intervalMs) {
+    this.checkpointPath = path;
+    this.checkpointIntervalMs = intervalMs;
+  }
 
-    int current() {
-      return (current >= 0) ? indices[current] : -1;
+  /**
+   * Loads the search state from a checkpoint file, so the next search continues from it.
+   * @return True if a checkpoint was loaded; false if the file does not exist.
+   * @throws IllegalArgumentException If the checkpoint is for a different grid or base mask, or is malformed.
+   */
+  boolean resumeFrom(String path) {
+    Path file = Paths.get(path);
+    if (!Files.isRegularFile(file)) return false;
+
+    List<String> lines;
+    try {
+      lines = Files.readAllLines(file);
+    } catch (IOException e) {
+      e.printStackTrace();
+      return false;
     }
 
-    void putItemsBack() {
-      for (int i = overlapping.size() - 1; i >= 0; i--) {
-        sieve.rawAdd(overlapping.remove(i));
+    List<WorkUnit> units = new ArrayList<>();
+    for (String line : lines) {
+      int space = line.indexOf(' ');
+      if (space < 0) continue;
+      String key = line.substring(0, space);
+      String value = line.substring(space + 1);
+      switch (key) {
+        case "grid":
+          if (!grid.toString().equals(value)) {
+            throw new IllegalArgumentException("Checkpoint is for a different grid: " + value);
+          }
+          break;
+        case "base":
+          if (!baseMask.equals(SudokuMask.parseHexString(value))) {
+            throw new IllegalArgumentException("Checkpoint is for a different base mask: " + value);
+          }
+          break;
+        case "maxClues":
+          maxClues.accumulateAndGet(Integer.parseInt(value), Math::min);
+          break;
+        case "item":
+          learn(SudokuMask.parseHexString(value));
+          break;
+        case "puzzle":
+          puzzles.add(value);
+          break;
+        case "unit":
+          units.add(WorkUnit.parse(value));
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown checkpoint entry: " + line);
       }
+    }
 
-      // disjointOverlapping.dumpTo(disjointSetsMap);
+    resumeUnits = units;
+    System.out.printf(
+      "Resuming from checkpoint with %d pending units, %d learned items, %d puzzles (max clues %d).\n",
+      units.size(), learnedItems.size(), puzzles.size(), maxClues.get()
+    );
+    return true;
+  }
 
-      if (current >= 0) {
-        mask.unsetBit(indices[current]);
+  /**
+   * Reads the grid from a checkpoint file.
+   * @return The grid string; or null if the file could not be read or has no grid.
+   */
+  static String checkpointGrid(String path) {
+    try {
+      for (String line : Files.readAllLines(Paths.get(path))) {
+        if (line.startsWith("grid ")) return line.substring(5);
       }
+    } catch (IOException e) {
+      e.printStackTrace();
     }
+    return null;
+  }
 
-    boolean hasNext() {
-      return current > 0;
+  /**
+   * Writes the search state. The file is written next to the target and moved into place.
+   * Pending units are copied first, so puzzles found by units that finished before the copy
+   * are written too.
+   */
+  synchronized void writeCheckpoint() {
+    if (checkpointPath == null) return;
+
+    List<WorkUnit> units;
+    splitLock.writeLock().lock();
+    try {
+      units = new ArrayList<>(pending);
+    } finally {
+      splitLock.writeLock().unlock();
     }
 
-    int next() {
-      if (current < 0) return -1;
-
-      putItemsBack();
-      seenMask.setBit(indices[current]);
-      seenContributions.add(indices[current]);
-
-      while (
-        (current >= 0 && seenMask.testBit(indices[current])) //&&
-        // TODO This logic is wrong
-        // mask.bitCount() + disjointSetsMap.minToSatisfy(mask) >= maxClues
-      ) {
-        current--;
+    Path target = Paths.get(checkpointPath);
+    Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+    try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(temp))) {
+      out.printf("grid %s\n", grid.toString());
+      out.printf("base %s\n", baseMask.toHexString());
+      out.printf("maxClues %d\n", maxClues.get());
+      synchronized (learnedItems) {
+        for (SudokuMask item : learnedItems) out.printf("item %s\n", item.toHexString());
+      }
+      synchronized (puzzles) {
+        for (String puzzle : puzzles) out.printf("puzzle %s\n", puzzle);
+      }
+      for (WorkUnit unit : units) {
+        out.printf("unit %s\n", unit.serialize());
       }
-      if (current < 0) return -1;
+    } catch (IOException e) {
+      e.printStackTrace();
+      return;
+    }
 
-      mask.setBit(indices[current]);
-      sieve.removeOverlapping(indices[current], overlapping);
-      // disjointSetsMap.splitOutOverlapping(mask, disjointOverlapping);
-      return indices[current];
+    try {
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      e.printStackTrace();
     }
+  }
+
+  /**
+   * Stops the search soon. Units that did not finish stay pending, so a checkpoint written
+   * afterwards resumes them.
+   */
+  void stop() {
+    stopped = true;
+  }
 
-    void releaseDead() {
-      for (int i = seenContributions.size() - 1; i >= 0; i--)
-        seenMask.unsetBit(seenContributions.remove(i));
+  void search(int max) {
+    search(max, 1);
+  }
+
+  /**
+   * Searches for puzzles with at most the given number of clues.
+   * Once a puzzle is found, only puzzles with as few clues or fewer are searched for.
+   * @param max Maximum number of clues.
+   * @param numThreads Number of worker threads.
+   * @return Puzzles found, including any from a resumed checkpoint.
+   */
+  List<String> search(int max, int numThreads) {
+    maxClues.accumulateAndGet(max, Math::min);
+
+    stopped = false;
+    List<WorkUnit> units = resumeUnits;
+    resumeUnits = null;
+    if (units == null) {
+      units = List.of(new WorkUnit(new int[0], new SudokuMask(baseMask)));
+    }
+    List<SearchTask> tasks = new ArrayList<>(units.size());
+    for (WorkUnit unit : units) {
+      pending.add(unit);
+      tasks.add(new SearchTask(unit));
     }
 
-    public StringBuilder addToString(StringBuilder strb) {
-      strb.append('(');
-      for (int i = 0; i <= current; i++) {
-        if (i > 0) strb.append(',');
-        strb.append(indices[i]);
-      }
-      if (current < indices.length - 1) {
-        strb.append('/');
-        for (int i = current+1; i < indices.length; i++) {
-          if (i > current) strb.append(',');
-          strb.append(indices[i]);
+    ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "sieve-search-reporter");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long intervalMs = (checkpointPath == null) ? DEFAULT_CHECKPOINT_INTERVAL_MS : checkpointIntervalMs;
+    reporter.scheduleAtFixedRate(() -> {
+      System.out.printf(
+        "[%s] checked %12d; pending %d; items %d; max clues %d; puzzles %d\n",
+        LocalDateTime.now().toString(), checked.sum(), pending.size(),
+        itemsRef.get().size(), maxClues.get(), puzzles.size()
+      );
+      writeCheckpoint();
+    }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+
+    ForkJoinPool pool = new ForkJoinPool(numThreads);
+    try {
+      pool.invoke(new RecursiveAction() {
+        @Override
+        protected void compute() {
+          invokeAll(tasks);
         }
-      }
-      strb.append(')');
-      return strb;
+      });
+    } finally {
+      pool.shutdown();
+      reporter.shutdownNow();
+    }
+
+    // With no units left, resuming from this checkpoint has nothing to do.
+    writeCheckpoint();
+    synchronized (puzzles) {
+      return new ArrayList<>(puzzles);
     }
   }
 
-  Sudoku grid;
-  SudokuSieve sieve;
-  /** Cache of the original sieve items. DO NOT MODIFY THIS LIST.*/
-  List<SudokuMask> origSieveItems;
-  /** Cache of cell indices associated with each sieve item. DO NOT MODIFY THIS MAP.*/
-  Map<SudokuMask,int[]> itemsIndices;
+  /**
+   * Adds an unavoidable set to the items all workers search with.
+   * @return True if the item was new; otherwise false.
+   */
+  synchronized boolean learn(SudokuMask item) {
+    if (!knownItems.add(item)) return false;
+    learnedItems.add(item);
+    itemsRef.set(itemsRef.get().with(item));
+    return true;
+  }
 
-  // TODO Use disjointSetsMap
-  DisjointSetsMap disjointSetsMap;
+  void foundPuzzle(SudokuMask mask) {
+    int numClues = mask.bitCount();
+    String puzzle = grid.filterStr(mask);
+    maxClues.accumulateAndGet(numClues, Math::min);
+    if (!puzzles.add(puzzle)) return;
+    System.out.printf("⭐️ %d chkd : %d pzls [%d] %s\n", checked.sum(), puzzles.size(), numClues, puzzle);
+  }
 
-  /** The current mask being analyzed during the search.*/
-  SudokuMask mask;
-  SudokuMask seenMask = new SudokuMask();
+  /**
+   * Finds an unavoidable set that the mask does not hit, from the other solutions of the puzzle.
+   * Prefers a minimal one, otherwise takes the smallest seen.
+   * @return The unavoidable set; or null if the puzzle has a single solution.
+   */
+  SudokuMask findUnhitItem(SudokuMask mask) {
+    AtomicReference<SudokuMask> smallest = new AtomicReference<>();
+    AtomicReference<SudokuMask> minimal = new AtomicReference<>();
+    grid.filter(mask).searchForSolutions3(solution -> {
+      SudokuMask diff = grid.diff2(solution);
+      if (diff.bitCount() == 0) return true;
+      if (smallest.get() == null || diff.bitCount() < smallest.get().bitCount()) {
+        smallest.set(diff);
+      }
+      if (validator.isMinimalUnavoidable(diff)) {
+        minimal.set(diff);
+        return false;
+      }
+      return true;
+    });
+    return (minimal.get() != null) ? minimal.get() : smallest.get();
+  }
 
-  Stack<Choice> choiceStack;
+  class SearchTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
 
-  int maxClues;
+    // Tasks are never serialized; only forked within this searcher's pool
+    final transient WorkUnit unit;
 
-  SieveSearcher(SudokuSieve sieve) {
-    this(sieve, null);
-  }
+    SearchTask(WorkUnit unit) {
+      this.unit = unit;
+    }
 
-  SieveSearcher(SudokuSieve sieve, SudokuMask baseMask) {
-    this.grid = sieve.config();
-    this.origSieveItems = new ArrayList<>(sieve.size());
-    this.sieve = new SudokuSieve(grid);
-    this.itemsIndices = new HashMap<>(sieve.size());
-
-    for (SudokuMask item : sieve.items()) {
-      this.sieve.rawAdd(item);
-      this.origSieveItems.add(item);
-      int[] prev = itemsIndices.put(item, Shuffler.shuffle(item.toIndices()));
-      if (prev != null)
-        throw new RuntimeException("item already exists in indices map");
+    @Override
+    protected void compute() {
+      new Walker(unit).search();
+      if (!stopped) {
+        pending.remove(unit);
+      }
     }
+  }
 
-    disjointSetsMap = new DisjointSetsMap(grid);
-    disjointSetsMap.build(3);
+  /**
+   * Depth-first search of one work unit.
+   * Keeps its own copy of the item index, updated as cells are chosen and unchosen.
+   */
+  class Walker {
+    final WorkUnit unit;
+    DisjointItemsIndex items;
+    final SudokuMask mask;
+    final SudokuMask seenMask;
+    final int[] path;
+    int depth;
+
+    Walker(WorkUnit unit) {
+      this.unit = unit;
+      this.mask = new SudokuMask(baseMask);
+      this.seenMask = new SudokuMask(unit.seenMask);
+      this.path = new int[Sudoku.SPACES];
+      this.depth = unit.prefix.length;
+      for (int d = 0; d < depth; d++) {
+        path[d] = unit.prefix[d];
+        mask.setBit(path[d]);
+      }
+      rebuild();
+    }
 
-    System.out.printf("SieveSearcher initialized with %d sieve items. Disjoint set built with %d items.\n", sieve.size(), disjointSetsMap.size());
+    /** Recomputes the unhit items along the current path from the latest items.*/
+    void rebuild() {
+      items = itemsRef.get().newState();
+      items.choose(mask);
+    }
 
-    this.choiceStack = new Stack<>();
-    this.mask = (baseMask == null) ? new SudokuMask() : new SudokuMask(baseMask);
-    this.seenMask = (baseMask == null) ? new SudokuMask() : new SudokuMask(baseMask);
-  }
+    void search() {
+      if (stopped) return;
+      checked.increment();
 
-  // Sample disjointSetsMap distribution (sieve level 2)
-  // [ 1]: 55
-  // [ 2]: 900
-  // [ 3]: 5378
-  // [ 4]: 12938
-  // [ 5]: 15296
-  // [ 6]: 10162
-  // [ 7]: 4024
-  // [ 8]: 929
-  // [ 9]: 120
-  // [10]: 7
-  // Sample disjointSetsMap distribution (sieve level 3)
-  // [ 1]: 362
-  // [ 2]: 19780
-  // [ 3]: 156182
-  // [ 4]: 300873
-  // [ 5]: 289510
-  // [ 6]: 170763
-  // [ 7]: 61649
-  // [ 8]: 12990
-  // [ 9]: 1450
-  // [10]: 72
-
-  public static class IntContainer {
-    public static final int INT_DEFAULT = 81;
-    int value;
-    public IntContainer() { this(INT_DEFAULT); }
-    public IntContainer(int n) { this.value = n; }
-    public synchronized void setVal(int newVal) { value = newVal; }
-  }
+      while (true) {
+        if (itemsRef.get().size() != items.size()) rebuild();
+        if (!items.isSatisfied()) break;
 
-  void search(int max) {
-    this.maxClues = max;
-    long sieveSize = sieve.size();
-
-    // This is functioning as the choice Stack.
-    // Choice instances are created once (here).
-    // When a cell is chosen, all remaining overlapping sieve items are taken from the sieve
-    //    and held with the choice.
-    // Then when a cell is removed as a choice, the items are put back into the sieve.
-    Choice[] choices = new Choice[maxClues];
-    for (int i = 0; i < maxClues; i++) choices[i] = new Choice();
-    choices[0].setChoices(itemsIndices.get(sieve.first()));
-    int depth = 1;
-
-    long checked = 0L;
-    long checkedSinceLastPrint = 0L;
-    final long checkedToPrint = 10_000_000L;
-
-    long satisfied = 0L; // Number of masks found that satisfied the sieve
-    long puzzles = 0L; // Number of puzzles found directly from running this search
-
-    // HashSet<SudokuMask> searchDownResults = new HashSet<>();
-    // HashSet<String> searchDownSeen = new HashSet<>();
-    // HashSet<SudokuMask> results = new HashSet<>();
-
-    while (depth > 0) {
-      checked++;
-      checkedSinceLastPrint++;
-      Choice top = choices[depth - 1];
-
-      // Print progress if it's been a while.
-      if (checkedSinceLastPrint > checkedToPrint) {
-        checkedSinceLastPrint -= checkedToPrint;
-        StringBuilder strb = new StringBuilder();
-        for (Choice c : choices) {
-          if (c.current() >= 0) {
-            c.addToString(strb);
-            strb.append(' ');
-          }
+        // The mask hits every item
+        if (mask.bitCount() > maxClues.get()) return;
+        SudokuMask item = findUnhitItem(mask);
+        if (item == null) {
+          foundPuzzle(mask);
+          return;
         }
-        System.out.printf("[%s] checked %12d; seen 0x%s; stack {%s}\n", LocalDateTime.now().toString(), checked, seenMask.toHexString(), strb.toString());
+        // Not a puzzle, and no room to add a clue
+        if (mask.bitCount() >= maxClues.get()) return;
+        learn(item);
       }
-      // String maskStr = grid.filterStr(mask);
-      // System.out.printf("[%2d] %s%s\n", sieve.size(), " ".repeat(choiceStack.size()), maskStr);
-      // System.out.printf("   [%4d] {%12d} >%s%s\n", sieve.size(), checked, " ".repeat(depth), grid.filterStr(mask));
-
-      if (sieve.isEmpty()) {
-        // String maskStr = grid.filterStr(mask);
-        // System.out.println(maskStr);
-        satisfied++;
-        // System.out.printf("✅ [%4d] {%12d} >%s%s\n", sieve.size(), c, " ".repeat(depth), maskStr);
-        // if (!seen.contains(maskStr)) {
-        //   seen.add(maskStr);
-
-        // searchDownResults.clear();
-        // searchDownResults.add(new SudokuMask(mask));
-        // searchDownSeen.clear();
-        // searchDown(searchDownResults, searchDownSeen);
-
-        int numBits = mask.bitCount();
-
-        // for (SudokuMask _mask : searchDownResults) {
-          int flag = grid.filter(mask).solutionsFlag();
-          if (flag == 1) {
-            puzzles++;
-            System.out.printf(
-              "⭐️ %d chkd : %d sieve : %d pzls [%d] %s\n",
-              checked,
-              sieveSize,
-              puzzles,
-              numBits,
-              grid.filterStr(mask)
-            );
-
-            int newVal = Math.min(numBits, maxClues);
-            if (newVal < maxClues) {
-              // maxClues.setVal(newVal);
-              maxClues = newVal;
-            }
-            // maxClues = Math.min(numBits, maxClues);
-
-          } else {
-            if (numBits < maxClues) {
-              System.out.printf(
-                "✅ %d chkd : %d sieve : %d pzls [%d] %s\n",
-                checked,
-                sieveSize,
-                puzzles,
-                numBits,
-                grid.filterStr(mask)
-              );
-
-              final long _sieveSize = sieveSize;
-              grid.filter(mask).searchForSolutions3(solution -> {
-                SudokuMask diff = grid.diff2(solution);
-                if (sieve.add(diff)) {
-                  itemsIndices.put(diff, Shuffler.shuffle(diff.toIndices()));
-                  System.out.printf("[%d] + %s\n", _sieveSize + 1, grid.filterStr(diff));
-                  // sieveSize++;
-                  return false;
-                }
-                return true;
-              });
-              sieveSize += sieve.size();
-              if (sieve.size() == 0) {
-                System.out.println("🚨 ?? no new sieve item found");
-              }
-              // Since a new sieve item was added, check from top of loop again now that sieve is not empty.
-              continue;
-            }
-
-            // int n = maxClues;
-
-            // System.out.printf("   [%4d] {%12d} >%s\n", numBits, checked, maskStr);
-            // System.out.printf("   (%6d) {%d} [%d] {%8d} %s\n", puzzles, satisfied, numBits, dupes, grid.filterStr(_mask).toString());
-          }
-          // maxClues = Math.min(numBits, maxClues);
-        // }
-
-        top.putItemsBack();
-        top.releaseDead();
-        depth--;
 
-        while (depth > 0 && choices[depth - 1].next() == -1) {
-          choices[depth - 1].releaseDead();
-          depth--;
+      // The clues still needed would exceed the bound
+      int slack = maxClues.get() - mask.bitCount();
+      if (items.lowerBound(slack + 1) > slack) return;
+
+      int[] cells = items.cells(items.firstUnhit());
+      List<Integer> excluded = new ArrayList<>(cells.length);
+      List<WorkUnit> children = (depth < splitDepth) ? new ArrayList<>(cells.length) : null;
+      for (int cell : cells) {
+        if (seenMask.testBit(cell)) continue;
+        if (mask.bitCount() >= maxClues.get()) break;
+
+        if (children != null) {
+          int[] prefix = Arrays.copyOf(path, depth + 1);
+          prefix[depth] = cell;
+          children.add(new WorkUnit(prefix, new SudokuMask(seenMask)));
+        } else {
+          choose(cell);
+          search();
+          unchoose();
         }
 
-        continue;
+        seenMask.setBit(cell);
+        excluded.add(cell);
+      }
+      for (int cell : excluded) {
+        seenMask.unsetBit(cell);
       }
 
-      // ELSE: sieve NOT empty
-      if (depth < maxClues) {
-        // choices[depth].setChoices(sieve.first().toIndices());
-        choices[depth].setChoices(itemsIndices.get(sieve.first()));
-        depth++;
-      } else {
-        while (depth > 0 && choices[depth - 1].next() == -1) {
-          choices[depth - 1].releaseDead();
-          depth--;
+      if (children != null) {
+        // The children now cover what is left of this unit
+        List<SearchTask> tasks = new ArrayList<>(children.size());
+        splitLock.readLock().lock();
+        try {
+          for (WorkUnit child : children) {
+            pending.add(child);
+            tasks.add(new SearchTask(child));
+          }
+          if (!stopped) pending.remove(unit);
+        } finally {
+          splitLock.readLock().unlock();
         }
+        RecursiveAction.invokeAll(tasks);
       }
     }
-  }
 
-  void searchDown(Set<SudokuMask> resultSet, Set<String> searchDownSeen) {
-    for (int i = 0; i < 81; i++) {
-      if (mask.testBit(i)) {
-        mask.unsetBit(i);
-
-        String maskStr = mask.toString();
-        if (!searchDownSeen.contains(maskStr)) {
-          searchDownSeen.add(maskStr);
-
-          // Check if mask still satisfies sieve
-          boolean satisfied = true;
-          for (SudokuMask item : origSieveItems) {
-            if (!item.intersects(mask)) {
-              satisfied = false;
-              break;
-            }
-          }
-          if (satisfied) {
-            resultSet.add(new SudokuMask(mask.toString()));
-            searchDown(resultSet, searchDownSeen);
-          }
-        }
+    void choose(int cell) {
+      path[depth] = cell;
+      mask.setBit(cell);
+      items.choose(cell);
+      depth++;
+    }
 
-        mask.setBit(i);
-      }
+    void unchoose() {
+      depth--;
+      mask.unsetBit(path[depth]);
+      items.unchoose(path[depth]);
     }
   }
 }
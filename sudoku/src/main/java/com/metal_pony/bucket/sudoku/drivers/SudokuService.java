@@ -0,0 +1,488 @@
+package com.metal_pony.bucket.sudoku.drivers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.google.gson.Gson;
+import com.metal_pony.bucket.sudoku.FingerprintEngine;
+import com.metal_pony.bucket.sudoku.Sudoku;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves sudoku operations over HTTP from one warm JVM.
+ *
+ * Each connection is handled on a virtual thread, which only parses the request, queues it, and waits
+ * for its result. A fixed set of solver threads pull from the queue, each only once it is free, so the
+ * queue's capacity bounds all outstanding work. A free thread takes the run of quick requests (solve,
+ * flag) at the head of the queue as one micro-batch, its share of those waiting, so a burst of small
+ * requests costs a handful of queue handoffs rather than one per request. Long requests (count,
+ * generate, fingerprint) are taken one at a time, so a slow one never holds up others behind it while
+ * threads sit idle. Every request has a deadline; requests still queued when it passes are skipped,
+ * and the caller gets a 504 instead of waiting on work nobody needs.
+ *
+ * Endpoints take parameters from the query string or a form-encoded body, and answer with JSON:
+ * <pre>
+ * /solve?grid=           {"grid", "solution"}      solution is null if there is none
+ * /flag?grid=            {"grid", "flag"}          0, 1 or 2 for none, one or multiple solutions
+ * /count?grid=&amp;max=      {"grid", "count", "complete"}   stops at max solutions or the deadline
+ * /generate?clues=27     {"puzzle", "solution"}
+ * /fingerprint?grid=&amp;prints=fp2   {"grid", "fp2", ...}  of the grid, or of the puzzle's solution
+ * /metrics               counts and latencies, per operation
+ * </pre>
+ * Every operation also takes deadlineMs. Bad input gets a 400, a full queue a 503.
+ */
+class SudokuService {
+  static final int DEFAULT_PORT = 8080;
+  static final int DEFAULT_MAX_BATCH = 32;
+  static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+  static final long DEFAULT_DEADLINE_MS = 5_000L;
+  static final long MAX_DEADLINE_MS = 60_000L;
+  /** How long past the deadline to wait for operations that stop at it with a partial result, like count.*/
+  static final long DEADLINE_GRACE_MS = 100L;
+  static final List<String> OPERATIONS = List.of("solve", "flag", "count", "generate", "fingerprint");
+  /** Operations quick enough to share a micro-batch. Others may run until their deadline, so run alone.*/
+  static final Set<String> BATCHED_OPERATIONS = Set.of("solve", "flag");
+
+  private static final Gson GSON = new Gson();
+
+  /** A queued request. Completed with a result map, or exceptionally.*/
+  static class Request {
+    final String op;
+    final Map<String,String> params;
+    final long receivedNanos;
+    final long deadlineNanos;
+    final CompletableFuture<Map<String,Object>> result;
+
+    Request(String op, Map<String,String> params, long deadlineMs) {
+      this.op = op;
+      this.params = params;
+      this.receivedNanos = System.nanoTime();
+      this.deadlineNanos = receivedNanos + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+      this.result = new CompletableFuture<>();
+    }
+
+    long remainingMs() {
+      return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+    }
+
+    boolean isExpired() {
+      return System.nanoTime() - deadlineNanos >= 0L;
+    }
+  }
+
+  /** Counters for one operation.*/
+  static class OpMetrics {
+    final LongAdder requests = new LongAdder();
+    final LongAdder ok = new LongAdder();
+    final LongAdder badRequests = new LongAdder();
+    final LongAdder errors = new LongAdder();
+    final LongAdder timeouts = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+    final LongAdder latencyMicros = new LongAdder();
+    final AtomicLong maxLatencyMicros = new AtomicLong();
+
+    void recordLatency(long startNanos) {
+      long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+      latencyMicros.add(micros);
+      maxLatencyMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    Map<String,Object> toMap() {
+      Map<String,Object> map = new LinkedHashMap<>();
+      map.put("requests", requests.sum());
+      map.put("ok", ok.sum());
+      map.put("badRequests", badRequests.sum());
+      map.put("errors", errors.sum());
+      map.put("timeouts", timeouts.sum());
+      map.put("rejected", rejected.sum());
+      long answered = ok.sum() + badRequests.sum() + errors.sum() + timeouts.sum();
+      map.put("meanLatencyMs", (answered > 0L) ? (latencyMicros.sum() / 1000.0 / answered) : 0.0);
+      map.put("maxLatencyMs", maxLatencyMicros.get() / 1000.0);
+      return map;
+    }
+  }
+
+  final int numThreads;
+  final int maxBatch;
+  final int queueCapacity;
+
+  /** Requests not yet taken by a solver thread, oldest first. Guarded by queueLock.*/
+  private final Deque<Request> queue;
+  private final ReentrantLock queueLock = new ReentrantLock();
+  private final Condition queueNotEmpty = queueLock.newCondition();
+  private final AtomicInteger active = new AtomicInteger();
+  private final Map<String,OpMetrics> metrics;
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder batchedRequests = new LongAdder();
+  private final long startTime;
+
+  private HttpServer server;
+  private ExecutorService connectionExecutor;
+  private final List<Thread> workers = new ArrayList<>();
+
+  SudokuService(int numThreads, int maxBatch, int queueCapacity) {
+    if (numThreads < 1) throw new IllegalArgumentException("numThreads must be positive");
+    if (maxBatch < 1) throw new IllegalArgumentException("maxBatch must be positive");
+    if (queueCapacity < 1) throw new IllegalArgumentException("queueCapacity must be positive");
+    this.numThreads = numThreads;
+    this.maxBatch = maxBatch;
+    this.queueCapacity = queueCapacity;
+    this.queue = new ArrayDeque<>();
+    this.metrics = new LinkedHashMap<>();
+    for (String op : OPERATIONS) metrics.put(op, new OpMetrics());
+    this.startTime = System.currentTimeMillis();
+  }
+
+  SudokuService(int numThreads) {
+    this(numThreads, DEFAULT_MAX_BATCH, DEFAULT_QUEUE_CAPACITY);
+  }
+
+  /**
+   * Warms up the solver, then starts serving.
+   * @param port Port to listen on, or 0 for any free port.
+   * @return The port.
+   */
+  int start(String host, int port) throws IOException {
+    CountDownLatch warm = new CountDownLatch(numThreads);
+    for (int t = 0; t < numThreads; t++) {
+      Thread worker = new Thread(() -> {
+        warmUp();
+        warm.countDown();
+        workLoop();
+      }, "service-worker-" + t);
+      worker.setDaemon(true);
+      workers.add(worker);
+      worker.start();
+    }
+    try {
+      warm.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    server = HttpServer.create(new InetSocketAddress(host, port), 0);
+    for (String op : OPERATIONS) {
+      server.createContext("/" + op, exchange -> handle(exchange, op));
+    }
+    server.createContext("/metrics", exchange -> respond(exchange, 200, metrics()));
+    server.createContext("/", exchange -> respond(exchange, 404, Map.of("error", "not found")));
+    connectionExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    server.setExecutor(connectionExecutor);
+    server.start();
+    return server.getAddress().getPort();
+  }
+
+  void stop() {
+    if (server != null) server.stop(0);
+    for (Thread worker : workers) worker.interrupt();
+    if (connectionExecutor != null) connectionExecutor.shutdownNow();
+  }
+
+  /** Generates and solves a few puzzles, so the first real requests hit compiled code. Run by each solver thread.*/
+  private static void warmUp() {
+    for (int n = 0; n < 20; n++) {
+      Sudoku puzzle = Sudoku.generatePuzzle(Sudoku.generateConfig(), 30, null, 0, 1000L, false);
+      if (puzzle == null) continue;
+      puzzle.solution();
+      puzzle.solutionsFlag();
+    }
+  }
+
+  private void handle(HttpExchange exchange, String op) throws IOException {
+    OpMetrics opMetrics = metrics.get(op);
+    opMetrics.requests.increment();
+
+    Map<String,String> params;
+    long deadlineMs;
+    try {
+      params = params(exchange);
+      deadlineMs = DEFAULT_DEADLINE_MS;
+      if (params.containsKey("deadlineMs")) {
+        deadlineMs = Math.max(1L, Math.min(Long.parseLong(params.get("deadlineMs")), MAX_DEADLINE_MS));
+      }
+    } catch (IllegalArgumentException e) {
+      opMetrics.badRequests.increment();
+      respond(exchange, 400, Map.of("error", String.valueOf(e.getMessage())));
+      return;
+    }
+
+    Request request = new Request(op, params, deadlineMs);
+    if (!enqueue(request)) {
+      opMetrics.rejected.increment();
+      respond(exchange, 503, Map.of("error", "too many requests"));
+      return;
+    }
+
+    int status;
+    Map<String,Object> body;
+    try {
+      body = request.result.get(Math.max(request.remainingMs(), 0L) + DEADLINE_GRACE_MS, TimeUnit.MILLISECONDS);
+      status = 200;
+      opMetrics.ok.increment();
+    } catch (TimeoutException e) {
+      // Skipped if still queued; abandoned if running
+      request.result.completeExceptionally(e);
+      status = 504;
+      body = Map.of("error", "deadline exceeded");
+      opMetrics.timeouts.increment();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof TimeoutException || cause instanceof DeadlineExceededException) {
+        status = 504;
+        body = Map.of("error", "deadline exceeded");
+        opMetrics.timeouts.increment();
+      } else if (cause instanceof IllegalArgumentException) {
+        status = 400;
+        body = Map.of("error", String.valueOf(cause.getMessage()));
+        opMetrics.badRequests.increment();
+      } else {
+        status = 500;
+        body = Map.of("error", String.valueOf(cause));
+        opMetrics.errors.increment();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      status = 503;
+      body = Map.of("error", "shutting down");
+      opMetrics.errors.increment();
+    }
+    opMetrics.recordLatency(request.receivedNanos);
+    respond(exchange, status, body);
+  }
+
+  /**
+   * Queues a request for the solver threads.
+   * @return False if the queue is full.
+   */
+  private boolean enqueue(Request request) {
+    queueLock.lock();
+    try {
+      if (queue.size() >= queueCapacity) return false;
+      queue.addLast(request);
+      queueNotEmpty.signal();
+      return true;
+    } finally {
+      queueLock.unlock();
+    }
+  }
+
+  /**
+   * Waits for queued requests and takes the next batch: a long request alone, or the run of quick requests
+   * at the head of the queue, up to this thread's share of those waiting and at most maxBatch.
+   */
+  private List<Request> takeBatch() throws InterruptedException {
+    queueLock.lockInterruptibly();
+    try {
+      while (queue.isEmpty()) {
+        queueNotEmpty.await();
+      }
+      List<Request> batch = new ArrayList<>();
+      batch.add(queue.pollFirst());
+      if (BATCHED_OPERATIONS.contains(batch.get(0).op)) {
+        int limit = Math.min(maxBatch, (queue.size() + numThreads) / numThreads);
+        while (batch.size() < limit && !queue.isEmpty() && BATCHED_OPERATIONS.contains(queue.peekFirst().op)) {
+          batch.add(queue.pollFirst());
+        }
+      }
+      // Left for another free thread
+      if (!queue.isEmpty()) queueNotEmpty.signal();
+      return batch;
+    } finally {
+      queueLock.unlock();
+    }
+  }
+
+  /** Runs batches until the thread is interrupted.*/
+  private void workLoop() {
+    try {
+      while (true) {
+        List<Request> batch = takeBatch();
+        batches.increment();
+        batchedRequests.add(batch.size());
+        active.incrementAndGet();
+        try {
+          runBatch(batch);
+        } finally {
+          active.decrementAndGet();
+        }
+      }
+    } catch (InterruptedException e) {
+      // Stopped
+    }
+  }
+
+  private void runBatch(List<Request> batch) {
+    for (Request request : batch) {
+      if (request.result.isDone()) continue;
+      if (request.isExpired()) {
+        request.result.completeExceptionally(new TimeoutException());
+        continue;
+      }
+      try {
+        request.result.complete(compute(request));
+      } catch (RuntimeException e) {
+        request.result.completeExceptionally(e);
+      }
+    }
+  }
+
+  /**
+   * Runs an operation.
+   * @throws IllegalArgumentException If a parameter is missing or malformed.
+   */
+  static Map<String,Object> compute(Request request) {
+    Map<String,String> params = request.params;
+    Map<String,Object> result = new LinkedHashMap<>();
+    switch (request.op) {
+      case "solve": {
+        Sudoku board = board(params);
+        Sudoku solution = board.solution();
+        result.put("grid", board.toString());
+        result.put("solution", (solution == null) ? null : solution.toString());
+        break;
+      }
+      case "flag": {
+        Sudoku board = board(params);
+        result.put("grid", board.toString());
+        result.put("flag", board.solutionsFlag());
+        break;
+      }
+      case "count": {
+        Sudoku board = board(params);
+        long max = params.containsKey("max") ? Long.parseLong(params.get("max")) : Long.MAX_VALUE;
+        long[] count = new long[1];
+        boolean[] stopped = new boolean[1];
+        // Checked as the search goes, not just per solution, as a grid with none could search unbounded
+        board.searchForSolutions3(solution -> {
+          count[0]++;
+          if (count[0] >= max) {
+            stopped[0] = true;
+            return false;
+          }
+          return true;
+        }, () -> {
+          if (request.isExpired() || request.result.isDone()) {
+            stopped[0] = true;
+          }
+          return stopped[0];
+        });
+        result.put("grid", board.toString());
+        result.put("count", count[0]);
+        result.put("complete", !stopped[0]);
+        break;
+      }
+      case "generate": {
+        int clues = Integer.parseInt(params.getOrDefault("clues", "27"));
+        if (clues < Sudoku.MIN_CLUES || clues > Sudoku.SPACES) {
+          throw new IllegalArgumentException("clues must be from 17 to 81");
+        }
+        Sudoku grid = Sudoku.generateConfig();
+        Sudoku puzzle = Sudoku.generatePuzzle(grid, clues, null, 0, Math.max(request.remainingMs(), 1L), false);
+        if (puzzle == null) throw new DeadlineExceededException();
+        result.put("puzzle", puzzle.toString());
+        result.put("solution", grid.toString());
+        break;
+      }
+      case "fingerprint": {
+        Sudoku board = board(params);
+        Sudoku grid = board.isSolved() ? board : board.solution();
+        if (grid == null) throw new IllegalArgumentException("grid has no solution");
+        List<String> printNames = List.of(params.getOrDefault("prints", "fp2").split(","));
+        result.put("grid", board.toString());
+        result.putAll(FingerprintEngine.fingerprints(grid, printNames));
+        break;
+      }
+      default:
+        throw new IllegalArgumentException("Unknown operation: " + request.op);
+    }
+    return result;
+  }
+
+  /** Thrown when an operation gives up at the request deadline.*/
+  static class DeadlineExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+  }
+
+  private static Sudoku board(Map<String,String> params) {
+    String grid = params.get("grid");
+    if (grid == null) throw new IllegalArgumentException("grid is required");
+    return new Sudoku(grid);
+  }
+
+  Map<String,Object> metrics() {
+    Map<String,Object> map = new LinkedHashMap<>();
+    map.put("uptimeMs", System.currentTimeMillis() - startTime);
+    map.put("threads", numThreads);
+    queueLock.lock();
+    try {
+      map.put("queued", queue.size());
+    } finally {
+      queueLock.unlock();
+    }
+    map.put("active", active.get());
+    long numBatches = batches.sum();
+    map.put("batches", numBatches);
+    map.put("meanBatchSize", (numBatches > 0L) ? ((double) batchedRequests.sum() / numBatches) : 0.0);
+    Map<String,Object> ops = new LinkedHashMap<>();
+    metrics.forEach((op, opMetrics) -> ops.put(op, opMetrics.toMap()));
+    map.put("operations", ops);
+    return map;
+  }
+
+  /**
+   * Gets the query string and form body parameters. Body parameters win.
+   * @throws IllegalArgumentException If the encoding is malformed.
+   */
+  private static Map<String,String> params(HttpExchange exchange) throws IOException {
+    Map<String,String> params = new LinkedHashMap<>();
+    parseForm(exchange.getRequestURI().getRawQuery(), params);
+    try (InputStream in = exchange.getRequestBody()) {
+      parseForm(new String(in.readAllBytes(), StandardCharsets.UTF_8), params);
+    }
+    return params;
+  }
+
+  static void parseForm(String form, Map<String,String> params) {
+    if (form == null || form.isBlank()) return;
+    for (String pair : form.trim().split("&")) {
+      if (pair.isEmpty()) continue;
+      int eq = pair.indexOf('=');
+      String key = (eq < 0) ? pair : pair.substring(0, eq);
+      String value = (eq < 0) ? "" : pair.substring(eq + 1);
+      params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+    }
+  }
+
+  private static void respond(HttpExchange exchange, int status, Map<String,?> body) throws IOException {
+    byte[] bytes = GSON.toJson(body).getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+}
@@ -0,0 +1,236 @@
+package com.metal_pony.bucket.sudoku.drivers.gui;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import javax.swing.SwingUtilities;
+
+import com.metal_pony.bucket.sudoku.Sudoku;
+
+/**
+ * Works out candidates, uniqueness, and a hint for a board off the event dispatch thread.
+ *
+ * Each call to {@link #analyze(int[])} supersedes the one before: the stale computation is cancelled
+ * (the solver checks for it periodically, so even a long search for a contradiction gives up quickly),
+ * and its result is never published. Results are handed to the EDT through a single pending slot,
+ * so however fast they arrive, the listener runs at most once per EDT turn with the newest one.
+ */
+public class BoardAnalyzer {
+
+	/** Result of analyzing one board state.*/
+	public static class Analysis {
+		/** Sequence number of the edit this analysis is for.*/
+		public final long generation;
+		public final int[] digits;
+		/** Candidates mask per cell, from the digits in its row, column, and region. 0 for filled cells.*/
+		public final int[] candidates;
+		/** Cells whose digit repeats in a row, column, or region, or empty cells with no candidates.*/
+		public final boolean[] conflicts;
+		/** 0 for no solution, 1 for a unique solution, 2 for multiple solutions.*/
+		public final int solutionsFlag;
+		/** A solution, if any was found; otherwise null.*/
+		public final int[] solution;
+		/** Cell to fill next, or -1 if there's no hint.*/
+		public final int hintCell;
+		public final int hintDigit;
+		/** Why the hint digit goes there: "naked single", "hidden single", or "solution".*/
+		public final String hintReason;
+
+		Analysis(
+			long generation, int[] digits, int[] candidates, boolean[] conflicts,
+			int solutionsFlag, int[] solution, int hintCell, int hintDigit, String hintReason
+		) {
+			this.generation = generation;
+			this.digits = digits;
+			this.candidates = candidates;
+			this.conflicts = conflicts;
+			this.solutionsFlag = solutionsFlag;
+			this.solution = solution;
+			this.hintCell = hintCell;
+			this.hintDigit = hintDigit;
+			this.hintReason = hintReason;
+		}
+
+		public boolean hasHint() {
+			return hintCell >= 0;
+		}
+	}
+
+	/** Thrown inside a computation when a newer edit has superseded it.*/
+	private static class Superseded extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		Superseded() {
+			super(null, null, false, false);
+		}
+	}
+
+	private final Consumer<Analysis> listener;
+	private final ExecutorService worker;
+	private final AtomicLong generation = new AtomicLong();
+	private final AtomicReference<Analysis> pending = new AtomicReference<>();
+	private Future<?> running;
+
+	/**
+	 * @param listener Receives each current analysis, on the EDT.
+	 */
+	public BoardAnalyzer(Consumer<Analysis> listener) {
+		this.listener = listener;
+		this.worker = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "sudoku-board-analyzer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Starts analyzing the given board, cancelling any analysis still in progress. Returns immediately.
+	 * @param digits Digit per cell, 0 for empty. Copied.
+	 * @return Generation number of the new analysis.
+	 */
+	public synchronized long analyze(int[] digits) {
+		long gen = generation.incrementAndGet();
+		int[] board = digits.clone();
+		if (running != null) running.cancel(true);
+		running = worker.submit(() -> {
+			try {
+				publish(compute(board, gen));
+			} catch (Superseded e) {
+				// A newer edit is already queued.
+			}
+		});
+		return gen;
+	}
+
+	/**
+	 * Gets whether the analysis with the given generation has been superseded by a newer edit.
+	 */
+	public boolean isStale(long gen) {
+		return gen != generation.get();
+	}
+
+	/**
+	 * Stops the worker. Pending analyses are dropped.
+	 */
+	public synchronized void shutdown() {
+		generation.incrementAndGet();
+		worker.shutdownNow();
+	}
+
+	private void publish(Analysis analysis) {
+		// Only schedule an EDT task when the slot was empty; one already scheduled will pick up this result.
+		if (pending.getAndSet(analysis) == null) {
+			SwingUtilities.invokeLater(() -> {
+				Analysis latest = pending.getAndSet(null);
+				if (latest != null && !isStale(latest.generation)) {
+					listener.accept(latest);
+				}
+			});
+		}
+	}
+
+	private void checkCurrent(long gen) {
+		if (isStale(gen) || Thread.currentThread().isInterrupted()) throw new Superseded();
+	}
+
+	/**
+	 * Analyzes a board. Runs on the worker, but has no state of its own, so can be called directly.
+	 * @throws Superseded If a newer edit supersedes this one partway through.
+	 */
+	Analysis compute(int[] digits, long gen) {
+		int[] candidates = new int[Sudoku.SPACES];
+		boolean[] conflicts = new boolean[Sudoku.SPACES];
+		boolean hasConflict = false;
+		for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+			int seen = 0;
+			for (int ni : Sudoku.CELL_NEIGHBORS[ci]) {
+				if (digits[ni] > 0) seen |= Sudoku.ENCODER[digits[ni]];
+			}
+			if (digits[ci] > 0) {
+				conflicts[ci] = (seen & Sudoku.ENCODER[digits[ci]]) != 0;
+			} else {
+				candidates[ci] = ~seen & ((1 << Sudoku.DIGITS) - 1);
+				conflicts[ci] = (candidates[ci] == 0);
+			}
+			hasConflict |= conflicts[ci];
+		}
+		checkCurrent(gen);
+
+		int solutionsFlag = 0;
+		int[] solution = null;
+		if (!hasConflict) {
+			// Searched even with too few clues to be unique: sparse boards still need a solution
+			// to fill in, and may have none at all.
+			int[] found = new int[1];
+			int[][] first = new int[1][];
+			new Sudoku(digits).searchForSolutions3(s -> {
+				if (first[0] == null) first[0] = s.getBoard();
+				return ++found[0] < 2;
+			}, () -> isStale(gen) || Thread.currentThread().isInterrupted());
+			checkCurrent(gen);
+			solutionsFlag = found[0];
+			solution = first[0];
+		}
+
+		int[] hint = findSingle(digits, candidates);
+		String hintReason = null;
+		if (hint != null) {
+			hintReason = (hint[2] == 1) ? "naked single" : "hidden single";
+		} else if (solutionsFlag == 1) {
+			// No single to deduce; reveal the cell with the fewest candidates.
+			int best = -1;
+			for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+				if (digits[ci] == 0 && (best < 0 || Integer.bitCount(candidates[ci]) < Integer.bitCount(candidates[best]))) {
+					best = ci;
+				}
+			}
+			if (best >= 0) {
+				hint = new int[] { best, solution[best] };
+				hintReason = "solution";
+			}
+		}
+
+		return new Analysis(
+			gen, digits, candidates, conflicts, solutionsFlag, solution,
+			(hint == null) ? -1 : hint[0], (hint == null) ? 0 : hint[1], hintReason
+		);
+	}
+
+	/**
+	 * Finds a cell with only one candidate, or a digit with only one place in some row, column, or region.
+	 * @return { cell, digit, 1 for naked or 2 for hidden }; or null if there is no single.
+	 */
+	static int[] findSingle(int[] digits, int[] candidates) {
+		for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+			if (digits[ci] == 0 && Integer.bitCount(candidates[ci]) == 1) {
+				return new int[] { ci, Sudoku.decode(candidates[ci]), 1 };
+			}
+		}
+		int[][][] areas = { Sudoku.ROW_INDICES, Sudoku.COL_INDICES, Sudoku.REGION_INDICES };
+		for (int[][] areaIndices : areas) {
+			for (int[] area : areaIndices) {
+				for (int digit = 1; digit <= Sudoku.DIGITS; digit++) {
+					int encoded = Sudoku.ENCODER[digit];
+					int place = -1;
+					int places = 0;
+					for (int ci : area) {
+						if (digits[ci] == digit) {
+							places = -1;
+							break;
+						}
+						if ((candidates[ci] & encoded) != 0) {
+							place = ci;
+							places++;
+						}
+					}
+					if (places == 1) return new int[] { place, digit, 2 };
+				}
+			}
+		}
+		return null;
+	}
+}
@@ -24,6 +24,9 @@ import com.metal_pony.bucket.sudoku.Sudoku;
 
 public class SudokuBoard extends JPanel implements ComponentListener {
 
+	private static final Color CONFLICT_COLOR = new Color(255, 0, 0, 80);
+	private static final Color HINT_COLOR = new Color(0, 120, 255);
+
 	private static Color[] COLORS = new Color[] {
 		Color.WHITE,
 		Color.RED,
@@ -49,6 +52,13 @@ public class SudokuBoard extends JPanel implements ComponentListener {
 
 	protected SudokuCell[] cells;
 
+	/** Computes candidates, uniqueness, and hints off the EDT after each edit.*/
+	protected BoardAnalyzer analyzer;
+	/** Latest analysis of the cells as they are; or null while the first is still running.*/
+	protected BoardAnalyzer.Analysis analysis;
+	/** Generation of the latest edit sent to the analyzer.*/
+	protected long analysisGeneration;
+
 	protected static class SudokuCell extends JComponent implements MouseListener, KeyListener, MouseWheelListener {
 
 		protected static SudokuCell selectedCell = null;
@@ -57,9 +67,13 @@ public class SudokuBoard extends JPanel implements ComponentListener {
 		protected static int size;
 		protected static Font font;
 
+		protected final SudokuBoard board;
+		protected final int index;
 		protected int digit;
 
-		public SudokuCell(int digit) {
+		public SudokuCell(SudokuBoard board, int index, int digit) {
+			this.board = board;
+			this.index = index;
 			this.digit = digit;
 
 			this.addMouseListener(this);
@@ -73,12 +87,28 @@ public class SudokuBoard extends JPanel implements ComponentListener {
 
 			Graphics2D g2 = (Graphics2D) g;
 			g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_LCD_HRGB);
+			BoardAnalyzer.Analysis analysis = board.currentAnalysis();
 			if (digit > 0) {
 				g2.setColor(COLORS[digit]);
 				g2.fill3DRect(0, 0, size, size, true);
 				g2.setColor(Color.BLACK);
 				g2.setFont(font);
 				g2.drawString(Integer.toString(digit), size/4, size - size/8);
+			} else if (analysis != null) {
+				paintCandidates(g2, analysis.candidates[index]);
+			}
+
+			if (analysis != null) {
+				if (analysis.conflicts[index]) {
+					g2.setColor(CONFLICT_COLOR);
+					g2.fillRect(0, 0, size, size);
+				}
+				if (analysis.hintCell == index && digit == 0) {
+					g2.setColor(HINT_COLOR);
+					g2.setStroke(new BasicStroke(3));
+					g2.drawRect(3, 3, size - 6, size - 6);
+					g2.setStroke(new BasicStroke(1));
+				}
 			}
 
 			g2.setColor(Color.BLACK);
@@ -91,6 +121,20 @@ public class SudokuBoard extends JPanel implements ComponentListener {
 			}
 		}
 
+		/** Draws each candidate digit small, in its own third of the cell.*/
+		protected void paintCandidates(Graphics2D g2, int candidates) {
+			int third = size / 3;
+			if (third < 6) return;
+			g2.setColor(Color.GRAY);
+			g2.setFont(font.deriveFont((float) third));
+			for (int d = 1; d <= Sudoku.DIGITS; d++) {
+				if ((candidates & Sudoku.ENCODER[d]) == 0) continue;
+				int x = ((d - 1) % 3) * third;
+				int y = ((d - 1) / 3) * third;
+				g2.drawString(Integer.toString(d), x + third/4, y + third - third/8);
+			}
+		}
+
 		@Override public void mousePressed(MouseEvent e) {
 			SudokuCell prev = selectedCell;
 			selectedCell = this;
@@ -133,6 +177,7 @@ public class SudokuBoard extends JPanel implements ComponentListener {
 
 				boolean numberKey = e.getKeyCode() >= KeyEvent.VK_1 && e.getKeyCode() <= KeyEvent.VK_9;
 				boolean numpadKey = e.getKeyCode() >= KeyEvent.VK_NUMPAD1 && e.getKeyCode() <= KeyEvent.VK_NUMPAD9;
+				int prevDigit = digit;
 
 				if (numberKey) {
 					System.out.println("setting digit to " + (e.getKeyCode() - KeyEvent.VK_1 + 1));
@@ -145,6 +190,12 @@ public class SudokuBoard extends JPanel implements ComponentListener {
 				} else if (e.getKeyCode() == KeyEvent.VK_BACK_SPACE) {
 					digit = 0;
 					System.out.println("erasing digit");
+				} else if (e.getKeyCode() == KeyEvent.VK_H) {
+					board.applyHint();
+					prevDigit = digit;
+				}
+				if (digit != prevDigit) {
+					board.cellsChanged();
 				}
 				repaint();
 			}
@@ -230,10 +281,96 @@ public class SudokuBoard extends JPanel implements ComponentListener {
 
 		this.setLayout(null);
 		for (int i = 0; i < Sudoku.SPACES; i++) {
-			cells[i] = new SudokuCell(sudoku.getDigit(i));
+			cells[i] = new SudokuCell(this, i, sudoku.getDigit(i));
 			add(cells[i]);
 		}
 
+		analyzer = new BoardAnalyzer(this::showAnalysis);
+		cellsChanged();
+	}
+
+	/**
+	 * Gets the digits currently in the cells.
+	 */
+	public int[] getDigits() {
+		int[] digits = new int[Sudoku.SPACES];
+		for (int i = 0; i < Sudoku.SPACES; i++) {
+			digits[i] = cells[i].digit;
+		}
+		return digits;
+	}
+
+	/**
+	 * Re-analyzes the board after cells change. Call on the EDT.
+	 * Returns immediately; the board repaints once the analysis is ready.
+	 */
+	public void cellsChanged() {
+		analysisGeneration = analyzer.analyze(getDigits());
+		repaint();
+	}
+
+	/**
+	 * Gets the analysis of the cells as they are now; or null if it isn't ready yet.
+	 */
+	public BoardAnalyzer.Analysis currentAnalysis() {
+		return (analysis != null && analysis.generation == analysisGeneration) ? analysis : null;
+	}
+
+	protected void showAnalysis(BoardAnalyzer.Analysis analysis) {
+		this.analysis = analysis;
+		repaint();
+	}
+
+	/**
+	 * Fills in the hinted cell, if the current analysis has a hint.
+	 */
+	public void applyHint() {
+		BoardAnalyzer.Analysis current = currentAnalysis();
+		if (current == null || !current.hasHint()) return;
+		cells[current.hintCell].digit = current.hintDigit;
+		cellsChanged();
+	}
+
+	/**
+	 * Fills in every cell from the solution found by the current analysis.
+	 * @return False if the analysis isn't ready or found no solution; otherwise true.
+	 */
+	public boolean applySolution() {
+		BoardAnalyzer.Analysis current = currentAnalysis();
+		if (current == null || current.solution == null) return false;
+		for (int i = 0; i < Sudoku.SPACES; i++) {
+			cells[i].digit = current.solution[i];
+		}
+		cellsChanged();
+		return true;
+	}
+
+	/**
+	 * Stops the background analysis. The board no longer updates candidates or hints afterward.
+	 */
+	public void dispose() {
+		analyzer.shutdown();
+	}
+
+	protected String statusText() {
+		BoardAnalyzer.Analysis current = currentAnalysis();
+		if (current == null) return "Analyzing...";
+		String status;
+		switch (current.solutionsFlag) {
+			case 0: status = "No solution"; break;
+			case 1: status = "Unique solution"; break;
+			default: status = "Multiple solutions"; break;
+		}
+		if (current.hasHint()) {
+			status += String.format(
+				"  |  Hint (H): r%dc%d = %d, %s",
+				Sudoku.cellRow(current.hintCell) + 1,
+				Sudoku.cellCol(current.hintCell) + 1,
+				current.hintDigit,
+				current.hintReason
+			);
+		}
+		return status;
 	}
 
 	@Override protected void paintComponent(Graphics g) {
@@ -282,7 +419,10 @@ public class SudokuBoard extends JPanel implements ComponentListener {
 		}
 		*/
 
-		//g2.setColor(Color.BLACK);
+		g2.setColor(Color.BLACK);
+		g2.setFont(font.deriveFont(Math.max(12f, cellSize / 3f)));
+		g2.drawString(statusText(), xOffset + borderSize, Math.max(yOffset - borderSize * 2, g2.getFont().getSize()));
+
 		Stroke stroke = g2.getStroke();
 		g2.setStroke(new BasicStroke(borderSize));
 
@@ -3,6 +3,8 @@ package com.metal_pony.bucket.sudoku.drivers.gui;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 
 import javax.swing.JButton;
 import javax.swing.JFrame;
@@ -20,19 +22,18 @@ public class SudokuGuiDemo {
 
 		JButton btn = new JButton("Solve");
 		btn.addActionListener((event) -> {
-			Sudoku solution = sudoku.solution();
-
-			if (solution == null) {
-				System.out.println("null solution");
-				return;
+			// Uses the solution the background analysis already found, so the EDT never runs the solver.
+			if (!panel.applySolution()) {
+				System.out.println((panel.currentAnalysis() == null) ? "still analyzing" : "null solution");
 			}
+		});
+		f.getContentPane().add(btn, BorderLayout.SOUTH);
 
-			for (int i = 0; i < Sudoku.SPACES; i++) {
-				panel.cells[i].digit = solution.getDigit(i);
+		f.addWindowListener(new WindowAdapter() {
+			@Override public void windowClosed(WindowEvent e) {
+				panel.dispose();
 			}
-			panel.repaint();
 		});
-		f.getContentPane().add(btn, BorderLayout.SOUTH);
 
 		f.pack();
 		f.setVisible(true);
@@ -0,0 +1,261 @@
+package com.metal_pony.bucket.sudoku.util;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tracks the progress of a long batch job over an ordered input, so it can stop and resume.
+ *
+ * Inputs are completed in order, each with zero or more output lines. Every so often the output is
+ * flushed to disk, then a checkpoint file records how many inputs are complete, how many bytes of
+ * output they produced, and the job's aggregates. Resuming cuts the output back to that many bytes
+ * and skips that many inputs, so lines written after the last checkpoint are written again exactly
+ * once, and never duplicated.
+ *
+ * Aggregates are named sets of strings, e.g. distinct fingerprints seen so far. A set may be added to
+ * before the input is completed, because adding again after resuming changes nothing.
+ *
+ * Without an output path, lines go to stdout and nothing is checkpointed.
+ */
+public class BatchJob implements Closeable {
+    public static final long DEFAULT_CHECKPOINT_INTERVAL_MS = 60_000L;
+
+    private final String key;
+    private final Path outPath;
+    private final Path checkpointPath;
+    private long checkpointIntervalMs;
+
+    private FileChannel channel;
+    private Writer out;
+    private long offset;
+    private long lastCheckpointTime;
+    private boolean closed;
+    private final Map<String,Set<String>> aggregates;
+
+    /**
+     * Creates a job, which is not started.
+     * @param key Identifies the job and its parameters. A checkpoint with a different key is not resumed.
+     * @param outPath Output file; or null for stdout, without checkpoints.
+     * @param checkpointPath Checkpoint file; or null to use the output path plus ".checkpoint".
+     */
+    public BatchJob(String key, String outPath, String checkpointPath) {
+        this.key = key;
+        this.outPath = (outPath == null) ? null : Paths.get(outPath);
+        if (outPath == null) {
+            this.checkpointPath = null;
+        } else {
+            this.checkpointPath = Paths.get((checkpointPath == null) ? (outPath + ".checkpoint") : checkpointPath);
+        }
+        this.checkpointIntervalMs = DEFAULT_CHECKPOINT_INTERVAL_MS;
+        this.aggregates = new LinkedHashMap<>();
+    }
+
+    public BatchJob checkpointEvery(long intervalMs) {
+        this.checkpointIntervalMs = intervalMs;
+        return this;
+    }
+
+    /**
+     * Opens the output. When resuming and the checkpoint file exists, the output is cut back to the
+     * checkpointed length and the offset and aggregates are restored; otherwise the output starts empty.
+     * @return True if resumed from a checkpoint; otherwise false.
+     * @throws IllegalArgumentException If the checkpoint is for a different job, is malformed, or
+     * claims more output than the file has.
+     */
+    public synchronized boolean start(boolean resume) throws IOException {
+        offset = 0L;
+        aggregates.clear();
+        lastCheckpointTime = System.currentTimeMillis();
+
+        if (outPath == null) {
+            out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            return false;
+        }
+
+        long bytes = 0L;
+        boolean resumed = resume && Files.isRegularFile(checkpointPath);
+        if (resumed) {
+            bytes = readCheckpoint();
+        }
+
+        channel = FileChannel.open(outPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size < bytes) {
+            channel.close();
+            channel = null;
+            throw new IllegalArgumentException(String.format(
+                "Output %s has %d bytes, but the checkpoint expects %d", outPath, size, bytes
+            ));
+        }
+        channel.truncate(bytes);
+        channel.position(bytes);
+        out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+
+        if (resumed) {
+            System.err.printf("[%s] Resuming after %d inputs (%d bytes of output).\n", key, offset, bytes);
+        }
+        return resumed;
+    }
+
+    private long readCheckpoint() {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(checkpointPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        long bytes = 0L;
+        for (String line : lines) {
+            int space = line.indexOf(' ');
+            if (space < 0) continue;
+            String name = line.substring(0, space);
+            String value = line.substring(space + 1);
+            switch (name) {
+                case "job":
+                    if (!key.equals(value)) {
+                        throw new IllegalArgumentException("Checkpoint is for a different job: " + value);
+                    }
+                    break;
+                case "offset":
+                    offset = Long.parseLong(value);
+                    break;
+                case "bytes":
+                    bytes = Long.parseLong(value);
+                    break;
+                case "agg": {
+                    int split = value.indexOf(' ');
+                    if (split < 0) throw new IllegalArgumentException("Bad aggregate entry: " + line);
+                    aggregate(value.substring(0, split)).add(value.substring(split + 1));
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown checkpoint entry: " + line);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Reads the job key from a checkpoint file.
+     * @param checkpointPath Checkpoint file; or null to use the output path plus ".checkpoint".
+     * @return The key; or null if the file could not be read or has no key.
+     */
+    public static String checkpointKey(String outPath, String checkpointPath) {
+        Path path = Paths.get((checkpointPath == null) ? (outPath + ".checkpoint") : checkpointPath);
+        if (!Files.isRegularFile(path)) return null;
+        try {
+            for (String line : Files.readAllLines(path)) {
+                if (line.startsWith("job ")) return line.substring(4);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /** Gets the number of completed inputs. Inputs before this are skipped when resuming.*/
+    public synchronized long offset() {
+        return offset;
+    }
+
+    /**
+     * Gets the aggregate with the given name, creating it if needed. Names may not contain spaces.
+     * Synchronize on the job to use it while other threads may checkpoint.
+     */
+    public synchronized Set<String> aggregate(String name) {
+        return aggregates.computeIfAbsent(name, n -> new HashSet<>());
+    }
+
+    /**
+     * Writes the lines for the next input and counts it as complete, checkpointing if one is due.
+     */
+    public synchronized void complete(String... lines) {
+        if (out == null) throw new IllegalStateException("Job is not started");
+        try {
+            for (String line : lines) {
+                out.write(line);
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        offset++;
+
+        if (checkpointPath != null && System.currentTimeMillis() - lastCheckpointTime >= checkpointIntervalMs) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Flushes the output to disk, then records the offset and aggregates. The checkpoint file is written
+     * next to the target and moved into place. Does nothing without an output file, or after closing.
+     */
+    public synchronized void checkpoint() {
+        if (checkpointPath == null || closed || out == null) return;
+
+        long bytes;
+        try {
+            out.flush();
+            channel.force(false);
+            bytes = channel.position();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        Path temp = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+        try (PrintWriter cp = new PrintWriter(Files.newBufferedWriter(temp))) {
+            cp.printf("job %s\n", key);
+            cp.printf("offset %d\n", offset);
+            cp.printf("bytes %d\n", bytes);
+            aggregates.forEach((name, set) -> {
+                for (String value : set) cp.printf("agg %s %s\n", name, value);
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        try {
+            Files.move(temp, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        lastCheckpointTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Writes a final checkpoint and closes the output. Resuming a finished job skips every input.
+     * Stdout is flushed but left open.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed || out == null) return;
+        checkpoint();
+        closed = true;
+        if (channel != null) {
+            out.close();
+        } else {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.metal_pony.bucket.sudoku.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A thread-safe set of SudokuMasks, split into stripes by hash.
+ * Each stripe is a {@link MaskSet} guarded by its own lock, so threads adding different masks
+ * rarely wait on each other.
+ *
+ * Snapshots list the masks stripe by stripe, in insertion order within each stripe.
+ */
+public class ConcurrentMaskSet {
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final MaskSet[] stripes;
+    private final int stripeMask;
+
+    /**
+     * Creates an empty set.
+     */
+    public ConcurrentMaskSet() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty set with room for the given number of masks before resizing.
+     * @param expectedSize Number of masks expected.
+     * @throws IllegalArgumentException If expectedSize is negative.
+     */
+    public ConcurrentMaskSet(int expectedSize) {
+        if (expectedSize < 0) throw new IllegalArgumentException("expectedSize must be non-negative");
+        stripes = new MaskSet[DEFAULT_STRIPES];
+        stripeMask = DEFAULT_STRIPES - 1;
+        for (int i = 0; i < DEFAULT_STRIPES; i++) {
+            stripes[i] = new MaskSet(expectedSize / DEFAULT_STRIPES);
+        }
+    }
+
+    private MaskSet stripeFor(long high, long low) {
+        // Use the top bits, since each stripe's table uses the bottom bits
+        return stripes[(MaskSet.hash(high, low) >>> 26) & stripeMask];
+    }
+
+    /**
+     * Adds the given mask if it is not present.
+     * @return True if the mask was added; otherwise false.
+     */
+    public boolean add(SudokuMask mask) {
+        MaskSet stripe = stripeFor(mask.high, mask.low);
+        synchronized (stripe) {
+            return stripe.add(mask);
+        }
+    }
+
+    public boolean contains(SudokuMask mask) {
+        MaskSet stripe = stripeFor(mask.high, mask.low);
+        synchronized (stripe) {
+            return stripe.contains(mask);
+        }
+    }
+
+    /**
+     * Removes the given mask.
+     * @return True if the mask was removed; otherwise false if it was not present.
+     */
+    public boolean remove(SudokuMask mask) {
+        MaskSet stripe = stripeFor(mask.high, mask.low);
+        synchronized (stripe) {
+            return stripe.remove(mask) >= 0;
+        }
+    }
+
+    /**
+     * Number of masks in the set. Not a consistent snapshot while other threads are adding.
+     */
+    public int size() {
+        int size = 0;
+        for (MaskSet stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        for (MaskSet stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    /**
+     * Gets copies of the masks, stripe by stripe.
+     */
+    public List<SudokuMask> toList() {
+        List<SudokuMask> result = new ArrayList<>();
+        for (MaskSet stripe : stripes) {
+            synchronized (stripe) {
+                for (SudokuMask mask : stripe) result.add(mask);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,137 @@
+package com.metal_pony.bucket.sudoku.util;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A map from SudokuMasks to values, with keys stored as in {@link MaskSet}.
+ * Values are held in an array by key index, and iteration is in insertion order.
+ *
+ * Not thread-safe.
+ */
+public class MaskMap<V> {
+    private final MaskSet keys;
+    private Object[] values;
+
+    /**
+     * Creates an empty map.
+     */
+    public MaskMap() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty map with room for the given number of keys before resizing.
+     * @param expectedSize Number of keys expected.
+     * @throws IllegalArgumentException If expectedSize is negative.
+     */
+    public MaskMap(int expectedSize) {
+        this.keys = new MaskSet(expectedSize) {
+            @Override
+            protected void moved(int from, int to) {
+                values[to] = values[from];
+                values[from] = null;
+            }
+        };
+        this.values = new Object[Math.max(16, expectedSize)];
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    public boolean isEmpty() {
+        return keys.isEmpty();
+    }
+
+    public boolean containsKey(SudokuMask key) {
+        return keys.contains(key);
+    }
+
+    /**
+     * Gets the value for the given key.
+     * @return The value; or null if the key is not present.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(SudokuMask key) {
+        int index = keys.indexOf(key);
+        return (index >= 0) ? (V) values[index] : null;
+    }
+
+    public V getOrDefault(SudokuMask key, V defaultValue) {
+        V value = get(key);
+        return (value != null) ? value : defaultValue;
+    }
+
+    /**
+     * Sets the value for the given key.
+     * @return The previous value; or null if the key was not present.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(SudokuMask key, V value) {
+        int index = keys.insert(key.high, key.low);
+        if (index < 0) {
+            index = -index - 1;
+            V previous = (V) values[index];
+            values[index] = value;
+            return previous;
+        }
+        if (index >= values.length) {
+            values = Arrays.copyOf(values, Math.max(values.length * 2, index + 1));
+        }
+        values[index] = value;
+        return null;
+    }
+
+    /**
+     * Gets the value for the given key, first computing and putting it if the key is not present.
+     */
+    public V computeIfAbsent(SudokuMask key, Function<SudokuMask,V> mappingFunction) {
+        V value = get(key);
+        if (value == null) {
+            value = mappingFunction.apply(key);
+            if (value != null) put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Removes the given key.
+     * @return The removed value; or null if the key was not present.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(SudokuMask key) {
+        int index = keys.remove(key);
+        if (index < 0) return null;
+        V previous = (V) values[index];
+        values[index] = null;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0, keys.indexLimit(), null);
+        keys.clear();
+    }
+
+    /**
+     * Gets the keys. Changes to the returned set change this map's keys without updating values,
+     * so treat it as read-only.
+     */
+    public MaskSet keySet() {
+        return keys;
+    }
+
+    /**
+     * Calls the action with a copy of each key and its value, in insertion order.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<SudokuMask,V> action) {
+        int limit = keys.indexLimit();
+        for (int index = 0; index < limit; index++) {
+            if (keys.isPresent(index)) {
+                action.accept(keys.get(index), (V) values[index]);
+            }
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.metal_pony.bucket.sudoku.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of SudokuMasks, stored as their two words in primitive arrays.
+ *
+ * Entries are kept in insertion order and each gets an index, which can be used as an id for as
+ * long as nothing is removed. Lookups go through an open-addressing table of entry indices with
+ * linear probing. A removed entry keeps its index and table slot until the table is next rebuilt;
+ * the rebuild then closes the gaps, moving later entries down and keeping their order.
+ *
+ * Not thread-safe. See {@link ConcurrentMaskSet}.
+ */
+public class MaskSet implements Iterable<SudokuMask> {
+    /** Marks a removed entry. A valid high word never has bits set above the lowest 17.*/
+    private static final long REMOVED = -1L;
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * Mixes a mask's two words into a hash.
+     */
+    static int hash(long high, long low) {
+        long h = (low ^ (high * 0x9E3779B97F4A7C15L)) * 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 31;
+        h *= 0x94D049BB133111EBL;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private long[] highs;
+    private long[] lows;
+    /** Entry index plus one for each slot; zero for empty slots.*/
+    private int[] table;
+    /** Number of entries, including removed ones.*/
+    private int count;
+    /** Number of non-empty table slots, including those of removed entries.*/
+    private int occupied;
+    private int size;
+
+    /**
+     * Creates an empty set.
+     */
+    public MaskSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates an empty set with room for the given number of masks before resizing.
+     * @param expectedSize Number of masks expected.
+     * @throws IllegalArgumentException If expectedSize is negative.
+     */
+    public MaskSet(int expectedSize) {
+        if (expectedSize < 0) throw new IllegalArgumentException("expectedSize must be non-negative");
+        int capacity = Math.max(MIN_CAPACITY, expectedSize);
+        highs = new long[capacity];
+        lows = new long[capacity];
+        table = new int[tableSizeFor(capacity)];
+        count = 0;
+        occupied = 0;
+        size = 0;
+    }
+
+    /** Smallest power of two that keeps the table at most half full.*/
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(Math.max(MIN_CAPACITY, capacity) * 2 - 1) * 2;
+    }
+
+    /** Number of masks in the set.*/
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Number of indices given out, including those of removed masks.
+     * Indices range from 0 up to this.
+     */
+    public int indexLimit() {
+        return count;
+    }
+
+    /**
+     * Finds the table slot for the given words: either the slot holding them, or the empty
+     * slot where they would go.
+     */
+    private int slot(long high, long low) {
+        int m = table.length - 1;
+        int slot = hash(high, low) & m;
+        while (true) {
+            int entry = table[slot];
+            if (entry == 0) return slot;
+            if (highs[entry - 1] == high && lows[entry - 1] == low) return slot;
+            slot = (slot + 1) & m;
+        }
+    }
+
+    /**
+     * Adds the mask with the given words if it is not present.
+     * @return The new entry's index; or, if already present, -(index + 1).
+     */
+    int insert(long high, long low) {
+        int slot = slot(high, low);
+        if (table[slot] != 0) return -table[slot];
+
+        // Rebuild before adding, so the returned index stays valid
+        if ((occupied + 1) * 2 > table.length) {
+            rehash();
+            slot = slot(high, low);
+        }
+        if (count == highs.length) {
+            highs = Arrays.copyOf(highs, count * 2);
+            lows = Arrays.copyOf(lows, count * 2);
+        }
+        int index = count++;
+        highs[index] = high;
+        lows[index] = low;
+        table[slot] = index + 1;
+        occupied++;
+        size++;
+        return index;
+    }
+
+    /**
+     * Rebuilds the table for the present entries, dropping removed ones and moving later entries
+     * down to fill their indices.
+     */
+    private void rehash() {
+        table = new int[tableSizeFor(size + 1)];
+        occupied = size;
+        int m = table.length - 1;
+        int to = 0;
+        for (int from = 0; from < count; from++) {
+            if (highs[from] == REMOVED) continue;
+            if (from != to) {
+                highs[to] = highs[from];
+                lows[to] = lows[from];
+                moved(from, to);
+            }
+            int slot = hash(highs[to], lows[to]) & m;
+            while (table[slot] != 0) slot = (slot + 1) & m;
+            table[slot] = ++to;
+        }
+        count = to;
+    }
+
+    /**
+     * Called while rebuilding the table, when the entry at index {@code from} moves down to
+     * {@code to}. Subclasses that keep data by index override this to move theirs along.
+     */
+    protected void moved(int from, int to) {}
+
+    /**
+     * Adds the given mask if it is not present.
+     * @return True if the mask was added; otherwise false.
+     */
+    public boolean add(SudokuMask mask) {
+        return insert(mask.high, mask.low) >= 0;
+    }
+
+    /**
+     * Adds the mask with the given words if it is not present.
+     * @param high High word, as given by {@link SudokuMask#highBits()}.
+     * @param low Low word, as given by {@link SudokuMask#lowBits()}.
+     * @return True if the mask was added; otherwise false.
+     * @throws SudokuMask.RangeException If high has any bits set above the lowest 17.
+     */
+    public boolean add(long high, long low) {
+        if ((high & ~SudokuMask.HIGH_WORD_MASK) != 0L) throw new SudokuMask.RangeException();
+        return insert(high, low) >= 0;
+    }
+
+    /**
+     * Gets the index of the given mask.
+     * @return The mask's index; or -1 if it is not present.
+     */
+    public int indexOf(SudokuMask mask) {
+        return indexOf(mask.high, mask.low);
+    }
+
+    /**
+     * Gets the index of the mask with the given words.
+     * @return The mask's index; or -1 if it is not present.
+     */
+    public int indexOf(long high, long low) {
+        return table[slot(high, low)] - 1;
+    }
+
+    public boolean contains(SudokuMask mask) {
+        return indexOf(mask.high, mask.low) >= 0;
+    }
+
+    public boolean contains(long high, long low) {
+        return indexOf(high, low) >= 0;
+    }
+
+    /**
+     * Removes the given mask. Its index is not reused; the next table rebuild moves later
+     * entries down instead.
+     * @return The removed mask's index; or -1 if it was not present.
+     */
+    public int remove(SudokuMask mask) {
+        int index = indexOf(mask.high, mask.low);
+        if (index >= 0) {
+            highs[index] = REMOVED;
+            size--;
+        }
+        return index;
+    }
+
+    /**
+     * Removes all masks. Indices start over from 0.
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        count = 0;
+        occupied = 0;
+        size = 0;
+    }
+
+    /**
+     * Whether a mask is present at the given index.
+     */
+    public boolean isPresent(int index) {
+        return index >= 0 && index < count && highs[index] != REMOVED;
+    }
+
+    /**
+     * Gets a copy of the mask at the given index.
+     * @throws NoSuchElementException If no mask is present at the index.
+     */
+    public SudokuMask get(int index) {
+        if (!isPresent(index)) throw new NoSuchElementException("No mask at index " + index);
+        return new SudokuMask(highs[index], lows[index]);
+    }
+
+    /**
+     * Gets the high word of the mask at the given index, without copying the mask.
+     * @throws NoSuchElementException If no mask is present at the index.
+     */
+    public long highBits(int index) {
+        if (!isPresent(index)) throw new NoSuchElementException("No mask at index " + index);
+        return highs[index];
+    }
+
+    /**
+     * Gets the low word of the mask at the given index, without copying the mask.
+     * @throws NoSuchElementException If no mask is present at the index.
+     */
+    public long lowBits(int index) {
+        if (!isPresent(index)) throw new NoSuchElementException("No mask at index " + index);
+        return lows[index];
+    }
+
+    /**
+     * Gets copies of the masks, in insertion order.
+     */
+    public List<SudokuMask> toList() {
+        List<SudokuMask> result = new ArrayList<>(size);
+        for (SudokuMask mask : this) result.add(mask);
+        return result;
+    }
+
+    /**
+     * Iterates over copies of the masks, in insertion order.
+     */
+    @Override
+    public Iterator<SudokuMask> iterator() {
+        return new Iterator<>() {
+            int next = advance(0);
+
+            private int advance(int index) {
+                while (index < count && highs[index] == REMOVED) index++;
+                return index;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public SudokuMask next() {
+                if (next >= count) throw new NoSuchElementException();
+                SudokuMask mask = new SudokuMask(highs[next], lows[next]);
+                next = advance(next + 1);
+                return mask;
+            }
+        };
+    }
+}
@@ -1,7 +1,6 @@
 package com.metal_pony.bucket.sudoku.util;
 
 import java.math.BigInteger;
-import java.util.Arrays;
 import java.util.Comparator;
 
 import com.metal_pony.bucket.util.Shuffler;
@@ -16,6 +15,9 @@ import com.metal_pony.bucket.util.Shuffler;
  */
 public class SudokuMask implements Comparable<SudokuMask>, Comparator<SudokuMask> {
     static final int N = 81;
+    /** Cells 0 through 16 are held in the high word, the rest in the low word.*/
+    static final int HIGH_CELLS = N - 64;
+    static final long HIGH_WORD_MASK = (1L << HIGH_CELLS) - 1L;
     static final SudokuMask[] CELL_MASKS = new SudokuMask[N];
     static {
         for (int ci = 0; ci < N; ci++) {
@@ -43,12 +45,7 @@ public class SudokuMask implements Comparable<SudokuMask>, Comparator<SudokuMask
      * Returns a new SudokuMask with all bits set.
      */
     public static SudokuMask full() {
-        SudokuMask mask = new SudokuMask();
-        mask.bitsSet = N;
-        Arrays.fill(mask.vals, '1');
-        mask.bits[1] = 0x1FFFFL;
-        mask.bits[0] = 0xFFFFFFFFFFFFFFFFL;
-        return mask;
+        return new SudokuMask(HIGH_WORD_MASK, -1L);
     }
 
     /**
@@ -73,9 +70,10 @@ public class SudokuMask implements Comparable<SudokuMask>, Comparator<SudokuMask
         return arr;
     }
 
-    char[] vals;
-    long[] bits;
-    int bitsSet;
+    /** Cells 0 through 16. Cell 0 is bit 16; cell 16 is bit 0.*/
+    long high;
+    /** Cells 17 through 80. Cell 17 is bit 63; cell 80 is bit 0.*/
+    long low;
 
     /**
      * Creates a new SudokuMask from the given sudoku string.
@@ -84,7 +82,22 @@ public class SudokuMask implements Comparable<SudokuMask>, Comparator<SudokuMask
      * @throws LengthException If the string length is not 81.
      */
     public SudokuMask(String sudokuStr) {
-        this(sudokuStr.toCharArray());
+        if (sudokuStr == null || sudokuStr.length() != N) throw new LengthException();
+        // Words are built here rather than through setBit, which a subclass could override
+        long highBits = 0L;
+        long lowBits = 0L;
+        for (int i = 0; i < N; i++) {
+            char ch = sudokuStr.charAt(i);
+            if (ch > '0' && ch <= '9') {
+                if (i < HIGH_CELLS) {
+                    highBits |= 1L << (HIGH_CELLS - 1 - i);
+                } else {
+                    lowBits |= 1L << (N - 1 - i);
+                }
+            }
+        }
+        this.high = highBits;
+        this.low = lowBits;
     }
 
     /**
@@ -95,20 +108,27 @@ public class SudokuMask implements Comparable<SudokuMask>, Comparator<SudokuMask
      */
     public SudokuMask(char[] vals) {
         if (vals == null || vals.length != N) throw new LengthException();
-        this.vals = new char[N];
-        this.bits = new long[]{0L, 0L};
-        this.bitsSet = 0;
-        setFromCharArr(vals);
+        long highBits = 0L;
+        long lowBits = 0L;
+        for (int i = 0; i < N; i++) {
+            if (vals[i] > '0' && vals[i] <= '9') {
+                if (i < HIGH_CELLS) {
+                    highBits |= 1L << (HIGH_CELLS - 1 - i);
+                } else {
+                    lowBits |= 1L << (N - 1 - i);
+                }
+            }
+        }
+        this.high = highBits;
+        this.low = lowBits;
     }
 
     /**
      * Creates a new SudokuMask where all bits are unset.
      */
     public SudokuMask() {
-        this.vals = new char[N];
-        Arrays.fill(this.vals, '0');
-        this.bits = new long[]{0L, 0L};
-        this.bitsSet = 0;
+        this.high = 0L;
+        this.low = 0L;
     }
 
     /**
@@ -116,30 +136,70 @@ public class SudokuMask implements Comparable<SudokuMask>, Comparator<SudokuMask
      * @param other The SudokuMask to copy.
      */
     public SudokuMask(SudokuMask other) {
-        this.vals = new char[N];
-        System.arraycopy(other.vals, 0, this.vals, 0, N);
-        this.bits = new long[]{other.bits[0], other.bits[1]};
-        this.bitsSet = other.bitsSet;
+        this.high = other.high;
+        this.low = other.low;
     }
 
-    private void setFromCharArr(char[] arr) {
-        for (int i = 0; i < N; i++) {
-            this.vals[i] = '0';
-            if (arr[i] > '0' && arr[i] <= '9') {
-                this.vals[i] = '1';
-                this.bitsSet++;
-                int bsi = i > 16 ? 0 : 1;
-                int bi = (80 - i) % 64;
-                this.bits[bsi] |= 1L<<bi;
-            }
-        }
+    /**
+     * Creates a new SudokuMask from its two words, as given by {@link #highBits()} and {@link #lowBits()}.
+     * @param highBits Bits for cells 0 through 16, in the lowest 17 bits.
+     * @param lowBits Bits for cells 17 through 80.
+     * @throws RangeException If highBits has any bits set above the lowest 17.
+     */
+    public SudokuMask(long highBits, long lowBits) {
+        if ((highBits & ~HIGH_WORD_MASK) != 0L) throw new RangeException();
+        this.high = highBits;
+        this.low = lowBits;
+    }
+
+    /**
+     * Gets the word holding cells 0 through 16, in the lowest 17 bits.
+     * Cell 0 is the most significant of those.
+     */
+    public long highBits() {
+        return high;
+    }
+
+    /**
+     * Gets the word holding cells 17 through 80.
+     * Cell 17 is the most significant bit, and cell 80 the least.
+     */
+    public long lowBits() {
+        return low;
+    }
+
+    /**
+     * Copies the bits of the given mask into this one.
+     * @return This SudokuMask for convenience.
+     */
+    public SudokuMask set(SudokuMask other) {
+        high = other.high;
+        low = other.low;
+        return this;
+    }
+
+    /**
+     * Unsets all bits.
+     * @return This SudokuMask for convenience.
+     */
+    public SudokuMask clear() {
+        high = 0L;
+        low = 0L;
+        return this;
     }
 
     /**
      * @return The number of bits set.
      */
     public int bitCount() {
-        return bitsSet;
+        return Long.bitCount(high) + Long.bitCount(low);
+    }
+
+    /**
+     * @return True if no bits are set; otherwise false.
+     */
+    public boolean isEmpty() {
+        return (high | low) == 0L;
     }
 
     /**
@@ -149,7 +209,9 @@ public class SudokuMask implements Comparable<SudokuMask>, Comparator<SudokuMask
      */
     public boolean testBit(int bit) {
         if (bit < 0 || bit >= N) throw new RangeException(bit);
-        return vals[bit] == '1';
+        return (bit < HIGH_CELLS)
+            ? ((high >>> (HIGH_CELLS - 1 - bit)) & 1L) != 0L
+            : ((low >>> (N - 1 - bit)) & 1L) != 0L;
     }
 
     /**
@@ -159,12 +221,10 @@ public class SudokuMask implements Comparable<SudokuMask>, Comparator<SudokuMask
      */
     public SudokuMask setBit(int bit) {
         if (bit < 0 || bit >= N) throw new RangeException(bit);
-        if (!testBit(bit)) {
-            bitsSet++;
-            vals[bit] = '1';
-            int bsi = bit > (N - 1 - 64) ? 0 : 1;
-            int bi = (N - 1 - bit) % 64;
-            bits[bsi] |= 1L<<bi;
+        if (bit < HIGH_CELLS) {
+            high |= 1L << (HIGH_CELLS - 1 - bit);
+        } else {
+            low |= 1L << (N - 1 - bit);
         }
         return this;
     }
@@ -175,15 +235,8 @@ public class SudokuMask implements Comparable<SudokuMask>, Comparator<SudokuMask
      * @return This SudokuMask for convenience.
      */
     public SudokuMask add(SudokuMask other) {
-        for (int b = 0; b < N; b++) {
-            if (other.testBit(b) && !testBit(b)) {
-                bitsSet++;
-                vals[b] = '1';
-                int bsi = b > (N - 1 - 64) ? 0 : 1;
-                int bi = (N - 1 - b) % 64;
-                bits[bsi] |= 1L<<bi;
-            }
-        }
+        high |= other.high;
+        low |= other.low;
         return this;
     }
 
@@ -194,16 +247,63 @@ public class SudokuMask implements Comparable<SudokuMask>, Comparator<SudokuMask
      */
     public SudokuMask unsetBit(int bit) {
         if (bit < 0 || bit >= N) throw new RangeException(bit);
-        if (testBit(bit)) {
-            bitsSet--;
-            vals[bit] = '0';
-            int bsi = bit > (N - 1 - 64) ? 0 : 1;
-            int bi = (N - 1 - bit) % 64;
-            bits[bsi] ^= 1L<<bi;
+        if (bit < HIGH_CELLS) {
+            high &= ~(1L << (HIGH_CELLS - 1 - bit));
+        } else {
+            low &= ~(1L << (N - 1 - bit));
         }
         return this;
     }
 
+    /**
+     * Sets in dest the bits set in both a and b. Any of the three may be the same mask.
+     * @return dest for convenience.
+     */
+    public static SudokuMask and(SudokuMask a, SudokuMask b, SudokuMask dest) {
+        dest.high = a.high & b.high;
+        dest.low = a.low & b.low;
+        return dest;
+    }
+
+    /**
+     * Sets in dest the bits set in either a or b. Any of the three may be the same mask.
+     * @return dest for convenience.
+     */
+    public static SudokuMask or(SudokuMask a, SudokuMask b, SudokuMask dest) {
+        dest.high = a.high | b.high;
+        dest.low = a.low | b.low;
+        return dest;
+    }
+
+    /**
+     * Sets in dest the bits set in a but not in b. Any of the three may be the same mask.
+     * @return dest for convenience.
+     */
+    public static SudokuMask andNot(SudokuMask a, SudokuMask b, SudokuMask dest) {
+        dest.high = a.high & ~b.high;
+        dest.low = a.low & ~b.low;
+        return dest;
+    }
+
+    /**
+     * Gets the index of the first set bit at or after the given one.
+     * Use as <code>for (int ci = mask.nextSetBit(0); ci >= 0; ci = mask.nextSetBit(ci + 1))</code>.
+     * @param fromBit Index to start from. Aka sudoku cell index.
+     * @return The index of the next set bit; or -1 if there is none.
+     */
+    public int nextSetBit(int fromBit) {
+        if (fromBit < 0) fromBit = 0;
+        if (fromBit < HIGH_CELLS) {
+            // Keep bits for cells fromBit..16, which are bits 16-fromBit..0
+            long word = high & ((1L << (HIGH_CELLS - fromBit)) - 1L);
+            if (word != 0L) return Long.numberOfLeadingZeros(word) - (64 - HIGH_CELLS);
+            fromBit = HIGH_CELLS;
+        }
+        if (fromBit >= N) return -1;
+        long word = low & (-1L >>> (fromBit - HIGH_CELLS));
+        return (word != 0L) ? HIGH_CELLS + Long.numberOfLeadingZeros(word) : -1;
+    }
+
     /**
      * Flips the bit at the given index.
      * @param bit Index of the bit to flip. Aka sudoku cell index.
@@ -211,10 +311,10 @@ public class SudokuMask implements Comparable<SudokuMask>, Comparator<SudokuMask
      */
     public SudokuMask flipBit(int bit) {
         if (bit < 0 || bit >= N) throw new RangeException(bit);
-        if (testBit(bit)) {
-            unsetBit(bit);
+        if (bit < HIGH_CELLS) {
+            high ^= 1L << (HIGH_CELLS - 1 - bit);
         } else {
-            setBit(bit);
+            low ^= 1L << (N - 1 - bit);
         }
         return this;
     }
@@ -224,12 +324,8 @@ public class SudokuMask implements Comparable<SudokuMask>, Comparator<SudokuMask
      * @return This SudokuMask for convenience.
      */
     public SudokuMask flip() {
-        bits[1] = ((~bits[1]) & 0x1FFFFL);
-        bits[0] = ~bits[0];
-        bitsSet = N - bitsSet;
-        for (int i = N - 1; i >= 0; i--) {
-            vals[i] = (vals[i] == '0') ? '1' : '0';
-        }
+        high = (~high) & HIGH_WORD_MASK;
+        low = ~low;
         return this;
     }
 
@@ -243,7 +339,7 @@ public class SudokuMask implements Comparable<SudokuMask>, Comparator<SudokuMask
      */
     public boolean intersects(SudokuMask other) {
         if (other == null) return false;
-        return ((bits[0] & other.bits[0]) | (bits[1] & other.bits[1])) != 0L;
+        return ((low & other.low) | (high & other.high)) != 0L;
     }
 
     // caveat: false if either are empty
@@ -256,11 +352,8 @@ public class SudokuMask implements Comparable<SudokuMask>, Comparator<SudokuMask
      */
     public boolean hasBitsSet(SudokuMask other) {
         if (other == null) return false;
-        if (bitsSet == 0 || other.bitsSet == 0) return false;
-        return (
-            (bits[0] & other.bits[0]) == other.bits[0] &&
-            (bits[1] & other.bits[1]) == other.bits[1]
-        );
+        if (isEmpty() || other.isEmpty()) return false;
+        return (low & other.low) == other.low && (high & other.high) == other.high;
     }
 
     /**
@@ -273,14 +366,18 @@ public class SudokuMask implements Comparable<SudokuMask>, Comparator<SudokuMask
     public boolean hasBitsSet(int[] bits) {
         if (bits == null || bits.length == 0) return false;
         for (int i = 0; i < bits.length; i++) {
-            if (bits[i] > 80) return false;
-            if (vals[bits[i]] == '0') return false;
+            if (bits[i] < 0 || bits[i] > 80) return false;
+            if (!testBit(bits[i])) return false;
         }
         return true;
     }
 
     @Override
     public String toString() {
+        char[] vals = new char[N];
+        for (int i = 0; i < N; i++) {
+            vals[i] = testBit(i) ? '1' : '0';
+        }
         return new String(vals);
     }
 
@@ -299,12 +396,12 @@ public class SudokuMask implements Comparable<SudokuMask>, Comparator<SudokuMask
      * A hexadecimal representation of this mask.
      */
     public String toHexString() {
-        String first = Long.toHexString(bits[1]);
+        String first = Long.toHexString(high);
         boolean usePad = !("0".equals(first));
         return String.format(
             "%s%s",
             "0".equals(first) ? "" : first,
-            usePad ? padLeft(Long.toHexString(bits[0]), 16, '0') : Long.toHexString(bits[0])
+            usePad ? padLeft(Long.toHexString(low), 16, '0') : Long.toHexString(low)
         );
     }
 
@@ -327,27 +424,13 @@ public class SudokuMask implements Comparable<SudokuMask>, Comparator<SudokuMask
     public static SudokuMask parseHexString(String maskHexStr) {
         // Ensure the input is 21 characters.
         maskHexStr = padLeft(maskHexStr, 21, '0').substring(0, 21);
-        SudokuMask mask = new SudokuMask();
         long bits0 = Long.parseUnsignedLong(maskHexStr.substring(maskHexStr.length() - 16), 16);
         long bits1 = Long.parseUnsignedLong(maskHexStr.substring(0, maskHexStr.length() - 16), 16);
-        int bit = N - 64 - 1;
-        while (bits1 != 0L) {
-            if ((bits1 & 1L) == 1L) {
-                // error if mask str was too big
-                mask.setBit(bit);
-            }
-            bits1 >>>= 1;
-            bit--;
-        }
-        bit = N - 1;
-        while (bits0 != 0L) {
-            if ((bits0 & 1L) == 1L) {
-                mask.setBit(bit);
-            }
-            bits0 >>>= 1;
-            bit--;
+        if ((bits1 & ~HIGH_WORD_MASK) != 0L) {
+            // error if mask str was too big
+            throw new RangeException();
         }
-        return mask;
+        return new SudokuMask(bits1, bits0);
     }
 
     /**
@@ -373,8 +456,8 @@ public class SudokuMask implements Comparable<SudokuMask>, Comparator<SudokuMask
      */
     public int[] toArray() {
         int[] result = new int[N];
-        for (int i = 0; i < N; i++) {
-            result[i] = vals[i] - '0';
+        for (int ci = nextSetBit(0); ci >= 0; ci = nextSetBit(ci + 1)) {
+            result[ci] = 1;
         }
         return result;
     }
@@ -384,11 +467,14 @@ public class SudokuMask implements Comparable<SudokuMask>, Comparator<SudokuMask
      * @return An array of indices corresponding to the set bits in this mask.
      */
     public int[] toIndices() {
-        int[] result = new int[bitsSet];
-        for (int bit = 0, i = 0; bit < N; bit++) {
-            if (vals[bit] == '1') {
-                result[i++] = bit;
-            }
+        int[] result = new int[bitCount()];
+        // Trailing zeros visit cells last to first, so fill from the end
+        int i = result.length;
+        for (long word = low; word != 0L; word &= word - 1L) {
+            result[--i] = N - 1 - Long.numberOfTrailingZeros(word);
+        }
+        for (long word = high; word != 0L; word &= word - 1L) {
+            result[--i] = HIGH_CELLS - 1 - Long.numberOfTrailingZeros(word);
         }
         return result;
     }
@@ -398,11 +484,10 @@ public class SudokuMask implements Comparable<SudokuMask>, Comparator<SudokuMask
      * @return An array of SudokuMask components, each with one bit set.
      */
     public SudokuMask[] split() {
-        SudokuMask[] components = new SudokuMask[bitsSet];
-        for (int bit = 0, i = 0; bit < N; bit++) {
-            if (vals[bit] == '1') {
-                components[i++] = new SudokuMask().setBit(bit);
-            }
+        int[] indices = toIndices();
+        SudokuMask[] components = new SudokuMask[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            components[i] = new SudokuMask().setBit(indices[i]);
         }
         return components;
     }
@@ -412,24 +497,24 @@ public class SudokuMask implements Comparable<SudokuMask>, Comparator<SudokuMask
         if (obj == null || !(obj instanceof SudokuMask)) return false;
         if (this == obj) return true;
         SudokuMask _obj = (SudokuMask) obj;
-        return (bits[0] == _obj.bits[0] && bits[1] == _obj.bits[1]);
+        return (low == _obj.low && high == _obj.high);
     }
 
     @Override
     public int hashCode() {
-        long key = bits[0];
+        long key = low;
         key = (key ^ (key >>> 32)) * 0x111111111111111L;
         key = (key ^ (key >>> 32)) * 0x111111111111111L;
         key = (key ^ (key >>> 32));
-        long key1 = bits[1] * 0x111111111111111L;
+        long key1 = high * 0x111111111111111L;
         return ((int)key) ^ ((int)key1);
     }
 
     @Override
     public int compareTo(SudokuMask o) {
-        int compare = Long.compareUnsigned(bits[1], o.bits[1]);
+        int compare = Long.compareUnsigned(high, o.high);
         if (compare == 0) {
-            return Long.compareUnsigned(bits[0], o.bits[0]);
+            return Long.compareUnsigned(low, o.low);
         }
         return compare;
     }
@@ -0,0 +1,83 @@
+package com.metal_pony.bucket.sudoku;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+import java.util.function.IntPredicate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestBandCounter {
+    Sudoku grid;
+
+    @BeforeEach
+    void before() {
+        grid = new Sudoku(SieveItemsFixture.grid);
+    }
+
+    /** Copies the fixture grid, keeping only the cells the predicate accepts.*/
+    private Sudoku keep(IntPredicate keepCell) {
+        int[] digits = grid.getBoard();
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            if (!keepCell.test(ci)) digits[ci] = 0;
+        }
+        return new Sudoku(digits);
+    }
+
+    @Test
+    void count_whenOneFullBand_countsItsCompletions() {
+        // Completions of the fixture's top band. Counting the empty grid (6670903752021072936960)
+        // takes too long for a unit test, but fixing a single band is quick.
+        BigInteger expected = new BigInteger("7064630784");
+        assertEquals(expected, keep(ci -> ci < 27).countSolutionsByBands(2));
+
+        // The same band as the left stack, which is counted transposed
+        int[] digits = new int[Sudoku.SPACES];
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            int row = ci / 9, col = ci % 9;
+            if (col < 3) digits[ci] = grid.getDigit(col * 9 + row);
+        }
+        assertEquals(expected, new Sudoku(digits).countSolutionsByBands(2));
+    }
+
+    @Test
+    void count_matchesSearch() {
+        Sudoku[] puzzles = {
+            // Clues in every band
+            keep(ci -> (ci * 7) % 10 < 3),
+            // Middle band empty
+            keep(ci -> ci / 27 != 1 && (ci * 5) % 9 < 5),
+            // Full top band, a few clues in the bottom band
+            keep(ci -> ci < 27 || (ci >= 54 && ci % 4 == 0)),
+            // Clues mostly in the first stack; counted transposed
+            keep(ci -> (ci % 9 < 3) ? (ci % 5 != 0) : (ci % 4 == 0)),
+            grid
+        };
+        for (Sudoku puzzle : puzzles) {
+            assertEquals(BigInteger.valueOf(puzzle.countSolutions()), new BandCounter(puzzle).count(2), puzzle.toString());
+        }
+    }
+
+    @Test
+    void count_whenOneFullBand_isInvariantUnderBandSymmetries() {
+        Sudoku band = keep(ci -> ci < 27);
+        BigInteger count = band.countSolutionsByBands(2);
+        assertTrue(count.compareTo(BigInteger.valueOf(Integer.MAX_VALUE)) > 0);
+
+        assertEquals(count, new Sudoku(band).swapStacks(0, 2).countSolutionsByBands(2));
+        assertEquals(count, new Sudoku(band).swapBandRows(0, 0, 1).countSolutionsByBands(2));
+        assertEquals(count, new Sudoku(band).swapStackCols(1, 0, 2).countSolutionsByBands(2));
+        // The same band at the bottom
+        assertEquals(count, new Sudoku(band).swapBands(0, 2).countSolutionsByBands(2));
+    }
+
+    @Test
+    void count_whenCluesConflict_isZero() {
+        Sudoku puzzle = new Sudoku();
+        puzzle.setDigit(0, 5);
+        puzzle.setDigit(8, 5);
+        assertEquals(BigInteger.ZERO, new BandCounter(puzzle).count(1));
+        assertThrows(IllegalArgumentException.class, () -> new BandCounter(puzzle).count(0));
+    }
+}
@@ -0,0 +1,114 @@
+package com.metal_pony.bucket.sudoku;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.metal_pony.bucket.sudoku.util.BatchJob;
+
+public class TestBatchJob {
+    Path dir;
+    Path out;
+    Path checkpoint;
+
+    @BeforeEach
+    void before() throws IOException {
+        dir = Files.createTempDirectory("batchjob");
+        out = dir.resolve("out.txt");
+        checkpoint = dir.resolve("out.txt.checkpoint");
+        dir.toFile().deleteOnExit();
+        out.toFile().deleteOnExit();
+        checkpoint.toFile().deleteOnExit();
+    }
+
+    /** Runs inputs 0 through end-1, or from the checkpoint; each writes "n" and adds n % 3 to "mods".*/
+    private BatchJob run(int end, boolean resume) throws IOException {
+        BatchJob job = new BatchJob("test", out.toString(), null).checkpointEvery(0L);
+        job.start(resume);
+        for (long n = job.offset(); n < end; n++) {
+            job.aggregate("mods").add(Long.toString(n % 3));
+            job.complete(Long.toString(n));
+        }
+        return job;
+    }
+
+    private static List<String> expected(int end) {
+        List<String> lines = new ArrayList<>();
+        for (int n = 0; n < end; n++) lines.add(Integer.toString(n));
+        return lines;
+    }
+
+    @Test
+    void resume_continuesFromCheckpoint() throws IOException {
+        BatchJob job = run(10, false);
+        job.checkpoint();
+        // Stopped without closing
+        job = run(25, true);
+        assertEquals(25, job.offset());
+        job.close();
+
+        assertEquals(expected(25), Files.readAllLines(out));
+        assertTrue(Files.exists(checkpoint));
+    }
+
+    @Test
+    void resume_dropsOutputAfterCheckpoint() throws IOException {
+        BatchJob job = new BatchJob("test", out.toString(), null).checkpointEvery(Long.MAX_VALUE);
+        job.start(false);
+        for (int n = 0; n < 5; n++) job.complete(Integer.toString(n));
+        job.checkpoint();
+        // Lines that reached the file after the checkpoint, the last one cut short
+        Files.writeString(out, Files.readString(out) + "5\n6\npartial li");
+
+        job = run(12, true);
+        job.close();
+        assertEquals(expected(12), Files.readAllLines(out));
+    }
+
+    @Test
+    void resume_restoresAggregates() throws IOException {
+        run(2, false).checkpoint();
+        BatchJob job = new BatchJob("test", out.toString(), null);
+        assertTrue(job.start(true));
+        assertEquals(Set.of("0", "1"), job.aggregate("mods"));
+        assertEquals(2, job.offset());
+    }
+
+    @Test
+    void resume_finishedJob_writesNothingMore() throws IOException {
+        run(6, false).close();
+        run(6, true).close();
+        assertEquals(expected(6), Files.readAllLines(out));
+    }
+
+    @Test
+    void start_withoutResume_startsOver() throws IOException {
+        run(6, false).close();
+        BatchJob job = run(3, false);
+        job.close();
+        assertEquals(expected(3), Files.readAllLines(out));
+    }
+
+    @Test
+    void start_whenCheckpointIsForAnotherJob_throws() throws IOException {
+        run(3, false).close();
+        BatchJob other = new BatchJob("other", out.toString(), checkpoint.toString());
+        assertThrows(IllegalArgumentException.class, () -> other.start(true));
+    }
+
+    @Test
+    void start_whenOutputIsShorterThanCheckpoint_throws() throws IOException {
+        run(30, false).close();
+        Files.writeString(out, "0\n");
+        BatchJob job = new BatchJob("test", out.toString(), null);
+        assertThrows(IllegalArgumentException.class, () -> job.start(true));
+    }
+}
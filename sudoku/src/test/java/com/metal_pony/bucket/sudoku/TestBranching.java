@@ -0,0 +1,123 @@
+package com.metal_pony.bucket.sudoku;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestBranching {
+    Sudoku grid;
+
+    @BeforeEach
+    void before() {
+        grid = new Sudoku(SieveItemsFixture.grid);
+    }
+
+    /** Copies the fixture grid, keeping only the cells the predicate accepts.*/
+    private Sudoku keep(IntPredicate keepCell) {
+        int[] digits = grid.getBoard();
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            if (!keepCell.test(ci)) digits[ci] = 0;
+        }
+        return new Sudoku(digits);
+    }
+
+    @Test
+    void everyStrategy_countsTheSame() {
+        Sudoku[] puzzles = {
+            keep(ci -> ci % 3 != 1),
+            keep(ci -> ci >= 27),
+            keep(ci -> ci >= 36),
+        };
+        for (Sudoku puzzle : puzzles) {
+            long expected = puzzle.countSolutions();
+            assertTrue(expected > 1L);
+            for (Branching strategy : Branching.values()) {
+                assertEquals(expected, puzzle.countSolutions(strategy), strategy.name());
+                List<String> solutions = new ArrayList<>();
+                puzzle.searchForSolutions3(solution -> solutions.add(solution.toString()), strategy);
+                assertEquals(expected, solutions.stream().distinct().count(), strategy.name());
+                assertEquals(solutions.size(), solutions.stream().distinct().count(), strategy.name());
+            }
+        }
+    }
+
+    @Test
+    void everyStrategy_flagsTheSame() {
+        Sudoku unique = new Sudoku("...8.1..........435............7.8........1...2..3....6......75..34........2..6..");
+        Sudoku multiple = keep(ci -> ci % 3 == 0);
+        int[] conflicting = grid.getBoard();
+        conflicting[0] = conflicting[1];
+        for (Branching strategy : Branching.values()) {
+            assertEquals(1, unique.solutionsFlag(strategy), strategy.name());
+            assertEquals(2, multiple.solutionsFlag(strategy), strategy.name());
+            assertEquals(0, new Sudoku(conflicting).solutionsFlag(strategy), strategy.name());
+        }
+    }
+
+    @Test
+    void deterministic_findsTheSameFirstSolution() {
+        Sudoku puzzle = keep(ci -> ci % 4 == 0);
+        String[] first = new String[2];
+        for (int i = 0; i < first.length; i++) {
+            final int j = i;
+            puzzle.searchForSolutions3(solution -> {
+                first[j] = solution.toString();
+                return false;
+            }, Branching.DETERMINISTIC);
+        }
+        assertNotNull(first[0]);
+        assertEquals(first[0], first[1]);
+    }
+
+    @Test
+    void fewestPlaces_whenHiddenSingle_branchesOnDigit() {
+        // The 1s leave it a single place in row 0, while every empty cell still has 8 or 9 candidates
+        int[] digits = new int[Sudoku.SPACES];
+        digits[Sudoku.ROW_INDICES[1][3]] = 1;
+        digits[Sudoku.ROW_INDICES[2][6]] = 1;
+        digits[Sudoku.COL_INDICES[1][4]] = 1;
+        digits[Sudoku.COL_INDICES[2][8]] = 1;
+        int[] candidates = new int[Sudoku.SPACES];
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            if (digits[ci] > 0) continue;
+            candidates[ci] = Sudoku.ALL;
+            for (int ni : Sudoku.CELL_NEIGHBORS[ci]) {
+                if (digits[ni] > 0) candidates[ci] &= ~Sudoku.ENCODER[digits[ni]];
+            }
+        }
+
+        int[] alternatives = new int[Sudoku.DIGITS];
+        int n = Branching.FEWEST_PLACES.branch(digits, candidates, alternatives);
+        assertEquals(1, n);
+        assertEquals(0, BranchingStrategy.placementCell(alternatives[0]));
+        assertEquals(1, BranchingStrategy.placementDigit(alternatives[0]));
+    }
+
+    @Test
+    void fewestPlaces_whenDigitHasNoPlace_returnsZero() {
+        int[] digits = new int[Sudoku.SPACES];
+        int[] candidates = new int[Sudoku.SPACES];
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) candidates[ci] = Sudoku.ENCODER[2] | Sudoku.ENCODER[3];
+        assertEquals(0, Branching.FEWEST_PLACES.branch(digits, candidates, new int[Sudoku.DIGITS]));
+    }
+
+    @Test
+    void generatePuzzle_withStrategy_isUnique() {
+        Sudoku puzzle = Sudoku.generatePuzzle(grid, 26, null, 0, 0L, true, false, Branching.FEWEST_PLACES);
+        assertEquals(26, puzzle.numClues());
+        assertEquals(1, puzzle.solutionsFlag());
+        assertEquals(grid.toString(), puzzle.solution().toString());
+    }
+
+    @Test
+    void forName_ignoresCase() {
+        assertEquals(Branching.DEGREE_MRV, Branching.forName("degree_mrv"));
+        assertEquals(Branching.MRV, Branching.forName("MRV"));
+        assertThrows(IllegalArgumentException.class, () -> Branching.forName("bogus"));
+    }
+}
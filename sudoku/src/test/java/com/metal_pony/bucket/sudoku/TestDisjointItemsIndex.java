@@ -0,0 +1,108 @@
+package com.metal_pony.bucket.sudoku;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.metal_pony.bucket.sudoku.util.SudokuMask;
+
+public class TestDisjointItemsIndex {
+    DisjointItemsIndex index;
+
+    @BeforeEach
+    void before() {
+        index = new DisjointItemsIndex(SieveItemsFixture.items);
+    }
+
+    /** Removes random cells from the full mask for as long as every item stays hit.*/
+    private SudokuMask randomHittingSet() {
+        DisjointItemsIndex state = index.newState();
+        SudokuMask mask = SudokuMask.full();
+        state.choose(mask);
+        for (int ci : SudokuMask.random(Sudoku.SPACES).toIndices()) {
+            state.unchoose(ci);
+            if (state.isSatisfied()) {
+                mask.unsetBit(ci);
+            } else {
+                state.choose(ci);
+            }
+        }
+        return mask;
+    }
+
+    @Test
+    void lowerBound_whenNothingChosen_isAtMostAnyHittingSetSize() {
+        assertTrue(index.lowerBound() > 0);
+        for (int n = 0; n < 20; n++) {
+            assertTrue(index.lowerBound() <= randomHittingSet().bitCount());
+        }
+    }
+
+    @Test
+    void lowerBound_whenPartlyChosen_isAtMostTheCellsLeftToChoose() {
+        for (int n = 0; n < 20; n++) {
+            int[] cells = randomHittingSet().toIndices();
+            DisjointItemsIndex state = index.newState();
+            for (int i = 0; i < cells.length; i++) {
+                assertFalse(state.isSatisfied());
+                assertTrue(state.lowerBound() <= cells.length - i);
+                state.choose(cells[i]);
+            }
+            assertTrue(state.isSatisfied());
+            assertEquals(0, state.lowerBound());
+            assertEquals(-1, state.firstUnhit());
+        }
+    }
+
+    @Test
+    void lowerBound_whenItemsAreDisjoint_countsThemAll() {
+        DisjointItemsIndex disjoint = new DisjointItemsIndex(List.of(
+            new SudokuMask("110000000110000000000000000000000000000000000000000000000000000000000000000000000"),
+            new SudokuMask("000000000000000000000000000000000000000000000000000000000000000000000000000000011"),
+            new SudokuMask("000000000000000000000000000000000000000011000000000000000000000000000000000000000")
+        ));
+        assertEquals(3, disjoint.lowerBound());
+        assertEquals(2, disjoint.lowerBound(2));
+
+        disjoint.choose(80);
+        assertEquals(2, disjoint.lowerBound());
+        assertEquals(2, disjoint.numUnhit());
+        disjoint.unchoose(80);
+        assertEquals(3, disjoint.lowerBound());
+    }
+
+    @Test
+    void chooseAndUnchoose_restoresUnhitItems() {
+        int numItems = index.size();
+        int first = index.firstUnhit();
+        assertEquals(numItems, index.numUnhit());
+
+        int[] cells = SudokuMask.random(30).toIndices();
+        for (int ci : cells) index.choose(ci);
+        assertTrue(index.numUnhit() < numItems);
+        for (int ci : cells) index.unchoose(ci);
+
+        assertEquals(numItems, index.numUnhit());
+        assertEquals(first, index.firstUnhit());
+    }
+
+    @Test
+    void firstUnhit_isTheSmallestItem() {
+        int smallest = Sudoku.SPACES;
+        for (SudokuMask item : SieveItemsFixture.items) {
+            smallest = Math.min(smallest, item.bitCount());
+        }
+        assertEquals(smallest, index.item(index.firstUnhit()).bitCount());
+        assertEquals(smallest, index.cells(index.firstUnhit()).length);
+    }
+
+    @Test
+    void with_addsAnItem() {
+        DisjointItemsIndex more = index.with(SudokuMask.full());
+        assertEquals(index.size() + 1, more.size());
+        assertEquals(index.size(), index.newState().size());
+    }
+}
@@ -0,0 +1,65 @@
+package com.metal_pony.bucket.sudoku;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class TestFingerprintEngine {
+    private final String configFixtureStr = "218574639573896124469123578721459386354681792986237415147962853695318247832745961";
+
+    // NOTE: level 4 fingerprints take several seconds to generate, so they are left out.
+    private final Map<String,String> configFixtureFingerprints = Map.of(
+        "dc2", "9:9:7:4:2:3::16",
+        "dc3", "9::f::f:1:11:5:f:5:f:c:f:9:3d:e:16:25:21:8:8",
+        "ac2", "9:6:4:9:1:4::6",
+        "ac3", "9::f::11:5:2a:8:2c:3:2e:8:12:b:30:6:11:7:1",
+        "fp2", "9:f:b:d:3:7::1c",
+        "fp3", "9::f::18:6:3b:d:3b:8:3d:14:21:14:6d:14:27:2c:22:8:8"
+    );
+
+    @Test
+    void fingerprints_computesAllLevelsInOnePass() {
+        List<String> names = List.of("dc2", "dc3", "ac2", "ac3", "fp2", "fp3");
+        Map<String,String> prints = FingerprintEngine.fingerprints(new Sudoku(configFixtureStr), names);
+
+        assertEquals(names, List.copyOf(prints.keySet()));
+        for (String name : names) {
+            assertEquals(configFixtureFingerprints.get(name), prints.get(name), name);
+        }
+    }
+
+    @Test
+    void fingerprints_whenNameIsUnknown_throws() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            FingerprintEngine.fingerprints(new Sudoku(configFixtureStr), List.of("dc5"));
+        });
+    }
+
+    @Test
+    void fingerprintAll_matchesSingleGridResults() {
+        List<String> names = List.of("dc2", "ac2", "fp2");
+        List<Sudoku> grids = List.of(
+            new Sudoku(configFixtureStr),
+            Sudoku.generateConfig(),
+            Sudoku.generateConfig()
+        );
+
+        List<Map<String,String>> results = FingerprintEngine.fingerprintAll(grids, names, 2);
+        assertEquals(grids.size(), results.size());
+        for (int i = 0; i < grids.size(); i++) {
+            assertEquals(FingerprintEngine.fingerprints(grids.get(i), names), results.get(i));
+        }
+    }
+
+    @Test
+    void areaCombos_returnsCopies() {
+        // First level 2 combo covers the first two rows
+        FingerprintEngine.areaCombos(2).get(0).setBit(80);
+        assertEquals(18, FingerprintEngine.areaCombos(2).get(0).bitCount());
+        assertEquals(18, FingerprintEngine.AREA_COMBOS[2][0].bitCount());
+        assertEquals(3 * Sudoku.DIGIT_COMBOS_MAP[3].length, FingerprintEngine.areaCombos(3).size());
+    }
+}
@@ -0,0 +1,78 @@
+package com.metal_pony.bucket.sudoku;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestGridCanonicalizer {
+    Sudoku grid;
+
+    @BeforeEach
+    void before() {
+        grid = new Sudoku(SieveItemsFixture.grid);
+    }
+
+    @Test
+    void canonicalize_isTheSameForScrambledGrids() {
+        String canonical = GridCanonicalizer.canonicalString(grid);
+        assertTrue(new Sudoku(canonical).isSolved());
+        // Relabeled by first appearance
+        assertTrue(canonical.startsWith("123456789"));
+        for (int n = 0; n < 10; n++) {
+            assertEquals(canonical, GridCanonicalizer.canonicalString(new Sudoku(grid).scramble()));
+        }
+        assertEquals(canonical, GridCanonicalizer.canonicalString(new Sudoku(canonical)));
+    }
+
+    @Test
+    void canonicalize_isTheSameForScrambledPuzzles() {
+        Sudoku puzzle = Sudoku.generatePuzzle(grid, 26, null, 0, 0L, false);
+        String canonical = GridCanonicalizer.canonicalString(puzzle);
+        assertEquals(26, new Sudoku(canonical).numClues());
+        for (int n = 0; n < 5; n++) {
+            assertEquals(canonical, GridCanonicalizer.canonicalString(new Sudoku(puzzle).scramble()));
+        }
+    }
+
+    @Test
+    void canonicalize_differsForDifferentGrids() {
+        Sudoku other = Sudoku.generateConfig();
+        if (!other.fp2().equals(grid.fp2())) {
+            assertNotEquals(GridCanonicalizer.canonicalString(grid), GridCanonicalizer.canonicalString(other));
+        }
+    }
+
+    @Test
+    void canonicalize_mapsCellsAndDigits() {
+        Sudoku scrambled = new Sudoku(grid).scramble();
+        int[] digits = scrambled.getBoard();
+        GridCanonicalizer.Result result = GridCanonicalizer.canonicalize(digits);
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            assertEquals(result.digits[ci], result.digitMap[digits[result.cellMap[ci]]]);
+        }
+        assertEquals(0, result.digitMap[0]);
+
+        boolean[] seen = new boolean[Sudoku.SPACES];
+        for (int ci : result.cellMap) {
+            assertFalse(seen[ci]);
+            seen[ci] = true;
+        }
+    }
+
+    @Test
+    void inverseMaps_reconstructOriginal() {
+        int[] digits = new Sudoku(grid).scramble().getBoard();
+        GridCanonicalizer.Result result = GridCanonicalizer.canonicalize(digits);
+        int[] inverseCells = result.inverseCellMap();
+        int[] inverseDigits = result.inverseDigitMap();
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            assertEquals(digits[ci], inverseDigits[result.digits[inverseCells[ci]]]);
+        }
+    }
+
+    @Test
+    void canonicalize_whenWrongLength_throws() {
+        assertThrows(IllegalArgumentException.class, () -> GridCanonicalizer.canonicalize(new int[80]));
+    }
+}
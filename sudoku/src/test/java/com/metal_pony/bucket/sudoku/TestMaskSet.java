@@ -0,0 +1,201 @@
+package com.metal_pony.bucket.sudoku;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.metal_pony.bucket.sudoku.util.ConcurrentMaskSet;
+import com.metal_pony.bucket.sudoku.util.MaskMap;
+import com.metal_pony.bucket.sudoku.util.MaskSet;
+import com.metal_pony.bucket.sudoku.util.SudokuMask;
+
+public class TestMaskSet {
+    MaskSet set;
+    List<SudokuMask> masks;
+
+    @BeforeEach
+    void before() {
+        set = new MaskSet();
+        masks = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            masks.add(SudokuMask.random(i % 82));
+        }
+    }
+
+    @Test
+    void add_matchesLinkedHashSet() {
+        Set<SudokuMask> expected = new LinkedHashSet<>();
+        for (SudokuMask mask : masks) {
+            assertEquals(expected.add(mask), set.add(mask));
+        }
+        assertEquals(expected.size(), set.size());
+        assertEquals(new ArrayList<>(expected), set.toList());
+        for (SudokuMask mask : masks) {
+            assertTrue(set.contains(mask));
+            assertTrue(set.contains(mask.highBits(), mask.lowBits()));
+        }
+        SudokuMask absent = SudokuMask.full().unsetBit(0).unsetBit(80);
+        assertEquals(expected.contains(absent), set.contains(absent));
+    }
+
+    @Test
+    void indexOf_isInsertionIndex() {
+        for (SudokuMask mask : masks) set.add(mask);
+        int index = 0;
+        for (SudokuMask mask : set) {
+            assertEquals(index, set.indexOf(mask));
+            assertEquals(mask, set.get(index));
+            index++;
+        }
+        assertEquals(set.size(), set.indexLimit());
+    }
+
+    @Test
+    void remove_keepsOtherIndicesAndOrder() {
+        for (SudokuMask mask : masks) set.add(mask);
+        List<SudokuMask> expected = set.toList();
+        int sizeBefore = set.size();
+        SudokuMask removed = expected.get(10);
+        int indexAfter = set.indexOf(expected.get(11));
+
+        assertEquals(10, set.remove(removed));
+        assertEquals(-1, set.remove(removed));
+        assertFalse(set.contains(removed));
+        assertFalse(set.isPresent(10));
+        assertThrows(java.util.NoSuchElementException.class, () -> set.get(10));
+        assertEquals(sizeBefore - 1, set.size());
+        assertEquals(indexAfter, set.indexOf(expected.get(11)));
+        expected.remove(10);
+        assertEquals(expected, set.toList());
+
+        // Added again at the end
+        assertTrue(set.add(removed));
+        assertEquals(set.indexLimit() - 1, set.indexOf(removed));
+    }
+
+    @Test
+    void removeAndAdd_manyTimes_staysConsistent() {
+        SudokuMask mask = SudokuMask.random(30);
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(set.add(mask));
+            assertEquals(1, set.size());
+            assertTrue(set.remove(mask) >= 0);
+            // Removed entries are cleared out when the table is rebuilt
+            assertTrue(set.indexLimit() <= 32);
+        }
+        assertTrue(set.isEmpty());
+        set.clear();
+        assertEquals(0, set.indexLimit());
+    }
+
+    @Test
+    void rehash_afterRemovals_movesEntriesDownInOrder() {
+        for (SudokuMask mask : masks) set.add(mask);
+        List<SudokuMask> added = set.toList();
+        List<SudokuMask> expected = new ArrayList<>();
+        for (int i = 0; i < added.size(); i++) {
+            if (i % 2 == 0) {
+                set.remove(added.get(i));
+            } else {
+                expected.add(added.get(i));
+            }
+        }
+        // Adding back more than were removed forces a rebuild
+        List<SudokuMask> more = new ArrayList<>();
+        for (int i = 0; i < masks.size(); i++) more.add(SudokuMask.random(40));
+        for (SudokuMask mask : more) {
+            if (set.add(mask)) expected.add(mask);
+        }
+
+        assertEquals(expected.size(), set.size());
+        assertEquals(set.size(), set.indexLimit());
+        assertEquals(expected, set.toList());
+        for (int index = 0; index < expected.size(); index++) {
+            assertEquals(index, set.indexOf(expected.get(index)));
+            assertEquals(expected.get(index).highBits(), set.highBits(index));
+            assertEquals(expected.get(index).lowBits(), set.lowBits(index));
+        }
+    }
+
+    @Test
+    void add_whenHighBitsOutOfRange_throws() {
+        assertThrows(SudokuMask.RangeException.class, () -> set.add(1L << 17, 0L));
+    }
+
+    @Test
+    void maskMap_putGetRemove() {
+        MaskMap<Integer> map = new MaskMap<>();
+        for (int i = 0; i < masks.size(); i++) {
+            map.put(masks.get(i), i);
+        }
+        for (int i = 0; i < masks.size(); i++) {
+            int last = masks.lastIndexOf(masks.get(i));
+            assertEquals(last, map.get(masks.get(i)));
+        }
+        assertEquals(map.keySet().size(), map.size());
+
+        SudokuMask first = map.keySet().get(0);
+        Integer value = map.get(first);
+        assertEquals(value, map.remove(first));
+        assertNull(map.get(first));
+        assertEquals(-1, map.getOrDefault(first, -1));
+        assertEquals(7, map.computeIfAbsent(first, m -> 7));
+
+        List<SudokuMask> order = new ArrayList<>();
+        map.forEach((key, v) -> order.add(key));
+        assertEquals(map.keySet().toList(), order);
+        assertEquals(first, order.get(order.size() - 1));
+
+        // Values move along with their keys when removals are cleared out
+        for (int i = 0; i < masks.size(); i += 2) map.remove(masks.get(i));
+        for (int i = 0; i < masks.size(); i++) map.put(SudokuMask.random(40), -i);
+        for (int i = 1; i < masks.size(); i += 2) {
+            // Equal masks share a parity, since they come from the same i % 82
+            assertEquals(masks.lastIndexOf(masks.get(i)), map.get(masks.get(i)));
+        }
+        assertEquals(map.keySet().size(), map.keySet().indexLimit());
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(first));
+    }
+
+    @Test
+    void concurrentMaskSet_addsEachMaskOnce() throws Exception {
+        ConcurrentMaskSet concurrent = new ConcurrentMaskSet();
+        Set<SudokuMask> expected = new LinkedHashSet<>(masks);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            results.add(pool.submit(() -> {
+                int added = 0;
+                for (SudokuMask mask : masks) {
+                    if (concurrent.add(mask)) added++;
+                }
+                return added;
+            }));
+        }
+        int totalAdded = 0;
+        for (Future<Integer> result : results) totalAdded += result.get();
+        pool.shutdown();
+
+        assertEquals(expected.size(), totalAdded);
+        assertEquals(expected.size(), concurrent.size());
+        assertEquals(expected, new LinkedHashSet<>(concurrent.toList()));
+        for (SudokuMask mask : masks) assertTrue(concurrent.contains(mask));
+
+        assertTrue(concurrent.remove(masks.get(0)));
+        assertFalse(concurrent.contains(masks.get(0)));
+        concurrent.clear();
+        assertTrue(concurrent.isEmpty());
+    }
+}
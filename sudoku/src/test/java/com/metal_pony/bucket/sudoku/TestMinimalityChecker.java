@@ -0,0 +1,121 @@
+package com.metal_pony.bucket.sudoku;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.metal_pony.bucket.sudoku.util.SudokuMask;
+
+public class TestMinimalityChecker {
+    static final String PUZZLE_17 = ".................1.....2.3.....4.2.5..6..7.....8.9...4...8.3.6..4.....9..5.......";
+
+    Sudoku grid;
+    MinimalityChecker checker;
+
+    @BeforeEach
+    void before() {
+        grid = new Sudoku(SieveItemsFixture.grid);
+        checker = new MinimalityChecker(grid);
+    }
+
+    /** Removes each clue in turn and checks for a single solution.*/
+    static SudokuMask naiveRedundantClues(Sudoku puzzle) {
+        SudokuMask redundant = new SudokuMask();
+        int[] digits = puzzle.getBoard();
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            if (digits[ci] > 0) {
+                Sudoku removed = new Sudoku(puzzle);
+                removed.setDigit(ci, 0);
+                if (removed.solutionsFlag() == 1) {
+                    redundant.setBit(ci);
+                }
+            }
+        }
+        return redundant;
+    }
+
+    @Test
+    void constructor_whenGridMalformed_throws() {
+        assertThrows(IllegalArgumentException.class, () -> new MinimalityChecker(new Sudoku(PUZZLE_17)));
+    }
+
+    @Test
+    void isMinimal_for17CluePuzzle_isTrue() {
+        Sudoku puzzle = new Sudoku(PUZZLE_17);
+        assertTrue(puzzle.isMinimal());
+        assertEquals(0, puzzle.redundantClues().bitCount());
+    }
+
+    @Test
+    void isMinimal_forFullGrid_isFalse() {
+        assertFalse(checker.isMinimal(grid));
+        assertEquals(Sudoku.SPACES, checker.redundantClues(grid).bitCount());
+    }
+
+    @Test
+    void redundantClues_whenMultipleSolutions_isNull() {
+        Sudoku puzzle = grid.filter(SudokuMask.full().unsetBit(0).unsetBit(1).unsetBit(2));
+        for (int ci = 9; ci < 27; ci++) {
+            puzzle.setDigit(ci, 0);
+        }
+        assertTrue(puzzle.solutionsFlag() > 1);
+        assertNull(checker.redundantClues(puzzle));
+        assertFalse(checker.isMinimal(puzzle));
+        assertFalse(puzzle.isMinimal());
+        assertNull(puzzle.redundantClues());
+    }
+
+    @Test
+    void redundantClues_whenClueDiffersFromGrid_throws() {
+        Sudoku puzzle = new Sudoku();
+        puzzle.setDigit(0, (grid.getDigit(0) % Sudoku.DIGITS) + 1);
+        assertThrows(IllegalArgumentException.class, () -> checker.redundantClues(puzzle));
+        assertThrows(IllegalArgumentException.class, () -> checker.isMinimal(puzzle));
+    }
+
+    @Test
+    void redundantClues_matchesRemovingEachClue() {
+        for (int n = 0; n < 20; n++) {
+            Sudoku puzzle = Sudoku.generatePuzzle(grid, 24, null, 0, 0L, false);
+            // Extra clues from the grid, which may or may not be needed
+            for (int added = 0, ci = n; added < n % 4; ci = (ci + 7) % Sudoku.SPACES) {
+                if (puzzle.getDigit(ci) == 0) {
+                    puzzle.setDigit(ci, grid.getDigit(ci));
+                    added++;
+                }
+            }
+
+            SudokuMask expected = naiveRedundantClues(puzzle);
+            assertEquals(expected, checker.redundantClues(puzzle));
+            assertEquals(expected.bitCount() == 0, checker.isMinimal(puzzle));
+        }
+        assertTrue(checker.numUnavoidableSets() > 0);
+    }
+
+    @Test
+    void redundantClues_forGeneratedPuzzles_matchesRemovingEachClue() {
+        for (int n = 0; n < 10; n++) {
+            Sudoku puzzle = new Sudoku(GeneratedPuzzles.PUZZLES_24_1000[n]);
+            SudokuMask expected = naiveRedundantClues(puzzle);
+            assertEquals(expected, puzzle.redundantClues());
+            assertEquals(expected.bitCount() == 0, puzzle.isMinimal());
+        }
+    }
+
+    @Test
+    void addUnavoidableSets_growsPool() {
+        SudokuSieve sieve = new SudokuSieve(grid);
+        sieve.seed(sieve.digitCombos(2));
+        Set<SudokuMask> items = sieve.items();
+        assertFalse(items.isEmpty());
+        checker.addUnavoidableSets(items);
+        assertTrue(checker.numUnavoidableSets() > 0);
+        assertTrue(checker.numUnavoidableSets() <= items.size());
+
+        Sudoku puzzle = Sudoku.generatePuzzle(grid, 24, null, 0, 0L, false);
+        assertEquals(naiveRedundantClues(puzzle), checker.redundantClues(puzzle));
+    }
+}
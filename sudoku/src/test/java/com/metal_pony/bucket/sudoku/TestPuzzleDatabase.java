@@ -0,0 +1,158 @@
+package com.metal_pony.bucket.sudoku;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestPuzzleDatabase {
+    static final String PUZZLE = "...8.1..........435............7.8........1...2..3....6......75..34........2..6..";
+
+    String path;
+
+    @BeforeEach
+    void before() throws IOException {
+        File file = File.createTempFile("puzzle-db", ".txt");
+        file.deleteOnExit();
+        path = file.getPath();
+    }
+
+    @Test
+    void add_isFoundByEveryIndex() throws IOException {
+        PuzzleEntry entry = new PuzzleEntry(PUZZLE);
+        try (PuzzleDatabase db = new PuzzleDatabase(path, 1)) {
+            db.add(entry, "dc2", "fp2");
+            db.add(new PuzzleEntry(GeneratedPuzzles.PUZZLES_24_1000[0]), "fp2");
+            assertEquals(2, db.size());
+
+            assertEquals(List.of(PUZZLE), puzzles(db.findByPrint("fp2", entry.fp2())));
+            assertEquals(List.of(PUZZLE), puzzles(db.findByPrint("dc2", entry.dc2())));
+            assertEquals(List.of(PUZZLE), puzzles(db.findByClues(17)));
+            assertEquals(List.of(PUZZLE), puzzles(db.findBySolution(entry.solutionStr())));
+            assertEquals(List.of(GeneratedPuzzles.PUZZLES_24_1000[0]), puzzles(db.findByClues(24)));
+            assertTrue(db.findByPrint("fp3", entry.fp2()).isEmpty());
+            assertTrue(db.findByClues(30).isEmpty());
+
+            PuzzleEntry found = db.findBySolution(entry.solutionStr()).get(0);
+            assertEquals(entry.fp2(), found.fp2);
+            assertNull(found.fp3);
+
+            Sudoku scrambled = new Sudoku(entry.solutionStr()).scramble();
+            assertEquals(List.of(PUZZLE), puzzles(db.findIsomorphic(scrambled)));
+        }
+    }
+
+    @Test
+    void open_rebuildsIndexesFromFile() throws IOException {
+        try (PuzzleDatabase db = new PuzzleDatabase(path, 1)) {
+            for (int i = 0; i < 5; i++) db.add(new PuzzleEntry(GeneratedPuzzles.PUZZLES_24_1000[i]), "dc2");
+        }
+        try (PuzzleDatabase db = new PuzzleDatabase(path, 3)) {
+            assertEquals(5, db.size());
+            assertEquals(5, db.findByClues(24).size());
+            String solution = new Sudoku(GeneratedPuzzles.PUZZLES_24_1000[3]).solution().toString();
+            assertEquals(List.of(GeneratedPuzzles.PUZZLES_24_1000[3]), puzzles(db.findBySolution(solution)));
+        }
+    }
+
+    @Test
+    void open_whenSplitIntoChunks_indexesEachRecordOnce() throws IOException {
+        // Enough records for several chunks, so that records straddle chunk boundaries
+        int numRecords = (int) (PuzzleDatabase.MIN_CHUNK_BYTES * 5 / 120);
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(new File(path).toPath(), StandardCharsets.US_ASCII))) {
+            for (int i = 0; i < numRecords; i++) {
+                out.println(String.format("%s,solution%d,canonical%d,dc2-%d,,,,,,,,", PUZZLE, i, i % 100, i % 7));
+            }
+        }
+        try (PuzzleDatabase db = new PuzzleDatabase(path, 4)) {
+            assertEquals(numRecords, db.size());
+            assertEquals(numRecords, db.findByClues(17).size());
+            assertEquals(1, db.findBySolution("solution" + (numRecords / 2)).size());
+            assertEquals(1, db.findBySolution("solution" + (numRecords - 1)).size());
+            int expected = numRecords / 7 + ((numRecords % 7 > 3) ? 1 : 0);
+            assertEquals(expected, db.findByPrint("dc2", "dc2-3").size());
+        }
+    }
+
+    @Test
+    void open_dropsPartialLastRecord() throws IOException {
+        try (PuzzleDatabase db = new PuzzleDatabase(path, 1)) {
+            db.add(new PuzzleEntry(PUZZLE));
+        }
+        Files.write(new File(path).toPath(), "...8.1....,2378".getBytes(StandardCharsets.US_ASCII), StandardOpenOption.APPEND);
+
+        try (PuzzleDatabase db = new PuzzleDatabase(path, 2)) {
+            assertEquals(1, db.size());
+            db.add(new PuzzleEntry(GeneratedPuzzles.PUZZLES_24_1000[0]));
+        }
+        try (PuzzleDatabase db = new PuzzleDatabase(path, 1)) {
+            assertEquals(2, db.size());
+            assertEquals(1, db.findByClues(24).size());
+        }
+    }
+
+    @Test
+    void open_whenRecordMalformed_throws() throws IOException {
+        Files.write(new File(path).toPath(), (PUZZLE + ",too,few\n").getBytes(StandardCharsets.US_ASCII));
+        assertThrows(IllegalArgumentException.class, () -> new PuzzleDatabase(path, 1));
+    }
+
+    @Test
+    void add_whenNoSolution_throws() throws IOException {
+        String noSolution = "11" + PUZZLE.substring(2);
+        try (PuzzleDatabase db = new PuzzleDatabase(path, 1)) {
+            assertThrows(IllegalArgumentException.class, () -> db.add(new PuzzleEntry(noSolution)));
+            assertThrows(IllegalArgumentException.class, () -> db.findByPrint("xx9", ""));
+            assertEquals(0, db.size());
+        }
+    }
+
+    @Test
+    void addAll_skipsUnsolvableAndKeepsOrder() throws IOException {
+        List<String> lines = List.of(
+            GeneratedPuzzles.PUZZLES_24_1000[0] + ",extra",
+            "11" + PUZZLE.substring(2),
+            "",
+            PUZZLE
+        );
+        try (PuzzleDatabase db = new PuzzleDatabase(path, 1)) {
+            assertEquals(2, db.addAll(lines.iterator(), 2, "dc2"));
+            assertEquals(2, db.size());
+        }
+        List<String> records = Files.readAllLines(new File(path).toPath());
+        assertTrue(records.get(0).startsWith(GeneratedPuzzles.PUZZLES_24_1000[0] + ","));
+        assertTrue(records.get(1).startsWith(PUZZLE + ","));
+    }
+
+    @Test
+    void sharedPrints_countsIsomorphicGridsOnce() throws IOException {
+        try (PuzzleDatabase db = new PuzzleDatabase(path, 1)) {
+            db.add(new PuzzleEntry(PUZZLE), "fp2");
+            db.add(new PuzzleEntry(new Sudoku(PUZZLE).scramble().toString()), "fp2");
+            assertTrue(db.sharedPrints("fp2").isEmpty());
+
+            // Two different grids under one (made up) fingerprint
+            String solution = new Sudoku(GeneratedPuzzles.PUZZLES_24_1000[0]).solution().toString();
+            String otherSolution = new Sudoku(GeneratedPuzzles.PUZZLES_24_1000[1]).solution().toString();
+            db.addRecord(String.format("%s,%s,%s,,,,,,,x,,", GeneratedPuzzles.PUZZLES_24_1000[0], solution, "gridA"));
+            db.addRecord(String.format("%s,%s,%s,,,,,,,x,,", GeneratedPuzzles.PUZZLES_24_1000[1], otherSolution, "gridB"));
+            Map<String,Set<String>> shared = db.sharedPrints("fp2");
+            assertEquals(Set.of("x"), shared.keySet());
+            assertEquals(Set.of("gridA", "gridB"), shared.get("x"));
+        }
+    }
+
+    private static List<String> puzzles(List<PuzzleEntry> entries) {
+        return entries.stream().map(PuzzleEntry::puzzleStr).toList();
+    }
+}
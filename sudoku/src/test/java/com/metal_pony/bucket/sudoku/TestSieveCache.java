@@ -0,0 +1,84 @@
+package com.metal_pony.bucket.sudoku;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.metal_pony.bucket.sudoku.util.SudokuMask;
+
+public class TestSieveCache {
+    Sudoku grid;
+    SieveCache cache;
+
+    @BeforeEach
+    void before() throws IOException {
+        grid = new Sudoku(SieveItemsFixture.grid);
+        File dir = Files.createTempDirectory("sieve-cache").toFile();
+        dir.deleteOnExit();
+        cache = new SieveCache(dir.getPath());
+    }
+
+    @Test
+    void constructor_whenPathIsAFile_throws() throws IOException {
+        File file = File.createTempFile("sieve-cache", ".txt");
+        file.deleteOnExit();
+        assertThrows(IllegalArgumentException.class, () -> {
+            new SieveCache(file.getPath());
+        });
+    }
+
+    @Test
+    void get_whenNotCached_returnsNull() {
+        assertFalse(cache.contains(grid, "fp2"));
+        assertNull(cache.get(grid, "fp2"));
+    }
+
+    @Test
+    void computeIfAbsent_seedsOnlyOnce() {
+        AtomicInteger numSeeded = new AtomicInteger();
+        SudokuSieve seeded = cache.computeIfAbsent(grid, "fixture", sieve -> {
+            numSeeded.incrementAndGet();
+            for (SudokuMask item : SieveItemsFixture.items) {
+                sieve.rawAdd(new SudokuMask(item));
+            }
+        });
+        new File(cache.pathFor(grid, "fixture")).deleteOnExit();
+
+        SudokuSieve cached = cache.computeIfAbsent(grid, "fixture", sieve -> numSeeded.incrementAndGet());
+
+        assertEquals(1, numSeeded.get());
+        assertTrue(cache.contains(grid, "fixture"));
+        assertEquals(seeded.items(), cached.items());
+        assertNull(cache.get(grid, "other"));
+    }
+
+    @Test
+    void computeIfAbsentIsomorphic_reusesSieveForScrambledGrid() {
+        AtomicInteger numSeeded = new AtomicInteger();
+        SudokuSieve seeded = cache.computeIfAbsentIsomorphic(grid, "fixture", sieve -> {
+            numSeeded.incrementAndGet();
+            for (SudokuMask item : SieveItemsFixture.items) {
+                sieve.rawAdd(new SudokuMask(item));
+            }
+        });
+        Sudoku canonical = new Sudoku(GridCanonicalizer.canonicalString(grid));
+        new File(cache.pathFor(canonical, "fixture")).deleteOnExit();
+        assertTrue(cache.contains(canonical, "fixture"));
+
+        Sudoku scrambled = new Sudoku(grid).scramble();
+        SudokuSieve mapped = cache.computeIfAbsentIsomorphic(scrambled, "fixture", sieve -> numSeeded.incrementAndGet());
+
+        assertEquals(1, numSeeded.get());
+        assertEquals(scrambled.toString(), mapped.config().toString());
+        assertEquals(seeded.size(), mapped.size());
+        for (SudokuMask item : mapped.items()) {
+            assertTrue(mapped.validate(item));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.metal_pony.bucket.sudoku;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.metal_pony.bucket.sudoku.util.SudokuMask;
+
+public class TestSieveEnricher {
+    Sudoku grid;
+    SudokuSieve sieve;
+
+    @BeforeEach
+    void before() {
+        grid = new Sudoku(SieveItemsFixture.grid);
+        sieve = new SudokuSieve(grid);
+    }
+
+    @Test
+    void constructor_whenBudgetNegative_throws() {
+        assertThrows(IllegalArgumentException.class, () -> new SieveEnricher(sieve, -1L));
+    }
+
+    @Test
+    void enricher_growsSieveInBackground() throws InterruptedException {
+        try (SieveEnricher enricher = new SieveEnricher(sieve, 60_000L)) {
+            for (int waits = 0; enricher.numAdded() == 0 && waits < 300; waits++) {
+                Thread.sleep(100L);
+            }
+            assertTrue(enricher.numAdded() > 0);
+        }
+        assertTrue(sieve.size() > 0);
+        for (SudokuMask item : sieve.items()) {
+            assertTrue(sieve.validate(item));
+        }
+    }
+
+    @Test
+    void enricher_whenBudgetSpent_stops() throws InterruptedException {
+        SieveEnricher enricher = new SieveEnricher(sieve, 0L);
+        for (int waits = 0; !enricher.isDone() && waits < 100; waits++) {
+            Thread.sleep(100L);
+        }
+        assertTrue(enricher.isDone());
+        enricher.offer(SudokuMask.full());
+        enricher.close();
+        assertEquals(0, enricher.numAdded());
+        assertEquals(0, sieve.size());
+    }
+
+    @Test
+    void close_stopsTask() {
+        SieveEnricher enricher = new SieveEnricher(sieve, Long.MAX_VALUE / 1_000_000L);
+        enricher.close();
+        assertTrue(enricher.isDone());
+        int numAdded = enricher.numAdded();
+        assertEquals(numAdded, sieve.size());
+    }
+
+    @Test
+    void generatePuzzle_withEnricher_makesUniquePuzzlesOfTheGrid() {
+        try (SieveEnricher enricher = new SieveEnricher(sieve, 10_000L)) {
+            for (boolean guided : new boolean[] { false, true }) {
+                for (int n = 0; n < 3; n++) {
+                    Sudoku puzzle = Sudoku.generatePuzzle(enricher, 24, 0, 0L, guided, Branching.MRV);
+                    assertEquals(Sudoku.SPACES - 24, puzzle.numEmptyCells());
+                    assertEquals(1, puzzle.solutionsFlag());
+                    assertEquals(SieveItemsFixture.grid, puzzle.solution().toString());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.metal_pony.bucket.sudoku;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestSolutionEstimator {
+    Sudoku grid;
+
+    @BeforeEach
+    void before() {
+        grid = new Sudoku(SieveItemsFixture.grid);
+    }
+
+    @Test
+    void estimate_isCloseToExactCount() {
+        // 25 clues spread over the grid leave a few hundred solutions, still quick to count exactly
+        Sudoku puzzle = new Sudoku(grid);
+        for (int n = 0; n < 56; n++) puzzle.setDigit((n * 29) % Sudoku.SPACES, 0);
+        long exact = puzzle.countSolutions();
+        assertTrue(exact > 100L);
+
+        SolutionEstimator.Estimate estimate = puzzle.estimateSolutions(4000, 2);
+        assertEquals(4000, estimate.samples);
+        assertTrue(
+            Math.abs(estimate.estimate - exact) <= 4.0 * estimate.standardError + 1e-9,
+            estimate + ", exact " + exact
+        );
+        assertTrue(estimate.low <= estimate.estimate && estimate.estimate <= estimate.high);
+    }
+
+    @Test
+    void estimate_whenSolved_isExactlyOne() {
+        SolutionEstimator.Estimate estimate = grid.estimateSolutions(100, 1);
+        assertEquals(1.0, estimate.estimate);
+        assertEquals(0.0, estimate.relativeError);
+        assertEquals(1.0, estimate.low);
+        assertEquals(1.0, estimate.high);
+    }
+
+    @Test
+    void estimate_whenNoSolutions_isZeroAndStopsAtMinSamples() {
+        Sudoku puzzle = new Sudoku(grid);
+        puzzle.setDigit(1, 0);
+        puzzle.setDigit(0, puzzle.getBoard()[2]);
+        SolutionEstimator.Estimate estimate = puzzle.estimateSolutions(1_000_000, 2, 0.05, 0L);
+        assertEquals(0.0, estimate.estimate);
+        assertEquals(0.0, estimate.relativeError);
+        assertTrue(estimate.samples < 1_000_000);
+    }
+
+    @Test
+    void estimate_stopsAtTimeBudget() {
+        long start = System.currentTimeMillis();
+        SolutionEstimator.Estimate estimate = new Sudoku().estimateSolutions(Integer.MAX_VALUE, 2, 0.0, 200L);
+        long elapsed = System.currentTimeMillis() - start;
+        assertTrue(elapsed < 2000L, "took " + elapsed + " ms");
+        assertTrue(estimate.samples > 0L);
+        assertTrue(estimate.estimate > 0.0);
+    }
+
+    @Test
+    void estimate_whenArgumentsNotPositive_throws() {
+        assertThrows(IllegalArgumentException.class, () -> grid.estimateSolutions(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> grid.estimateSolutions(1, 0));
+    }
+}
@@ -265,6 +265,62 @@ public class TestSudoku {
             }));
         }
 
+        @Test
+        void lookupTables_matchDefinitions() {
+            for (int nDigits = 0; nDigits <= Sudoku.DIGITS; nDigits++) {
+                int[] combos = Sudoku.DIGIT_COMBOS_MAP[nDigits];
+                assertEquals(Counting.nChooseK(Sudoku.DIGITS, nDigits).intValueExact(), combos.length);
+                for (int i = 0; i < combos.length; i++) {
+                    assertEquals(nDigits, Integer.bitCount(combos[i]));
+                    if (i > 0) assertTrue(combos[i - 1] < combos[i]);
+                }
+            }
+
+            for (int val = 0; val < Sudoku.CANDIDATES_ARR.length; val++) {
+                int[] digits = Sudoku.CANDIDATES_ARR[val];
+                assertEquals(Integer.bitCount(val), digits.length);
+                assertEquals(Integer.bitCount(val), Sudoku.BIT_COUNT_MAP[val]);
+                int mask = 0;
+                for (int i = 0; i < digits.length; i++) {
+                    assertEquals(Sudoku.ENCODER[digits[i]], Sudoku.CANDIDATES[val][i]);
+                    mask |= Sudoku.ENCODER[digits[i]];
+                }
+                assertEquals(val, mask);
+            }
+
+            for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+                assertEquals(Sudoku.cellRow(ci), Sudoku.CELL_ROWS[ci]);
+                assertEquals(Sudoku.cellCol(ci), Sudoku.CELL_COLS[ci]);
+                assertEquals(Sudoku.cellRegion(ci), Sudoku.CELL_REGIONS[ci]);
+
+                Set<Integer> neighbors = new HashSet<>();
+                for (int cj : Sudoku.CELL_NEIGHBORS[ci]) {
+                    assertTrue(
+                        Sudoku.cellRow(cj) == Sudoku.cellRow(ci) ||
+                        Sudoku.cellCol(cj) == Sudoku.cellCol(ci) ||
+                        Sudoku.cellRegion(cj) == Sudoku.cellRegion(ci)
+                    );
+                    neighbors.add(cj);
+                }
+                assertEquals(20, neighbors.size());
+                assertFalse(neighbors.contains(ci));
+            }
+        }
+
+        @Test
+        void generatedPuzzles_areReadFromResources() {
+            assertEquals(1000, GeneratedPuzzles.PUZZLES_24_1000.length);
+            assertEquals(24, new Sudoku(GeneratedPuzzles.PUZZLES_24_1000[0]).numClues());
+
+            String[] puzzleAndSolution = GeneratedPuzzles.getRandomPuzzleAndSolution();
+            Sudoku solution = new Sudoku(puzzleAndSolution[1]);
+            assertTrue(solution.isSolved());
+            int[] puzzle = new Sudoku(puzzleAndSolution[0]).getBoard();
+            for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+                if (puzzle[ci] > 0) assertEquals(puzzle[ci], solution.getBoard()[ci]);
+            }
+        }
+
         @Test
         void generatePuzzle_whenSieveHasItems_butGridNull_throws() {
             assertThrows(IllegalArgumentException.class, () -> {
@@ -311,6 +367,18 @@ public class TestSudoku {
             }
         }
 
+        @Test
+        void generatePuzzle_guided_hasExpectedCluesAndSingleSolution() {
+            Sudoku grid = Sudoku.generateConfig();
+            SudokuSieve sieve = new SudokuSieve(grid);
+            for (int clues = 81; clues >= 22; clues--) {
+                Sudoku p = Sudoku.generatePuzzle(grid, clues, sieve, 0, 0L, true, true);
+                assertEquals(Sudoku.SPACES - clues, p.numEmptyCells());
+                assertEquals(1, p.solutionsFlag());
+                assertEquals(grid.toString(), p.solution().toString());
+            }
+        }
+
         @Test
         void generatePuzzles_stressTest() {
             for (int clues = 81; clues >= 24; clues--) {
@@ -703,6 +771,24 @@ public class TestSudoku {
         });
     }
 
+    @Test
+    void searchForSolutions3_whenCancelled_stops() {
+        AtomicInteger checks = new AtomicInteger();
+        AtomicInteger solutions = new AtomicInteger();
+        new Sudoku().searchForSolutions3(s -> {
+            solutions.incrementAndGet();
+            return true;
+        }, () -> checks.incrementAndGet() >= 3);
+        assertEquals(3, checks.get());
+        assertTrue(solutions.get() > 0);
+
+        // Not cancelled, finds them all
+        AtomicInteger count = new AtomicInteger();
+        String puzzleStr = PUZZLESTRS_TO_NUM_SOLUTIONS.keySet().iterator().next();
+        new Sudoku(puzzleStr).searchForSolutions3(s -> count.incrementAndGet() > 0, () -> false);
+        assertEquals(PUZZLESTRS_TO_NUM_SOLUTIONS.get(puzzleStr).intValue(), count.get());
+    }
+
     @Test
     void searchForSolutionsAsync_forBlankPuzzle_hitsTimeLimit() {
         assertFalse(new Sudoku().searchForSolutionsAsync(s -> {}, 1, 250L));
@@ -128,6 +128,20 @@ public class TestSudokuMask {
         }
     }
 
+    @Test
+    void longs_constructor() {
+        assertThrows(RangeException.class, () -> { new SudokuMask(1L<<17, 0L); });
+        assertEquals(SudokuMask.full(), new SudokuMask(0x1FFFFL, -1L));
+
+        for (int t = 0; t < 100; t++) {
+            SudokuMask expected = SudokuMask.random(t % 82);
+            mask = new SudokuMask(expected.highBits(), expected.lowBits());
+            assertEquals(expected, mask);
+            assertEquals(expected.toString(), mask.toString());
+            assertEquals(expected.bitCount(), mask.bitCount());
+        }
+    }
+
     @Test
     void string_constructor() {
         assertThrows(LengthException.class, () -> { new SudokuMask(""); });
@@ -357,6 +371,57 @@ public class TestSudokuMask {
         }
     }
 
+    @Test
+    void nextSetBit_visitsSetBitsInOrder() {
+        assertEquals(-1, mask.nextSetBit(0));
+        for (int t = 0; t < 100; t++) {
+            mask = SudokuMask.random(t % 82);
+            int[] expected = mask.toIndices();
+            int[] actual = new int[expected.length];
+            int i = 0;
+            for (int ci = mask.nextSetBit(0); ci >= 0; ci = mask.nextSetBit(ci + 1)) {
+                assertTrue(mask.testBit(ci));
+                actual[i++] = ci;
+            }
+            assertArrayEquals(expected, actual);
+        }
+        assertEquals(-1, SudokuMask.full().nextSetBit(81));
+        assertEquals(16, new SudokuMask().setBit(16).nextSetBit(0));
+        assertEquals(17, new SudokuMask().setBit(17).nextSetBit(17));
+    }
+
+    @Test
+    void andOrAndNot_intoDestination() {
+        for (int t = 0; t < 100; t++) {
+            SudokuMask a = SudokuMask.random(t % 82);
+            SudokuMask b = SudokuMask.random((t * 7) % 82);
+            SudokuMask dest = new SudokuMask();
+            assertTrue(dest == SudokuMask.and(a, b, dest));
+            SudokuMask or = SudokuMask.or(a, b, new SudokuMask());
+            SudokuMask andNot = SudokuMask.andNot(a, b, new SudokuMask());
+            for (int ci = 0; ci < 81; ci++) {
+                assertEquals(a.testBit(ci) && b.testBit(ci), dest.testBit(ci));
+                assertEquals(a.testBit(ci) || b.testBit(ci), or.testBit(ci));
+                assertEquals(a.testBit(ci) && !b.testBit(ci), andNot.testBit(ci));
+            }
+            assertEquals(a.bitCount(), andNot.bitCount() + dest.bitCount());
+
+            // Destination can be one of the inputs
+            SudokuMask.andNot(a, a, a);
+            assertTrue(a.isEmpty());
+        }
+    }
+
+    @Test
+    void setAndClear() {
+        SudokuMask other = SudokuMask.random(40);
+        assertTrue(mask == mask.set(other));
+        assertEquals(other, mask);
+        assertTrue(mask == mask.clear());
+        assertTrue(mask.isEmpty());
+        assertEquals(40, other.bitCount());
+    }
+
     @Test
     void intersects() {
         assertFalse(mask.intersects(null));
@@ -2,6 +2,9 @@ package com.metal_pony.bucket.sudoku;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -98,6 +101,23 @@ public class TestSudokuSieve {
         }
     }
 
+    @Test
+    void seedThreaded_afterRemovingItems_findsThemAgain() {
+        List<SudokuMask> combos = sieve.fullPrintCombos(2);
+        sieve.seedThreaded(combos, 3);
+        Set<SudokuMask> expected = sieve.items();
+        int[] expectedMatrix = sieve.reductionMatrix();
+
+        // Seeding again skips every candidate, as all are in the published snapshot
+        assertEquals(0, sieve.seedThreaded(combos, 3));
+
+        List<SudokuMask> removed = sieve.removeOverlapping(40);
+        assertFalse(removed.isEmpty());
+        assertEquals(removed.size(), sieve.seedThreaded(combos, 3));
+        assertEquals(expected, sieve.items());
+        assertArrayEquals(expectedMatrix, sieve.reductionMatrix());
+    }
+
     @Test
     void testRemoveOverlapping_thenAddItemsBack() {
         final int EXPECTED_SIEVE_SIZE = 56;
@@ -122,6 +142,178 @@ public class TestSudokuSieve {
         assertEquals(sieve.size(), EXPECTED_SIEVE_SIZE);
     }
 
+    @Test
+    void testRemoveOverlapping_keepsReductionMatrixInSync() {
+        populateSieveForAllDigitCombos(2);
+        Set<SudokuMask> allItems = sieve.items();
+        int[] matrixBefore = sieve.reductionMatrix();
+
+        SudokuMask cells = new SudokuMask().setBit(0).setBit(40);
+        List<SudokuMask> removed = sieve.removeOverlapping(cells, new ArrayList<>());
+        assertEquals(allItems.size() - removed.size(), sieve.size());
+        int[] matrix = sieve.reductionMatrix();
+        assertEquals(0, matrix[0]);
+        assertEquals(0, matrix[40]);
+        for (SudokuMask item : sieve.items()) {
+            assertFalse(item.testBit(0));
+            assertFalse(item.testBit(40));
+        }
+
+        removed.forEach(item -> assertTrue(sieve.rawAdd(item)));
+        assertEquals(allItems, sieve.items());
+        assertArrayEquals(matrixBefore, sieve.reductionMatrix());
+    }
+
+    @Test
+    void testRemoveOverlapping_whenEmptiedRepeatedly_staysConsistent() {
+        // Emptying the sieve leaves enough removed items for their storage to be reclaimed
+        sieve = new SudokuSieve(new Sudoku(SieveItemsFixture.grid));
+        SieveItemsFixture.items.forEach(item -> sieve.rawAdd(new SudokuMask(item)));
+        Set<SudokuMask> allItems = sieve.items();
+        int[] matrixBefore = sieve.reductionMatrix();
+        for (int n = 0; n < 5; n++) {
+            List<SudokuMask> removed = sieve.removeOverlapping(SudokuMask.full(), new ArrayList<>());
+            assertEquals(allItems.size(), removed.size());
+            assertTrue(sieve.isEmpty());
+            assertArrayEquals(new int[Sudoku.SPACES], sieve.reductionMatrix());
+            assertFalse(sieve.isDerivative(removed.get(0)));
+
+            removed.forEach(item -> assertTrue(sieve.rawAdd(new SudokuMask(item))));
+            assertEquals(allItems, sieve.items());
+            assertArrayEquals(matrixBefore, sieve.reductionMatrix());
+        }
+        for (SudokuMask item : allItems) {
+            assertTrue(sieve.isDerivative(item));
+        }
+    }
+
+    @Test
+    void testKeepMinimal_evictsSupersets() {
+        SudokuMask item = new SudokuMask("001000001000000000001000001000000000000000000000000000000000000000000000000000000");
+        SudokuMask superset = new SudokuMask(item).setBit(80).setBit(79);
+        sieve.setKeepMinimal(true);
+        assertTrue(sieve.rawAdd(superset));
+        assertTrue(sieve.rawAdd(item));
+
+        assertEquals(1, sieve.size());
+        assertEquals(1, sieve.numPruned());
+        assertEquals(Set.of(item), sieve.items());
+        int[] matrix = sieve.reductionMatrix();
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            assertEquals(item.testBit(ci) ? 1 : 0, matrix[ci]);
+        }
+
+        // Supersets of an existing item are refused
+        assertFalse(sieve.rawAdd(superset));
+        assertEquals(2, sieve.numPruned());
+        assertEquals(Set.of(item), sieve.items());
+    }
+
+    @Test
+    void testKeepMinimal_whenRemovedItemIsAddedBack_evictsSupersets() {
+        SudokuMask item = new SudokuMask("001000001000000000001000001000000000000000000000000000000000000000000000000000000");
+        SudokuMask superset = new SudokuMask(item).setBit(80);
+        sieve.rawAdd(item);
+        sieve.remove(item);
+        sieve.rawAdd(superset);
+
+        sieve.setKeepMinimal(true);
+        assertTrue(sieve.rawAdd(item));
+        assertEquals(Set.of(item), sieve.items());
+        assertEquals(1, sieve.numPruned());
+    }
+
+    @Test
+    void testCompact_evictsSupersets() {
+        SudokuMask item = new SudokuMask("001000001000000000001000001000000000000000000000000000000000000000000000000000000");
+        sieve.rawAdd(new SudokuMask(item).setBit(80));
+        sieve.rawAdd(new SudokuMask(item).setBit(79));
+        sieve.rawAdd(item);
+        assertEquals(3, sieve.size());
+
+        assertEquals(2, sieve.compact());
+        assertEquals(1, sieve.size());
+        assertEquals(2, sieve.numPruned());
+        assertEquals(Set.of(item), sieve.items());
+        assertEquals(0, sieve.compact());
+        assertTrue(sieve.isDerivative(new SudokuMask(item).setBit(80)));
+
+        // Evicted items can be added again after compacting
+        assertTrue(sieve.rawAdd(new SudokuMask(item).setBit(80)));
+        assertEquals(2, sieve.size());
+    }
+
+    @Test
+    void testLoad_whenKeepingMinimal_prunesSupersets() throws IOException {
+        SudokuMask item = new SudokuMask("001000001000000000001000001000000000000000000000000000000000000000000000000000000");
+        sieve.rawAdd(item);
+        sieve.rawAdd(new SudokuMask(item).setBit(80));
+        sieve.rawAdd(new SudokuMask(item).setBit(79).setBit(78));
+        File file = File.createTempFile("sieve", SieveCache.FILE_EXTENSION);
+        file.deleteOnExit();
+        assertTrue(sieve.save(file.getPath()));
+
+        assertEquals(3, SudokuSieve.load(file.getPath()).size());
+        SudokuSieve loaded = SudokuSieve.load(file.getPath(), true);
+        assertNotNull(loaded);
+        assertTrue(loaded.isKeepMinimal());
+        assertEquals(Set.of(item), loaded.items());
+        assertEquals(2, loaded.numPruned());
+        int[] matrix = loaded.reductionMatrix();
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            assertEquals(item.testBit(ci) ? 1 : 0, matrix[ci]);
+        }
+    }
+
+    @Test
+    void testDoesMaskSatisfy_matchesItemScan() {
+        sieve = new SudokuSieve(new Sudoku(SieveItemsFixture.grid));
+        SieveItemsFixture.items.forEach(_item -> sieve.rawAdd(_item));
+        for (int t = 0; t < 200; t++) {
+            SudokuMask mask = SudokuMask.random(20 + (t % 40));
+            boolean expected = true;
+            for (SudokuMask item : SieveItemsFixture.items) {
+                if (!item.intersects(mask)) {
+                    expected = false;
+                    break;
+                }
+            }
+            assertEquals(expected, sieve.doesMaskSatisfy(mask));
+        }
+    }
+
+    @Test
+    void testSaveAndLoad_restoresItemsAndReductionMatrix() throws IOException {
+        SudokuSieve sieve = new SudokuSieve(new Sudoku(SieveItemsFixture.grid));
+        for (SudokuMask item : SieveItemsFixture.items) {
+            sieve.rawAdd(new SudokuMask(item));
+        }
+        File file = File.createTempFile("sieve", SieveCache.FILE_EXTENSION);
+        file.deleteOnExit();
+
+        assertTrue(sieve.save(file.getPath()));
+        SudokuSieve loaded = SudokuSieve.load(file.getPath());
+
+        assertNotNull(loaded);
+        assertEquals(SieveItemsFixture.grid, loaded.config().toString());
+        assertEquals(sieve.size(), loaded.size());
+        assertEquals(sieve.items(), loaded.items());
+        assertArrayEquals(sieve.reductionMatrix(), loaded.reductionMatrix());
+        for (SudokuMask item : SieveItemsFixture.items) {
+            assertTrue(loaded.isDerivative(item));
+        }
+    }
+
+    @Test
+    void testLoad_whenFileIsNotASieve_returnsNull() throws IOException {
+        File file = File.createTempFile("sieve", SieveCache.FILE_EXTENSION);
+        file.deleteOnExit();
+        Files.writeString(file.toPath(), configFixtureStr);
+
+        assertNull(SudokuSieve.load(file.getPath()));
+        assertNull(SudokuSieve.load(file.getPath() + ".missing"));
+    }
+
     @Test
     void testIsDerivative() {
         // Always true
@@ -229,4 +421,47 @@ public class TestSudokuSieve {
             sieve.addFromFilter(pMask);
         }
     }
+
+    @Test
+    void testTransform_toCanonicalGrid_keepsItemsValid() {
+        Sudoku grid = new Sudoku(SieveItemsFixture.grid);
+        SudokuSieve original = new SudokuSieve(grid);
+        for (SudokuMask item : SieveItemsFixture.items) {
+            original.rawAdd(new SudokuMask(item));
+        }
+        GridCanonicalizer.Result canonical = GridCanonicalizer.canonicalize(grid.getBoard());
+
+        SudokuSieve transformed = original.transform(canonical.cellMap, canonical.digitMap);
+
+        assertArrayEquals(canonical.digits, transformed.config().getBoard());
+        assertEquals(original.size(), transformed.size());
+        for (SudokuMask item : transformed.items()) {
+            assertTrue(transformed.validate(item));
+        }
+
+        SudokuSieve roundTrip = transformed.transform(canonical.inverseCellMap(), canonical.inverseDigitMap());
+        assertEquals(grid.toString(), roundTrip.config().toString());
+        assertEquals(original.items(), roundTrip.items());
+    }
+
+    @Test
+    void testTransform_whenMapsAreInvalid_throws() {
+        int[] identity = new int[Sudoku.SPACES];
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) identity[ci] = ci;
+
+        int[] repeated = identity.clone();
+        repeated[1] = 0;
+        assertThrows(IllegalArgumentException.class, () -> sieve.transform(repeated, null));
+
+        // Cells 0 and 40 share no row, column, or region.
+        int[] scattered = identity.clone();
+        scattered[0] = 40;
+        scattered[40] = 0;
+        assertThrows(IllegalArgumentException.class, () -> sieve.transform(scattered, null));
+
+        int[] digits = { 0, 1, 2, 3, 4, 5, 6, 7, 8, 8 };
+        assertThrows(IllegalArgumentException.class, () -> sieve.transform(identity, digits));
+        assertThrows(IllegalArgumentException.class, () -> sieve.transform(identity, new int[9]));
+        assertEquals(configFixtureStr, sieve.transform(identity, null).config().toString());
+    }
 }
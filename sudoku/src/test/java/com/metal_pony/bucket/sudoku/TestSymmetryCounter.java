@@ -0,0 +1,67 @@
+package com.metal_pony.bucket.sudoku;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TestSymmetryCounter {
+    /** Clues from a highly symmetric grid, chosen to map onto themselves 2, 4, and 9 ways.*/
+    static final String[] SYMMETRIC_PUZZLES = {
+        ".....67...5..89...7..1..........78....7.....4.9....56.3..6..91............2.45..8",
+        "1......8.4....91.3..9......23...........91....9123..6.3....89.2.....2.4....3.....",
+        "12..5....45..8....78..2.....3....89..6....23..9....56....67..1....91..4....34..7.",
+    };
+
+    @Test
+    void automorphisms_mapPuzzleOntoItself() {
+        for (String puzzleStr : SYMMETRIC_PUZZLES) {
+            int[] board = new Sudoku(puzzleStr).getBoard();
+            List<SymmetryCounter.Automorphism> automorphisms = SymmetryCounter.automorphisms(board, 256);
+            assertTrue(automorphisms.size() > 1);
+            assertEquals(1L, automorphisms.stream().filter(SymmetryCounter.Automorphism::isIdentity).count());
+            for (SymmetryCounter.Automorphism automorphism : automorphisms) {
+                assertArrayEquals(board, automorphism.apply(board));
+            }
+        }
+    }
+
+    @Test
+    void automorphisms_whenAsymmetric_findsOnlyIdentity() {
+        int[] board = new Sudoku("...8.1..........435............7.8........1...2..3....6......75..34........2..6..").getBoard();
+        List<SymmetryCounter.Automorphism> automorphisms = SymmetryCounter.automorphisms(board, 256);
+        assertEquals(1, automorphisms.size());
+        assertTrue(automorphisms.get(0).isIdentity());
+    }
+
+    @Test
+    void automorphisms_stopsAtMax() {
+        // Any relabeling of digits maps the empty grid onto itself
+        assertEquals(100, SymmetryCounter.automorphisms(new int[Sudoku.SPACES], 100).size());
+    }
+
+    @Test
+    void count_matchesSearch() {
+        for (String puzzleStr : SYMMETRIC_PUZZLES) {
+            Sudoku puzzle = new Sudoku(puzzleStr);
+            long expected = puzzle.countSolutions();
+            assertEquals(expected, puzzle.countSolutionsBySymmetry(1));
+            assertEquals(expected, puzzle.countSolutionsBySymmetry(3));
+        }
+
+        Sudoku asymmetric = new Sudoku(SieveItemsFixture.grid);
+        int[] digits = asymmetric.getBoard();
+        for (int ci = 0; ci < Sudoku.SPACES; ci += 2) digits[ci] = 0;
+        Sudoku puzzle = new Sudoku(digits);
+        assertEquals(puzzle.countSolutions(), puzzle.countSolutionsBySymmetry(1));
+    }
+
+    @Test
+    void count_whenCluesConflict_isZero() {
+        int[] digits = new Sudoku(SYMMETRIC_PUZZLES[0]).getBoard();
+        digits[0] = digits[5];
+        assertEquals(0L, new Sudoku(digits).countSolutionsBySymmetry(1));
+        assertThrows(IllegalArgumentException.class, () -> new Sudoku(SYMMETRIC_PUZZLES[0]).countSolutionsBySymmetry(0));
+    }
+}
@@ -0,0 +1,59 @@
+package com.metal_pony.bucket.sudoku;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.metal_pony.bucket.sudoku.util.SudokuMask;
+
+public class TestUnavoidableSetValidator {
+    UnavoidableSetValidator validator;
+
+    @BeforeEach
+    void before() {
+        validator = new UnavoidableSetValidator(new Sudoku(SieveItemsFixture.grid));
+    }
+
+    @Test
+    void constructor_whenGridIsNotSolved_throws() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new UnavoidableSetValidator(Sudoku.configSeed());
+        });
+    }
+
+    @Test
+    void isMinimalUnavoidable_withKnownItems_returnsTrue() {
+        for (SudokuMask item : SieveItemsFixture.items) {
+            assertTrue(validator.isMinimalUnavoidable(item));
+            // Cached result should be the same
+            assertTrue(validator.isMinimalUnavoidable(item));
+        }
+    }
+
+    @Test
+    void isMinimalUnavoidable_withSubsetsOfKnownItems_returnsFalse() {
+        for (SudokuMask item : SieveItemsFixture.items) {
+            int[] indices = item.toIndices();
+            SudokuMask subset = new SudokuMask(item).unsetBit(indices[0]);
+            assertFalse(validator.isMinimalUnavoidable(subset));
+        }
+    }
+
+    @Test
+    void isMinimalUnavoidable_withUnionOfDisjointItems_returnsFalse() {
+        SudokuMask first = SieveItemsFixture.items.get(0);
+        for (SudokuMask other : SieveItemsFixture.items) {
+            if (!first.intersects(other)) {
+                SudokuMask union = new SudokuMask(first).add(other);
+                assertFalse(validator.isMinimalUnavoidable(union));
+            }
+        }
+    }
+
+    @Test
+    void isMinimalUnavoidable_withTooFewCells_returnsFalse() {
+        assertFalse(validator.isMinimalUnavoidable(new SudokuMask()));
+        assertFalse(validator.isMinimalUnavoidable(SudokuMask.random(3)));
+    }
+}
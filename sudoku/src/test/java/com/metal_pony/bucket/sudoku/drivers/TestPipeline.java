@@ -0,0 +1,154 @@
+package com.metal_pony.bucket.sudoku.drivers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.metal_pony.bucket.sudoku.Sudoku;
+import com.metal_pony.bucket.sudoku.util.SudokuMask;
+
+public class TestPipeline {
+    private List<String> inputs;
+
+    @BeforeEach
+    void before() {
+        inputs = new ArrayList<>();
+        IntStream.range(0, 500).forEach(i -> inputs.add(Integer.toString(i)));
+    }
+
+    private static String slowSquare(String input) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int n = Integer.parseInt(input);
+        return input + "," + (n * n);
+    }
+
+    private static List<String> lines(StringWriter out) {
+        return Arrays.asList(out.toString().split("\n"));
+    }
+
+    @Test
+    void run_ordered_writesInInputOrder() throws IOException {
+        StringWriter out = new StringWriter();
+        Pipeline.Stats stats = new Pipeline(TestPipeline::slowSquare).threads(4).capacity(16).run(inputs.iterator(), out);
+
+        List<String> expected = new ArrayList<>();
+        for (String input : inputs) expected.add(slowSquare(input));
+        assertEquals(expected, lines(out));
+        assertEquals(inputs.size(), stats.read);
+        assertEquals(inputs.size(), stats.written);
+        assertEquals(0, stats.errors);
+    }
+
+    @Test
+    void run_unordered_writesEveryResultOnce() throws IOException {
+        StringWriter out = new StringWriter();
+        new Pipeline(TestPipeline::slowSquare).threads(4).capacity(16).ordered(false).run(inputs.iterator(), out);
+
+        List<String> written = lines(out);
+        assertEquals(inputs.size(), written.size());
+        List<String> expected = new ArrayList<>();
+        for (String input : inputs) expected.add(slowSquare(input));
+        assertEquals(new HashSet<>(expected), new HashSet<>(written));
+    }
+
+    @Test
+    void run_keepsAtMostCapacityInFlight() throws IOException {
+        int capacity = 8;
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger maxAhead = new AtomicInteger();
+        StringWriter out = new StringWriter() {
+            int written = 0;
+            @Override
+            public void write(String str) {
+                super.write(str);
+                if (!str.equals("\n")) written++;
+                maxAhead.accumulateAndGet(started.get() - written, Math::max);
+            }
+        };
+        new Pipeline(input -> {
+            started.incrementAndGet();
+            return slowSquare(input);
+        }).threads(4).capacity(capacity).run(inputs.iterator(), out);
+
+        assertTrue(maxAhead.get() <= capacity, "in flight: " + maxAhead.get());
+    }
+
+    @Test
+    void run_whenOperationThrows_writesErrorLine() throws IOException {
+        BufferedReader in = new BufferedReader(new StringReader("1\n\n# comment\nx\n3\n"));
+        StringWriter out = new StringWriter();
+        Pipeline.Stats stats = new Pipeline(TestPipeline::slowSquare).threads(2).run(in, out);
+
+        assertEquals(List.of("1,1", "x,ERROR", "3,9"), lines(out));
+        assertEquals(3, stats.read);
+        assertEquals(1, stats.errors);
+    }
+
+    @Test
+    void run_whenOperationThrowsError_stillFinishesInOrder() throws IOException {
+        StringWriter out = new StringWriter();
+        Pipeline.Stats stats = new Pipeline(input -> {
+            if (input.equals("2")) throw new StackOverflowError();
+            return slowSquare(input);
+        }).threads(2).run(List.of("1", "2", "3").iterator(), out);
+
+        assertEquals(List.of("1,1", "2,ERROR", "3,9"), lines(out));
+        assertEquals(1, stats.errors);
+    }
+
+    @Test
+    void operations() throws IOException {
+        Sudoku grid = Sudoku.generateConfig();
+        Sudoku puzzle = Sudoku.generatePuzzle(grid, 27, null, 0, 0L, false);
+        String input = puzzle.toString() + ",extra,fields\n" + grid.toString() + "\n";
+
+        List<String> solved = run("solve", input);
+        assertEquals(puzzle + "," + grid, solved.get(0));
+        assertEquals(grid + "," + grid, solved.get(1));
+        assertEquals(List.of(puzzle + ",1", grid + ",1"), run("flag", input));
+        assertEquals(List.of(puzzle + ",1", grid + ",1"), run("count", input));
+
+        List<String> prints = run("fingerprint", input);
+        assertEquals(puzzle + "," + grid.fp2(), prints.get(0));
+        assertEquals(grid + "," + grid.fp2(), prints.get(1));
+
+        List<String> canonical = run("canonicalize", grid.toString() + "\n" + new Sudoku(grid).scramble() + "\n");
+        assertEquals(canonical.get(0).split(",")[1], canonical.get(1).split(",")[1]);
+
+        List<String> rated = run("rate", input);
+        assertTrue(rated.get(0).startsWith(puzzle + ",27,"));
+        assertEquals(grid + ",81,0", rated.get(1));
+
+        SudokuMask redundant = puzzle.redundantClues();
+        assertEquals(List.of(puzzle + "," + redundant.bitCount(), grid + ",81"), run("redundant", input));
+        String puzzle17 = ".................1.....2.3.....4.2.5..6..7.....8.9...4...8.3.6..4.....9..5.......";
+        assertEquals(List.of(puzzle17 + ",extra"), run("minimal", grid + "\n" + puzzle17 + ",extra\n" + grid + "\n"));
+
+        assertThrows(IllegalArgumentException.class, () -> Pipeline.operation("nope", List.of()));
+    }
+
+    private List<String> run(String op, String input) throws IOException {
+        StringWriter out = new StringWriter();
+        new Pipeline(Pipeline.operation(op, List.of("fp2")))
+            .threads(2)
+            .run(new BufferedReader(new StringReader(input)), out);
+        return lines(out);
+    }
+}
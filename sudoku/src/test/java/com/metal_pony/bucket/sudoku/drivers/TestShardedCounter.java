@@ -0,0 +1,122 @@
+package com.metal_pony.bucket.sudoku.drivers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.math.BigInteger;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.metal_pony.bucket.sudoku.SieveItemsFixture;
+import com.metal_pony.bucket.sudoku.Sudoku;
+
+public class TestShardedCounter {
+    Sudoku puzzle;
+    long exact;
+
+    @BeforeEach
+    void before() {
+        // 25 clues, a few hundred solutions
+        puzzle = new Sudoku(SieveItemsFixture.grid);
+        for (int n = 0; n < 56; n++) puzzle.setDigit((n * 29) % Sudoku.SPACES, 0);
+        exact = puzzle.countSolutions();
+    }
+
+    private Thread startWorker(int port) {
+        Thread thread = new Thread(() -> {
+            try {
+                ShardedCounter.work("127.0.0.1", port, 1);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    @Test
+    void split_unitsCoverEverySolution() {
+        List<ShardedCounter.Unit> units = new ArrayList<>();
+        long total = ShardedCounter.split(puzzle, 40, units);
+        assertTrue(units.size() >= 40);
+        for (ShardedCounter.Unit unit : units) {
+            total += new Sudoku(unit.grid).countSolutions();
+        }
+        assertEquals(exact, total);
+    }
+
+    @Test
+    void unit_serializeAndParse() {
+        ShardedCounter.Unit unit = new ShardedCounter.Unit(7, puzzle.toString(), "3=4,10=9");
+        ShardedCounter.Unit parsed = ShardedCounter.Unit.parse(unit.serialize());
+        assertEquals(7, parsed.id);
+        assertEquals(puzzle.toString(), parsed.grid);
+        assertEquals("3=4,10=9", parsed.path);
+        assertThrows(IllegalArgumentException.class, () -> ShardedCounter.Unit.parse("7;" + puzzle));
+        assertThrows(IllegalArgumentException.class, () -> ShardedCounter.Unit.parse("x;" + puzzle + ";"));
+    }
+
+    @Test
+    void await_withWorkers_countsExactly() throws Exception {
+        ShardedCounter counter = new ShardedCounter(puzzle, 30);
+        int port = counter.listen(0);
+        Thread w1 = startWorker(port);
+        Thread w2 = startWorker(port);
+
+        assertEquals(BigInteger.valueOf(exact), counter.await());
+        assertEquals(counter.units.size(), counter.numCompleted());
+        w1.join(5000L);
+        w2.join(5000L);
+        assertFalse(w1.isAlive());
+        assertFalse(w2.isAlive());
+    }
+
+    @Test
+    void await_whenWorkerDisconnects_reissuesUnit() throws Exception {
+        ShardedCounter counter = new ShardedCounter(puzzle, 10);
+        int port = counter.listen(0);
+
+        // Takes a unit and disappears
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out.println("HELLO dying");
+            assertTrue(in.readLine().startsWith("UNIT "));
+        }
+
+        startWorker(port);
+        assertEquals(BigInteger.valueOf(exact), counter.await());
+    }
+
+    @Test
+    void await_whenWorkerGoesQuiet_reissuesUnit() throws Exception {
+        ShardedCounter counter = new ShardedCounter(puzzle, 10);
+        counter.workerTimeoutMs = 300L;
+        int port = counter.listen(0);
+
+        // Takes a unit and never answers
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out.println("HELLO hung");
+            assertTrue(in.readLine().startsWith("UNIT "));
+
+            startWorker(port);
+            assertEquals(BigInteger.valueOf(exact), counter.await());
+        }
+    }
+
+    @Test
+    void await_whenSolvedBySplitting_needsNoWorkers() throws Exception {
+        ShardedCounter counter = new ShardedCounter(new Sudoku(SieveItemsFixture.grid), 4);
+        assertTrue(counter.units.isEmpty());
+        assertEquals(BigInteger.ONE, counter.await());
+    }
+}
@@ -0,0 +1,151 @@
+package com.metal_pony.bucket.sudoku.drivers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.metal_pony.bucket.sudoku.Sudoku;
+import com.metal_pony.bucket.sudoku.SudokuSieve;
+import com.metal_pony.bucket.sudoku.util.SudokuMask;
+
+public class TestSieveSearcher {
+    private final String configFixtureStr = "218574639573896124469123578721459386354681792986237415147962853695318247832745961";
+    private final int maxClues = 28;
+    private Sudoku grid;
+    private SudokuSieve sieve;
+    private SudokuMask baseMask;
+
+    @BeforeEach
+    void before() {
+        grid = new Sudoku(configFixtureStr);
+        sieve = new SudokuSieve(grid);
+        sieve.seed(sieve.fullPrintCombos(2));
+
+        // Search for puzzles around a known one, with some of its clues taken out.
+        Sudoku puzzle = Sudoku.generatePuzzle(grid, maxClues, sieve, 0, 0L, false, true);
+        baseMask = new SudokuMask(puzzle.toString().replace('.', '0'));
+        int[] clues = baseMask.toIndices();
+        for (int i = 0; i < 5; i++) {
+            baseMask.unsetBit(clues[i * 4]);
+        }
+    }
+
+    @Test
+    void workUnit_serializeAndParse() {
+        SieveSearcher.WorkUnit unit = new SieveSearcher.WorkUnit(new int[]{3, 80, 0}, SudokuMask.random(20));
+        SieveSearcher.WorkUnit parsed = SieveSearcher.WorkUnit.parse(unit.serialize());
+        assertArrayEquals(unit.prefix, parsed.prefix);
+        assertEquals(unit.seenMask, parsed.seenMask);
+
+        SieveSearcher.WorkUnit root = SieveSearcher.WorkUnit.parse(new SieveSearcher.WorkUnit(new int[0], new SudokuMask()).serialize());
+        assertEquals(0, root.prefix.length);
+
+        assertThrows(IllegalArgumentException.class, () -> SieveSearcher.WorkUnit.parse("1,2,3"));
+        assertThrows(IllegalArgumentException.class, () -> SieveSearcher.WorkUnit.parse("1,x;0"));
+    }
+
+    @Test
+    void search_findsSamePuzzlesWithAnyNumberOfThreads() {
+        Set<String> singleThreaded = fewestClues(new SieveSearcher(sieve, baseMask).search(maxClues, 1));
+        Set<String> multiThreaded = fewestClues(new SieveSearcher(sieve, baseMask).search(maxClues, 3));
+
+        assertFalse(singleThreaded.isEmpty());
+        assertEquals(singleThreaded, multiThreaded);
+        for (String puzzleStr : singleThreaded) {
+            Sudoku puzzle = new Sudoku(puzzleStr);
+            assertEquals(1, puzzle.solutionsFlag());
+            assertEquals(configFixtureStr, puzzle.solution().toString());
+            assertTrue(new SudokuMask(puzzleStr.replace('.', '0')).hasBitsSet(baseMask));
+        }
+    }
+
+    @Test
+    void search_whenStoppedAndResumed_findsSamePuzzles() throws Exception {
+        Set<String> expected = fewestClues(new SieveSearcher(sieve, baseMask).search(maxClues, 2));
+
+        File checkpoint = File.createTempFile("sieve-search", ".txt");
+        checkpoint.deleteOnExit();
+
+        SieveSearcher stopped = new SieveSearcher(sieve, baseMask);
+        stopped.checkpointTo(checkpoint.getPath(), 60_000L);
+        Thread thread = new Thread(() -> stopped.search(maxClues, 2));
+        thread.start();
+        Thread.sleep(100L);
+        stopped.stop();
+        thread.join();
+        stopped.writeCheckpoint();
+
+        SieveSearcher resumed = new SieveSearcher(sieve, baseMask);
+        assertTrue(resumed.resumeFrom(checkpoint.getPath()));
+        assertEquals(expected, fewestClues(resumed.search(maxClues, 2)));
+    }
+
+    @Test
+    void resumeFrom_checkpointTakenWhileSplitting_findsSamePuzzles() throws Exception {
+        int splitDepth = 5;
+        Set<String> expected = fewestClues(new SieveSearcher(sieve, baseMask, splitDepth).search(maxClues, 2));
+
+        File checkpoint = File.createTempFile("sieve-search", ".txt");
+        checkpoint.deleteOnExit();
+        SieveSearcher running = new SieveSearcher(sieve, baseMask, splitDepth);
+        running.checkpointTo(checkpoint.getPath(), 60_000L);
+        Thread thread = new Thread(() -> running.search(maxClues, 3));
+        thread.start();
+
+        // Checkpoint over and over while walkers replace units with their children
+        List<List<String>> snapshots = new ArrayList<>();
+        while (thread.isAlive()) {
+            running.writeCheckpoint();
+            List<String> lines = Files.readAllLines(checkpoint.toPath());
+            if (lines.stream().anyMatch(line -> line.startsWith("unit "))) {
+                snapshots.add(lines);
+            }
+        }
+        thread.join();
+        assertFalse(snapshots.isEmpty());
+
+        for (int i = 0; i < 3; i++) {
+            List<String> lines = snapshots.get(i * (snapshots.size() - 1) / 2);
+            Files.write(checkpoint.toPath(), lines);
+            SieveSearcher resumed = new SieveSearcher(sieve, baseMask, splitDepth);
+            assertTrue(resumed.resumeFrom(checkpoint.getPath()));
+            assertEquals(expected, fewestClues(resumed.search(maxClues, 2)));
+        }
+    }
+
+    @Test
+    void resumeFrom_whenGridDiffers_throws() throws IOException {
+        File checkpoint = File.createTempFile("sieve-search", ".txt");
+        checkpoint.deleteOnExit();
+        SieveSearcher searcher = new SieveSearcher(sieve, baseMask);
+        searcher.checkpointTo(checkpoint.getPath(), 60_000L);
+        searcher.writeCheckpoint();
+
+        SudokuSieve otherSieve = new SudokuSieve(Sudoku.configSeed().solution());
+        assertThrows(IllegalArgumentException.class, () -> {
+            new SieveSearcher(otherSieve, baseMask).resumeFrom(checkpoint.getPath());
+        });
+    }
+
+    /** Keeps only the puzzles with the fewest clues. Which others get found depends on timing.*/
+    private Set<String> fewestClues(List<String> puzzles) {
+        int fewest = Sudoku.SPACES;
+        for (String puzzle : puzzles) {
+            fewest = Math.min(fewest, new Sudoku(puzzle).numClues());
+        }
+        Set<String> result = new HashSet<>();
+        for (String puzzle : puzzles) {
+            if (new Sudoku(puzzle).numClues() == fewest) result.add(puzzle);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,207 @@
+package com.metal_pony.bucket.sudoku.drivers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.metal_pony.bucket.sudoku.SieveItemsFixture;
+import com.metal_pony.bucket.sudoku.Sudoku;
+
+public class TestSudokuService {
+    SudokuService service;
+    HttpClient client;
+    String base;
+    Sudoku puzzle;
+
+    @BeforeEach
+    void before() throws Exception {
+        service = new SudokuService(2);
+        int port = service.start("127.0.0.1", 0);
+        base = "http://127.0.0.1:" + port;
+        client = HttpClient.newHttpClient();
+
+        // 25 clues, a few hundred solutions
+        puzzle = new Sudoku(SieveItemsFixture.grid);
+        for (int n = 0; n < 56; n++) puzzle.setDigit((n * 29) % Sudoku.SPACES, 0);
+    }
+
+    @AfterEach
+    void after() {
+        service.stop();
+    }
+
+    private HttpResponse<String> get(String pathAndQuery) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + pathAndQuery)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String,Object> json(HttpResponse<String> response) {
+        return new Gson().fromJson(response.body(), Map.class);
+    }
+
+    @Test
+    void solve_returnsSolution() throws Exception {
+        Sudoku unique = new Sudoku(SieveItemsFixture.grid);
+        unique.setDigit(0, 0);
+        unique.setDigit(40, 0);
+        HttpResponse<String> response = get("/solve?grid=" + unique);
+        assertEquals(200, response.statusCode());
+        assertEquals(SieveItemsFixture.grid, json(response).get("solution"));
+    }
+
+    @Test
+    void count_stopsAtMaxOrCountsAll() throws Exception {
+        long exact = puzzle.countSolutions();
+
+        Map<String,Object> all = json(get("/count?grid=" + puzzle));
+        assertEquals((double) exact, all.get("count"));
+        assertEquals(true, all.get("complete"));
+
+        Map<String,Object> some = json(get("/count?max=10&grid=" + puzzle));
+        assertEquals(10.0, some.get("count"));
+        assertEquals(false, some.get("complete"));
+    }
+
+    @Test
+    void flagAndFingerprint_postedAsForm() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/flag"))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString("grid=" + puzzle))
+            .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertEquals((double) puzzle.solutionsFlag(), json(response).get("flag"));
+
+        Map<String,Object> prints = json(get("/fingerprint?grid=" + SieveItemsFixture.grid));
+        assertNotNull(prints.get("fp2"));
+    }
+
+    @Test
+    void generate_hasRequestedClues() throws Exception {
+        HttpResponse<String> response = get("/generate?clues=30");
+        assertEquals(200, response.statusCode());
+        Sudoku generated = new Sudoku((String) json(response).get("puzzle"));
+        assertEquals(30, generated.numClues());
+        assertEquals(1, generated.countSolutions());
+    }
+
+    @Test
+    void errors_mapToStatusCodes() throws Exception {
+        assertEquals(400, get("/solve?grid=123").statusCode());
+        assertEquals(400, get("/solve").statusCode());
+        assertEquals(400, get("/generate?clues=5").statusCode());
+        assertEquals(404, get("/nope").statusCode());
+
+        // The empty grid can't be counted in 50 ms; either a partial count or a timeout.
+        HttpResponse<String> response = get("/count?deadlineMs=50&grid=" + new Sudoku());
+        if (response.statusCode() == 200) {
+            assertEquals(false, json(response).get("complete"));
+        } else {
+            assertEquals(504, response.statusCode());
+        }
+    }
+
+    @Test
+    void slowCount_doesNotHoldUpQuickRequests() throws Exception {
+        // Runs until its deadline on one thread; the other keeps serving
+        CompletableFuture<HttpResponse<String>> count = client.sendAsync(
+            HttpRequest.newBuilder(URI.create(base + "/count?deadlineMs=3000&grid=" + new Sudoku())).GET().build(),
+            HttpResponse.BodyHandlers.ofString()
+        );
+        Thread.sleep(100L);
+
+        long start = System.nanoTime();
+        for (int n = 0; n < 5; n++) {
+            assertEquals(200, get("/flag?deadlineMs=1000&grid=" + puzzle).statusCode());
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000L);
+        assertFalse(count.isDone());
+        assertEquals(200, count.get().statusCode());
+    }
+
+    @Test
+    void count_whenNoSolutions_stopsAtDeadline() throws Exception {
+        // Sparse but unsolvable: 1 and 2 both have only the bottom-right cell left in the last region.
+        // Search order is random, and most searches take seconds to run out, so a few are tried.
+        Sudoku unsolvable = new Sudoku(
+            "......1.........2.................1.......2...........1..2......2..1............."
+        );
+        SudokuService single = new SudokuService(1, 4, 8);
+        int port = single.start("127.0.0.1", 0);
+        try {
+            String url = "http://127.0.0.1:" + port;
+            for (int n = 0; n < 5; n++) {
+                HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(URI.create(url + "/count?deadlineMs=100&grid=" + unsolvable)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString()
+                );
+                if (response.statusCode() == 200) {
+                    assertEquals(0.0, json(response).get("count"));
+                    assertEquals(false, json(response).get("complete"));
+                } else {
+                    assertEquals(504, response.statusCode());
+                }
+
+                // The only solver thread is free again soon after the deadline
+                long start = System.nanoTime();
+                HttpResponse<String> flag = client.send(
+                    HttpRequest.newBuilder(URI.create(url + "/flag?deadlineMs=2000&grid=" + puzzle)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString()
+                );
+                assertEquals(200, flag.statusCode());
+                assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1500L);
+            }
+        } finally {
+            single.stop();
+        }
+    }
+
+    @Test
+    void fullQueue_rejectsRequests() throws Exception {
+        SudokuService small = new SudokuService(1, 4, 1);
+        int port = small.start("127.0.0.1", 0);
+        try {
+            String url = "http://127.0.0.1:" + port + "/count?deadlineMs=2000&grid=" + new Sudoku();
+            HttpRequest slow = HttpRequest.newBuilder(URI.create(url)).GET().build();
+            // The first is taken by the only thread, the second fills the queue
+            CompletableFuture<HttpResponse<String>> running = client.sendAsync(slow, HttpResponse.BodyHandlers.ofString());
+            Thread.sleep(200L);
+            CompletableFuture<HttpResponse<String>> queued = client.sendAsync(slow, HttpResponse.BodyHandlers.ofString());
+            Thread.sleep(200L);
+
+            assertEquals(503, client.send(slow, HttpResponse.BodyHandlers.ofString()).statusCode());
+            assertEquals(200, running.get().statusCode());
+            assertNotEquals(503, queued.get().statusCode());
+        } finally {
+            small.stop();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void metrics_countRequestsPerOperation() throws Exception {
+        get("/solve?grid=" + puzzle);
+        get("/solve?grid=" + puzzle);
+        get("/flag?grid=" + puzzle);
+
+        Map<String,Object> metrics = json(get("/metrics"));
+        Map<String,Object> ops = (Map<String,Object>) metrics.get("operations");
+        Map<String,Object> solve = (Map<String,Object>) ops.get("solve");
+        Map<String,Object> flag = (Map<String,Object>) ops.get("flag");
+        assertEquals(2.0, solve.get("requests"));
+        assertEquals(1.0, flag.get("requests"));
+        assertTrue(((Double) metrics.get("batches")) >= 1.0);
+    }
+}
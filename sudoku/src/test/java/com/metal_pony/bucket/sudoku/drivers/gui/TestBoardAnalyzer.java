@@ -0,0 +1,136 @@
+package com.metal_pony.bucket.sudoku.drivers.gui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.metal_pony.bucket.sudoku.SieveItemsFixture;
+import com.metal_pony.bucket.sudoku.Sudoku;
+
+public class TestBoardAnalyzer {
+    int[] solution;
+    BoardAnalyzer analyzer;
+
+    @BeforeEach
+    void before() {
+        solution = new Sudoku(SieveItemsFixture.grid).getBoard();
+        analyzer = new BoardAnalyzer(analysis -> {});
+    }
+
+    @Test
+    void compute_whenOneCellEmpty_hintsNakedSingle() {
+        int[] digits = solution.clone();
+        digits[40] = 0;
+        BoardAnalyzer.Analysis analysis = analyzer.compute(digits, 0L);
+        assertEquals(1, analysis.solutionsFlag);
+        assertArrayEquals(solution, analysis.solution);
+        assertEquals(Sudoku.ENCODER[solution[40]], analysis.candidates[40]);
+        assertEquals(40, analysis.hintCell);
+        assertEquals(solution[40], analysis.hintDigit);
+        assertEquals("naked single", analysis.hintReason);
+    }
+
+    @Test
+    void compute_whenDigitRepeats_flagsConflicts() {
+        int[] digits = new int[Sudoku.SPACES];
+        digits[0] = 5;
+        digits[8] = 5;
+        BoardAnalyzer.Analysis analysis = analyzer.compute(digits, 0L);
+        assertEquals(0, analysis.solutionsFlag);
+        assertNull(analysis.solution);
+        assertTrue(analysis.conflicts[0]);
+        assertTrue(analysis.conflicts[8]);
+        assertFalse(analysis.conflicts[1]);
+    }
+
+    @Test
+    void compute_whenEmpty_findsASolution() {
+        BoardAnalyzer.Analysis analysis = analyzer.compute(new int[Sudoku.SPACES], 0L);
+        assertEquals(2, analysis.solutionsFlag);
+        assertFalse(analysis.hasHint());
+        for (int ci = 0; ci < Sudoku.SPACES; ci++) {
+            assertEquals((1 << Sudoku.DIGITS) - 1, analysis.candidates[ci]);
+        }
+        assertNotNull(analysis.solution);
+        assertTrue(new Sudoku(analysis.solution).isSolved());
+    }
+
+    @Test
+    void compute_whenSparseAndUnsolvable_reportsNoSolution() {
+        // The last two cells of the top row need 8 and 9, but 9 is taken in both their columns.
+        int[] digits = new int[Sudoku.SPACES];
+        for (int ci = 0; ci < 7; ci++) {
+            digits[ci] = ci + 1;
+        }
+        digits[43] = 9;
+        digits[71] = 9;
+        BoardAnalyzer.Analysis analysis = analyzer.compute(digits, 0L);
+        for (boolean conflict : analysis.conflicts) {
+            assertFalse(conflict);
+        }
+        assertEquals(0, analysis.solutionsFlag);
+        assertNull(analysis.solution);
+    }
+
+    @Test
+    void compute_whenUniqueButNoSingle_hintsFromSolution() {
+        // A 17-clue puzzle; checks every hint is correct, whichever way it was found.
+        Sudoku puzzle = new Sudoku("...8.1..........435............7.8........1...2..3....6......75..34........2..6..");
+        int[] answer = puzzle.solution().getBoard();
+        BoardAnalyzer.Analysis analysis = analyzer.compute(puzzle.getBoard(), 0L);
+        assertEquals(1, analysis.solutionsFlag);
+        assertArrayEquals(answer, analysis.solution);
+        assertTrue(analysis.hasHint());
+        assertEquals(answer[analysis.hintCell], analysis.hintDigit);
+    }
+
+    @Test
+    void findSingle_findsHiddenSingle() {
+        int[] digits = new int[Sudoku.SPACES];
+        // 1 is ruled out of row 0 everywhere but cell 0.
+        digits[Sudoku.ROW_INDICES[1][3]] = 1;
+        digits[Sudoku.ROW_INDICES[2][6]] = 1;
+        for (int c = 1; c < 3; c++) digits[Sudoku.COL_INDICES[c][5]] = 1;
+        int[] candidates = analyzer.compute(digits, 0L).candidates;
+        assertArrayEquals(new int[] { 0, 1, 2 }, BoardAnalyzer.findSingle(digits, candidates));
+    }
+
+    @Test
+    void analyze_publishesOnlyTheLatestEdit() throws Exception {
+        List<BoardAnalyzer.Analysis> received = new CopyOnWriteArrayList<>();
+        List<Boolean> onEdt = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        int[] digits = solution.clone();
+        BoardAnalyzer edits = new BoardAnalyzer(analysis -> {
+            received.add(analysis);
+            onEdt.add(SwingUtilities.isEventDispatchThread());
+            if (analysis.digits[0] == 0) done.countDown();
+        });
+
+        for (int ci = Sudoku.SPACES - 1; ci >= 0; ci--) {
+            digits[ci] = 0;
+            edits.analyze(digits);
+        }
+        assertTrue(done.await(10L, TimeUnit.SECONDS));
+        // Let any straggling EDT task run
+        SwingUtilities.invokeAndWait(() -> {});
+        edits.shutdown();
+
+        BoardAnalyzer.Analysis last = received.get(received.size() - 1);
+        assertEquals(0, last.digits[0]);
+        assertEquals(2, last.solutionsFlag);
+        assertTrue(received.size() < Sudoku.SPACES);
+        assertFalse(onEdt.contains(false));
+        for (int i = 1; i < received.size(); i++) {
+            assertTrue(received.get(i - 1).generation < received.get(i).generation);
+        }
+    }
+}